@@ -111,6 +111,26 @@ public class AnalyzerModuleConfig extends ModuleConfig {
     @Getter
     private String segmentStatusAnalysisStrategy = FROM_SPAN_STATUS.name();
 
+    /**
+     * The max number of the counter series kept for the MAL increase and rate functions. The least recently used
+     * series are evicted beyond it.
+     *
+     * @since 9.2.0
+     */
+    @Setter
+    @Getter
+    private long malCounterWindowMaxSeries = 1_000_000L;
+
+    /**
+     * The counter series of the MAL increase and rate functions not reported in this period are evicted, such as the
+     * series of the rotated pods. Unit is minute.
+     *
+     * @since 9.2.0
+     */
+    @Setter
+    @Getter
+    private long malCounterWindowExpiration = 15L;
+
     private List<Integer> virtualPeers;
 
     /**
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.analyzer.provider;
 import java.util.List;
 
 import lombok.Getter;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.analyzer.module.AnalyzerModule;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfigs;
@@ -47,6 +48,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 public class AnalyzerModuleProvider extends ModuleProvider {
     @Getter
@@ -95,6 +97,9 @@ public class AnalyzerModuleProvider extends ModuleProvider {
         moduleConfig.setUninstrumentedGatewaysConfig(uninstrumentedGatewaysConfig);
         moduleConfig.setTraceSamplingPolicyWatcher(traceSamplingPolicyWatcher);
 
+        CounterWindow.INSTANCE.configure(
+            moduleConfig.getMalCounterWindowMaxSeries(), moduleConfig.getMalCounterWindowExpiration());
+
         segmentParserService = new SegmentParserServiceImpl(getManager(), moduleConfig);
         this.registerServiceImplementation(ISegmentParserService.class, segmentParserService);
 
@@ -106,6 +111,9 @@ public class AnalyzerModuleProvider extends ModuleProvider {
 
     @Override
     public void start() throws ModuleStartException {
+        CounterWindow.INSTANCE.initMetrics(
+            getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
+
         // load official analysis
         getManager().find(CoreModule.NAME)
                     .provider()
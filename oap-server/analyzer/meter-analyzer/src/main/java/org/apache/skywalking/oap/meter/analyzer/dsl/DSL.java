@@ -48,6 +48,18 @@ public final class DSL {
      * @return Expression object could be executed.
      */
     public static Expression parse(final String expression) {
+        return parse(expression, true);
+    }
+
+    /**
+     * Parse string literal to Expression object, which can be reused.
+     *
+     * @param expression string literal represents the DSL expression.
+     * @param compile    compile the expression to run it without the Groovy dynamic dispatch, the expression out of
+     *                   the supported syntax is still run by Groovy.
+     * @return Expression object could be executed.
+     */
+    public static Expression parse(final String expression, final boolean compile) {
         CompilerConfiguration cc = new CompilerConfiguration();
         cc.setScriptBaseClass(DelegatingScript.class.getName());
         ImportCustomizer icz = new ImportCustomizer();
@@ -78,6 +90,6 @@ public final class DSL {
 
         GroovyShell sh = new GroovyShell(new Binding(), cc);
         DelegatingScript script = (DelegatingScript) sh.parse(expression);
-        return new Expression(expression, script);
+        return new Expression(expression, script, compile ? closure -> (DelegatingScript) sh.parse(closure) : null);
     }
 }
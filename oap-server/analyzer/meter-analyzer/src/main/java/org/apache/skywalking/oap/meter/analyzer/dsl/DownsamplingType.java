@@ -22,5 +22,7 @@ package org.apache.skywalking.oap.meter.analyzer.dsl;
  * DownsamplingType indicates the downsampling type of meter function
  */
 public enum DownsamplingType {
-    AVG, SUM, LATEST
+    AVG, SUM, LATEST,
+    // Merge the histogram into a quantile sketch, only for histogram_percentile.
+    SKETCH
 }
@@ -19,11 +19,13 @@
 package org.apache.skywalking.oap.meter.analyzer.dsl;
 
 import com.google.common.collect.ImmutableMap;
+import groovy.lang.Closure;
 import groovy.lang.ExpandoMetaClass;
 import groovy.lang.GroovyObjectSupport;
 import groovy.util.DelegatingScript;
 import java.time.Instant;
 import java.util.Map;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -40,10 +42,36 @@ public class Expression {
 
     private final DelegatingScript expression;
 
+    /**
+     * The expression compiled by {@link ExpressionCompiler}, or null if it is run by Groovy.
+     */
+    private final ExpressionCompiler.Operation compiled;
+
     public Expression(final String literal, final DelegatingScript expression) {
+        this(literal, expression, null);
+    }
+
+    /**
+     * @param scriptParser parses the closures in the expression to compile it, or null to run the expression by
+     *                     Groovy.
+     */
+    public Expression(final String literal, final DelegatingScript expression,
+                      final Function<String, DelegatingScript> scriptParser) {
         this.literal = literal;
         this.expression = expression;
         this.empower();
+        this.compiled = scriptParser == null ? null : ExpressionCompiler.compile(literal, closure -> {
+            DelegatingScript script = scriptParser.apply("return " + closure);
+            script.setDelegate(new ExpressionDelegate(literal));
+            return (Closure<?>) script.run();
+        });
+    }
+
+    /**
+     * @return true if the expression is compiled, rather than run by Groovy.
+     */
+    public boolean isCompiled() {
+        return compiled != null;
     }
 
     /**
@@ -75,7 +103,7 @@ public class Expression {
     public Result run(final Map<String, SampleFamily> sampleFamilies) {
         PROPERTY_REPOSITORY.set(sampleFamilies);
         try {
-            SampleFamily sf = (SampleFamily) expression.run();
+            SampleFamily sf = compiled != null ? compiled.apply(sampleFamilies) : (SampleFamily) expression.run();
             if (sf == SampleFamily.EMPTY) {
                 if (!ExpressionParsingContext.get().isPresent()) {
                     if (log.isDebugEnabled()) {
@@ -93,6 +121,28 @@ public class Expression {
         }
     }
 
+    /**
+     * Look up the sample family referred by the expression.
+     */
+    static SampleFamily sampleFamily(final String literal, final String metricName,
+                                     final Map<String, SampleFamily> sampleFamilies) {
+        ExpressionParsingContext.get().ifPresent(ctx -> {
+            if (!ctx.samples.contains(metricName)) {
+                ctx.samples.add(metricName);
+            }
+        });
+        if (sampleFamilies == null) {
+            return SampleFamily.EMPTY;
+        }
+        if (sampleFamilies.containsKey(metricName)) {
+            return sampleFamilies.get(metricName);
+        }
+        if (!ExpressionParsingContext.get().isPresent()) {
+            log.warn("{} referred by \"{}\" doesn't exist in {}", metricName, literal, sampleFamilies.keySet());
+        }
+        return SampleFamily.EMPTY;
+    }
+
     private void empower() {
         expression.setDelegate(new ExpressionDelegate(literal));
         extendNumber(Number.class);
@@ -113,26 +163,12 @@ public class Expression {
         public static final DownsamplingType AVG = DownsamplingType.AVG;
         public static final DownsamplingType SUM = DownsamplingType.SUM;
         public static final DownsamplingType LATEST = DownsamplingType.LATEST;
+        public static final DownsamplingType SKETCH = DownsamplingType.SKETCH;
 
         private final String literal;
 
         public SampleFamily propertyMissing(String metricName) {
-            ExpressionParsingContext.get().ifPresent(ctx -> {
-                if (!ctx.samples.contains(metricName)) {
-                    ctx.samples.add(metricName);
-                }
-            });
-            Map<String, SampleFamily> sampleFamilies = PROPERTY_REPOSITORY.get();
-            if (sampleFamilies == null) {
-                return SampleFamily.EMPTY;
-            }
-            if (sampleFamilies.containsKey(metricName)) {
-                return sampleFamilies.get(metricName);
-            }
-            if (!ExpressionParsingContext.get().isPresent()) {
-                log.warn("{} referred by \"{}\" doesn't exist in {}", metricName, literal, sampleFamilies.keySet());
-            }
-            return SampleFamily.EMPTY;
+            return sampleFamily(literal, metricName, PROPERTY_REPOSITORY.get());
         }
 
         public Number time() {
@@ -0,0 +1,846 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableSet;
+import groovy.lang.Closure;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.tagOpt.K8sRetagType;
+import org.apache.skywalking.oap.server.core.analysis.Layer;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+
+/**
+ * ExpressionCompiler compiles the MAL expression into a tree of {@link Operation}s, in which every operator and
+ * method of {@link SampleFamily} is bound at the compiling time, so running the expression doesn't go through the
+ * Groovy dynamic dispatch.
+ *
+ * The closures in the expression, such as the argument of {@link SampleFamily#tag(Closure)}, are still compiled by
+ * Groovy, and called by the bound methods. The expression out of the supported syntax, such as the property access
+ * and the binary operations between numbers, is not compiled, and it is run by Groovy as before.
+ */
+@Slf4j
+final class ExpressionCompiler {
+    private static final Set<String> RESERVED = ImmutableSet.of(
+        "as", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue", "def",
+        "default", "do", "double", "else", "enum", "extends", "false", "final", "finally", "float", "for", "goto",
+        "if", "implements", "import", "in", "instanceof", "int", "interface", "long", "new", "null", "package",
+        "private", "protected", "public", "return", "short", "static", "super", "switch", "this", "throw",
+        "throws", "trait", "true", "try", "var", "void", "while",
+        // properties of the script and the delegate
+        "binding", "delegate", "literal", "metaClass", "out", "properties"
+    );
+
+    /**
+     * A compiled expression, or a part of it, which results in a {@link SampleFamily}.
+     */
+    @FunctionalInterface
+    interface Operation {
+        SampleFamily apply(Map<String, SampleFamily> sampleFamilies);
+    }
+
+    private final String literal;
+
+    private final Function<String, Closure<?>> closureParser;
+
+    private int pos;
+
+    /**
+     * The depth of the parentheses and the brackets, in which the new line doesn't end the statement.
+     */
+    private int nesting;
+
+    private ExpressionCompiler(final String literal, final Function<String, Closure<?>> closureParser) {
+        this.literal = literal;
+        this.closureParser = closureParser;
+    }
+
+    /**
+     * Compile the expression.
+     *
+     * @param literal       string literal represents the DSL expression.
+     * @param closureParser parses the string literal of a closure in the expression.
+     * @return the compiled expression, or null if the expression is out of the supported syntax.
+     */
+    static Operation compile(final String literal, final Function<String, Closure<?>> closureParser) {
+        final ExpressionCompiler compiler = new ExpressionCompiler(literal, closureParser);
+        try {
+            final Operand result = compiler.parseExpression();
+            compiler.skipWhitespace();
+            if (compiler.pos < literal.length()) {
+                throw compiler.unsupported("unexpected '" + literal.charAt(compiler.pos) + "'");
+            }
+            if (result.family == null) {
+                throw compiler.unsupported("the result isn't a sample family");
+            }
+            return result.family;
+        } catch (UnsupportedSyntaxException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("\"{}\" is run by Groovy: {}", literal, e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private Operand parseExpression() {
+        Operand left = parseMultiplicative();
+        while (true) {
+            final int mark = pos;
+            final boolean newLine = skipWhitespace();
+            final char c = peek(0);
+            if (c != '+' && c != '-') {
+                pos = mark;
+                return left;
+            }
+            checkBinaryOperator(newLine, c);
+            pos++;
+            left = binary(c, left, parseMultiplicative());
+        }
+    }
+
+    private Operand parseMultiplicative() {
+        Operand left = parseUnary();
+        while (true) {
+            final int mark = pos;
+            final boolean newLine = skipWhitespace();
+            final char c = peek(0);
+            if (c != '*' && c != '/') {
+                pos = mark;
+                return left;
+            }
+            checkBinaryOperator(newLine, c);
+            pos++;
+            left = binary(c, left, parseUnary());
+        }
+    }
+
+    private void checkBinaryOperator(final boolean newLine, final char c) {
+        if (newLine && nesting == 0) {
+            throw unsupported("'" + c + "' at the beginning of a line");
+        }
+        final char next = peek(1);
+        if (next == c || next == '=' || next == '>' || c == '/' && next == '*') {
+            throw unsupported("operator '" + c + next + "'");
+        }
+    }
+
+    private Operand parseUnary() {
+        skipWhitespace();
+        final char c = peek(0);
+        if (c == '-') {
+            if (peek(1) == '-' || peek(1) == '=') {
+                throw unsupported("operator '-" + peek(1) + "'");
+            }
+            pos++;
+            return negative(parseUnary());
+        }
+        if (c == '+' || c == '!' || c == '~') {
+            throw unsupported("unary operator '" + c + "'");
+        }
+        return parsePostfix();
+    }
+
+    private Operand parsePostfix() {
+        Operand operand = parsePrimary();
+        while (true) {
+            final int mark = pos;
+            skipWhitespace();
+            if (peek(0) != '.') {
+                pos = mark;
+                return operand;
+            }
+            pos++;
+            final String method = parseIdentifier();
+            if (peek(0) != '(') {
+                throw unsupported("property access of '" + method + "'");
+            }
+            pos++;
+            final List<Operand> args = parseArguments(')');
+            final int end = pos;
+            skipWhitespace();
+            if (peek(0) == '{') {
+                throw unsupported("trailing closure of '" + method + "'");
+            }
+            pos = end;
+            operand = call(operand, method, args);
+        }
+    }
+
+    private Operand parsePrimary() {
+        skipWhitespace();
+        final char c = peek(0);
+        if (c == '(') {
+            pos++;
+            nesting++;
+            final Operand operand = parseExpression();
+            skipWhitespace();
+            expect(')');
+            nesting--;
+            return operand;
+        }
+        if (c >= '0' && c <= '9') {
+            return Operand.constant(parseNumber());
+        }
+        final String name = parseIdentifier();
+        if (RESERVED.contains(name)) {
+            throw unsupported("keyword or property '" + name + "'");
+        }
+        if (peek(0) == '(') {
+            if (!"time".equals(name)) {
+                throw unsupported("function '" + name + "'");
+            }
+            pos++;
+            if (!parseArguments(')').isEmpty()) {
+                throw unsupported("arguments of time()");
+            }
+            return Operand.number(() -> Instant.now().getEpochSecond());
+        }
+        if (Character.isUpperCase(name.charAt(0))) {
+            return Operand.constant(parseConstant(name));
+        }
+        return Operand.family(sampleFamilies -> Expression.sampleFamily(literal, name, sampleFamilies));
+    }
+
+    private Object parseConstant(final String name) {
+        try {
+            switch (name) {
+                case "AVG":
+                case "SUM":
+                case "LATEST":
+                case "SKETCH":
+                    return DownsamplingType.valueOf(name);
+                case "Layer":
+                    return Layer.valueOf(parseEnumConstant(name));
+                case "DetectPoint":
+                    return DetectPoint.valueOf(parseEnumConstant(name));
+                case "K8sRetagType":
+                    return K8sRetagType.valueOf(parseEnumConstant(name));
+                default:
+                    throw unsupported("class or constant '" + name + "'");
+            }
+        } catch (IllegalArgumentException e) {
+            throw unsupported("unknown constant of '" + name + "'");
+        }
+    }
+
+    private String parseEnumConstant(final String type) {
+        if (peek(0) != '.') {
+            throw unsupported("class '" + type + "'");
+        }
+        pos++;
+        return parseIdentifier();
+    }
+
+    private List<Operand> parseArguments(final char close) {
+        nesting++;
+        final List<Operand> args = new ArrayList<>();
+        skipWhitespace();
+        if (peek(0) == close) {
+            pos++;
+        } else {
+            while (true) {
+                args.add(parseArgument());
+                skipWhitespace();
+                if (peek(0) == ',') {
+                    pos++;
+                    skipWhitespace();
+                    if (peek(0) == close) {
+                        pos++;
+                        break;
+                    }
+                } else {
+                    expect(close);
+                    break;
+                }
+            }
+        }
+        nesting--;
+        return args;
+    }
+
+    private Operand parseArgument() {
+        skipWhitespace();
+        switch (peek(0)) {
+            case '\'':
+            case '"':
+                return Operand.constant(parseString());
+            case '[':
+                pos++;
+                final List<Object> list = new ArrayList<>();
+                for (final Operand element : parseArguments(']')) {
+                    if (!(element.constant instanceof String) && !(element.constant instanceof Number)) {
+                        throw unsupported("list element isn't a string or a number");
+                    }
+                    list.add(element.constant);
+                }
+                return Operand.constant(list);
+            case '{':
+                return Operand.constant(parseClosure());
+            default:
+                return parseExpression();
+        }
+    }
+
+    private String parseString() {
+        final char quote = peek(0);
+        if (peek(1) == quote && peek(2) == quote) {
+            throw unsupported("triple-quoted string");
+        }
+        pos++;
+        final StringBuilder sb = new StringBuilder();
+        while (true) {
+            final char c = peek(0);
+            if (c == quote) {
+                pos++;
+                return sb.toString();
+            }
+            if (c == 0 || c == '\n' || c == '\r') {
+                throw unsupported("unclosed string");
+            }
+            if (c == '$' && quote == '"') {
+                throw unsupported("GString");
+            }
+            pos++;
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            final char escaped = peek(0);
+            pos++;
+            switch (escaped) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case '\\':
+                case '\'':
+                case '"':
+                case '$':
+                    sb.append(escaped);
+                    break;
+                case 'u':
+                    if (pos + 4 > literal.length()) {
+                        throw unsupported("unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(literal.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw unsupported("unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw unsupported("escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    /**
+     * Find the closure by matching the braces, and let Groovy compile it.
+     */
+    private Closure<?> parseClosure() {
+        final int start = pos;
+        int depth = 0;
+        while (true) {
+            final char c = peek(0);
+            if (c == 0) {
+                throw unsupported("unclosed closure");
+            }
+            if (c == '\'' || c == '"') {
+                skipString(c);
+                continue;
+            }
+            if (c == '/' && (peek(1) == '/' || peek(1) == '*')) {
+                throw unsupported("comment in closure");
+            }
+            pos++;
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                break;
+            }
+        }
+        try {
+            return closureParser.apply(literal.substring(start, pos));
+        } catch (RuntimeException e) {
+            throw unsupported("closure isn't parsed, " + e.getMessage());
+        }
+    }
+
+    private void skipString(final char quote) {
+        final boolean triple = peek(1) == quote && peek(2) == quote;
+        pos += triple ? 3 : 1;
+        while (true) {
+            final char c = peek(0);
+            if (c == 0) {
+                throw unsupported("unclosed string");
+            }
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == quote && (!triple || peek(1) == quote && peek(2) == quote)) {
+                pos += triple ? 3 : 1;
+                return;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    private Number parseNumber() {
+        final int start = pos;
+        if (peek(0) == '0' && (Character.isDigit(peek(1)) || Character.isLetter(peek(1)))) {
+            throw unsupported("number radix");
+        }
+        skipDigits();
+        boolean decimal = false;
+        if (peek(0) == '.' && Character.isDigit(peek(1))) {
+            decimal = true;
+            pos++;
+            skipDigits();
+        }
+        if (peek(0) == 'e' || peek(0) == 'E') {
+            decimal = true;
+            pos++;
+            if (peek(0) == '+' || peek(0) == '-') {
+                pos++;
+            }
+            if (!Character.isDigit(peek(0))) {
+                throw unsupported("number exponent");
+            }
+            skipDigits();
+        }
+        final String number = literal.substring(start, pos);
+        final char suffix = Character.toLowerCase(peek(0));
+        if (Character.isLetter(suffix) || peek(0) == '_') {
+            pos++;
+        }
+        if (isIdentifierPart(peek(0))) {
+            throw unsupported("number '" + literal.substring(start, pos + 1) + "'");
+        }
+        try {
+            switch (suffix) {
+                case 'i':
+                    return decimal ? unsupportedNumber(number) : Integer.valueOf(number);
+                case 'l':
+                    return decimal ? unsupportedNumber(number) : Long.valueOf(number);
+                case 'g':
+                    return decimal ? new BigDecimal(number) : new BigInteger(number);
+                case 'd':
+                    return Double.valueOf(number);
+                case 'f':
+                    return Float.valueOf(number);
+                default:
+                    if (Character.isLetter(suffix) || suffix == '_') {
+                        return unsupportedNumber(number + suffix);
+                    }
+            }
+            if (decimal) {
+                return new BigDecimal(number);
+            }
+            final BigInteger integer = new BigInteger(number);
+            if (integer.bitLength() < Integer.SIZE) {
+                return integer.intValue();
+            }
+            if (integer.bitLength() < Long.SIZE) {
+                return integer.longValue();
+            }
+            return integer;
+        } catch (NumberFormatException e) {
+            return unsupportedNumber(number);
+        }
+    }
+
+    private Number unsupportedNumber(final String number) {
+        throw unsupported("number '" + number + "'");
+    }
+
+    private void skipDigits() {
+        while (Character.isDigit(peek(0))) {
+            pos++;
+        }
+    }
+
+    private String parseIdentifier() {
+        final int start = pos;
+        if (!Character.isJavaIdentifierStart(peek(0))) {
+            throw unsupported(peek(0) == 0 ? "unexpected end" : "unexpected '" + peek(0) + "'");
+        }
+        pos++;
+        while (isIdentifierPart(peek(0))) {
+            pos++;
+        }
+        return literal.substring(start, pos);
+    }
+
+    private static boolean isIdentifierPart(final char c) {
+        return c != 0 && Character.isJavaIdentifierPart(c);
+    }
+
+    /**
+     * @return true if the skipped whitespaces include a new line.
+     */
+    private boolean skipWhitespace() {
+        boolean newLine = false;
+        while (pos < literal.length()) {
+            final char c = literal.charAt(pos);
+            if (c == '\n' || c == '\r') {
+                newLine = true;
+            } else if (c != ' ' && c != '\t' && c != '\f') {
+                break;
+            }
+            pos++;
+        }
+        return newLine;
+    }
+
+    private void expect(final char c) {
+        if (peek(0) != c) {
+            throw unsupported(peek(0) == 0 ? "'" + c + "' is expected" : "unexpected '" + peek(0) + "'");
+        }
+        pos++;
+    }
+
+    private char peek(final int offset) {
+        final int i = pos + offset;
+        return i < literal.length() ? literal.charAt(i) : 0;
+    }
+
+    private Operand negative(final Operand operand) {
+        if (operand.family != null) {
+            final Operation family = operand.family;
+            return Operand.family(sampleFamilies -> family.apply(sampleFamilies).negative());
+        }
+        final Object n = operand.constant;
+        if (n instanceof Integer) {
+            return Operand.constant(-(Integer) n);
+        } else if (n instanceof Long) {
+            return Operand.constant(-(Long) n);
+        } else if (n instanceof Double) {
+            return Operand.constant(-(Double) n);
+        } else if (n instanceof Float) {
+            return Operand.constant(-(Float) n);
+        } else if (n instanceof BigDecimal) {
+            return Operand.constant(((BigDecimal) n).negate());
+        } else if (n instanceof BigInteger) {
+            return Operand.constant(((BigInteger) n).negate());
+        }
+        throw unsupported("negative of non sample family");
+    }
+
+    private Operand binary(final char operator, final Operand left, final Operand right) {
+        final Operation l = left.family;
+        final Operation r = right.family;
+        if (l != null && r != null) {
+            switch (operator) {
+                case '+':
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).plus(r.apply(sampleFamilies)));
+                case '-':
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).minus(r.apply(sampleFamilies)));
+                case '*':
+                    return Operand.family(
+                        sampleFamilies -> l.apply(sampleFamilies).multiply(r.apply(sampleFamilies)));
+                default:
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).div(r.apply(sampleFamilies)));
+            }
+        }
+        if (l != null && right.number != null) {
+            final Supplier<Number> n = right.number;
+            switch (operator) {
+                case '+':
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).plus(n.get()));
+                case '-':
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).minus(n.get()));
+                case '*':
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).multiply(n.get()));
+                default:
+                    return Operand.family(sampleFamilies -> l.apply(sampleFamilies).div(n.get()));
+            }
+        }
+        if (left.number != null && r != null) {
+            // Same as the extended Number methods in Expression.
+            final Supplier<Number> n = left.number;
+            switch (operator) {
+                case '+':
+                    return Operand.family(sampleFamilies -> r.apply(sampleFamilies).plus(n.get()));
+                case '-':
+                    return Operand.family(sampleFamilies -> r.apply(sampleFamilies).minus(n.get()).negative());
+                case '*':
+                    return Operand.family(sampleFamilies -> r.apply(sampleFamilies).multiply(n.get()));
+                default:
+                    return Operand.family(sampleFamilies -> {
+                        final double v = n.get().doubleValue();
+                        return r.apply(sampleFamilies).newValue(s -> v / s);
+                    });
+            }
+        }
+        throw unsupported("operator '" + operator + "' without sample family");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Operand call(final Operand receiver, final String method, final List<Operand> args) {
+        final Operation f = receiver.family;
+        if (f == null) {
+            throw unsupported("method '" + method + "' of non sample family");
+        }
+        switch (method + "/" + args.size()) {
+            case "negative/0":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).negative());
+            case "irate/0":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).irate());
+            case "histogram/0":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).histogram());
+            case "histogram/1": {
+                final String le = arg(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).histogram(le));
+            }
+            case "histogram_percentile/1": {
+                final List<Integer> percentiles = list(args, 0, Integer.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).histogram_percentile(percentiles));
+            }
+            case "increase/1": {
+                final String range = arg(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).increase(range));
+            }
+            case "rate/1": {
+                final String range = arg(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).rate(range));
+            }
+            case "valueEqual/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueEqual(v));
+            }
+            case "valueNotEqual/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueNotEqual(v));
+            }
+            case "valueGreater/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueGreater(v));
+            }
+            case "valueGreaterEqual/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueGreaterEqual(v));
+            }
+            case "valueLess/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueLess(v));
+            }
+            case "valueLessEqual/1": {
+                final double v = arg(args, 0, Number.class).doubleValue();
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).valueLessEqual(v));
+            }
+            case "plus/1":
+                return binary('+', receiver, args.get(0));
+            case "minus/1":
+                return binary('-', receiver, args.get(0));
+            case "multiply/1":
+                return binary('*', receiver, args.get(0));
+            case "div/1":
+                return binary('/', receiver, args.get(0));
+            case "sum/1": {
+                final List<String> by = list(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).sum(by));
+            }
+            case "max/1": {
+                final List<String> by = list(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).max(by));
+            }
+            case "min/1": {
+                final List<String> by = list(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).min(by));
+            }
+            case "avg/1": {
+                final List<String> by = list(args, 0, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).avg(by));
+            }
+            case "tag/1": {
+                final Closure<?> cl = arg(args, 0, Closure.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).tag(cl));
+            }
+            case "filter/1": {
+                final Closure<Boolean> cl = arg(args, 0, Closure.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).filter(cl));
+            }
+            case "downsampling/1": {
+                final DownsamplingType type = arg(args, 0, DownsamplingType.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).downsampling(type));
+            }
+            case "retagByK8sMeta/4": {
+                final String newLabelName = arg(args, 0, String.class);
+                final K8sRetagType type = arg(args, 1, K8sRetagType.class);
+                final String existingLabelName = arg(args, 2, String.class);
+                final String namespaceLabelName = arg(args, 3, String.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).retagByK8sMeta(
+                    newLabelName, type, existingLabelName, namespaceLabelName));
+            }
+            case "service/2": {
+                final List<String> labelKeys = list(args, 0, String.class);
+                final Layer layer = arg(args, 1, Layer.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).service(labelKeys, layer));
+            }
+            case "service/3": {
+                final List<String> labelKeys = list(args, 0, String.class);
+                final String delimiter = arg(args, 1, String.class);
+                final Layer layer = arg(args, 2, Layer.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).service(labelKeys, delimiter, layer));
+            }
+            case "instance/3": {
+                final List<String> serviceKeys = list(args, 0, String.class);
+                final List<String> instanceKeys = list(args, 1, String.class);
+                final Layer layer = arg(args, 2, Layer.class);
+                return Operand.family(
+                    sampleFamilies -> f.apply(sampleFamilies).instance(serviceKeys, instanceKeys, layer));
+            }
+            case "instance/6": {
+                final List<String> serviceKeys = list(args, 0, String.class);
+                final String serviceDelimiter = arg(args, 1, String.class);
+                final List<String> instanceKeys = list(args, 2, String.class);
+                final String instanceDelimiter = arg(args, 3, String.class);
+                final Layer layer = arg(args, 4, Layer.class);
+                final Closure<Map<String, String>> propertiesExtractor = arg(args, 5, Closure.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).instance(
+                    serviceKeys, serviceDelimiter, instanceKeys, instanceDelimiter, layer, propertiesExtractor));
+            }
+            case "endpoint/3": {
+                final List<String> serviceKeys = list(args, 0, String.class);
+                final List<String> endpointKeys = list(args, 1, String.class);
+                final Layer layer = arg(args, 2, Layer.class);
+                return Operand.family(
+                    sampleFamilies -> f.apply(sampleFamilies).endpoint(serviceKeys, endpointKeys, layer));
+            }
+            case "serviceRelation/4": {
+                final DetectPoint detectPoint = arg(args, 0, DetectPoint.class);
+                final List<String> sourceServiceKeys = list(args, 1, String.class);
+                final List<String> destServiceKeys = list(args, 2, String.class);
+                final Layer layer = arg(args, 3, Layer.class);
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).serviceRelation(
+                    detectPoint, sourceServiceKeys, destServiceKeys, layer));
+            }
+            default:
+                return tagFilter(f, method, args);
+        }
+    }
+
+    /**
+     * The tag filters take the labels as varargs.
+     */
+    private Operand tagFilter(final Operation f, final String method, final List<Operand> args) {
+        if (!method.startsWith("tag") || "tag".equals(method)) {
+            throw unsupported("method '" + method + "' with " + args.size() + " arguments");
+        }
+        final String[] labels = new String[args.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = arg(args, i, String.class);
+        }
+        switch (method) {
+            case "tagEqual":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).tagEqual(labels));
+            case "tagNotEqual":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).tagNotEqual(labels));
+            case "tagMatch":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).tagMatch(labels));
+            case "tagNotMatch":
+                return Operand.family(sampleFamilies -> f.apply(sampleFamilies).tagNotMatch(labels));
+            default:
+                throw unsupported("method '" + method + "' with " + args.size() + " arguments");
+        }
+    }
+
+    private <T> T arg(final List<Operand> args, final int index, final Class<T> type) {
+        final Object constant = args.get(index).constant;
+        if (!type.isInstance(constant)) {
+            throw unsupported("argument " + index + " isn't " + type.getSimpleName());
+        }
+        return type.cast(constant);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> list(final List<Operand> args, final int index, final Class<T> elementType) {
+        final List<?> list = arg(args, index, List.class);
+        for (final Object element : list) {
+            if (!elementType.isInstance(element)) {
+                throw unsupported("element of argument " + index + " isn't " + elementType.getSimpleName());
+            }
+        }
+        return (List<T>) list;
+    }
+
+    private UnsupportedSyntaxException unsupported(final String reason) {
+        return new UnsupportedSyntaxException(reason + " at " + pos);
+    }
+
+    /**
+     * Operand is a sample family, a number, or a constant argument. A number literal is both a number and a
+     * constant.
+     */
+    private static final class Operand {
+        private final Operation family;
+
+        private final Supplier<Number> number;
+
+        private final Object constant;
+
+        private Operand(final Operation family, final Supplier<Number> number, final Object constant) {
+            this.family = family;
+            this.number = number;
+            this.constant = constant;
+        }
+
+        static Operand family(final Operation family) {
+            return new Operand(family, null, null);
+        }
+
+        static Operand number(final Supplier<Number> number) {
+            return new Operand(null, number, null);
+        }
+
+        static Operand constant(final Object constant) {
+            if (constant instanceof Number) {
+                final Number n = (Number) constant;
+                return new Operand(null, () -> n, n);
+            }
+            return new Operand(null, null, constant);
+        }
+    }
+
+    private static final class UnsupportedSyntaxException extends RuntimeException {
+        UnsupportedSyntaxException(final String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -18,69 +18,214 @@
 
 package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import lombok.AccessLevel;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
-import lombok.ToString;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
 
 /**
  * CounterWindow stores a series of counter samples in order to calculate the increase
  * or instant rate of increase.
  *
+ * The number of the series is bounded, and the series not reported in the expiration time are removed, such as the
+ * series of the rotated pods. The samples of every series are kept in primitive ring buffers.
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@ToString
-@EqualsAndHashCode
 public class CounterWindow {
 
     public static final CounterWindow INSTANCE = new CounterWindow();
 
-    private final Map<ID, Tuple2<Long, Double>> lastElementMap = new ConcurrentHashMap<>();
-    private final Map<ID, Queue<Tuple2<Long, Double>>> windows = new ConcurrentHashMap<>();
+    private static final long DEFAULT_MAX_SERIES = 1_000_000L;
+    private static final long DEFAULT_EXPIRATION_MINUTES = 15L;
+
+    private volatile Cache<ID, Series> windows = buildWindows(DEFAULT_MAX_SERIES, DEFAULT_EXPIRATION_MINUTES);
+    private volatile GaugeMetrics seriesGauge;
+    private volatile CounterMetrics evictionCounter;
+
+    private CounterWindow() {
+        initMetrics(new MetricsCreatorNoop());
+    }
+
+    /**
+     * Replace the stored series by an empty store of the given bounds.
+     *
+     * @param maxSeries         the max number of the series, the least recently used ones are evicted beyond it.
+     * @param expirationMinutes the series not reported in this period are evicted.
+     */
+    public void configure(long maxSeries, long expirationMinutes) {
+        final Cache<ID, Series> previous = windows;
+        windows = buildWindows(maxSeries, expirationMinutes);
+        previous.invalidateAll();
+    }
+
+    /**
+     * Report the number of the series and the evicted series through the given metrics creator.
+     */
+    public void initMetrics(MetricsCreator metricsCreator) {
+        seriesGauge = metricsCreator.createGauge(
+            "mal_counter_window_series", "The number of the counter series stored for the MAL increase and rate",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        seriesGauge.setValue(windows.size());
+        evictionCounter = metricsCreator.createCounter(
+            "mal_counter_window_evicted_count", "The number of the counter series evicted as expired or over the size",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
 
     public Tuple2<Long, Double> increase(String name, ImmutableMap<String, String> labels, Double value, long windowSize, long now) {
-        ID id = new ID(name, labels);
-        Queue<Tuple2<Long, Double>> window = windows.computeIfAbsent(id, unused -> new PriorityQueue<>());
-        window.offer(Tuple.of(now, value));
-        long waterLevel = now - windowSize;
-        Tuple2<Long, Double> peek = window.peek();
-        if (peek._1 > waterLevel) {
-            return peek;
+        return series(name, labels).increase(value, windowSize, now);
+    }
+
+    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
+        return series(name, labels).pop(value, now);
+    }
+
+    public void reset() {
+        windows.invalidateAll();
+    }
+
+    private Series series(String name, ImmutableMap<String, String> labels) {
+        final ID id = new ID(name, labels);
+        final Cache<ID, Series> windows = this.windows;
+        Series series = windows.getIfPresent(id);
+        if (series == null) {
+            final Series created = new Series();
+            series = windows.asMap().putIfAbsent(id, created);
+            if (series == null) {
+                seriesGauge.inc();
+                series = created;
+            }
         }
+        return series;
+    }
 
-        Tuple2<Long, Double> result = peek;
-        while (peek._1 < waterLevel) {
-            result = window.poll();
-            peek = window.element();
+    private Cache<ID, Series> buildWindows(long maxSeries, long expirationMinutes) {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(maxSeries)
+                           .expireAfterAccess(expirationMinutes, TimeUnit.MINUTES)
+                           .<ID, Series>removalListener(notification -> {
+                               if (notification.getCause() == RemovalCause.REPLACED) {
+                                   return;
+                               }
+                               seriesGauge.dec();
+                               if (notification.wasEvicted()) {
+                                   evictionCounter.inc();
+                               }
+                           })
+                           .build();
+    }
+
+    /**
+     * The samples of a series ordered by the timestamp, then the value, in the ring buffers.
+     */
+    private static class Series {
+        private long[] timestamps = new long[4];
+        private double[] values = new double[4];
+        private int head;
+        private int size;
+
+        /**
+         * The last sample for {@link #pop(double, long)}.
+         */
+        private boolean hasLast;
+        private long lastTimestamp;
+        private double lastValue;
+
+        /**
+         * Add the sample, and remove the samples older than the window.
+         *
+         * @return the sample closest to the start of the window.
+         */
+        synchronized Tuple2<Long, Double> increase(double value, long windowSize, long now) {
+            offer(now, value);
+            final long waterLevel = now - windowSize;
+            if (timestamp(0) > waterLevel) {
+                return Tuple.of(timestamp(0), value(0));
+            }
+
+            long resultTimestamp = timestamp(0);
+            double resultValue = value(0);
+            while (size > 1 && timestamp(0) < waterLevel) {
+                resultTimestamp = timestamp(0);
+                resultValue = value(0);
+                head = index(1);
+                size--;
+            }
+
+            // Choose the closed slot to the expected timestamp
+            if (waterLevel - resultTimestamp <= timestamp(0) - waterLevel) {
+                return Tuple.of(resultTimestamp, resultValue);
+            }
+            return Tuple.of(timestamp(0), value(0));
         }
 
-        // Choose the closed slot to the expected timestamp
-        if (waterLevel - result._1 <= peek._1 - waterLevel) {
+        /**
+         * Replace the last sample by the given one.
+         *
+         * @return the last sample, or the given one if there is no last sample.
+         */
+        synchronized Tuple2<Long, Double> pop(double value, long now) {
+            final Tuple2<Long, Double> result = hasLast ? Tuple.of(lastTimestamp, lastValue) : Tuple.of(now, value);
+            hasLast = true;
+            lastTimestamp = now;
+            lastValue = value;
             return result;
         }
 
-        return peek;
-    }
+        private void offer(long timestamp, double value) {
+            if (size == timestamps.length) {
+                grow();
+            }
+            // Mostly the samples arrive in order, insert from the tail.
+            int position = size;
+            while (position > 0) {
+                final long previousTimestamp = timestamp(position - 1);
+                if (previousTimestamp < timestamp
+                    || previousTimestamp == timestamp && value(position - 1) <= value) {
+                    break;
+                }
+                final int from = index(position - 1);
+                final int to = index(position);
+                timestamps[to] = timestamps[from];
+                values[to] = values[from];
+                position--;
+            }
+            final int index = index(position);
+            timestamps[index] = timestamp;
+            values[index] = value;
+            size++;
+        }
 
-    public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
-        ID id = new ID(name, labels);
+        private void grow() {
+            final long[] newTimestamps = new long[timestamps.length << 1];
+            final double[] newValues = new double[values.length << 1];
+            for (int i = 0; i < size; i++) {
+                newTimestamps[i] = timestamp(i);
+                newValues[i] = value(i);
+            }
+            timestamps = newTimestamps;
+            values = newValues;
+            head = 0;
+        }
 
-        Tuple2<Long, Double> element = Tuple.of(now, value);
-        Tuple2<Long, Double> result = lastElementMap.put(id, element);
-        if (result == null) {
-            return element;
+        private long timestamp(int i) {
+            return timestamps[index(i)];
         }
-        return result;
-    }
 
-    public void reset() {
-        windows.clear();
+        private double value(int i) {
+            return values[index(i)];
+        }
+
+        private int index(int i) {
+            return (head + i) & (timestamps.length - 1);
+        }
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ExpressionCompilerTest {
+    private static final String RULES_DIR = "../../server-starter/src/main/resources";
+
+    private static final String[] RULE_PATHS = {
+        "otel-oc-rules",
+        "meter-analyzer-config",
+        "envoy-metrics-rules",
+        "fetcher-prom-rules",
+        "zabbix-rules",
+        "log-mal-rules"
+    };
+
+    @Test
+    public void testCompiled() {
+        final String[] expressions = {
+            "foo",
+            "-foo",
+            "(foo + bar) * 2 / -bar - 1.5",
+            "100 - foo.tagEqual('a', 'b', \"c\", 'd\\'').sum(['a', 'c'])",
+            "foo.valueGreater(-1).valueLessEqual(1e3).irate().sum(['a'])",
+            "foo.tagMatch('a', 'b|c').filter({ tags -> tags.a == 'b' })",
+            "foo.tag({ tags -> tags.a = 'k8s::' + tags.a }).service(['a'], Layer.GENERAL)",
+            "foo.sum(['a', 'b'])\n  .instance(['a'], '.', ['b'], '.', Layer.GENERAL, { tags -> ['b': tags.b] })",
+            "foo.retagByK8sMeta('service', K8sRetagType.Pod2Service, 'pod', 'namespace')",
+            "foo.histogram('le').histogram_percentile([50, 99]).endpoint(['a'], ['b'], Layer.GENERAL)",
+            "foo.plus(bar).div(2).serviceRelation(DetectPoint.CLIENT, ['a'], ['b'], Layer.GENERAL).downsampling(SUM)",
+            "foo.increase('PT1M') / time()",
+        };
+        for (final String expression : expressions) {
+            assertThat(expression, DSL.parse(expression).isCompiled(), is(true));
+        }
+    }
+
+    @Test
+    public void testFallbackToGroovy() {
+        final String[] expressions = {
+            "foo.sum(['a']).service(['a'], Layer.GENERAL).downsampling(AVG) * (1 + 2)",
+            "foo.sum(['a'])\n- bar.sum(['a'])",
+            "foo.tag { tags -> tags.a = 'b' }",
+            "foo.tagEqual(\"a\", \"${'b'}\")",
+            "foo.labels",
+            "foo.unknown('a')",
+            "foo.sum(['a']) % 2",
+        };
+        for (final String expression : expressions) {
+            assertThat(expression, DSL.parse(expression).isCompiled(), is(false));
+        }
+    }
+
+    @Test
+    public void testSameResultAsGroovy() {
+        final ImmutableMap<String, SampleFamily> input = of(
+            "foo", SampleFamilyBuilder.newBuilder(
+                Sample.builder().labels(of("a", "1", "b", "x")).value(4).name("foo").build(),
+                Sample.builder().labels(of("a", "2", "b", "y")).value(8).name("foo").build()
+            ).build(),
+            "bar", SampleFamilyBuilder.newBuilder(
+                Sample.builder().labels(of("a", "1", "b", "x")).value(2).name("bar").build(),
+                Sample.builder().labels(of("a", "2", "b", "z")).value(16).name("bar").build()
+            ).build()
+        );
+        final String[] expressions = {
+            "foo + bar",
+            "10 - foo * bar",
+            "100 / (foo.sum(['a']) + 1) - -bar.sum(['a'])",
+            "foo.tagNotEqual('b', 'x').tag({ tags -> tags.c = tags.a + '-' + tags.b })",
+            "foo.filter({ tags -> tags.b != 'x' }).plus(1.5)",
+            "foo.valueGreater(5).minus(bar)",
+            "missing + foo",
+        };
+        for (final String expression : expressions) {
+            final Expression compiled = DSL.parse(expression);
+            assertThat(expression, compiled.isCompiled(), is(true));
+            assertThat(expression, compiled.run(input), is(DSL.parse(expression, false).run(input)));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBundledRules() throws Exception {
+        int count = 0;
+        for (final String path : RULE_PATHS) {
+            final File[] files = new File(RULES_DIR, path).listFiles();
+            assertTrue(path, files != null);
+            for (final File file : files) {
+                final Map<String, Object> rule;
+                try (Reader reader = new FileReader(file)) {
+                    rule = new Yaml().load(reader);
+                }
+                if (rule == null) {
+                    continue;
+                }
+                final String expSuffix = (String) rule.get("expSuffix");
+                final List<Map<String, String>> metricsRules = (List<Map<String, String>>) rule.get("metricsRules");
+                if (metricsRules == null) {
+                    continue;
+                }
+                for (final Map<String, String> metricsRule : metricsRules) {
+                    final String exp = Strings.isNullOrEmpty(expSuffix) ?
+                        metricsRule.get("exp") : String.format("(%s).%s", metricsRule.get("exp"), expSuffix);
+                    final Expression compiled = DSL.parse(exp);
+                    assertThat(file + ": " + exp, compiled.isCompiled(), is(true));
+                    final ExpressionParsingContext want = DSL.parse(exp, false).parse();
+                    assertTrue(file + ": " + exp, Objects.equals(compiled.parse(), want));
+                    count++;
+                }
+            }
+        }
+        assertTrue(count > 0);
+    }
+}
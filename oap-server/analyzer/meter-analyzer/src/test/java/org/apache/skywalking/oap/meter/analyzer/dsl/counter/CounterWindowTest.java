@@ -22,6 +22,8 @@ import com.google.common.collect.Lists;
 import io.vavr.Tuple2;
 import java.time.Duration;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -93,4 +95,56 @@ public class CounterWindowTest {
 
         Assert.assertArrayEquals(new double[] {0, 1d, 2d, 3d, 4d, 0d, 1d, 2d}, actuals, 0.d);
     }
+
+    @Test
+    public void testSameAsPriorityQueue() {
+        ImmutableMap<String, String> labels = ImmutableMap.of("pod", "same-as-priority-queue");
+        PriorityQueue<Tuple2<Long, Double>> expectedWindow = new PriorityQueue<>();
+        Random random = new Random(0);
+        long now = parse("2020-09-11T11:11:00.00Z").toEpochMilli();
+        for (int i = 0; i < 2000; i++) {
+            // Mostly in order, some samples are late.
+            now += random.nextInt(10) == 0 ? -random.nextInt(60_000) : random.nextInt(15_000);
+            double value = random.nextInt(100);
+            long windowSize = 60_000L * (1 + random.nextInt(5));
+
+            expectedWindow.offer(new Tuple2<>(now, value));
+            long waterLevel = now - windowSize;
+            Tuple2<Long, Double> expected = expectedWindow.peek();
+            if (expected._1 <= waterLevel) {
+                Tuple2<Long, Double> peek = expected;
+                while (peek._1 < waterLevel) {
+                    expected = expectedWindow.poll();
+                    peek = expectedWindow.element();
+                }
+                if (waterLevel - expected._1 > peek._1 - waterLevel) {
+                    expected = peek;
+                }
+            }
+
+            Assert.assertEquals(expected, CounterWindow.INSTANCE.increase("test", labels, value, windowSize, now));
+        }
+    }
+
+    @Test
+    public void testMaxSeries() {
+        CounterWindow.INSTANCE.configure(2, 15);
+        try {
+            long now = parse("2020-09-11T11:11:00.00Z").toEpochMilli();
+            for (int pod = 0; pod < 3; pod++) {
+                CounterWindow.INSTANCE.pop("test", ImmutableMap.of("pod", "pod" + pod), 1d, now);
+            }
+            // The least recently used series is evicted, it restarts from the given sample.
+            Assert.assertEquals(
+                new Tuple2<>(now + 1, 2d),
+                CounterWindow.INSTANCE.pop("test", ImmutableMap.of("pod", "pod0"), 2d, now + 1)
+            );
+            Assert.assertEquals(
+                new Tuple2<>(now, 1d),
+                CounterWindow.INSTANCE.pop("test", ImmutableMap.of("pod", "pod2"), 2d, now + 1)
+            );
+        } finally {
+            CounterWindow.INSTANCE.configure(1_000_000, 15);
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis;
+
+import java.util.Calendar;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compare {@link TimeBucket} with the conversion through a {@link Calendar} per call, which is how it was implemented
+ * before. The setup verifies both produce the same results for all the timestamps of the benchmark.
+ */
+@BenchmarkMode({Mode.Throughput})
+@Threads(4)
+public class TimeBucketBenchmark extends AbstractMicrobenchmark {
+    private static final int SIZE = 1024;
+
+    @State(Scope.Thread)
+    public static class Timestamps {
+        private final long[] timestamps = new long[SIZE];
+        private final long[] secondTimeBuckets = new long[SIZE];
+        private final long[] output = new long[SIZE];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random random = new Random(0);
+            final long now = System.currentTimeMillis();
+            for (int i = 0; i < SIZE; i++) {
+                // The spans of a batch are received within minutes, a few of them are from the day before.
+                timestamps[i] = now - (random.nextInt(10) == 0 ? 86_400_000L : 0) - random.nextInt(600_000);
+            }
+            for (final DownSampling downsampling : new DownSampling[] {
+                DownSampling.Second,
+                DownSampling.Minute,
+                DownSampling.Hour,
+                DownSampling.Day
+            }) {
+                for (final long timestamp : timestamps) {
+                    final long timeBucket = getTimeBucketByCalendar(timestamp, downsampling);
+                    if (timeBucket != TimeBucket.getTimeBucket(timestamp, downsampling)
+                        || getTimestampByCalendar(timeBucket, downsampling)
+                        != TimeBucket.getTimestamp(timeBucket, downsampling)) {
+                        throw new IllegalStateException("Different results of " + timestamp + " in " + downsampling);
+                    }
+                }
+            }
+            for (int i = 0; i < SIZE; i++) {
+                secondTimeBuckets[i] = getTimeBucketByCalendar(timestamps[i], DownSampling.Second);
+            }
+        }
+    }
+
+    @Benchmark
+    public long calendarTimeBucket(Timestamps state) {
+        long sum = 0;
+        for (final long timestamp : state.timestamps) {
+            sum += getTimeBucketByCalendar(timestamp, DownSampling.Second);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long timeBucket(Timestamps state) {
+        long sum = 0;
+        for (final long timestamp : state.timestamps) {
+            sum += TimeBucket.getTimeBucket(timestamp, DownSampling.Second);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long[] bulkTimeBuckets(Timestamps state) {
+        TimeBucket.getTimeBuckets(state.timestamps, DownSampling.Second, state.output);
+        return state.output;
+    }
+
+    @Benchmark
+    public long calendarTimestamp(Timestamps state) {
+        long sum = 0;
+        for (final long timeBucket : state.secondTimeBuckets) {
+            sum += getTimestampByCalendar(timeBucket, DownSampling.Second);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long timestamp(Timestamps state) {
+        long sum = 0;
+        for (final long timeBucket : state.secondTimeBuckets) {
+            sum += TimeBucket.getTimestamp(timeBucket, DownSampling.Second);
+        }
+        return sum;
+    }
+
+    private static long getTimeBucketByCalendar(long timestamp, DownSampling downsampling) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp);
+
+        long year = calendar.get(Calendar.YEAR);
+        long month = calendar.get(Calendar.MONTH) + 1;
+        long day = calendar.get(Calendar.DAY_OF_MONTH);
+        long hour = calendar.get(Calendar.HOUR_OF_DAY);
+        long minute = calendar.get(Calendar.MINUTE);
+        long second = calendar.get(Calendar.SECOND);
+
+        switch (downsampling) {
+            case Second:
+                return year * 10000000000L + month * 100000000 + day * 1000000 + hour * 10000 + minute * 100 + second;
+            case Minute:
+                return year * 100000000 + month * 1000000 + day * 10000 + hour * 100 + minute;
+            case Hour:
+                return year * 1000000 + month * 10000 + day * 100 + hour;
+            default:
+                return year * 10000 + month * 100 + day;
+        }
+    }
+
+    private static long getTimestampByCalendar(long timeBucket, DownSampling downsampling) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+
+        switch (downsampling) {
+            case Second:
+                calendar.set(Calendar.SECOND, (int) (timeBucket % 100));
+                timeBucket /= 100;
+                // Fall through
+            case Minute:
+                calendar.set(Calendar.MINUTE, (int) (timeBucket % 100));
+                timeBucket /= 100;
+                // Fall through
+            case Hour:
+                calendar.set(Calendar.HOUR_OF_DAY, (int) (timeBucket % 100));
+                timeBucket /= 100;
+                // Fall through
+            default:
+                calendar.set(Calendar.DAY_OF_MONTH, (int) (timeBucket % 100));
+                timeBucket /= 100;
+                calendar.set(Calendar.MONTH, (int) (timeBucket % 100) - 1);
+                calendar.set(Calendar.YEAR, (int) (timeBucket / 100));
+        }
+        return calendar.getTimeInMillis();
+    }
+}
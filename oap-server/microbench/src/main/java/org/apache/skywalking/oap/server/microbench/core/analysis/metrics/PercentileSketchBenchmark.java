@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.metrics;
+
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileSketchMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compare the bucketed {@link PercentileMetrics} with the sketch based {@link PercentileSketchMetrics}, on the L1
+ * combine path, the L2 merge path, and the size of the storage data.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class PercentileSketchBenchmark extends AbstractMicrobenchmark {
+    private static final int PRECISION = 10;
+    private static final int SAMPLES = 1024;
+
+    @State(Scope.Thread)
+    public static class Latencies {
+        /**
+         * The latency upper bound in ms, the wider the range is, the more buckets {@link PercentileMetrics} holds.
+         */
+        @Param({
+            "1000",
+            "60000"
+        })
+        public int maxLatency;
+
+        private final int[] values = new int[SAMPLES];
+        private PercentileMetrics bucketed;
+        private PercentileSketchMetrics sketch;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Random random = new Random(0);
+            final double maxExponent = Math.log(maxLatency);
+            for (int i = 0; i < SAMPLES; i++) {
+                values[i] = (int) Math.exp(random.nextDouble() * maxExponent);
+            }
+            bucketed = new BucketedMetrics();
+            sketch = new SketchMetrics();
+            for (final int value : values) {
+                bucketed.combine(value, PRECISION);
+                sketch.combine(value);
+            }
+        }
+    }
+
+    @Benchmark
+    public PercentileMetrics bucketedCombine(Latencies latencies) {
+        final PercentileMetrics metrics = new BucketedMetrics();
+        for (final int value : latencies.values) {
+            metrics.combine(value, PRECISION);
+        }
+        metrics.calculate();
+        return metrics;
+    }
+
+    @Benchmark
+    public PercentileSketchMetrics sketchCombine(Latencies latencies) {
+        final PercentileSketchMetrics metrics = new SketchMetrics();
+        for (final int value : latencies.values) {
+            metrics.combine(value);
+        }
+        metrics.calculate();
+        return metrics;
+    }
+
+    @Benchmark
+    public PercentileMetrics bucketedMerge(Latencies latencies) {
+        final PercentileMetrics metrics = new BucketedMetrics();
+        metrics.combine(latencies.bucketed);
+        metrics.combine(latencies.bucketed);
+        metrics.calculate();
+        return metrics;
+    }
+
+    @Benchmark
+    public PercentileSketchMetrics sketchMerge(Latencies latencies) {
+        final PercentileSketchMetrics metrics = new SketchMetrics();
+        metrics.combine(latencies.sketch);
+        metrics.combine(latencies.sketch);
+        metrics.calculate();
+        return metrics;
+    }
+
+    /**
+     * The length of the strings is the storage size of the dataset, check it through {@code -prof gc} for the
+     * allocation and the returned value for the size.
+     */
+    @Benchmark
+    public int bucketedStorageData(Latencies latencies) {
+        return latencies.bucketed.getDataset().toStorageData().length();
+    }
+
+    @Benchmark
+    public int sketchStorageData(Latencies latencies) {
+        return latencies.sketch.getSketch().toStorageData().length();
+    }
+
+    @Benchmark
+    public int sketchBytes(Latencies latencies) {
+        return latencies.sketch.getSketch().toBytes().size();
+    }
+
+    private static class BucketedMetrics extends PercentileMetrics {
+        @Override
+        protected String id0() {
+            return null;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+
+    private static class SketchMetrics extends PercentileSketchMetrics {
+        @Override
+        protected String id0() {
+            return null;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.library.elasticsearch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Compare the ways to write a metrics document into the bulk body, through a map, through a rendered JSON string, and
+ * streaming the fields into the generator of the bulk body.
+ */
+public class BulkDocumentBenchmark extends AbstractMicrobenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+
+    @Benchmark
+    public int map() throws IOException {
+        final Map<String, Object> source = new HashMap<>();
+        source.put("entity_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+        source.put("service_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+        source.put("time_bucket", 202210171030L);
+        source.put("summation", 12345L);
+        source.put("count", 12L);
+        source.put("value", 1028L);
+        source.put("dataset", "0,1|100,5|200,6");
+        source.put("metric_table", "service_resp_time");
+        return write(gen -> MAPPER.writeValue(gen, source));
+    }
+
+    @Benchmark
+    public int rendered() throws IOException {
+        final StringWriter writer = new StringWriter(256);
+        try (JsonGenerator gen = MAPPER.getFactory().createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeStringField("entity_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+            gen.writeStringField("service_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+            gen.writeNumberField("time_bucket", 202210171030L);
+            gen.writeNumberField("summation", 12345L);
+            gen.writeNumberField("count", 12L);
+            gen.writeNumberField("value", 1028L);
+            gen.writeStringField("dataset", "0,1|100,5|200,6");
+            gen.writeStringField("metric_table", "service_resp_time");
+            gen.writeEndObject();
+        }
+        final String document = writer.toString();
+        return write(gen -> gen.writeRawValue(document));
+    }
+
+    @Benchmark
+    public int streamed() throws IOException {
+        final DocumentSource source = new DocumentSource(32);
+        source.put("entity_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+        source.put("service_id", "ZTJlLXNlcnZpY2UtcHJvdmlkZXI=.1");
+        source.put("time_bucket", 202210171030L);
+        source.put("summation", 12345L);
+        source.put("count", 12L);
+        source.put("value", 1028L);
+        source.put("dataset", "0,1|100,5|200,6");
+        source.put("metric_table", "service_resp_time");
+        return write(source::writeTo);
+    }
+
+    private int write(final Writing writing) throws IOException {
+        body.reset();
+        try (JsonGenerator gen = MAPPER.getFactory().createGenerator(body)) {
+            writing.write(gen);
+        }
+        return body.size();
+    }
+
+    private interface Writing {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.25
+        # VM version: JDK 11.0.21, OpenJDK 64-Bit Server VM, 11.0.21+9
+        # VM options: -Xmx512m -Xms512m -XX:MaxDirectMemorySize=512m
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 3 iterations, 2 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+
+        Benchmark                                                      Mode  Cnt        Score         Error   Units
+        BulkDocumentBenchmark.map                                     thrpt    3  1199632.691 ± 3332887.988   ops/s
+        BulkDocumentBenchmark.map:·gc.alloc.rate.norm                 thrpt    3      840.000 ±       0.001    B/op
+        BulkDocumentBenchmark.rendered                                thrpt    3   922651.997 ± 3059696.581   ops/s
+        BulkDocumentBenchmark.rendered:·gc.alloc.rate.norm            thrpt    3     1024.000 ±       0.001    B/op
+        BulkDocumentBenchmark.streamed                                thrpt    3  1035452.749 ± 3219152.743   ops/s
+        BulkDocumentBenchmark.streamed:·gc.alloc.rate.norm            thrpt    3      680.000 ±       0.001    B/op
+     */
+}
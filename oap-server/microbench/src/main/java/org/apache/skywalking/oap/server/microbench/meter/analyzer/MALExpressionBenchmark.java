@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.meter.analyzer;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.skywalking.oap.meter.analyzer.dsl.DSL;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Expression;
+import org.apache.skywalking.oap.meter.analyzer.dsl.ExpressionParsingContext;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Sample;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamilyBuilder;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Run the expressions of the bundled MAL rules by Groovy and by the compiled expressions. The sample families of
+ * every expression are synthesized with the labels the expression requires.
+ *
+ * Run it in the microbench directory, or set the rules directory by {@code -p rulesDir=...}.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class MALExpressionBenchmark extends AbstractMicrobenchmark {
+    private static final int SAMPLES_PER_FAMILY = 16;
+
+    private static final String[] HISTOGRAM_BUCKETS = {"10", "50", "100", "500", "1000", "5000"};
+
+    @State(Scope.Benchmark)
+    public static class Rules {
+        @Param({"../server-starter/src/main/resources"})
+        private String rulesDir;
+
+        @Param({"otel-oc-rules,meter-analyzer-config"})
+        private String rulePaths;
+
+        private final List<Expression> groovy = new ArrayList<>();
+        private final List<Expression> compiled = new ArrayList<>();
+        private final List<Map<String, SampleFamily>> inputs = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            MeterEntity.setNamingControl(new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+            for (final String exp : loadExpressions()) {
+                final Expression compiledExpression = DSL.parse(exp);
+                if (!compiledExpression.isCompiled()) {
+                    throw new IllegalStateException("\"" + exp + "\" isn't compiled");
+                }
+                final ExpressionParsingContext ctx = compiledExpression.parse();
+                if (ctx.isRetagByK8sMeta()) {
+                    // The K8s metadata is not available in the benchmark.
+                    continue;
+                }
+                groovy.add(DSL.parse(exp, false));
+                compiled.add(compiledExpression);
+                inputs.add(synthesize(ctx));
+            }
+        }
+
+        /**
+         * The samples have the same timestamp in every invocation, reset the counters to keep the windows small.
+         */
+        @Setup(Level.Invocation)
+        public void resetCounterWindow() {
+            CounterWindow.INSTANCE.reset();
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<String> loadExpressions() throws IOException {
+            final List<String> expressions = new ArrayList<>();
+            for (final String path : rulePaths.split(",")) {
+                final File[] files = new File(rulesDir, path).listFiles();
+                if (files == null) {
+                    throw new IllegalStateException(new File(rulesDir, path).getAbsolutePath() + " doesn't exist");
+                }
+                for (final File file : files) {
+                    final Map<String, Object> rule;
+                    try (Reader reader = new FileReader(file)) {
+                        rule = new Yaml().load(reader);
+                    }
+                    if (rule == null || rule.get("metricsRules") == null) {
+                        continue;
+                    }
+                    final String expSuffix = (String) rule.get("expSuffix");
+                    for (final Map<String, String> metricsRule : (List<Map<String, String>>) rule.get("metricsRules")) {
+                        expressions.add(Strings.isNullOrEmpty(expSuffix) ?
+                            metricsRule.get("exp") : String.format("(%s).%s", metricsRule.get("exp"), expSuffix));
+                    }
+                }
+            }
+            return expressions;
+        }
+
+        private static Map<String, SampleFamily> synthesize(final ExpressionParsingContext ctx) {
+            final Set<String> labelNames = new LinkedHashSet<>(ctx.getScopeLabels());
+            labelNames.addAll(ctx.getAggregationLabels());
+            final long now = System.currentTimeMillis();
+            final Map<String, SampleFamily> input = new HashMap<>();
+            for (final String name : ctx.getSamples()) {
+                final List<Sample> samples = new ArrayList<>();
+                for (int i = 0; i < SAMPLES_PER_FAMILY; i++) {
+                    final Map<String, String> labels = new HashMap<>();
+                    for (final String labelName : labelNames) {
+                        labels.put(labelName, labelName + "-" + i % 4);
+                    }
+                    if (ctx.isHistogram()) {
+                        labels.put("le", HISTOGRAM_BUCKETS[i % HISTOGRAM_BUCKETS.length]);
+                    }
+                    samples.add(Sample.builder().name(name).labels(ImmutableMap.copyOf(labels)).value(i + 1).timestamp(now).build());
+                }
+                input.put(name, SampleFamilyBuilder.newBuilder(samples.toArray(new Sample[0])).build());
+            }
+            return input;
+        }
+    }
+
+    @Benchmark
+    public void groovy(Rules rules, Blackhole bh) {
+        run(rules.groovy, rules.inputs, bh);
+    }
+
+    @Benchmark
+    public void compiled(Rules rules, Blackhole bh) {
+        run(rules.compiled, rules.inputs, bh);
+    }
+
+    private static void run(final List<Expression> expressions,
+                            final List<Map<String, SampleFamily>> inputs,
+                            final Blackhole bh) {
+        for (int i = 0; i < expressions.size(); i++) {
+            bh.consume(expressions.get(i).run(inputs.get(i)));
+        }
+    }
+}
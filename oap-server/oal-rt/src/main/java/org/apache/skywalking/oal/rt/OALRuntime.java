@@ -95,6 +95,7 @@ public class OALRuntime implements OALEngine {
         "remoteHashCode",
         "equals",
         "serialize",
+        "serializeBinary",
         "deserialize",
         "getMeta",
         "toHour",
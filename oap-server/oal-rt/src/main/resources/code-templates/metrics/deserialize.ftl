@@ -16,7 +16,11 @@ public void deserialize(org.apache.skywalking.oap.server.core.remote.grpc.proto.
 </#list>
 
 <#list serializeFields.objectFields as field>
-    ${field.setter}(new ${field.fieldType}(remoteData.getDataObjectStrings(${field?index})));
+    if (remoteData.getDataObjectBytesCount() > 0) {
+        ${field.setter}(new ${field.fieldType}(remoteData.getDataObjectBytes(${field?index})));
+    } else {
+        ${field.setter}(new ${field.fieldType}(remoteData.getDataObjectStrings(${field?index})));
+    }
 </#list>
 
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+public org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builder serializeBinary() {
+org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builder remoteBuilder = org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.newBuilder();
+<#list serializeFields.stringFields as field>
+    remoteBuilder.addDataStrings(${field.getter}());
+</#list>
+
+<#list serializeFields.longFields as field>
+    remoteBuilder.addDataLongs(${field.getter}());
+</#list>
+
+<#list serializeFields.doubleFields as field>
+    remoteBuilder.addDataDoubles(${field.getter}());
+</#list>
+
+<#list serializeFields.intFields as field>
+    remoteBuilder.addDataIntegers(${field.getter}());
+</#list>
+
+<#list serializeFields.objectFields as field>
+    remoteBuilder.addDataObjectBytes(${field.getter}().toBytes());
+</#list>
+
+return remoteBuilder;
+}
\ No newline at end of file
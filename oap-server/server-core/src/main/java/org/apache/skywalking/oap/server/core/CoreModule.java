@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
 import org.apache.skywalking.oap.server.core.cache.ProfileTaskCache;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
 import org.apache.skywalking.oap.server.core.command.CommandService;
 import org.apache.skywalking.oap.server.core.config.ConfigService;
 import org.apache.skywalking.oap.server.core.config.DownSamplingConfigService;
@@ -145,6 +146,7 @@ public class CoreModule extends ModuleDefine {
 
     private void addCacheService(List<Class> classes) {
         classes.add(NetworkAddressAliasCache.class);
+        classes.add(QueryCache.class);
     }
 
     private void addReceiverInterface(List<Class> classes) {
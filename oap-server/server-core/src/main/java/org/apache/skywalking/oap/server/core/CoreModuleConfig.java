@@ -57,6 +57,13 @@ public class CoreModuleConfig extends ModuleConfig {
      * The threshold of session time. Unit is ms. Default value is 70s.
      */
     private long storageSessionTimeout = 70_000;
+    /**
+     * Merge the metrics in L1 and L2 aggregation through an open addressing table located by the hash code of metrics,
+     * rather than a HashMap keyed by the metrics ID string.
+     *
+     * @since 9.2.0
+     */
+    private boolean enableOpenAddressingAggregation = false;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence. Unit is second.
@@ -86,6 +93,79 @@ public class CoreModuleConfig extends ModuleConfig {
      */
 
     private int remoteTimeout = 20;
+    /**
+     * The number of virtual nodes of every OAP node in the consistent hash ring, which routes the metrics from the L1
+     * aggregation to the L2 aggregation. 0 means routing by the hash code modulo the number of the OAP nodes, which
+     * moves almost all the metrics to a different node when the cluster changes.
+     *
+     * @since 9.2.0
+     */
+    private int remoteHashRingVirtualNodes = 0;
+    /**
+     * The seconds in which the metrics keep being routed to the previous OAP node after the cluster changes, as long as
+     * that node is still alive. It takes effect when the consistent hash ring is activated.
+     *
+     * @since 9.2.0
+     */
+    private int remoteHandoffWindow = 30;
+    /**
+     * The max number of the metrics packed into one batch of the long-lived stream to every other OAP node, which waits
+     * for the gRPC flow control and resends the unacknowledged batches. 0 means opening a new stream for every drained
+     * batch and sending the metrics one by one. The OAP nodes of the older versions are always sent in that way.
+     *
+     * @since 9.2.0
+     */
+    private int remoteStreamBatchSize = 0;
+    /**
+     * The gRPC compressor of the long-lived stream, `gzip` or `identity`(no compression).
+     *
+     * @since 9.2.0
+     */
+    private String remoteStreamCompression = "gzip";
+    /**
+     * The directory of the disk spill queue of the records, such as traces, logs and browser errors. The records are
+     * appended to the local disk first and drained into the storage in batches, so the receivers are not blocked when
+     * the storage is slow or down. Empty means inserting the records into the storage directly.
+     *
+     * @since 9.2.0
+     */
+    private String recordSpillPath = "";
+    /**
+     * The max size of the disk spill queue, the oldest records are dropped when it is full. Unit is MB.
+     *
+     * @since 9.2.0
+     */
+    private int recordSpillMaxSize = 1024;
+    /**
+     * The size of every segment file of the disk spill queue, which is the max size of a record too. Unit is MB.
+     *
+     * @since 9.2.0
+     */
+    private int recordSpillSegmentSize = 64;
+    /**
+     * The max number of the cached entity IDs and decoded ID definitions of every kind of service, instance and
+     * endpoint. 0 means encoding and decoding the IDs every time.
+     *
+     * @since 9.2.0
+     */
+    private long maxSizeOfIDCache = 100_000L;
+    /**
+     * The max number of the cached metrics values of the sealed time buckets, see {@link
+     * org.apache.skywalking.oap.server.core.cache.QueryCache#getSealDelay}. The topology and sorted metrics results of
+     * the sealed durations take 1/100 of it. The metrics arriving after the time bucket is sealed are not read. 0 means
+     * reading all time buckets from the storage every time.
+     *
+     * @since 9.2.0
+     */
+    private long maxSizeOfQueryCache = 0;
+    /**
+     * Hold a copy of the minute metrics of the current and previous minutes in the L2 aggregation, and read them from
+     * the memory of all OAP nodes rather than the storage, as they may be not persisted yet. It costs the memory of the
+     * copies and a remote call to every OAP node in every query of the recent minutes.
+     *
+     * @since 9.2.0
+     */
+    private boolean enableLiveMetricsQuery = false;
     /**
      * The size of network address alias.
      */
@@ -182,6 +262,18 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter
     @Getter
     private int prepareThreads = 2;
+    /**
+     * The max rounds of a persistence worker being executed in the storage while the next round is prepared. The
+     * executions of a worker are chained, so the requests of the same metrics are executed in the order of rounds. A
+     * worker skips the round when its window is full. The executions run in their own pool of {@link #prepareThreads}
+     * threads, so they overlap with the next preparation for the synchronous JDBC storages too. 0 means the pipelined
+     * persistence is disabled.
+     *
+     * @since 9.2.0
+     */
+    @Setter
+    @Getter
+    private int persistentPipelineWindow = 0;
 
     @Getter
     @Setter
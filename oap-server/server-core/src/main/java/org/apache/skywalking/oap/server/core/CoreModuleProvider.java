@@ -18,22 +18,27 @@
 
 package org.apache.skywalking.oap.server.core;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.analysis.ApdexThresholdConfig;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
 import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
 import org.apache.skywalking.oap.server.core.cache.CacheUpdateTimer;
 import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
 import org.apache.skywalking.oap.server.core.cache.ProfileTaskCache;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterRegister;
 import org.apache.skywalking.oap.server.core.cluster.OAPNodeChecker;
@@ -73,6 +78,7 @@ import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.client.Address;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.health.HealthCheckServiceHandler;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
 import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegisterImpl;
 import org.apache.skywalking.oap.server.core.server.HTTPHandlerRegister;
@@ -80,12 +86,15 @@ import org.apache.skywalking.oap.server.core.server.HTTPHandlerRegisterImpl;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.source.SourceReceiver;
 import org.apache.skywalking.oap.server.core.source.SourceReceiverImpl;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.core.storage.PersistenceTimer;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.model.IModelManager;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.model.ModelManipulator;
 import org.apache.skywalking.oap.server.core.storage.model.StorageModels;
+import org.apache.skywalking.oap.server.core.storage.spill.RecordSpillQueue;
 import org.apache.skywalking.oap.server.core.storage.ttl.DataTTLKeeperTimer;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -99,7 +108,9 @@ import org.apache.skywalking.oap.server.library.server.ServerException;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCServer;
 import org.apache.skywalking.oap.server.library.server.http.HTTPServer;
 import org.apache.skywalking.oap.server.library.server.http.HTTPServerConfig;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.TelemetryRelatedContext;
 
 /**
@@ -124,6 +135,8 @@ public class CoreModuleProvider extends ModuleProvider {
     private OALEngineLoaderService oalEngineLoaderService;
     private LoggingConfigWatcher loggingConfigWatcher;
     private EndpointNameGroupingRule4OpenapiWatcher endpointNameGroupingRule4OpenapiWatcher;
+    private RecordSpillQueue recordSpillQueue;
+    private QueryCache queryCache;
 
     public CoreModuleProvider() {
         super();
@@ -245,17 +258,28 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(IWorkerInstanceGetter.class, instancesService);
         this.registerServiceImplementation(IWorkerInstanceSetter.class, instancesService);
 
-        this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(getManager()));
+        if (moduleConfig.getRemoteHashRingVirtualNodes() > 0) {
+            final ConsistentHashSelector hashRingSelector = new ConsistentHashSelector(
+                moduleConfig.getRemoteHashRingVirtualNodes(),
+                TimeUnit.SECONDS.toMillis(moduleConfig.getRemoteHandoffWindow())
+            );
+            this.registerServiceImplementation(
+                RemoteSenderService.class, new RemoteSenderService(getManager(), hashRingSelector));
+        } else {
+            this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(getManager()));
+        }
         this.registerServiceImplementation(ModelCreator.class, storageModels);
         this.registerServiceImplementation(IModelManager.class, storageModels);
         this.registerServiceImplementation(ModelManipulator.class, storageModels);
 
         this.registerServiceImplementation(
             NetworkAddressAliasCache.class, new NetworkAddressAliasCache(moduleConfig));
+        queryCache = new QueryCache(moduleConfig);
+        this.registerServiceImplementation(QueryCache.class, queryCache);
 
         this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager()));
         this.registerServiceImplementation(MetricsMetadataQueryService.class, new MetricsMetadataQueryService());
-        this.registerServiceImplementation(MetricsQueryService.class, new MetricsQueryService(getManager()));
+        this.registerServiceImplementation(MetricsQueryService.class, new MetricsQueryService(getManager(), moduleConfig));
         this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
         this.registerServiceImplementation(BrowserLogQueryService.class, new BrowserLogQueryService(getManager()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
@@ -286,13 +310,11 @@ public class CoreModuleProvider extends ModuleProvider {
 
         annotationScan.registerListener(new StreamAnnotationListener(getManager()));
 
-        if (moduleConfig.isGRPCSslEnabled()) {
-            this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout(),
-                                                               moduleConfig.getGRPCSslTrustedCAPath()
-            );
-        } else {
-            this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout());
-        }
+        this.remoteClientManager = new RemoteClientManager(
+            getManager(), moduleConfig.getRemoteTimeout(),
+            moduleConfig.isGRPCSslEnabled() ? moduleConfig.getGRPCSslTrustedCAPath() : null,
+            moduleConfig.getRemoteStreamBatchSize(), moduleConfig.getRemoteStreamCompression()
+        );
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         // Management
@@ -313,7 +335,22 @@ public class CoreModuleProvider extends ModuleProvider {
         metricsStreamProcessor.setL1FlushPeriod(moduleConfig.getL1FlushPeriod());
         metricsStreamProcessor.setStorageSessionTimeout(moduleConfig.getStorageSessionTimeout());
         metricsStreamProcessor.setMetricsDataTTL(moduleConfig.getMetricsDataTTL());
+        metricsStreamProcessor.setEnableOpenAddressingAggregation(moduleConfig.isEnableOpenAddressingAggregation());
+        metricsStreamProcessor.setEnableLiveMetricsQuery(moduleConfig.isEnableLiveMetricsQuery());
         TopNStreamProcessor.getInstance().setTopNWorkerReportCycle(moduleConfig.getTopNReportPeriod());
+        IDManager.resizeCaches(moduleConfig.getMaxSizeOfIDCache());
+        if (StringUtil.isNotEmpty(moduleConfig.getRecordSpillPath())) {
+            try {
+                recordSpillQueue = new RecordSpillQueue(
+                    new File(moduleConfig.getRecordSpillPath()),
+                    moduleConfig.getRecordSpillMaxSize() * 1024L * 1024L,
+                    moduleConfig.getRecordSpillSegmentSize() * 1024 * 1024
+                );
+            } catch (IOException e) {
+                throw new ModuleStartException("Failed to open the record spill queue.", e);
+            }
+            RecordStreamProcessor.getInstance().setSpillQueue(recordSpillQueue);
+        }
         apdexThresholdConfig = new ApdexThresholdConfig(this);
         ApdexMetrics.setDICT(apdexThresholdConfig);
         loggingConfigWatcher = new LoggingConfigWatcher(this);
@@ -324,6 +361,10 @@ public class CoreModuleProvider extends ModuleProvider {
         grpcServer.addHandler(new RemoteServiceHandler(getManager()));
         grpcServer.addHandler(new HealthCheckServiceHandler());
         remoteClientManager.start();
+        final MetricsCreator metricsCreator =
+            getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        IDManager.initCacheMetrics(metricsCreator);
+        queryCache.initMetrics(metricsCreator);
 
         // Disable OAL script has higher priority
         oalEngineLoaderService.load(DisableOALDefine.INSTANCE);
@@ -374,7 +415,12 @@ public class CoreModuleProvider extends ModuleProvider {
             throw new ModuleStartException(e.getMessage(), e);
         }
 
+        queryCache.setQueryableDelay(
+            getManager().find(StorageModule.NAME).provider().getService(IBatchDAO.class).getQueryableDelay());
         PersistenceTimer.INSTANCE.start(getManager(), moduleConfig);
+        if (recordSpillQueue != null) {
+            recordSpillQueue.start(getManager());
+        }
 
         if (moduleConfig.isEnableDataKeeperExecutor()) {
             DataTTLKeeperTimer.INSTANCE.start(getManager(), moduleConfig);
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.function.Function;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+
+/**
+ * IDCache is a bounded concurrent cache of the {@link IDManager} results. The built IDs are interned, the same
+ * canonical string is returned for the repeated names, and the decoded ID definitions are reused, as they are
+ * immutable.
+ */
+class IDCache<K, V> {
+    private static final MetricsCreator NOOP = new MetricsCreatorNoop();
+
+    private final String type;
+    private volatile Cache<K, V> cache;
+    private volatile CounterMetrics hitCounter;
+    private volatile CounterMetrics missCounter;
+
+    IDCache(String type, long maxSize) {
+        this.type = type;
+        resize(maxSize);
+        initMetrics(NOOP);
+    }
+
+    /**
+     * @return the cached value of the key, or the value built by the loader, which is cached for the next time.
+     */
+    V get(K key, Function<K, V> loader) {
+        final Cache<K, V> cache = this.cache;
+        if (cache == null) {
+            return loader.apply(key);
+        }
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            hitCounter.inc();
+            return value;
+        }
+        missCounter.inc();
+        value = loader.apply(key);
+        cache.put(key, value);
+        return value;
+    }
+
+    /**
+     * Replace the cache by an empty one of the given size. The cache is disabled when the size is 0.
+     */
+    void resize(long maxSize) {
+        cache = maxSize > 0 ? CacheBuilder.newBuilder().maximumSize(maxSize).build() : null;
+    }
+
+    void initMetrics(MetricsCreator metricsCreator) {
+        hitCounter = metricsCreator.createCounter(
+            "id_cache_hit_count", "The number of the entity IDs found in the cache",
+            new MetricsTag.Keys("type"), new MetricsTag.Values(type)
+        );
+        missCounter = metricsCreator.createCounter(
+            "id_cache_miss_count", "The number of the entity IDs encoded or decoded for the cache misses",
+            new MetricsTag.Keys("type"), new MetricsTag.Values(type)
+        );
+    }
+
+    /**
+     * The name of an entity under its owner, such as the instance name under the service ID.
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    static final class NameKey {
+        private final String owner;
+        private final String name;
+    }
+}
@@ -29,11 +29,60 @@ import lombok.RequiredArgsConstructor;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * IDManager includes all ID encode/decode functions for service, service instance and endpoint.
+ * <p>
+ * The IDs of service, service instance and endpoint are cached, the same string is returned for the same names, and
+ * so are the definitions decoded from these IDs.
  */
 public class IDManager {
+    private static final long DEFAULT_CACHE_SIZE = 100_000L;
+
+    private static final IDCache<String, String> NORMAL_SERVICE_IDS = new IDCache<>(
+        "service", DEFAULT_CACHE_SIZE);
+    private static final IDCache<String, String> CONJECTURAL_SERVICE_IDS = new IDCache<>(
+        "conjectural_service", DEFAULT_CACHE_SIZE);
+    private static final IDCache<IDCache.NameKey, String> INSTANCE_IDS = new IDCache<>(
+        "instance", DEFAULT_CACHE_SIZE);
+    private static final IDCache<IDCache.NameKey, String> ENDPOINT_IDS = new IDCache<>(
+        "endpoint", DEFAULT_CACHE_SIZE);
+    private static final IDCache<String, ServiceID.ServiceIDDefinition> SERVICE_DEFINITIONS = new IDCache<>(
+        "service_definition", DEFAULT_CACHE_SIZE);
+    private static final IDCache<String, ServiceInstanceID.InstanceIDDefinition> INSTANCE_DEFINITIONS = new IDCache<>(
+        "instance_definition", DEFAULT_CACHE_SIZE);
+    private static final IDCache<String, EndpointID.EndpointIDDefinition> ENDPOINT_DEFINITIONS = new IDCache<>(
+        "endpoint_definition", DEFAULT_CACHE_SIZE);
+
+    private static final IDCache<?, ?>[] CACHES = {
+        NORMAL_SERVICE_IDS,
+        CONJECTURAL_SERVICE_IDS,
+        INSTANCE_IDS,
+        ENDPOINT_IDS,
+        SERVICE_DEFINITIONS,
+        INSTANCE_DEFINITIONS,
+        ENDPOINT_DEFINITIONS
+    };
+
+    /**
+     * Replace every ID cache by an empty one of the given size. The caches are disabled when the size is 0.
+     */
+    public static void resizeCaches(long maxSize) {
+        for (final IDCache<?, ?> cache : CACHES) {
+            cache.resize(maxSize);
+        }
+    }
+
+    /**
+     * Report the hit and miss counts of every ID cache through the given metrics creator.
+     */
+    public static void initCacheMetrics(MetricsCreator metricsCreator) {
+        for (final IDCache<?, ?> cache : CACHES) {
+            cache.initMetrics(metricsCreator);
+        }
+    }
+
     /**
      * Service ID related functions.
      */
@@ -44,13 +93,28 @@ public class IDManager {
          *                 conjectured by telemetry data collected from agents on/in the `normal` service.
          */
         public static String buildId(String name, boolean isNormal) {
-            return encode(name) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.booleanToValue(isNormal);
+            if (isNormal) {
+                return NORMAL_SERVICE_IDS.get(name, ServiceID::buildNormalId);
+            }
+            return CONJECTURAL_SERVICE_IDS.get(name, ServiceID::buildConjecturalId);
+        }
+
+        private static String buildNormalId(String name) {
+            return encode(name) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.TRUE;
+        }
+
+        private static String buildConjecturalId(String name) {
+            return encode(name) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.FALSE;
         }
 
         /**
          * @return service ID object decoded from {@link #buildId(String, boolean)} result
          */
         public static ServiceIDDefinition analysisId(String id) {
+            return SERVICE_DEFINITIONS.get(id, ServiceID::decodeId);
+        }
+
+        private static ServiceIDDefinition decodeId(String id) {
             final String[] strings = id.split(Const.SERVICE_ID_PARSER_SPLIT);
             if (strings.length != 2) {
                 throw new UnexpectedException("Can't split service id into 2 parts, " + id);
@@ -108,15 +172,19 @@ public class IDManager {
          * @return service instance id
          */
         public static String buildId(String serviceId, String instanceName) {
-            return serviceId
+            return INSTANCE_IDS.get(new IDCache.NameKey(serviceId, instanceName), key -> serviceId
                 + Const.ID_CONNECTOR
-                + encode(instanceName);
+                + encode(instanceName));
         }
 
         /**
          * @return service instance id object decoded from {@link #buildId(String, String)} result
          */
         public static ServiceInstanceID.InstanceIDDefinition analysisId(String id) {
+            return INSTANCE_DEFINITIONS.get(id, ServiceInstanceID::decodeId);
+        }
+
+        private static ServiceInstanceID.InstanceIDDefinition decodeId(String id) {
             final String[] strings = id.split(Const.ID_PARSER_SPLIT);
             if (strings.length != 2) {
                 throw new UnexpectedException("Can't split instance id into 2 parts, " + id);
@@ -180,15 +248,19 @@ public class IDManager {
          * @return endpoint id
          */
         public static String buildId(String serviceId, String endpointName) {
-            return serviceId
+            return ENDPOINT_IDS.get(new IDCache.NameKey(serviceId, endpointName), key -> serviceId
                 + Const.ID_CONNECTOR
-                + encode(endpointName);
+                + encode(endpointName));
         }
 
         /**
          * @return Endpoint id object decoded from {@link #buildId(String, String)} result.
          */
         public static EndpointIDDefinition analysisId(String id) {
+            return ENDPOINT_DEFINITIONS.get(id, EndpointID::decodeId);
+        }
+
+        private static EndpointIDDefinition decodeId(String id) {
             final String[] strings = id.split(Const.ID_PARSER_SPLIT);
             if (strings.length != 2) {
                 throw new UnexpectedException("Can't split endpoint id into 2 parts, " + id);
@@ -18,9 +18,28 @@
 package org.apache.skywalking.oap.server.core.analysis;
 
 import java.util.Calendar;
+import java.util.TimeZone;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 
+/**
+ * TimeBucket converts between the timestamps and the time buckets in the time zone of the OAP.
+ * <p>
+ * The days are cached once calculated through the {@link Calendar}, then the time of the day is calculated by the
+ * arithmetic without any allocation, unless the offset of the time zone changes in that day, such as the start and the
+ * end of the daylight saving time.
+ */
 public class TimeBucket {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+    private static final TimeZone TIME_ZONE = TimeZone.getDefault();
+    private static final long RAW_OFFSET = TIME_ZONE.getRawOffset();
+    /**
+     * The cached days indexed by the epoch day, the latest days are enough for the streaming process.
+     */
+    private static final int DAY_CACHE_MASK = 63;
+    private static final LocalDay[] DAYS = new LocalDay[DAY_CACHE_MASK + 1];
 
     /**
      * Record time bucket format in Second Unit.
@@ -102,7 +121,179 @@ public class TimeBucket {
      * @return timestamp in millisecond unit
      */
     public static long getTimestamp(long timeBucket, DownSampling downsampling) {
-        Calendar calendar = Calendar.getInstance();
+        long bucket = timeBucket;
+        int second = 0;
+        int minute = 0;
+        int hour = 0;
+        switch (downsampling) {
+            case Second:
+                second = (int) (bucket % 100);
+                bucket /= 100;
+                // Fall through
+            case Minute:
+                minute = (int) (bucket % 100);
+                bucket /= 100;
+                // Fall through
+            case Hour:
+                hour = (int) (bucket % 100);
+                bucket /= 100;
+                // Fall through
+            case Day:
+                break;
+            default:
+                throw new UnexpectedException("Unknown downsampling value.");
+        }
+        final LocalDay day = hour < 24 && minute < 60 && second < 60 ? dayOfBucket(bucket) : null;
+        if (day == null) {
+            return getTimestampByCalendar(timeBucket, downsampling);
+        }
+        return day.start + hour * MILLIS_PER_HOUR + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Record timestamp bucket format in Downsampling Unit.
+     *
+     * @param timestamp    Timestamp
+     * @param downsampling Downsampling
+     * @return timestamp in downsampling format
+     */
+    public static long getTimeBucket(long timestamp, DownSampling downsampling) {
+        final LocalDay day = dayOf(timestamp);
+        if (day == null) {
+            return getTimeBucketByCalendar(timestamp, downsampling);
+        }
+        return day.timeBucket(timestamp, downsampling);
+    }
+
+    /**
+     * Bulk version of {@link #getTimeBucket(long, DownSampling)}, the timestamps of a batch are usually in the same
+     * day, which is located only once.
+     *
+     * @param timeBuckets holds the time bucket of every timestamp at the same index.
+     */
+    public static void getTimeBuckets(long[] timestamps, DownSampling downsampling, long[] timeBuckets) {
+        LocalDay day = null;
+        for (int i = 0; i < timestamps.length; i++) {
+            final long timestamp = timestamps[i];
+            if (day == null || !day.contains(timestamp)) {
+                day = dayOf(timestamp);
+            }
+            timeBuckets[i] = day == null ?
+                getTimeBucketByCalendar(timestamp, downsampling) : day.timeBucket(timestamp, downsampling);
+        }
+    }
+
+    /**
+     * Bulk version of {@link #getTimestamp(long, DownSampling)}.
+     *
+     * @param timestamps holds the timestamp of every time bucket at the same index.
+     */
+    public static void getTimestamps(long[] timeBuckets, DownSampling downsampling, long[] timestamps) {
+        for (int i = 0; i < timeBuckets.length; i++) {
+            timestamps[i] = getTimestamp(timeBuckets[i], downsampling);
+        }
+    }
+
+    /**
+     * @return the day time bucket of the given days before or after the given day time bucket.
+     */
+    public static long plusDays(long dayTimeBucket, int days) {
+        return civilOf(epochDayOf(dayTimeBucket) + days);
+    }
+
+    /**
+     * @return the number of days from 1970-01-01 to the given day time bucket.
+     */
+    public static long epochDayOf(long dayTimeBucket) {
+        final long day = dayTimeBucket % 100;
+        final long month = dayTimeBucket / 100 % 100;
+        final long year = dayTimeBucket / 10000 - (month <= 2 ? 1 : 0);
+        // The algorithm of days_from_civil by Howard Hinnant, the year starts from March.
+        final long era = Math.floorDiv(year, 400);
+        final long yearOfEra = year - era * 400;
+        final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @return the day time bucket of the given number of days from 1970-01-01.
+     */
+    public static long civilOf(long epochDay) {
+        // The algorithm of civil_from_days by Howard Hinnant.
+        final long shifted = epochDay + 719468;
+        final long era = Math.floorDiv(shifted, 146097);
+        final long dayOfEra = shifted - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long monthShifted = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * monthShifted + 2) / 5 + 1;
+        final long month = monthShifted < 10 ? monthShifted + 3 : monthShifted - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * @return the day including the timestamp, null if the offset of the time zone changes in that day.
+     */
+    private static LocalDay dayOf(long timestamp) {
+        final long guess = Math.floorDiv(timestamp + RAW_OFFSET, MILLIS_PER_DAY);
+        for (long epochDay = guess - 1; epochDay <= guess + 1; epochDay++) {
+            final LocalDay day = DAYS[(int) (epochDay & DAY_CACHE_MASK)];
+            if (day != null && day.contains(timestamp)) {
+                return day.fixedOffset ? day : null;
+            }
+        }
+        final Calendar calendar = Calendar.getInstance(TIME_ZONE);
+        calendar.setTimeInMillis(timestamp);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return cache(calendar);
+    }
+
+    /**
+     * @return the day of the given day time bucket, null if the day isn't valid or the offset of the time zone changes
+     * in that day.
+     */
+    private static LocalDay dayOfBucket(long dayTimeBucket) {
+        final long month = dayTimeBucket / 100 % 100;
+        final long dayOfMonth = dayTimeBucket % 100;
+        if (month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > 31) {
+            return null;
+        }
+        final LocalDay day = DAYS[(int) (epochDayOf(dayTimeBucket) & DAY_CACHE_MASK)];
+        if (day != null && day.timeBucket == dayTimeBucket) {
+            return day.fixedOffset ? day : null;
+        }
+        final Calendar calendar = Calendar.getInstance(TIME_ZONE);
+        calendar.setTimeInMillis(0);
+        calendar.set((int) (dayTimeBucket / 10000), (int) month - 1, (int) dayOfMonth, 0, 0, 0);
+        final LocalDay created = cache(calendar);
+        // Such as 20220230, which the calendar takes as 20220302.
+        return created != null && created.timeBucket == dayTimeBucket ? created : null;
+    }
+
+    /**
+     * @param calendar at the start of a day.
+     */
+    private static LocalDay cache(Calendar calendar) {
+        final long timeBucket = calendar.get(Calendar.YEAR) * 10000L
+            + (calendar.get(Calendar.MONTH) + 1) * 100L
+            + calendar.get(Calendar.DAY_OF_MONTH);
+        final long start = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        final long end = calendar.getTimeInMillis();
+        final boolean fixedOffset = end - start == MILLIS_PER_DAY
+            && TIME_ZONE.getOffset(start) == TIME_ZONE.getOffset(end - 1);
+        final LocalDay day = new LocalDay(timeBucket, start, end, fixedOffset);
+        DAYS[(int) (epochDayOf(timeBucket) & DAY_CACHE_MASK)] = day;
+        return day.fixedOffset ? day : null;
+    }
+
+    private static long getTimestampByCalendar(long timeBucket, DownSampling downsampling) {
+        Calendar calendar = Calendar.getInstance(TIME_ZONE);
         calendar.setTimeInMillis(0);
         calendar.set(Calendar.MINUTE, 0);
         calendar.set(Calendar.HOUR_OF_DAY, 0);
@@ -132,15 +323,8 @@ public class TimeBucket {
         return calendar.getTimeInMillis();
     }
 
-    /**
-     * Record timestamp bucket format in Downsampling Unit.
-     *
-     * @param timestamp    Timestamp
-     * @param downsampling Downsampling
-     * @return timestamp in downsampling format
-     */
-    public static long getTimeBucket(long timestamp, DownSampling downsampling) {
-        Calendar calendar = Calendar.getInstance();
+    private static long getTimeBucketByCalendar(long timestamp, DownSampling downsampling) {
+        Calendar calendar = Calendar.getInstance(TIME_ZONE);
         calendar.setTimeInMillis(timestamp);
 
         long year = calendar.get(Calendar.YEAR);
@@ -150,17 +334,58 @@ public class TimeBucket {
         long minute = calendar.get(Calendar.MINUTE);
         long second = calendar.get(Calendar.SECOND);
 
+        return compose(year * 10000 + month * 100 + day, hour, minute, second, downsampling);
+    }
+
+    private static long compose(long dayTimeBucket, long hour, long minute, long second, DownSampling downsampling) {
         switch (downsampling) {
             case Second:
-                return year * 10000000000L + month * 100000000 + day * 1000000 + hour * 10000 + minute * 100 + second;
+                return dayTimeBucket * 1000000 + hour * 10000 + minute * 100 + second;
             case Minute:
-                return year * 100000000 + month * 1000000 + day * 10000 + hour * 100 + minute;
+                return dayTimeBucket * 10000 + hour * 100 + minute;
             case Hour:
-                return year * 1000000 + month * 10000 + day * 100 + hour;
+                return dayTimeBucket * 100 + hour;
             case Day:
-                return year * 10000 + month * 100 + day;
+                return dayTimeBucket;
             default:
                 throw new UnexpectedException("Unknown downsampling value.");
         }
     }
+
+    /**
+     * A day in the time zone of the OAP, the entries are immutable so they are shared between threads safely.
+     */
+    private static final class LocalDay {
+        private final long timeBucket;
+        /**
+         * The timestamp of the start of the day, inclusive.
+         */
+        private final long start;
+        /**
+         * The timestamp of the start of the next day, exclusive.
+         */
+        private final long end;
+        /**
+         * True if the offset of the time zone doesn't change in the day, so the time of the day is calculated by the
+         * arithmetic.
+         */
+        private final boolean fixedOffset;
+
+        private LocalDay(long timeBucket, long start, long end, boolean fixedOffset) {
+            this.timeBucket = timeBucket;
+            this.start = start;
+            this.end = end;
+            this.fixedOffset = fixedOffset;
+        }
+
+        private boolean contains(long timestamp) {
+            return timestamp >= start && timestamp < end;
+        }
+
+        private long timeBucket(long timestamp, DownSampling downsampling) {
+            final int secondOfDay = (int) ((timestamp - start) / MILLIS_PER_SECOND);
+            return compose(
+                timeBucket, secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, downsampling);
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * DownSamplingBufferedData is a thread no safe implementation of {@link BufferedData}, which accepts the minute
+ * metrics and folds them into the metrics of the hour or day precision.
+ *
+ * The minute metrics is {@link Metrics#combine(Metrics)}ed into the existing downsampled metrics of the same ID
+ * directly. Only the first minute metrics of every ID is cloned through {@link Metrics#toHour()} or {@link
+ * Metrics#toDay()}, rather than every minute metrics is cloned and merged again.
+ */
+public class DownSamplingBufferedData implements BufferedData<Metrics> {
+    private final DownSampling downSampling;
+    private final Map<String, Metrics> buffer;
+
+    /**
+     * @param downSampling {@link DownSampling#Hour} or {@link DownSampling#Day}
+     */
+    public DownSamplingBufferedData(DownSampling downSampling) {
+        if (downSampling != DownSampling.Hour && downSampling != DownSampling.Day) {
+            throw new IllegalArgumentException("Can't down sample the metrics to " + downSampling);
+        }
+        this.downSampling = downSampling;
+        this.buffer = new HashMap<>();
+    }
+
+    /**
+     * Fold the minute metrics into the existing downsampled metrics.
+     *
+     * This method is not thread safe, should avoid concurrency calling.
+     *
+     * @param data in minute precision, which is not changed nor held by this buffer.
+     */
+    @Override
+    public void accept(final Metrics data) {
+        Metrics downSampled = null;
+        String id = downSampledId(data);
+        if (id == null) {
+            // The ID isn't prefixed by the time bucket, build the downsampled metrics to get it.
+            downSampled = downSample(data);
+            id = downSampled.id();
+        }
+        final Metrics existed = buffer.get(id);
+        if (existed == null) {
+            buffer.put(id, downSampled == null ? downSample(data) : downSampled);
+        } else {
+            final boolean isAbandoned = !existed.combine(data);
+            if (isAbandoned) {
+                buffer.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public List<Metrics> read() {
+        try {
+            return new ArrayList<>(buffer.values());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private Metrics downSample(Metrics data) {
+        return downSampling == DownSampling.Hour ? data.toHour() : data.toDay();
+    }
+
+    /**
+     * The metrics IDs are built as `time bucket + _ + entity`, see {@link Metrics#id()}, so the downsampled ID is
+     * built by replacing the time bucket prefix.
+     *
+     * @return the ID of the downsampled metrics, or null if the ID doesn't start with the time bucket.
+     */
+    private String downSampledId(Metrics data) {
+        final String id = data.id();
+        final String timeBucket = String.valueOf(data.getTimeBucket());
+        if (!id.startsWith(timeBucket) || !id.startsWith(Const.ID_CONNECTOR, timeBucket.length())) {
+            return null;
+        }
+        final long downSampledTimeBucket = downSampling == DownSampling.Hour
+            ? data.toTimeBucketInHour() : data.toTimeBucketInDay();
+        return downSampledTimeBucket + id.substring(timeBucket.length());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * OpenAddressingMergableBufferedData is a thread no safe implementation of {@link BufferedData}, works as same as
+ * {@link MergableBufferedData}, but {@link Metrics} are located by {@link Object#hashCode()} and {@link
+ * Object#equals(Object)}, rather than building the {@link Metrics#id()} string for every accepted metrics.
+ * <p>
+ * The metrics are kept in a linear probing table. The table keeps its capacity across {@link #read()}s, so it is sized
+ * by the observed cardinality of the model, and only shrinks when the cardinality drops a lot.
+ * <p>
+ * {@link #read()} returns a reused list, which is refilled in the next read. The caller should not hold it longer.
+ */
+public class OpenAddressingMergableBufferedData<METRICS extends Metrics> implements BufferedData<METRICS> {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[] table;
+    private int[] hashes;
+    private int mask;
+    private int size;
+    private int threshold;
+    private final ArrayList<METRICS> readView;
+
+    public OpenAddressingMergableBufferedData() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the expected number of metrics in one round.
+     */
+    public OpenAddressingMergableBufferedData(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+        readView = new ArrayList<>();
+    }
+
+    /**
+     * Accept the data into the cache and merge with the existing value.
+     *
+     * This method is not thread safe, should avoid concurrency calling.
+     *
+     * @param data to be added potentially.
+     */
+    @Override
+    public void accept(final METRICS data) {
+        final int hash = spread(data.hashCode());
+        int index = hash & mask;
+        while (true) {
+            final Object existed = table[index];
+            if (existed == null) {
+                table[index] = data;
+                hashes[index] = hash;
+                if (++size > threshold) {
+                    resize(table.length << 1);
+                }
+                return;
+            }
+            if (hashes[index] == hash && existed.equals(data)) {
+                final boolean isAbandoned = !((METRICS) existed).combine(data);
+                if (isAbandoned) {
+                    removeAt(index);
+                }
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    public List<METRICS> read() {
+        readView.clear();
+        if (size == 0) {
+            return readView;
+        }
+        readView.ensureCapacity(size);
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null) {
+                readView.add((METRICS) table[i]);
+                table[i] = null;
+            }
+        }
+        final int observed = size;
+        size = 0;
+        // Release the memory if the cardinality drops far below the capacity.
+        final int capacity = capacityFor(observed);
+        if (capacity < table.length >> 2) {
+            allocate(capacity);
+        }
+        return readView;
+    }
+
+    /**
+     * Remove the slot and shift the following entries of the same probe sequence back, so the table has no
+     * tombstones.
+     */
+    private void removeAt(int index) {
+        table[index] = null;
+        size--;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            final Object entry = table[next];
+            if (entry == null) {
+                return;
+            }
+            final int ideal = hashes[next] & mask;
+            // Keep the entry if its ideal slot is in the cyclic range (index, next].
+            final boolean reachable = index <= next ? index < ideal && ideal <= next : index < ideal || ideal <= next;
+            if (!reachable) {
+                table[index] = entry;
+                hashes[index] = hashes[next];
+                table[next] = null;
+                index = next;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        final Object[] oldTable = table;
+        final int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                int index = oldHashes[i] & mask;
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = oldTable[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity == MAX_CAPACITY ? Integer.MAX_VALUE : capacity >> 1;
+    }
+
+    /**
+     * @return the power of two capacity keeping the load factor under 0.5 for the given size.
+     */
+    private static int capacityFor(int expectedSize) {
+        if (expectedSize >= MAX_CAPACITY >> 1) {
+            return MAX_CAPACITY;
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.List;
+
+/**
+ * ReadWriteCache isolates the writes of the workers from the read of the persistence, see {@link ReadWriteSafeCache}
+ * and {@link ShardedReadWriteSafeCache}.
+ */
+public interface ReadWriteCache<T> {
+    /**
+     * @param data to enqueue.
+     */
+    void write(T data);
+
+    /**
+     * @param data to enqueue.
+     */
+    void write(List<T> data);
+
+    /**
+     * Read all data written since the last read.
+     */
+    List<T> read();
+}
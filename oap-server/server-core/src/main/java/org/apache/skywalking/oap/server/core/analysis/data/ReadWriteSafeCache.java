@@ -24,7 +24,7 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * ReadWriteSafeCache provides a read/write isolated cache.
  */
-public class ReadWriteSafeCache<T> {
+public class ReadWriteSafeCache<T> implements ReadWriteCache<T> {
     /**
      * Pointer of read buffer.
      */
@@ -55,6 +55,7 @@ public class ReadWriteSafeCache<T> {
      *
      * @param data to enqueue.
      */
+    @Override
     public void write(T data) {
         lock.lock();
         try {
@@ -69,6 +70,7 @@ public class ReadWriteSafeCache<T> {
      *
      * @param data to enqueue.
      */
+    @Override
     public void write(List<T> data) {
         lock.lock();
         try {
@@ -78,6 +80,7 @@ public class ReadWriteSafeCache<T> {
         }
     }
 
+    @Override
     public List<T> read() {
         lock.lock();
         try {
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ShardedReadWriteSafeCache stripes the writes over a fixed number of {@link ReadWriteSafeCache} shards, so the
+ * writer threads don't contend on one lock. Every writer thread takes the next shard at its first write, and keeps
+ * writing to it. So with no more writer threads than shards, such as the threads of the L2 aggregation pool, the lock
+ * of every shard is only taken by its writer and the reader.
+ * <p>
+ * {@link #read()} switches the buffers of every shard, and merges the read buffers of all shards through a new buffer
+ * when more than one shard has data.
+ */
+public class ShardedReadWriteSafeCache<T> implements ReadWriteCache<T> {
+    private final Supplier<BufferedData<T>> bufferSupplier;
+    private final ReadWriteSafeCache<T>[] shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    /**
+     * The index of the shard of the writer thread, taken in the order of the first writes.
+     */
+    private final ThreadLocal<Integer> shardIndex;
+
+    /**
+     * @param shardNum       the number of the shards, which should be the max number of the writer threads.
+     * @param bufferSupplier creates the buffers of the shards, and the buffer to merge the shards when reading.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedReadWriteSafeCache(int shardNum, Supplier<BufferedData<T>> bufferSupplier) {
+        this.bufferSupplier = bufferSupplier;
+        this.shards = new ReadWriteSafeCache[shardNum];
+        for (int i = 0; i < shardNum; i++) {
+            shards[i] = new ReadWriteSafeCache<>(bufferSupplier.get(), bufferSupplier.get());
+        }
+        this.shardIndex = ThreadLocal.withInitial(() -> Math.floorMod(nextShard.getAndIncrement(), shardNum));
+    }
+
+    /**
+     * Write the data into the shard of the current thread.
+     *
+     * @param data to enqueue.
+     */
+    @Override
+    public void write(T data) {
+        currentShard().write(data);
+    }
+
+    /**
+     * Write the collection of data into the shard of the current thread.
+     *
+     * @param data to enqueue.
+     */
+    @Override
+    public void write(List<T> data) {
+        currentShard().write(data);
+    }
+
+    @Override
+    public synchronized List<T> read() {
+        List<T> result = null;
+        BufferedData<T> mergeBuffer = null;
+        for (ReadWriteSafeCache<T> shard : shards) {
+            final List<T> data = shard.read();
+            if (data.isEmpty()) {
+                continue;
+            }
+            if (result == null) {
+                // Mostly, there is only one writer thread, no merge required.
+                result = data;
+                continue;
+            }
+            if (mergeBuffer == null) {
+                mergeBuffer = bufferSupplier.get();
+                result.forEach(mergeBuffer::accept);
+            }
+            data.forEach(mergeBuffer::accept);
+        }
+        if (mergeBuffer != null) {
+            return mergeBuffer.read();
+        }
+        return result == null ? new ArrayList<>(0) : result;
+    }
+
+    /**
+     * @return the index of the shard of the current thread, the threads more than the shards share them in turn.
+     */
+    int currentShardIndex() {
+        return shardIndex.get();
+    }
+
+    private ReadWriteSafeCache<T> currentShard() {
+        return shards[currentShardIndex()];
+    }
+}
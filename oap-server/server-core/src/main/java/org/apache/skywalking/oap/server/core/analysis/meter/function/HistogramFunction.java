@@ -125,7 +125,11 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setDataset(new DataTable(remoteData.getDataObjectBytes(0)));
+        } else {
+            this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        }
     }
 
     @Override
@@ -140,6 +144,18 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
         return remoteBuilder;
     }
 
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectBytes(dataset.toBytes());
+
+        return remoteBuilder;
+    }
+
     @Override
     protected String id0() {
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
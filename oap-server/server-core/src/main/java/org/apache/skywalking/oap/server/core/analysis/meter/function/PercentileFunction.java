@@ -229,9 +229,15 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setDataset(new DataTable(remoteData.getDataObjectBytes(0)));
+            this.setRanks(new IntList(remoteData.getDataObjectBytes(1)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectBytes(2)));
+        } else {
+            this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+            this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        }
     }
 
     @Override
@@ -248,6 +254,20 @@ public abstract class PercentileFunction extends Meter implements AcceptableValu
         return remoteBuilder;
     }
 
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectBytes(dataset.toBytes());
+        remoteBuilder.addDataObjectBytes(ranks.toBytes());
+        remoteBuilder.addDataObjectBytes(percentileValues.toBytes());
+
+        return remoteBuilder;
+    }
+
     @Override
     protected String id0() {
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
@@ -149,9 +149,15 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(2)));
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setCount(new DataTable(remoteData.getDataObjectBytes(0)));
+            this.setSummation(new DataTable(remoteData.getDataObjectBytes(1)));
+            this.setDataset(new DataTable(remoteData.getDataObjectBytes(2)));
+        } else {
+            this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
+            this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+            this.setDataset(new DataTable(remoteData.getDataObjectStrings(2)));
+        }
     }
 
     @Override
@@ -168,6 +174,20 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
         return remoteBuilder;
     }
 
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectBytes(count.toBytes());
+        remoteBuilder.addDataObjectBytes(summation.toBytes());
+        remoteBuilder.addDataObjectBytes(dataset.toBytes());
+
+        return remoteBuilder;
+    }
+
     @Override
     protected String id0() {
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
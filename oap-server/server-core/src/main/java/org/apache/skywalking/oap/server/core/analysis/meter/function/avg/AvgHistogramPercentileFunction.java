@@ -299,10 +299,17 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(2)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(3)));
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setSummation(new DataTable(remoteData.getDataObjectBytes(0)));
+            this.setCount(new DataTable(remoteData.getDataObjectBytes(1)));
+            this.setRanks(new IntList(remoteData.getDataObjectBytes(2)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectBytes(3)));
+        } else {
+            this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
+            this.setCount(new DataTable(remoteData.getDataObjectStrings(1)));
+            this.setRanks(new IntList(remoteData.getDataObjectStrings(2)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(3)));
+        }
     }
 
     @Override
@@ -320,6 +327,21 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
         return remoteBuilder;
     }
 
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectBytes(summation.toBytes());
+        remoteBuilder.addDataObjectBytes(count.toBytes());
+        remoteBuilder.addDataObjectBytes(ranks.toBytes());
+        remoteBuilder.addDataObjectBytes(percentileValues.toBytes());
+
+        return remoteBuilder;
+    }
+
     @Override
     protected String id0() {
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
@@ -131,8 +131,13 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
 
     @Override
     public void deserialize(final RemoteData remoteData) {
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setCount(new DataTable(remoteData.getDataObjectBytes(0)));
+            this.setSummation(new DataTable(remoteData.getDataObjectBytes(1)));
+        } else {
+            this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
+            this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+        }
         setTimeBucket(remoteData.getDataLongs(0));
 
         this.entityId = remoteData.getDataStrings(0);
@@ -152,6 +157,19 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
         return remoteBuilder;
     }
 
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataObjectBytes(count.toBytes());
+        remoteBuilder.addDataObjectBytes(summation.toBytes());
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+        remoteBuilder.addDataStrings(serviceId);
+
+        return remoteBuilder;
+    }
+
     @Override
     protected String id0() {
         return getTimeBucket() + Const.ID_CONNECTOR + entityId;
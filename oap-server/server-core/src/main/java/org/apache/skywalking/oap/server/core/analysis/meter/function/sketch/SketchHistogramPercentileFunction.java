@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.meter.function.sketch;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.meter.Meter;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.BucketedValues;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileArgument;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledQuantileSketch;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
+import org.apache.skywalking.oap.server.core.analysis.metrics.QuantileSketch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+
+/**
+ * SketchHistogramPercentile calculates the percentiles of the histogram as {@link
+ * org.apache.skywalking.oap.server.core.analysis.meter.function.avg.AvgHistogramPercentileFunction}, but the counts of
+ * the buckets are added into a {@link QuantileSketch} of every group, rather than kept in the string keyed tables. The
+ * count of a bucket is counted at the lower bound of the bucket, the bucket of the negative infinity is counted as 0.
+ * <p>
+ * The sketches are merged over the interval(minute, hour or day), so the percentiles are weighted by the counts rather
+ * than the average of the buckets.
+ *
+ * @since 9.2.0
+ */
+@MeterFunction(functionName = "sketchHistogramPercentile")
+@Slf4j
+public abstract class SketchHistogramPercentileFunction extends Meter implements AcceptableValue<PercentileArgument>, MultiIntValuesHolder {
+    public static final String SKETCH = "sketch";
+    public static final String RANKS = "ranks";
+    public static final String VALUE = "value";
+
+    @Setter
+    @Getter
+    @Column(columnName = ENTITY_ID)
+    @BanyanDB.ShardingKey(index = 0)
+    private String entityId;
+    @Getter
+    @Setter
+    @Column(columnName = VALUE, dataType = Column.ValueDataType.LABELED_VALUE, storageOnly = true)
+    private DataTable percentileValues = new DataTable(10);
+    @Getter
+    @Setter
+    @Column(columnName = SKETCH, storageOnly = true)
+    private LabeledQuantileSketch sketch = new LabeledQuantileSketch();
+    @Getter
+    @Setter
+    @Column(columnName = RANKS, storageOnly = true)
+    private IntList ranks = new IntList(10);
+
+    private boolean isCalculated = false;
+
+    @Override
+    public void accept(final MeterEntity entity, final PercentileArgument value) {
+        for (final int rank : value.getRanks()) {
+            if (rank <= 0) {
+                throw new IllegalArgumentException("Illegal rank value " + rank + ", must be positive");
+            }
+        }
+
+        if (ranks.size() > 0) {
+            if (ranks.size() != value.getRanks().length) {
+                throw new IllegalArgumentException(
+                    "Incompatible ranks size = [" + value.getRanks().length + "] for current PercentileFunction[" + ranks
+                        .size() + "]");
+            } else {
+                for (final int rank : value.getRanks()) {
+                    if (!ranks.include(rank)) {
+                        throw new IllegalArgumentException(
+                            "Rank " + rank + " doesn't exist in the previous ranks " + ranks);
+                    }
+                }
+            }
+        } else {
+            for (final int rank : value.getRanks()) {
+                ranks.add(rank);
+            }
+        }
+
+        this.entityId = entity.id();
+
+        final BucketedValues bucketedValues = value.getBucketedValues();
+        final String group = bucketedValues.getGroup() == null ? "" : bucketedValues.getGroup();
+        final long[] values = bucketedValues.getValues();
+        for (int i = 0; i < values.length; i++) {
+            final long bucket = bucketedValues.getBuckets()[i];
+            sketch.accept(group, bucket == Long.MIN_VALUE ? 0 : bucket, values[i]);
+        }
+
+        this.isCalculated = false;
+    }
+
+    @Override
+    public boolean combine(final Metrics metrics) {
+        SketchHistogramPercentileFunction percentile = (SketchHistogramPercentileFunction) metrics;
+
+        if (this.ranks.size() > 0) {
+            IntList ranksOfThat = percentile.getRanks();
+            if (this.ranks.size() != ranksOfThat.size()) {
+                log.warn("Incompatible ranks size = [{}}] for current PercentileFunction[{}]",
+                         ranksOfThat.size(), this.ranks.size()
+                );
+                return true;
+            } else {
+                if (!this.ranks.equals(ranksOfThat)) {
+                    log.warn("Rank {} doesn't exist in the previous ranks {}", ranksOfThat, this.ranks);
+                    return true;
+                }
+            }
+        }
+
+        this.sketch.merge(percentile.sketch);
+
+        this.isCalculated = false;
+        return true;
+    }
+
+    @Override
+    public void calculate() {
+        if (!isCalculated) {
+            for (final String group : sketch.labels()) {
+                final QuantileSketch groupSketch = sketch.get(group);
+                for (int i = 0; i < ranks.size(); i++) {
+                    final int rank = ranks.get(i);
+                    final String key = group.isEmpty() ? String.valueOf(rank) : group + ":" + rank;
+                    percentileValues.put(key, Math.round(groupSketch.quantile(rank / 100.0)));
+                }
+            }
+            isCalculated = true;
+        }
+    }
+
+    @Override
+    public Metrics toHour() {
+        SketchHistogramPercentileFunction metrics = (SketchHistogramPercentileFunction) createNew();
+        metrics.setEntityId(getEntityId());
+        metrics.setTimeBucket(toTimeBucketInHour());
+        metrics.getSketch().copyFrom(getSketch());
+        metrics.setRanks(getRanks());
+        metrics.setPercentileValues(getPercentileValues());
+        return metrics;
+    }
+
+    @Override
+    public Metrics toDay() {
+        SketchHistogramPercentileFunction metrics = (SketchHistogramPercentileFunction) createNew();
+        metrics.setEntityId(getEntityId());
+        metrics.setTimeBucket(toTimeBucketInDay());
+        metrics.getSketch().copyFrom(getSketch());
+        metrics.setRanks(getRanks());
+        metrics.setPercentileValues(getPercentileValues());
+        return metrics;
+    }
+
+    @Override
+    public int[] getValues() {
+        return percentileValues.sortedValues(Comparator.comparingInt(Integer::parseInt))
+                               .stream()
+                               .flatMapToInt(l -> IntStream.of(l.intValue()))
+                               .toArray();
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return entityId.hashCode();
+    }
+
+    @Override
+    public void deserialize(final RemoteData remoteData) {
+        this.setTimeBucket(remoteData.getDataLongs(0));
+
+        this.setEntityId(remoteData.getDataStrings(0));
+
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            this.setSketch(new LabeledQuantileSketch(remoteData.getDataObjectBytes(0)));
+            this.setRanks(new IntList(remoteData.getDataObjectBytes(1)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectBytes(2)));
+        } else {
+            this.setSketch(new LabeledQuantileSketch(remoteData.getDataObjectStrings(0)));
+            this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
+            this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        }
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectStrings(sketch.toStorageData());
+        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
+        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+
+        return remoteBuilder;
+    }
+
+    @Override
+    public RemoteData.Builder serializeBinary() {
+        RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataLongs(getTimeBucket());
+
+        remoteBuilder.addDataStrings(entityId);
+
+        remoteBuilder.addDataObjectBytes(sketch.toBytes());
+        remoteBuilder.addDataObjectBytes(ranks.toBytes());
+        remoteBuilder.addDataObjectBytes(percentileValues.toBytes());
+
+        return remoteBuilder;
+    }
+
+    @Override
+    protected String id0() {
+        return getTimeBucket() + Const.ID_CONNECTOR + entityId;
+    }
+
+    @Override
+    public Class<? extends SketchPercentileFunctionBuilder> builder() {
+        return SketchPercentileFunctionBuilder.class;
+    }
+
+    public static class SketchPercentileFunctionBuilder implements StorageBuilder<SketchHistogramPercentileFunction> {
+        @Override
+        public SketchHistogramPercentileFunction storage2Entity(final Convert2Entity converter) {
+            SketchHistogramPercentileFunction metrics = new SketchHistogramPercentileFunction() {
+                @Override
+                public AcceptableValue<PercentileArgument> createNew() {
+                    throw new UnexpectedException("createNew should not be called");
+                }
+            };
+            metrics.setSketch(new LabeledQuantileSketch((String) converter.get(SKETCH)));
+            metrics.setRanks(new IntList((String) converter.get(RANKS)));
+            metrics.setPercentileValues(new DataTable((String) converter.get(VALUE)));
+            metrics.setTimeBucket(((Number) converter.get(TIME_BUCKET)).longValue());
+            metrics.setEntityId((String) converter.get(ENTITY_ID));
+            return metrics;
+        }
+
+        @Override
+        public void entity2Storage(final SketchHistogramPercentileFunction storageData, final Convert2Storage converter) {
+            converter.accept(SKETCH, storageData.getSketch());
+            converter.accept(RANKS, storageData.getRanks());
+            converter.accept(VALUE, storageData.getPercentileValues());
+            converter.accept(TIME_BUCKET, storageData.getTimeBucket());
+            converter.accept(ENTITY_ID, storageData.getEntityId());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SketchHistogramPercentileFunction)) {
+            return false;
+        }
+        SketchHistogramPercentileFunction function = (SketchHistogramPercentileFunction) o;
+        return Objects.equals(entityId, function.entityId) &&
+            getTimeBucket() == function.getTimeBucket();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entityId, getTimeBucket());
+    }
+}
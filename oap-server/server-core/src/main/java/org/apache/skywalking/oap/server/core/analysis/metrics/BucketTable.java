@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+
+/**
+ * BucketTable keeps the counts of the int buckets in two primitive arrays sorted by the bucket. It is the working form
+ * of the dataset of {@link PercentileMetrics} and {@link HistogramMetrics}, accumulating a value into an existing
+ * bucket allocates nothing, and two tables are merged in linear time. It is converted from and to the {@link DataTable}
+ * only when the metrics are persisted or sent to another OAP node.
+ */
+public class BucketTable {
+    private int[] buckets;
+    private long[] counts;
+    private int size;
+
+    public BucketTable(int initialCapacity) {
+        buckets = new int[initialCapacity];
+        counts = new long[initialCapacity];
+    }
+
+    /**
+     * Accumulate the count with the existing count of the given bucket.
+     */
+    public void accumulate(int bucket, long count) {
+        int index = Arrays.binarySearch(buckets, 0, size, bucket);
+        if (index >= 0) {
+            counts[index] += count;
+            return;
+        }
+        index = -index - 1;
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(buckets, index, buckets, index + 1, size - index);
+            System.arraycopy(counts, index, counts, index + 1, size - index);
+        }
+        buckets[index] = bucket;
+        counts[index] = count;
+        size++;
+    }
+
+    /**
+     * Accumulate all counts of the given table, by walking through both of the sorted buckets once.
+     */
+    public void merge(BucketTable that) {
+        if (that.size == 0) {
+            return;
+        }
+        if (sameBuckets(that)) {
+            // Usually the tables of the histogram have the same buckets.
+            for (int i = 0; i < size; i++) {
+                counts[i] += that.counts[i];
+            }
+            return;
+        }
+        final int[] mergedBuckets = new int[size + that.size];
+        final long[] mergedCounts = new long[size + that.size];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size || j < that.size) {
+            if (j == that.size || (i < size && buckets[i] < that.buckets[j])) {
+                mergedBuckets[k] = buckets[i];
+                mergedCounts[k] = counts[i++];
+            } else if (i == size || that.buckets[j] < buckets[i]) {
+                mergedBuckets[k] = that.buckets[j];
+                mergedCounts[k] = that.counts[j++];
+            } else {
+                mergedBuckets[k] = buckets[i];
+                mergedCounts[k] = counts[i++] + that.counts[j++];
+            }
+            k++;
+        }
+        buckets = mergedBuckets;
+        counts = mergedCounts;
+        size = k;
+    }
+
+    /**
+     * @return the sum of all counts.
+     */
+    public long sumOfCounts() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    public int bucketAt(int index) {
+        return buckets[index];
+    }
+
+    public long countAt(int index) {
+        return counts[index];
+    }
+
+    public boolean hasData() {
+        return size > 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Replace the buckets by the ones of the given table, whose keys are the buckets in the string form.
+     */
+    public void copyFrom(DataTable dataTable) {
+        final int[] sortedBuckets = dataTable.keys().stream().mapToInt(Integer::parseInt).sorted().toArray();
+        ensureCapacity(sortedBuckets.length);
+        for (int i = 0; i < sortedBuckets.length; i++) {
+            buckets[i] = sortedBuckets[i];
+            counts[i] = dataTable.get(String.valueOf(sortedBuckets[i]));
+        }
+        size = sortedBuckets.length;
+    }
+
+    /**
+     * @return the table keyed by the buckets in the string form, which is the storage and remote form.
+     */
+    public DataTable toDataTable() {
+        final DataTable dataTable = new DataTable(size);
+        for (int i = 0; i < size; i++) {
+            dataTable.put(String.valueOf(buckets[i]), counts[i]);
+        }
+        return dataTable;
+    }
+
+    private boolean sameBuckets(BucketTable that) {
+        if (size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (buckets[i] != that.buckets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buckets.length) {
+            final int newCapacity = Math.max(capacity, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
+    }
+}
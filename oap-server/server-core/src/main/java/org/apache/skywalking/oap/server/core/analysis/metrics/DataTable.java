@@ -17,15 +17,21 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 
 /**
@@ -49,6 +55,11 @@ public class DataTable implements StorageDataComplexObject<DataTable> {
         toObject(data);
     }
 
+    public DataTable(ByteString data) {
+        this();
+        toObject(data);
+    }
+
     public Long get(String key) {
         return data.get(key);
     }
@@ -136,6 +147,39 @@ public class DataTable implements StorageDataComplexObject<DataTable> {
         }
     }
 
+    /**
+     * The binary form is the varint of the number of the entries, followed by the entries, every entry is a
+     * length-delimited key and a zigzag varint value. The keys of the buckets are short, so is the binary form.
+     */
+    @Override
+    public ByteString toBytes() {
+        final ByteString.Output output = ByteString.newOutput();
+        final CodedOutputStream stream = CodedOutputStream.newInstance(output);
+        try {
+            stream.writeUInt32NoTag(data.size());
+            for (final Map.Entry<String, Long> entry : data.entrySet()) {
+                stream.writeStringNoTag(entry.getKey());
+                stream.writeSInt64NoTag(entry.getValue());
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return output.toByteString();
+    }
+
+    @Override
+    public void toObject(final ByteString data) {
+        final CodedInputStream stream = data.newCodedInput();
+        try {
+            for (int size = stream.readUInt32(); size > 0; size--) {
+                this.data.put(stream.readString(), stream.readSInt64());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public void copyFrom(final DataTable source) {
         this.append(source);
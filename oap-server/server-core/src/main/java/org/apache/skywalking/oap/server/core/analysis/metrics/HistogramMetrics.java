@@ -18,8 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import lombok.Getter;
-import lombok.Setter;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Arg;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.MetricsFunction;
@@ -39,10 +37,13 @@ public abstract class HistogramMetrics extends Metrics {
 
     public static final String DATASET = "dataset";
 
-    @Getter
-    @Setter
     @Column(columnName = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
     private DataTable dataset = new DataTable(30);
+    /**
+     * The working form of the dataset, which is rebuilt from the buckets when it is read.
+     */
+    private final BucketTable buckets = new BucketTable(30);
+    private boolean isDatasetOutdated;
 
     /**
      * Data will be grouped in
@@ -58,10 +59,9 @@ public abstract class HistogramMetrics extends Metrics {
      */
     @Entrance
     public final void combine(@SourceFrom int value, @Arg int step, @Arg int maxNumOfSteps) {
-        if (!dataset.hasData()) {
+        if (!buckets.hasData()) {
             for (int i = 0; i <= maxNumOfSteps; i++) {
-                String key = String.valueOf(i * step);
-                dataset.put(key, 0L);
+                buckets.accumulate(i * step, 0L);
             }
         }
 
@@ -69,18 +69,33 @@ public abstract class HistogramMetrics extends Metrics {
         if (index > maxNumOfSteps) {
             index = maxNumOfSteps;
         }
-        String idx = String.valueOf(index * step);
 
-        dataset.valueAccumulation(idx, 1L);
+        buckets.accumulate(index * step, 1L);
+        isDatasetOutdated = true;
     }
 
     @Override
     public boolean combine(Metrics metrics) {
         HistogramMetrics histogramMetrics = (HistogramMetrics) metrics;
-        this.dataset.append(histogramMetrics.dataset);
+        this.buckets.merge(histogramMetrics.buckets);
+        isDatasetOutdated = true;
         return true;
     }
 
+    public DataTable getDataset() {
+        if (isDatasetOutdated) {
+            dataset = buckets.toDataTable();
+            isDatasetOutdated = false;
+        }
+        return dataset;
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        this.buckets.copyFrom(dataset);
+        this.isDatasetOutdated = false;
+    }
+
     /**
      * For Thermodynamic metrics, no single value field. Need to do nothing here.
      */
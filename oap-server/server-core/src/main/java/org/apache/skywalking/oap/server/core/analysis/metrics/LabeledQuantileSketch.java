@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * LabeledQuantileSketch keeps a {@link QuantileSketch} per label, such as the group of the histogram in MAL.
+ */
+public class LabeledQuantileSketch implements StorageDataComplexObject<LabeledQuantileSketch> {
+    private final Map<String, QuantileSketch> sketches = new HashMap<>();
+
+    public LabeledQuantileSketch() {
+    }
+
+    public LabeledQuantileSketch(String data) {
+        toObject(data);
+    }
+
+    public LabeledQuantileSketch(ByteString data) {
+        toObject(data);
+    }
+
+    public void accept(String label, double value, long n) {
+        sketches.computeIfAbsent(label, k -> new QuantileSketch()).accept(value, n);
+    }
+
+    public void merge(LabeledQuantileSketch that) {
+        that.sketches.forEach((label, sketch) -> sketches.computeIfAbsent(label, k -> new QuantileSketch())
+                                                         .merge(sketch));
+    }
+
+    public QuantileSketch get(String label) {
+        return sketches.get(label);
+    }
+
+    public Set<String> labels() {
+        return sketches.keySet();
+    }
+
+    @Override
+    public String toStorageData() {
+        return Base64.getEncoder().encodeToString(toBytes().toByteArray());
+    }
+
+    @Override
+    public void toObject(final String data) {
+        if (Strings.isNullOrEmpty(data)) {
+            return;
+        }
+        toObject(ByteString.copyFrom(Base64.getDecoder().decode(data)));
+    }
+
+    /**
+     * The binary form is the number of the labels, followed by the length-delimited label and binary form of the
+     * sketch of every label.
+     */
+    @Override
+    public ByteString toBytes() {
+        final ByteString.Output output = ByteString.newOutput();
+        final CodedOutputStream stream = CodedOutputStream.newInstance(output);
+        try {
+            stream.writeUInt32NoTag(sketches.size());
+            for (final Map.Entry<String, QuantileSketch> entry : sketches.entrySet()) {
+                stream.writeStringNoTag(entry.getKey());
+                stream.writeBytesNoTag(entry.getValue().toBytes());
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return output.toByteString();
+    }
+
+    @Override
+    public void toObject(final ByteString data) {
+        final CodedInputStream stream = data.newCodedInput();
+        try {
+            for (int size = stream.readUInt32(); size > 0; size--) {
+                final String label = stream.readString();
+                sketches.computeIfAbsent(label, k -> new QuantileSketch()).toObject(stream.readBytes());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void copyFrom(final LabeledQuantileSketch source) {
+        this.merge(source);
+    }
+}
@@ -19,7 +19,6 @@
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
 import java.util.Comparator;
-import java.util.List;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
@@ -46,6 +45,13 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         95,
         99
     };
+    private static final String[] RANK_KEYS = {
+        "0",
+        "1",
+        "2",
+        "3",
+        "4"
+    };
 
     @Getter
     @Setter
@@ -55,68 +61,72 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
     @Setter
     @Column(columnName = PRECISION, storageOnly = true)
     private int precision;
-    @Getter
-    @Setter
     @Column(columnName = DATASET, storageOnly = true)
     private DataTable dataset;
+    /**
+     * The working form of the dataset, which is rebuilt from the buckets when it is read.
+     */
+    private final BucketTable buckets;
+    private boolean isDatasetOutdated;
 
     private boolean isCalculated;
 
     public PercentileMetrics() {
         percentileValues = new DataTable(RANKS.length);
         dataset = new DataTable(30);
+        buckets = new BucketTable(30);
     }
 
     @Entrance
     public final void combine(@SourceFrom int value, @Arg int precision) {
         this.isCalculated = false;
+        this.isDatasetOutdated = true;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        dataset.valueAccumulation(index, 1L);
+        buckets.accumulate(value / precision, 1L);
     }
 
     @Override
     public boolean combine(Metrics metrics) {
         this.isCalculated = false;
+        this.isDatasetOutdated = true;
 
         PercentileMetrics percentileMetrics = (PercentileMetrics) metrics;
-        this.dataset.append(percentileMetrics.dataset);
+        this.buckets.merge(percentileMetrics.buckets);
         return true;
     }
 
     @Override
     public final void calculate() {
         if (!isCalculated) {
-            long total = dataset.sumOfValues();
-
-            int[] roofs = new int[RANKS.length];
-            for (int i = 0; i < RANKS.length; i++) {
-                roofs[i] = Math.round(total * RANKS[i] * 1.0f / 100);
-            }
-
-            int count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
-
-            int loopIndex = 0;
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
-                for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                    int roof = roofs[rankIdx];
-
-                    if (count >= roof) {
-                        percentileValues.put(String.valueOf(rankIdx), Long.parseLong(key) * precision);
-                        loopIndex++;
-                    } else {
-                        break;
-                    }
+            long total = buckets.sumOfCounts();
+
+            long count = 0;
+            int rankIdx = 0;
+            for (int i = 0; i < buckets.size() && rankIdx < RANKS.length; i++) {
+                count += buckets.countAt(i);
+                while (rankIdx < RANKS.length && count >= Math.round(total * RANKS[rankIdx] * 1.0f / 100)) {
+                    percentileValues.put(RANK_KEYS[rankIdx], (long) buckets.bucketAt(i) * precision);
+                    rankIdx++;
                 }
             }
         }
     }
 
+    public DataTable getDataset() {
+        if (isDatasetOutdated) {
+            dataset = buckets.toDataTable();
+            isDatasetOutdated = false;
+        }
+        return dataset;
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        this.buckets.copyFrom(dataset);
+        this.isDatasetOutdated = false;
+    }
+
     @Override
     public int[] getValues() {
         return percentileValues.sortedValues(Comparator.comparingInt(Integer::parseInt))
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.MetricsFunction;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.SourceFrom;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileSketch calculates the P50/75/90/95/99 values as {@link PercentileMetrics}, but based on the {@link
+ * QuantileSketch}, whose size is bounded regardless of the range of the values, and whose error is relative to the
+ * value rather than a fixed precision.
+ *
+ * @since 9.2.0
+ */
+@MetricsFunction(functionName = "percentileSketch")
+public abstract class PercentileSketchMetrics extends Metrics implements MultiIntValuesHolder {
+    protected static final String SKETCH = "sketch";
+    protected static final String VALUE = "value";
+
+    private static final int[] RANKS = {
+        50,
+        75,
+        90,
+        95,
+        99
+    };
+    private static final double[] QUANTILES = Arrays.stream(RANKS).mapToDouble(rank -> rank / 100.0).toArray();
+    private static final String[] RANK_KEYS = {
+        "0",
+        "1",
+        "2",
+        "3",
+        "4"
+    };
+
+    @Getter
+    @Setter
+    @Column(columnName = VALUE, dataType = Column.ValueDataType.LABELED_VALUE, storageOnly = true)
+    private DataTable percentileValues = new DataTable(RANKS.length);
+    @Getter
+    @Setter
+    @Column(columnName = SKETCH, storageOnly = true)
+    private QuantileSketch sketch = new QuantileSketch();
+
+    private boolean isCalculated;
+
+    @Entrance
+    public final void combine(@SourceFrom int value) {
+        this.isCalculated = false;
+
+        sketch.accept(value);
+    }
+
+    @Override
+    public boolean combine(Metrics metrics) {
+        this.isCalculated = false;
+
+        PercentileSketchMetrics sketchMetrics = (PercentileSketchMetrics) metrics;
+        this.sketch.merge(sketchMetrics.sketch);
+        return true;
+    }
+
+    @Override
+    public final void calculate() {
+        if (!isCalculated) {
+            final double[] values = sketch.quantiles(QUANTILES);
+            for (int i = 0; i < RANKS.length; i++) {
+                percentileValues.put(RANK_KEYS[i], Math.round(values[i]));
+            }
+            isCalculated = true;
+        }
+    }
+
+    @Override
+    public int[] getValues() {
+        return percentileValues.sortedValues(Comparator.comparingInt(Integer::parseInt))
+                               .stream()
+                               .flatMapToInt(l -> IntStream.of(l.intValue()))
+                               .toArray();
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * QuantileSketch estimates the quantiles of the values, with the error relative to the value less than {@link
+ * #RELATIVE_ACCURACY}, in the way of DDSketch. A positive value is counted in the bucket indexed by ceil(log_gamma(v)),
+ * the width of the buckets grows with the values, so the size of the sketch depends on the ratio of the largest value
+ * to the smallest one, rather than on the range and the precision like the {@link DataTable} of {@link
+ * PercentileMetrics}.
+ * <p>
+ * Sketches are merged by adding the counts of the same buckets, which keeps the error bound, so they are merged across
+ * the L1 and L2 aggregation and the downsampling as the other metrics. At most {@link #MAX_BINS} buckets are kept, the
+ * lowest buckets are collapsed into one when exceeding, which only impacts the lowest quantiles.
+ * <p>
+ * The storage form is the Base64 of the binary form.
+ */
+public class QuantileSketch implements StorageDataComplexObject<QuantileSketch> {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    public static final int MAX_BINS = 1024;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double MULTIPLIER = 1 / Math.log(GAMMA);
+    private static final int FORMAT_VERSION = 1;
+    private static final int INITIAL_BINS = 32;
+    private static final long[] EMPTY_BINS = new long[0];
+    /**
+     * The bucket indexes of the small int values, which are the most of the latencies.
+     */
+    private static final int[] SMALL_VALUE_INDEXES = new int[4096];
+
+    static {
+        for (int value = 1; value < SMALL_VALUE_INDEXES.length; value++) {
+            SMALL_VALUE_INDEXES[value] = indexOf(value);
+        }
+    }
+
+    /**
+     * The count of the values not greater than 0.
+     */
+    private long zeroCount;
+    /**
+     * The counts of the buckets, bins[i] is the count of the bucket indexed by offset + i.
+     */
+    private long[] bins = EMPTY_BINS;
+    private int offset;
+    private long count;
+
+    public QuantileSketch() {
+    }
+
+    public QuantileSketch(String data) {
+        toObject(data);
+    }
+
+    public QuantileSketch(ByteString data) {
+        toObject(data);
+    }
+
+    public void accept(int value) {
+        if (value > 0 && value < SMALL_VALUE_INDEXES.length) {
+            count++;
+            add(SMALL_VALUE_INDEXES[value], 1);
+        } else {
+            accept(value, 1);
+        }
+    }
+
+    public void accept(double value, long n) {
+        if (n <= 0) {
+            return;
+        }
+        count += n;
+        if (value <= 0) {
+            zeroCount += n;
+            return;
+        }
+        add(indexOf(value), n);
+    }
+
+    public void merge(QuantileSketch that) {
+        if (that.count == 0) {
+            return;
+        }
+        count += that.count;
+        zeroCount += that.zeroCount;
+        int lowest = -1;
+        int highest = -1;
+        for (int i = 0; i < that.bins.length; i++) {
+            if (that.bins[i] != 0) {
+                lowest = lowest < 0 ? i : lowest;
+                highest = i;
+            }
+        }
+        if (lowest < 0) {
+            return;
+        }
+        if (bins.length == 0) {
+            bins = Arrays.copyOfRange(that.bins, lowest, highest + 1);
+            offset = that.offset + lowest;
+            return;
+        }
+        ensureIndex(that.offset + lowest);
+        ensureIndex(that.offset + highest);
+        final int shift = that.offset - offset;
+        for (int i = lowest; i <= highest; i++) {
+            // The index lower than the offset has been collapsed into the lowest bucket.
+            bins[Math.max(i + shift, 0)] += that.bins[i];
+        }
+    }
+
+    /**
+     * @param quantile in [0, 1]
+     * @return the estimated value of the given quantile, 0 if there is no value.
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        final double rank = quantile * (count - 1);
+        long accumulated = zeroCount;
+        if (accumulated > rank) {
+            return 0;
+        }
+        int last = 0;
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] == 0) {
+                continue;
+            }
+            accumulated += bins[i];
+            last = i;
+            if (accumulated > rank) {
+                break;
+            }
+        }
+        return 2 * Math.pow(GAMMA, offset + last) / (GAMMA + 1);
+    }
+
+    /**
+     * Estimate several quantiles through one scan of the buckets.
+     *
+     * @param quantiles in [0, 1] and in ascending order
+     * @return the estimated values of the given quantiles, 0 if there is no value.
+     */
+    public double[] quantiles(double... quantiles) {
+        final double[] values = new double[quantiles.length];
+        if (count == 0) {
+            return values;
+        }
+        long accumulated = zeroCount;
+        int q = 0;
+        while (q < quantiles.length && accumulated > quantiles[q] * (count - 1)) {
+            q++;
+        }
+        int last = 0;
+        for (int i = 0; i < bins.length && q < quantiles.length; i++) {
+            if (bins[i] == 0) {
+                continue;
+            }
+            accumulated += bins[i];
+            last = i;
+            if (accumulated > quantiles[q] * (count - 1)) {
+                final double value = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+                while (q < quantiles.length && accumulated > quantiles[q] * (count - 1)) {
+                    values[q++] = value;
+                }
+            }
+        }
+        // The rounding error of the highest quantiles.
+        while (q < quantiles.length) {
+            values[q++] = 2 * Math.pow(GAMMA, offset + last) / (GAMMA + 1);
+        }
+        return values;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of the buckets allocated.
+     */
+    public int size() {
+        return bins.length;
+    }
+
+    @Override
+    public String toStorageData() {
+        return Base64.getEncoder().encodeToString(toBytes().toByteArray());
+    }
+
+    @Override
+    public void toObject(final String data) {
+        if (Strings.isNullOrEmpty(data)) {
+            return;
+        }
+        toObject(ByteString.copyFrom(Base64.getDecoder().decode(data)));
+    }
+
+    /**
+     * The binary form is the version, the relative accuracy, the count of zeros, the index of the lowest non-empty
+     * bucket, followed by the number of the buckets up to the highest non-empty one and the varint counts of them.
+     */
+    @Override
+    public ByteString toBytes() {
+        int lowest = 0;
+        while (lowest < bins.length && bins[lowest] == 0) {
+            lowest++;
+        }
+        int highest = bins.length - 1;
+        while (highest >= lowest && bins[highest] == 0) {
+            highest--;
+        }
+        final ByteString.Output output = ByteString.newOutput();
+        final CodedOutputStream stream = CodedOutputStream.newInstance(output);
+        try {
+            stream.writeUInt32NoTag(FORMAT_VERSION);
+            stream.writeDoubleNoTag(RELATIVE_ACCURACY);
+            stream.writeUInt64NoTag(zeroCount);
+            stream.writeSInt32NoTag(offset + lowest);
+            stream.writeUInt32NoTag(highest - lowest + 1);
+            for (int i = lowest; i <= highest; i++) {
+                stream.writeUInt64NoTag(bins[i]);
+            }
+            stream.flush();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return output.toByteString();
+    }
+
+    @Override
+    public void toObject(final ByteString data) {
+        final CodedInputStream stream = data.newCodedInput();
+        try {
+            final int version = stream.readUInt32();
+            final double relativeAccuracy = stream.readDouble();
+            if (version != FORMAT_VERSION || relativeAccuracy != RELATIVE_ACCURACY) {
+                throw new UnexpectedException(
+                    "Unsupported quantile sketch, version " + version + ", relative accuracy " + relativeAccuracy);
+            }
+            // Merged into the current values, so only the decoded counts are added.
+            final long zeros = stream.readUInt64();
+            zeroCount += zeros;
+            count += zeros;
+            final int lowest = stream.readSInt32();
+            final int size = stream.readUInt32();
+            for (int i = 0; i < size; i++) {
+                final long n = stream.readUInt64();
+                if (n != 0) {
+                    count += n;
+                    add(lowest + i, n);
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void copyFrom(final QuantileSketch source) {
+        this.merge(source);
+    }
+
+    private static int indexOf(double value) {
+        return (int) Math.ceil(Math.log(value) * MULTIPLIER);
+    }
+
+    private void add(int index, long n) {
+        ensureIndex(index);
+        // The index lower than the offset has been collapsed into the lowest bucket.
+        bins[Math.max(index, offset) - offset] += n;
+    }
+
+    private void ensureIndex(int index) {
+        if (bins.length == 0) {
+            bins = new long[INITIAL_BINS];
+            offset = index - INITIAL_BINS / 2;
+            return;
+        }
+        if (index >= offset && index < offset + bins.length) {
+            return;
+        }
+        final int lowest = Math.min(offset, index);
+        final int highest = Math.max(offset + bins.length - 1, index);
+        final int length;
+        final int newOffset;
+        if (highest - lowest + 1 > MAX_BINS) {
+            length = MAX_BINS;
+            newOffset = highest - MAX_BINS + 1;
+        } else {
+            length = Math.min(MAX_BINS, Math.max(highest - lowest + 1, bins.length * 2));
+            newOffset = index < offset ? highest - length + 1 : lowest;
+        }
+        final long[] newBins = new long[length];
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] != 0) {
+                newBins[Math.max(offset + i, newOffset) - newOffset] += bins[i];
+            }
+        }
+        bins = newBins;
+        offset = newOffset;
+    }
+}
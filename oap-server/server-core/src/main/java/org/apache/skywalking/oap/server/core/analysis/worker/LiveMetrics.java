@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsIds;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.HashMapConverter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
+
+/**
+ * LiveMetrics holds the minute metrics of the current and previous minutes received by the L2 aggregation of this OAP
+ * node, which may be not persisted yet. The metrics of one row could be aggregated by more than one OAP node, the
+ * reader should combine the metrics of all OAP nodes, see {@link Metrics#combine(Metrics)}.
+ *
+ * @since 9.2.0
+ */
+public class LiveMetrics {
+    private final Class<? extends Metrics> metricsClass;
+    private final StorageBuilder<Metrics> storageBuilder;
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    public LiveMetrics(Class<? extends Metrics> metricsClass, StorageBuilder<Metrics> storageBuilder) {
+        this.metricsClass = metricsClass;
+        this.storageBuilder = storageBuilder;
+    }
+
+    /**
+     * Combine the received metrics into the live one. The received metrics is merged in the cache of the persistent
+     * worker later, so the live one is always a copy of it.
+     */
+    void accept(Metrics received) {
+        metrics.compute(received.id(), (id, live) -> {
+            if (live == null) {
+                return copy(received.serialize().build());
+            }
+            live.combine(received);
+            return live;
+        });
+    }
+
+    /**
+     * Remove the metrics before the given minute time bucket, as they are persisted.
+     */
+    void removeBefore(long timeBucket) {
+        metrics.values().removeIf(live -> live.getTimeBucket() < timeBucket);
+    }
+
+    /**
+     * Serialize the live metrics of the given ids into the builder, the absent ones are skipped.
+     */
+    public void read(List<String> ids, LiveMetricsData.Builder builder) {
+        for (final String id : ids) {
+            final RemoteData[] data = new RemoteData[1];
+            // Serialize inside the lock of the row, as the live metrics is combined concurrently.
+            metrics.computeIfPresent(id, (key, live) -> {
+                data[0] = live.serialize().build();
+                return live;
+            });
+            if (data[0] != null) {
+                builder.addData(data[0]);
+            }
+        }
+    }
+
+    /**
+     * @return the metrics of the data serialized by {@link #read(List, LiveMetricsData.Builder)}.
+     */
+    public Metrics copy(RemoteData data) {
+        try {
+            final Metrics copy = metricsClass.getDeclaredConstructor().newInstance();
+            copy.deserialize(data);
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new UnexpectedException("Create " + metricsClass.getSimpleName() + " failure.", e);
+        }
+    }
+
+    /**
+     * @return the value of the column in the calculated metrics, in the form of the storage.
+     */
+    public Object valueOf(Metrics calculated, String columnName) {
+        final HashMapConverter.ToStorage toStorage = new HashMapConverter.ToStorage();
+        storageBuilder.entity2Storage(calculated, toStorage);
+        return toStorage.obtain().get(columnName);
+    }
+
+    /**
+     * Read the live metrics of the request from the workers of this OAP node.
+     *
+     * @return the live metrics in the same order of the request, not supported when the worker doesn't hold the live
+     * metrics, see {@link LiveMetricsData#getSupported()}.
+     */
+    public static LiveMetricsResponse read(IWorkerInstanceGetter workerInstanceGetter, LiveMetricsRequest request) {
+        final LiveMetricsResponse.Builder response = LiveMetricsResponse.newBuilder();
+        for (final LiveMetricsIds ids : request.getMetricsList()) {
+            final LiveMetricsData.Builder builder = LiveMetricsData.newBuilder().setWorkerName(ids.getWorkerName());
+            final LiveMetrics liveMetrics = of(workerInstanceGetter, ids.getWorkerName());
+            if (liveMetrics != null) {
+                builder.setSupported(true);
+                liveMetrics.read(ids.getIdsList(), builder);
+            }
+            response.addMetrics(builder);
+        }
+        return response.build();
+    }
+
+    /**
+     * @return the live metrics held by the remote receiver worker of the given name, or null if there is no such
+     * worker or the live metrics is disabled.
+     */
+    public static LiveMetrics of(IWorkerInstanceGetter workerInstanceGetter, String workerName) {
+        final RemoteHandleWorker handleWorker = workerInstanceGetter.get(workerName);
+        if (handleWorker == null) {
+            return null;
+        }
+        final AbstractWorker<?> worker = handleWorker.getWorker();
+        return worker instanceof MetricsPersistentWorker ? ((MetricsPersistentWorker) worker).getLiveMetrics() : null;
+    }
+}
@@ -26,11 +26,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.data.DownSamplingBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.OpenAddressingMergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteCache;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.data.ShardedReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -56,6 +63,10 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
      * The counter of MetricsPersistentWorker instance, to calculate session timeout offset.
      */
     private static long SESSION_TIMEOUT_OFFSITE_COUNTER = 0;
+    /**
+     * The down sampling level workers persist once in every this number of the persistent periods.
+     */
+    public static final int DOWN_SAMPLING_PERSISTENT_MOD = 4;
 
     private final Model model;
     private final Map<Metrics, Metrics> context;
@@ -88,12 +99,39 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
      * default.
      */
     private boolean skipDefaultValueMetric;
+    /**
+     * @since 9.2.0 The minute metrics of the current and previous minutes, for the live query. Null if it is disabled
+     * through {@link org.apache.skywalking.oap.server.core.CoreModuleConfig#isEnableLiveMetricsQuery()}, or the
+     * worker is a down-sampling one.
+     */
+    @Getter
+    private LiveMetrics liveMetrics;
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
                             MetricsTransWorker transWorker, boolean enableDatabaseSession, boolean supportUpdate,
-                            long storageSessionTimeout, int metricsDataTTL) {
-        super(moduleDefineHolder, new ReadWriteSafeCache<>(new MergableBufferedData(), new MergableBufferedData()));
+                            long storageSessionTimeout, int metricsDataTTL,
+                            boolean enableOpenAddressingAggregation, LiveMetrics liveMetrics) {
+        this(moduleDefineHolder, model, metricsDAO, nextAlarmWorker, nextExportWorker, transWorker,
+             new ShardedReadWriteSafeCache<>(
+                 l2AggregationPoolSize(),
+                 enableOpenAddressingAggregation ? OpenAddressingMergableBufferedData::new : MergableBufferedData::new),
+             true, enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
+        );
+        this.liveMetrics = liveMetrics;
+    }
+
+    /**
+     * @param queued {@code true} means the metrics are queued and merged into the cache by the L2 aggregation
+     *               threads. Otherwise, the metrics are written into the cache by the caller thread directly.
+     */
+    private MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
+                                    AbstractWorker<Metrics> nextAlarmWorker,
+                                    AbstractWorker<ExportEvent> nextExportWorker,
+                                    MetricsTransWorker transWorker, ReadWriteCache<Metrics> cache, boolean queued,
+                                    boolean enableDatabaseSession, boolean supportUpdate,
+                                    long storageSessionTimeout, int metricsDataTTL) {
+        super(moduleDefineHolder, cache);
         this.model = model;
         this.context = new HashMap<>(100);
         this.enableDatabaseSession = enableDatabaseSession;
@@ -108,20 +146,20 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         this.metricsDataTTL = metricsDataTTL;
         this.skipDefaultValueMetric = true;
 
-        String name = "METRICS_L2_AGGREGATION";
-        int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
-        if (size == 0) {
-            size = 1;
-        }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
-        try {
-            ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
-        } catch (Exception e) {
-            throw new UnexpectedException(e.getMessage(), e);
-        }
+        if (queued) {
+            String name = "METRICS_L2_AGGREGATION";
+            BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, l2AggregationPoolSize(), 20);
+            try {
+                ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
+            } catch (Exception e) {
+                throw new UnexpectedException(e.getMessage(), e);
+            }
 
-        this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
-        this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer());
+            this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, 2000);
+            this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer());
+        } else {
+            this.dataCarrier = null;
+        }
 
         MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
                                                           .provider()
@@ -140,7 +178,16 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     }
 
     /**
-     * Create the leaf and down-sampling MetricsPersistentWorker, no next step.
+     * @return the size of the L2 aggregation consumer pool, which is the max number of threads writing the cache.
+     */
+    private static int l2AggregationPoolSize() {
+        return Math.max(BulkConsumePool.Creator.recommendMaxSize() / 8, 1);
+    }
+
+    /**
+     * Create the leaf and down-sampling MetricsPersistentWorker, no next step. The minute metrics from the {@link
+     * MetricsTransWorker} are folded into the downsampled metrics in the cache directly, see {@link
+     * DownSamplingBufferedData}.
      */
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder,
                             Model model,
@@ -151,7 +198,11 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                             int metricsDataTTL) {
         this(moduleDefineHolder, model, metricsDAO,
              null, null, null,
-             enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
+             new ReadWriteSafeCache<>(
+                 new DownSamplingBufferedData(model.getDownsampling()),
+                 new DownSamplingBufferedData(model.getDownsampling())
+             ),
+             false, enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
         );
 
         // Skipping default value mechanism only works for minute dimensionality.
@@ -164,16 +215,21 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         // eventually optimize load of IDs reading.
         this.sessionTimeout = this.sessionTimeout * 4 + SESSION_TIMEOUT_OFFSITE_COUNTER * 200;
         // The down sampling level worker executes every 4 periods.
-        this.persistentMod = 4;
+        this.persistentMod = DOWN_SAMPLING_PERSISTENT_MOD;
     }
 
     /**
-     * Accept all metrics data and push them into the queue for serial processing
+     * Accept all metrics data and push them into the queue for serial processing. The down-sampling worker accepts the
+     * minute metrics, and folds them into the cache directly.
      */
     @Override
     public void in(Metrics metrics) {
         aggregationCounter.inc();
-        dataCarrier.produce(metrics);
+        if (dataCarrier == null) {
+            getCache().write(metrics);
+        } else {
+            dataCarrier.produce(metrics);
+        }
     }
 
     @Override
@@ -331,6 +387,11 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
     @Override
     public void endOfRound() {
+        if (liveMetrics != null) {
+            // Keep the previous minute, which may be still in the L1 aggregation or the queue of the other OAP nodes.
+            liveMetrics.removeBefore(
+                TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        }
         if (enableDatabaseSession) {
             Iterator<Metrics> iterator = context.values().iterator();
             long timestamp = System.currentTimeMillis();
@@ -357,6 +418,10 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
 
         @Override
         public void consume(List<Metrics> data) {
+            if (liveMetrics != null) {
+                // Copy into the live metrics before the data is merged and changed in the cache.
+                data.forEach(liveMetrics::accept);
+            }
             MetricsPersistentWorker.this.onWork(data);
         }
 
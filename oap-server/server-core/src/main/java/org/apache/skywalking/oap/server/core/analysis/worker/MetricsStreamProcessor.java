@@ -92,6 +92,18 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
      */
     @Setter
     private int metricsDataTTL = 3;
+    /**
+     * Hold and forward CoreModuleConfig#enableOpenAddressingAggregation to the aggregate and persistent workers.
+     */
+    @Setter
+    private boolean enableOpenAddressingAggregation = false;
+    /**
+     * Hold and forward CoreModuleConfig#enableLiveMetricsQuery to the minute persistent workers.
+     *
+     * @since 9.2.0
+     */
+    @Setter
+    private boolean enableLiveMetricsQuery = false;
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -131,8 +143,10 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         StorageDAO storageDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(StorageDAO.class);
         IMetricsDAO metricsDAO;
+        StorageBuilder<Metrics> storageBuilder;
         try {
-            metricsDAO = storageDAO.newMetricsDao(builder.getDeclaredConstructor().newInstance());
+            storageBuilder = builder.getDeclaredConstructor().newInstance();
+            metricsDAO = storageDAO.newMetricsDao(storageBuilder);
         } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
             throw new UnexpectedException("Create " + stream.getBuilder().getSimpleName() + " metrics DAO failure.", e);
         }
@@ -183,10 +197,13 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
             metricsClass, stream.getScopeId(), new Storage(stream.getName(), timeRelativeID, DownSampling.Minute),
             false
         );
+        // Only the time relative metrics are read in time series, and could be served by the live metrics.
+        LiveMetrics liveMetrics = enableLiveMetricsQuery && timeRelativeID ?
+            new LiveMetrics(metricsClass, storageBuilder) : null;
         MetricsPersistentWorker minutePersistentWorker = minutePersistentWorker(
-            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate);
+            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate, liveMetrics);
 
-        String remoteReceiverWorkerName = stream.getName() + "_rec";
+        String remoteReceiverWorkerName = remoteReceiverWorkerName(stream.getName());
         IWorkerInstanceSetter workerInstanceSetter = moduleDefineHolder.find(CoreModule.NAME)
                                                                        .provider()
                                                                        .getService(IWorkerInstanceSetter.class);
@@ -194,22 +211,33 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
-            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod);
+            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod, enableOpenAddressingAggregation);
 
         entryWorkers.put(metricsClass, aggregateWorker);
     }
 
+    /**
+     * @return the name of the worker receiving the metrics from the L1 aggregation of all OAP nodes, which is the
+     * minute persistent worker.
+     * @since 9.2.0
+     */
+    public static String remoteReceiverWorkerName(String metricsName) {
+        return metricsName + "_rec";
+    }
+
     private MetricsPersistentWorker minutePersistentWorker(ModuleDefineHolder moduleDefineHolder,
                                                            IMetricsDAO metricsDAO,
                                                            Model model,
                                                            MetricsTransWorker transWorker,
-                                                           boolean supportUpdate) {
+                                                           boolean supportUpdate,
+                                                           LiveMetrics liveMetrics) {
         AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
             moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker,
-            enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL
+            enableDatabaseSession, supportUpdate, storageSessionTimeout, metricsDataTTL, enableOpenAddressingAggregation,
+            liveMetrics
         );
         persistentWorkers.add(minutePersistentWorker);
 
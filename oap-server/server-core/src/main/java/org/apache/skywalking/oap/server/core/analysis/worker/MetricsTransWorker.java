@@ -41,17 +41,17 @@ public class MetricsTransWorker extends AbstractWorker<Metrics> {
     }
 
     /**
-     * Use the {@link Metrics#toHour()} and {@link Metrics#toDay()}to clone a new metrics instance then process the
-     * downsampling. Then forward the data to different works of different precisions for another round
-     * aggregation/merging.
+     * Forward the minute metrics to the workers of different precisions, which fold it into the downsampled metrics of
+     * the same entity in place. The {@link Metrics#toHour()} and {@link Metrics#toDay()} clone only happens when there
+     * is no downsampled metrics of the entity in the current round. The given metrics is not changed nor held.
      */
     @Override
     public void in(Metrics metrics) {
         if (Objects.nonNull(hourPersistenceWorker)) {
-            hourPersistenceWorker.in(metrics.toHour());
+            hourPersistenceWorker.in(metrics);
         }
         if (Objects.nonNull(dayPersistenceWorker)) {
-            dayPersistenceWorker.in(metrics.toDay());
+            dayPersistenceWorker.in(metrics);
         }
     }
 }
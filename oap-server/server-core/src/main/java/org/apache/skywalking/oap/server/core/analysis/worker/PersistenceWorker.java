@@ -22,7 +22,7 @@ import java.util.List;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteCache;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
@@ -37,9 +37,9 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 @Slf4j
 public abstract class PersistenceWorker<INPUT extends StorageData> extends AbstractWorker<INPUT> {
     @Getter(AccessLevel.PROTECTED)
-    private final ReadWriteSafeCache<INPUT> cache;
+    private final ReadWriteCache<INPUT> cache;
 
-    PersistenceWorker(ModuleDefineHolder moduleDefineHolder, ReadWriteSafeCache<INPUT> cache) {
+    PersistenceWorker(ModuleDefineHolder moduleDefineHolder, ReadWriteCache<INPUT> cache) {
         super(moduleDefineHolder);
         this.cache = cache;
     }
@@ -24,6 +24,8 @@ import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.spill.RecordSpillQueue;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
@@ -37,16 +39,31 @@ public class RecordPersistentWorker extends AbstractWorker<Record> {
     private final Model model;
     private final IRecordDAO recordDAO;
     private final IBatchDAO batchDAO;
+    /**
+     * Write the records into the spill queue rather than the storage when it isn't null.
+     */
+    private final RecordSpillQueue spillQueue;
+    private final StorageBuilder<? extends Record> storageBuilder;
 
     RecordPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IRecordDAO recordDAO) {
+        this(moduleDefineHolder, model, recordDAO, null, null);
+    }
+
+    RecordPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IRecordDAO recordDAO,
+                           RecordSpillQueue spillQueue, StorageBuilder<? extends Record> storageBuilder) {
         super(moduleDefineHolder);
         this.model = model;
         this.recordDAO = recordDAO;
         this.batchDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
+        this.spillQueue = spillQueue;
+        this.storageBuilder = storageBuilder;
     }
 
     @Override
     public void in(Record record) {
+        if (spillQueue != null && spillQueue.offer(model, record, storageBuilder)) {
+            return;
+        }
         try {
             InsertRequest insertRequest = recordDAO.prepareBatchInsert(model, record);
             batchDAO.insert(insertRequest);
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.Setter;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
@@ -35,6 +36,8 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.annotation.Storage;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
+import org.apache.skywalking.oap.server.core.storage.spill.RecordSpillQueue;
+import org.apache.skywalking.oap.server.core.storage.spill.SpilledRecord;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
@@ -44,6 +47,12 @@ public class RecordStreamProcessor implements StreamProcessor<Record> {
 
     private Map<Class<? extends Record>, RecordPersistentWorker> workers = new HashMap<>();
 
+    /**
+     * The records are spilled to the local disk before the storage when it isn't null.
+     */
+    @Setter
+    private RecordSpillQueue spillQueue;
+
     public static RecordStreamProcessor getInstance() {
         return PROCESSOR;
     }
@@ -65,9 +74,11 @@ public class RecordStreamProcessor implements StreamProcessor<Record> {
         final Class<? extends StorageBuilder> builder = storageBuilderFactory.builderOf(recordClass, stream.builder());
 
         StorageDAO storageDAO = moduleDefineHolder.find(StorageModule.NAME).provider().getService(StorageDAO.class);
+        StorageBuilder storageBuilder;
         IRecordDAO recordDAO;
         try {
-            recordDAO = storageDAO.newRecordDao(builder.getDeclaredConstructor().newInstance());
+            storageBuilder = builder.getDeclaredConstructor().newInstance();
+            recordDAO = storageDAO.newRecordDao(storageBuilder);
         } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
             throw new UnexpectedException("Create " + stream.builder().getSimpleName() + " record DAO failure.", e);
         }
@@ -76,7 +87,14 @@ public class RecordStreamProcessor implements StreamProcessor<Record> {
         // Record stream doesn't read data from database during the persistent process. Keep the timeRelativeID == false always.
         Model model = modelSetter.add(
             recordClass, stream.scopeId(), new Storage(stream.name(), false, DownSampling.Second), true);
-        RecordPersistentWorker persistentWorker = new RecordPersistentWorker(moduleDefineHolder, model, recordDAO);
+        RecordPersistentWorker persistentWorker;
+        if (spillQueue != null) {
+            spillQueue.register(model, storageDAO.newRecordDao(new SpilledRecord.Builder()));
+            persistentWorker = new RecordPersistentWorker(
+                moduleDefineHolder, model, recordDAO, spillQueue, storageBuilder);
+        } else {
+            persistentWorker = new RecordPersistentWorker(moduleDefineHolder, model, recordDAO);
+        }
 
         workers.put(recordClass, persistentWorker);
     }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPersistentWorker;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.library.module.Service;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+
+/**
+ * QueryCache holds the query results of the sealed time buckets. A time bucket is sealed when its metrics have been
+ * persisted and queryable, and are not changed anymore, see {@link #getSealDelay(DownSampling)}. So the dashboards read
+ * the sealed buckets from the storage only once, and the open tail of the duration every time.
+ *
+ * The cached results are shared by the queries, they must not be changed by the callers.
+ *
+ * @since 9.2.0
+ */
+public class QueryCache implements Service {
+    private static final MetricsCreator NOOP = new MetricsCreatorNoop();
+
+    private final LongSupplier clock;
+    private final long l1FlushPeriod;
+    private final long persistentPeriod;
+    private volatile long queryableDelay;
+    /**
+     * The value of every time bucket of the metrics, null when the cache is disabled.
+     */
+    private final Cache<ValueKey, Long> values;
+    /**
+     * The results of the queries which durations are sealed as a whole, such as the topology, null when the cache is
+     * disabled.
+     */
+    private final Cache<Object, Object> results;
+    private volatile Telemetry valuesTelemetry;
+    private volatile Telemetry resultsTelemetry;
+
+    public QueryCache(CoreModuleConfig moduleConfig) {
+        this(
+            moduleConfig.getMaxSizeOfQueryCache(),
+            moduleConfig.getL1FlushPeriod(),
+            TimeUnit.SECONDS.toMillis(moduleConfig.getPersistentPeriod()),
+            System::currentTimeMillis
+        );
+    }
+
+    /**
+     * @param l1FlushPeriod    in milliseconds, see {@link CoreModuleConfig#getL1FlushPeriod()}.
+     * @param persistentPeriod in milliseconds, see {@link CoreModuleConfig#getPersistentPeriod()}.
+     */
+    public QueryCache(long maxSize, long l1FlushPeriod, long persistentPeriod, LongSupplier clock) {
+        this.clock = clock;
+        this.l1FlushPeriod = l1FlushPeriod;
+        this.persistentPeriod = persistentPeriod;
+        if (maxSize > 0) {
+            values = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+            results = CacheBuilder.newBuilder().maximumSize(Math.max(maxSize / 100, 1)).build();
+        } else {
+            values = null;
+            results = null;
+        }
+        initMetrics(NOOP);
+    }
+
+    public boolean isEnabled() {
+        return values != null;
+    }
+
+    /**
+     * @param queryableDelay in milliseconds, see {@link IBatchDAO#getQueryableDelay()}.
+     */
+    public void setQueryableDelay(long queryableDelay) {
+        this.queryableDelay = queryableDelay;
+    }
+
+    /**
+     * The metrics of a minute are sent by the L1 aggregation in the L1 flush period, and persisted by the next
+     * persistent period, or the one after it if the period is in progress. The hour and day metrics are folded by the
+     * minute persistence, which could be done after the hour and day workers of the same period, and then they are
+     * persisted once in every {@link MetricsPersistentWorker#DOWN_SAMPLING_PERSISTENT_MOD} periods. At last, the
+     * storage could take a while to make the persisted metrics queryable.
+     *
+     * @return the time in milliseconds after the end of a time bucket of the precision, since when it is sealed.
+     */
+    public long getSealDelay(DownSampling downSampling) {
+        int periods = 2;
+        if (DownSampling.Hour.equals(downSampling) || DownSampling.Day.equals(downSampling)) {
+            periods += 1 + MetricsPersistentWorker.DOWN_SAMPLING_PERSISTENT_MOD;
+        }
+        return l1FlushPeriod + periods * persistentPeriod + queryableDelay;
+    }
+
+    /**
+     * @param timeBucket in any precision of day, hour, minute and second.
+     * @return true if the time bucket ended before the seal delay, so its metrics are not changed anymore.
+     */
+    public boolean isSealed(long timeBucket) {
+        final DownSampling downSampling;
+        if (TimeBucket.isSecondBucket(timeBucket)) {
+            downSampling = DownSampling.Second;
+        } else if (TimeBucket.isMinuteBucket(timeBucket)) {
+            downSampling = DownSampling.Minute;
+        } else if (TimeBucket.isHourBucket(timeBucket)) {
+            downSampling = DownSampling.Hour;
+        } else if (TimeBucket.isDayBucket(timeBucket)) {
+            downSampling = DownSampling.Day;
+        } else {
+            return false;
+        }
+        // The buckets before the one of the sealed time have ended.
+        return timeBucket < TimeBucket.getTimeBucket(clock.getAsLong() - getSealDelay(downSampling), downSampling);
+    }
+
+    /**
+     * @param id the row id of the time bucket and entity, see {@link org.apache.skywalking.oap.server.core.query.PointOfTime#id(String)}
+     * @return the cached value of the metrics, or null if absent.
+     */
+    public Long getValue(String metricsName, String label, String id) {
+        if (values == null) {
+            return null;
+        }
+        final Long value = values.getIfPresent(new ValueKey(metricsName, label, id));
+        if (value != null) {
+            valuesTelemetry.hit.inc();
+        } else {
+            valuesTelemetry.miss.inc();
+        }
+        return value;
+    }
+
+    /**
+     * Cache the value of a sealed time bucket, read from the storage.
+     */
+    public void putValue(String metricsName, String label, String id, long value) {
+        if (values != null) {
+            values.put(new ValueKey(metricsName, label, id), value);
+        }
+    }
+
+    /**
+     * @param key           identifies the query, including the duration.
+     * @param endTimeBucket the end of the duration, the result is cached only if it is sealed.
+     * @return the cached result, or the result of the loader, which is cached for the next time.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getResult(Object key, long endTimeBucket, Loader<T> loader) throws IOException {
+        if (results == null || !isSealed(endTimeBucket)) {
+            return loader.load();
+        }
+        T result = (T) results.getIfPresent(key);
+        if (result != null) {
+            resultsTelemetry.hit.inc();
+            return result;
+        }
+        resultsTelemetry.miss.inc();
+        result = loader.load();
+        if (result != null) {
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    public void initMetrics(MetricsCreator metricsCreator) {
+        valuesTelemetry = new Telemetry(metricsCreator, "values");
+        resultsTelemetry = new Telemetry(metricsCreator, "results");
+    }
+
+    /**
+     * Loader reads the query result from the storage.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static final class ValueKey {
+        private final String metricsName;
+        private final String label;
+        private final String id;
+    }
+
+    private static final class Telemetry {
+        private final CounterMetrics hit;
+        private final CounterMetrics miss;
+
+        private Telemetry(MetricsCreator metricsCreator, String type) {
+            hit = metricsCreator.createCounter(
+                "query_cache_hit_count", "The number of the query results found in the cache",
+                new MetricsTag.Keys("type"), new MetricsTag.Values(type)
+            );
+            miss = metricsCreator.createCounter(
+                "query_cache_miss_count", "The number of the sealed query results read from the storage",
+                new MetricsTag.Keys("type"), new MetricsTag.Values(type)
+            );
+        }
+    }
+}
@@ -20,11 +20,14 @@ package org.apache.skywalking.oap.server.core.query;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
 import org.apache.skywalking.oap.server.core.analysis.manual.instance.InstanceTraffic;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
 import org.apache.skywalking.oap.server.core.query.type.KeyValue;
@@ -38,6 +41,7 @@ import org.apache.skywalking.oap.server.library.module.Service;
 public class AggregationQueryService implements Service {
     private final ModuleManager moduleManager;
     private IAggregationQueryDAO aggregationQueryDAO;
+    private QueryCache queryCache;
 
     public AggregationQueryService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
@@ -52,7 +56,29 @@ public class AggregationQueryService implements Service {
         return aggregationQueryDAO;
     }
 
+    private QueryCache getQueryCache() {
+        if (queryCache == null) {
+            queryCache = moduleManager.find(CoreModule.NAME).provider().getService(QueryCache.class);
+        }
+        return queryCache;
+    }
+
+    /**
+     * The sorted metrics of the sealed duration are read from the {@link QueryCache}.
+     */
     public List<SelectedRecord> sortMetrics(TopNCondition condition, Duration duration) throws IOException {
+        return getQueryCache().getResult(
+            Arrays.asList(
+                "sort_metrics", condition.getName(), condition.getParentService(), condition.isNormal(),
+                condition.getScope(), condition.getTopN(), condition.getOrder(),
+                duration.getStart(), duration.getEnd(), duration.getStep()
+            ),
+            duration.getEndTimeBucket(),
+            () -> loadSortedMetrics(condition, duration)
+        );
+    }
+
+    private List<SelectedRecord> loadSortedMetrics(TopNCondition condition, Duration duration) throws IOException {
         final String valueCName = ValueColumnMetadata.INSTANCE.getValueCName(condition.getName());
         List<KeyValue> additionalConditions = null;
         if (StringUtil.isNotEmpty(condition.getParentService())) {
@@ -52,6 +52,25 @@ public enum DurationUtils {
         return Long.parseLong(dateStr);
     }
 
+    /**
+     * Convert the time bucket in the step precision to the date in `yyyy-MM-dd HHmmss` style, which is the reverse of
+     * {@link #convertToTimeBucket(String)}.
+     */
+    public String convertToDateString(Step step, long timeBucket) {
+        final DateTime dateTime = parseToDateTime(step, timeBucket);
+        switch (step) {
+            case DAY:
+                return YYYY_MM_DD.print(dateTime);
+            case HOUR:
+                return YYYY_MM_DD_HH.print(dateTime);
+            case MINUTE:
+                return YYYY_MM_DD_HHMM.print(dateTime);
+            case SECOND:
+                return YYYY_MM_DD_HHMMSS.print(dateTime);
+        }
+        throw new UnexpectedException("Unsupported step " + step.name());
+    }
+
     public long startTimeDurationToSecondTimeBucket(Step step, String dateStr) {
         long secondTimeBucket = 0;
         switch (step) {
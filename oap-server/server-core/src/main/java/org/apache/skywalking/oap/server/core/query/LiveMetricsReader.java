@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.LiveMetrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsIds;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+
+/**
+ * LiveMetricsReader reads the minute metrics of the current and previous minutes from the memory of all OAP nodes,
+ * see {@link LiveMetrics}. The metrics of one row are partially aggregated by every OAP node receiving them, as the
+ * routing of the rows differs between the OAL and MAL metrics, and the consistent hash ring hands them off when the
+ * cluster changes. So every OAP node is asked, and the metrics are combined before calculation.
+ */
+@Slf4j
+class LiveMetricsReader {
+    private final ModuleManager moduleManager;
+    /**
+     * The deadline of reading all OAP nodes, in milliseconds.
+     */
+    private final long timeout;
+    private RemoteClientManager remoteClientManager;
+    private IWorkerInstanceGetter workerInstanceGetter;
+
+    LiveMetricsReader(ModuleManager moduleManager, long timeout) {
+        this.moduleManager = moduleManager;
+        this.timeout = timeout;
+    }
+
+    private RemoteClientManager getRemoteClientManager() {
+        if (remoteClientManager == null) {
+            remoteClientManager = moduleManager.find(CoreModule.NAME).provider().getService(RemoteClientManager.class);
+        }
+        return remoteClientManager;
+    }
+
+    private IWorkerInstanceGetter getWorkerInstanceGetter() {
+        if (workerInstanceGetter == null) {
+            workerInstanceGetter = moduleManager.find(CoreModule.NAME)
+                                                .provider()
+                                                .getService(IWorkerInstanceGetter.class);
+        }
+        return workerInstanceGetter;
+    }
+
+    /**
+     * @return the first minute time bucket held in the memory, the previous minute of now.
+     */
+    long getStartTimeBucket(long currentTimeMillis) {
+        return TimeBucket.getMinuteTimeBucket(currentTimeMillis - TimeUnit.MINUTES.toMillis(1));
+    }
+
+    /**
+     * @param ids the row ids indexed by the metrics names.
+     * @return the calculated metrics indexed by the metrics names and row ids, the rows absent in all OAP nodes are
+     * skipped. Null if any OAP node fails to respond, or the live metrics is not held by any of them, then the storage
+     * should be read instead.
+     */
+    Map<String, Map<String, Metrics>> read(Map<String, ? extends Collection<String>> ids) {
+        final List<String> metricsNames = new ArrayList<>(ids.keySet());
+        final List<LiveMetrics> liveMetricsList = new ArrayList<>(metricsNames.size());
+        final LiveMetricsRequest.Builder request = LiveMetricsRequest.newBuilder();
+        for (final String metricsName : metricsNames) {
+            final String workerName = MetricsStreamProcessor.remoteReceiverWorkerName(metricsName);
+            final LiveMetrics liveMetrics = LiveMetrics.of(getWorkerInstanceGetter(), workerName);
+            if (liveMetrics == null) {
+                return null;
+            }
+            liveMetricsList.add(liveMetrics);
+            request.addMetrics(LiveMetricsIds.newBuilder().setWorkerName(workerName).addAllIds(ids.get(metricsName)));
+        }
+        final List<RemoteClient> clients = getRemoteClientManager().getRemoteClient();
+        if (clients.isEmpty()) {
+            return null;
+        }
+
+        final LiveMetricsRequest builtRequest = request.build();
+        final List<ListenableFuture<LiveMetricsResponse>> futures = new ArrayList<>(clients.size());
+        clients.forEach(client -> futures.add(client.readLiveMetrics(builtRequest)));
+
+        final List<Map<String, Metrics>> combined = new ArrayList<>(metricsNames.size());
+        metricsNames.forEach(metricsName -> combined.add(new HashMap<>()));
+        final long deadline = System.currentTimeMillis() + timeout;
+        for (int c = 0; c < clients.size(); c++) {
+            final LiveMetricsResponse response;
+            try {
+                response = futures.get(c).get(
+                    Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn(
+                    "Failed to read the live metrics from {}, read from the storage instead. {}",
+                    clients.get(c).getAddress(), e.getMessage()
+                );
+                futures.forEach(future -> future.cancel(true));
+                return null;
+            }
+            if (!isSupported(response, metricsNames.size())) {
+                log.warn(
+                    "The live metrics are not held by {}, read from the storage instead. Enable the live metrics query"
+                        + " of all OAP nodes to read them.", clients.get(c).getAddress()
+                );
+                futures.forEach(future -> future.cancel(true));
+                return null;
+            }
+            for (int i = 0; i < metricsNames.size(); i++) {
+                final LiveMetricsData data = response.getMetrics(i);
+                for (final RemoteData remoteData : data.getDataList()) {
+                    final Metrics metrics = liveMetricsList.get(i).copy(remoteData);
+                    combined.get(i).merge(metrics.id(), metrics, (current, other) -> {
+                        current.combine(other);
+                        return current;
+                    });
+                }
+            }
+        }
+
+        final Map<String, Map<String, Metrics>> result = new HashMap<>(metricsNames.size());
+        for (int i = 0; i < metricsNames.size(); i++) {
+            combined.get(i).values().forEach(Metrics::calculate);
+            result.put(metricsNames.get(i), combined.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the OAP node holds the live metrics of all the requested workers, otherwise, the absent metrics
+     * in the response are not the evidence of no data.
+     */
+    private static boolean isSupported(LiveMetricsResponse response, int metricsCount) {
+        if (response.getMetricsCount() != metricsCount) {
+            return false;
+        }
+        for (final LiveMetricsData data : response.getMetricsList()) {
+            if (!data.getSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the value of the calculated metrics, in the form of the storage, or null if absent.
+     */
+    Object valueOf(String metricsName, Metrics metrics) {
+        final String columnName = ValueColumnMetadata.INSTANCE.readValueColumnDefinition(metricsName)
+                                                              .map(ValueColumnMetadata.ValueColumn::getValueCName)
+                                                              .orElse(null);
+        if (columnName == null) {
+            return null;
+        }
+        return LiveMetrics.of(getWorkerInstanceGetter(), MetricsStreamProcessor.remoteReceiverWorkerName(metricsName))
+                          .valueOf(metrics, columnName);
+    }
+}
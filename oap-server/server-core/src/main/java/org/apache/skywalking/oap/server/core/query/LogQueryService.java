@@ -84,7 +84,7 @@ public class LogQueryService implements Service {
                                                endpointId,
                                                relatedTrace,
                                                queryOrder,
-                                               page.getFrom(), page.getLimit(),
+                                               page.getFrom(), page.getLimit(), page.getCursor(),
                                                startTB, endTB, tags,
                                                keywordsOfContent, excludingKeywordsOfContent
         );
@@ -19,11 +19,30 @@
 package org.apache.skywalking.oap.server.core.query;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.input.Entity;
 import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
+import org.apache.skywalking.oap.server.core.query.type.KVInt;
 import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
@@ -35,9 +54,26 @@ import org.apache.skywalking.oap.server.library.module.Service;
 public class MetricsQueryService implements Service {
     private final ModuleManager moduleManager;
     private IMetricsQueryDAO metricQueryDAO;
+    private QueryCache queryCache;
+    /**
+     * Read the current and previous minutes from the memory of the OAP nodes, null if it is disabled.
+     */
+    private final LiveMetricsReader liveMetricsReader;
 
     public MetricsQueryService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
+        this.liveMetricsReader = null;
+    }
+
+    public MetricsQueryService(ModuleManager moduleManager, CoreModuleConfig config) {
+        this.moduleManager = moduleManager;
+        this.liveMetricsReader = config.isEnableLiveMetricsQuery() ?
+            new LiveMetricsReader(moduleManager, TimeUnit.SECONDS.toMillis(config.getRemoteTimeout())) : null;
+    }
+
+    MetricsQueryService(ModuleManager moduleManager, LiveMetricsReader liveMetricsReader) {
+        this.moduleManager = moduleManager;
+        this.liveMetricsReader = liveMetricsReader;
     }
 
     private IMetricsQueryDAO getMetricQueryDAO() {
@@ -47,6 +83,13 @@ public class MetricsQueryService implements Service {
         return metricQueryDAO;
     }
 
+    private QueryCache getQueryCache() {
+        if (queryCache == null) {
+            queryCache = moduleManager.find(CoreModule.NAME).provider().getService(QueryCache.class);
+        }
+        return queryCache;
+    }
+
     /**
      * Read metrics single value in the duration of required metrics
      */
@@ -59,6 +102,10 @@ public class MetricsQueryService implements Service {
      * Read time-series values in the duration of required metrics
      */
     public MetricsValues readMetricsValues(MetricsCondition condition, Duration duration) throws IOException {
+        if (getQueryCache().isEnabled() || liveMetricsReader != null) {
+            return readMetricsValues(
+                Collections.singletonList(new MetricsValuesCondition(condition, null, duration))).get(0).get(0);
+        }
         return getMetricQueryDAO().readMetricsValues(
             condition, ValueColumnMetadata.INSTANCE.getValueCName(condition.getName()), duration);
     }
@@ -71,10 +118,86 @@ public class MetricsQueryService implements Service {
     public List<MetricsValues> readLabeledMetricsValues(MetricsCondition condition,
                                                         List<String> labels,
                                                         Duration duration) throws IOException {
+        if (getQueryCache().isEnabled() || liveMetricsReader != null) {
+            return readMetricsValues(
+                Collections.singletonList(new MetricsValuesCondition(condition, labels, duration))).get(0);
+        }
         return getMetricQueryDAO().readLabeledMetricsValues(
             condition, ValueColumnMetadata.INSTANCE.getValueCName(condition.getName()), labels, duration);
     }
 
+    /**
+     * Read the time-series values of multiple metrics in a batch. The sealed time buckets are read from the {@link
+     * QueryCache}, only the rest of the durations are read from the storage, or the memory of the OAP nodes for the
+     * recent minutes, see {@link LiveMetricsReader}.
+     *
+     * @return the values in the same order as the conditions, see {@link IMetricsQueryDAO#readMetricsValues(List)}.
+     */
+    public List<List<MetricsValues>> readMetricsValues(List<MetricsValuesCondition> conditions) throws IOException {
+        final QueryCache cache = getQueryCache();
+        if (!cache.isEnabled()) {
+            return readUncached(conditions);
+        }
+        final List<CachedRead> reads = new ArrayList<>(conditions.size());
+        final List<MetricsValuesCondition> tails = new ArrayList<>(conditions.size());
+        for (final MetricsValuesCondition condition : conditions) {
+            final CachedRead read = new CachedRead(cache, condition);
+            reads.add(read);
+            if (read.tail != null) {
+                tails.add(read.tail);
+            }
+        }
+        final Iterator<List<MetricsValues>> loaded = tails.isEmpty() ?
+            Collections.emptyIterator() : readUncached(tails).iterator();
+        final List<List<MetricsValues>> result = new ArrayList<>(reads.size());
+        for (final CachedRead read : reads) {
+            result.add(read.merge(read.tail == null ? null : loaded.next()));
+        }
+        return result;
+    }
+
+    /**
+     * Read the live time buckets from the memory of the OAP nodes, and the rest from the storage. All of them are read
+     * from the storage if the live ones can't be read.
+     */
+    private List<List<MetricsValues>> readUncached(List<MetricsValuesCondition> conditions) throws IOException {
+        if (liveMetricsReader == null) {
+            return getMetricQueryDAO().readMetricsValues(conditions);
+        }
+        final long liveStartTimeBucket = liveMetricsReader.getStartTimeBucket(System.currentTimeMillis());
+        final List<LiveRead> reads = new ArrayList<>(conditions.size());
+        final List<MetricsValuesCondition> heads = new ArrayList<>(conditions.size());
+        final Map<String, Set<String>> liveIds = new HashMap<>();
+        for (final MetricsValuesCondition condition : conditions) {
+            final LiveRead read = new LiveRead(condition, liveStartTimeBucket);
+            reads.add(read);
+            if (read.head != null) {
+                heads.add(read.head);
+            }
+            if (!read.liveIds.isEmpty()) {
+                liveIds.computeIfAbsent(read.metricsName, name -> new HashSet<>()).addAll(read.liveIds);
+            }
+        }
+        if (liveIds.isEmpty()) {
+            return getMetricQueryDAO().readMetricsValues(conditions);
+        }
+        final Map<String, Map<String, Metrics>> live = liveMetricsReader.read(liveIds);
+        if (live == null) {
+            return getMetricQueryDAO().readMetricsValues(conditions);
+        }
+        final Iterator<List<MetricsValues>> loaded = heads.isEmpty() ?
+            Collections.emptyIterator() : getMetricQueryDAO().readMetricsValues(heads).iterator();
+        final List<List<MetricsValues>> result = new ArrayList<>(reads.size());
+        for (final LiveRead read : reads) {
+            result.add(read.merge(
+                read.head == null ? null : loaded.next(),
+                live.getOrDefault(read.metricsName, Collections.emptyMap()),
+                liveMetricsReader
+            ));
+        }
+        return result;
+    }
+
     /**
      * Heatmap is bucket based value statistic result.
      */
@@ -82,4 +205,265 @@ public class MetricsQueryService implements Service {
         return getMetricQueryDAO().readHeatMap(
             condition, ValueColumnMetadata.INSTANCE.getValueCName(condition.getName()), duration);
     }
+
+    /**
+     * CachedRead splits the duration of a condition into the head of the cached sealed time buckets, and the tail which
+     * is read from the storage.
+     */
+    private static class CachedRead {
+        private final QueryCache cache;
+        private final String metricsName;
+        /**
+         * The sorted labels of the labeled metrics, as the values are composed, or the null label of the regular ones.
+         */
+        private final List<String> labels;
+        private final List<String> ids;
+        /**
+         * The values of the leading time buckets in the cache, in the order of the labels.
+         */
+        private final List<long[]> cached = new ArrayList<>();
+        /**
+         * The condition of the time buckets read from the storage, null if all of them are in the cache.
+         */
+        private MetricsValuesCondition tail;
+        /**
+         * The number of the sealed time buckets at the start of the {@link #tail}, cached once read.
+         */
+        private int sealedTailSize;
+
+        private CachedRead(QueryCache cache, MetricsValuesCondition condition) {
+            this.cache = cache;
+            this.metricsName = condition.getCondition().getName();
+            final Entity entity = condition.getCondition().getEntity();
+            // The labels of the values are decided by the data when they are not given.
+            if (entity == null || !entity.isValid()
+                || (condition.getLabels() != null && condition.getLabels().isEmpty())) {
+                this.labels = null;
+                this.ids = null;
+                this.tail = condition;
+                return;
+            }
+            this.labels = condition.getLabels() == null ?
+                Collections.singletonList(null) : new ArrayList<>(new TreeSet<>(condition.getLabels()));
+            final String entityId = entity.buildId();
+            final Duration duration = condition.getDuration();
+            final List<PointOfTime> points = duration.assembleDurationPoints();
+            this.ids = new ArrayList<>(points.size());
+            points.forEach(point -> ids.add(point.id(entityId)));
+
+            while (cached.size() < points.size() && cache.isSealed(points.get(cached.size()).getPoint())) {
+                final long[] values = getCachedValues(ids.get(cached.size()));
+                if (values == null) {
+                    break;
+                }
+                cached.add(values);
+            }
+            if (cached.size() == points.size()) {
+                return;
+            }
+            while (cached.size() + sealedTailSize < points.size()
+                && cache.isSealed(points.get(cached.size() + sealedTailSize).getPoint())) {
+                sealedTailSize++;
+            }
+            if (cached.isEmpty()) {
+                tail = condition;
+            } else {
+                final Duration tailDuration = new Duration();
+                tailDuration.setStep(duration.getStep());
+                tailDuration.setStart(DurationUtils.INSTANCE.convertToDateString(
+                    duration.getStep(), points.get(cached.size()).getPoint()));
+                tailDuration.setEnd(duration.getEnd());
+                tail = new MetricsValuesCondition(condition.getCondition(), condition.getLabels(), tailDuration);
+            }
+        }
+
+        /**
+         * @return the values of the labels at the time bucket, or null if any of them is absent.
+         */
+        private long[] getCachedValues(String id) {
+            final long[] values = new long[labels.size()];
+            for (int i = 0; i < values.length; i++) {
+                final Long value = cache.getValue(metricsName, labels.get(i), id);
+                if (value == null) {
+                    return null;
+                }
+                values[i] = value;
+            }
+            return values;
+        }
+
+        /**
+         * The storage returns the values in the order of the time buckets, but the ids could be prefixed, such as the
+         * metrics in the function indices of ElasticSearch, see IndexController#generateDocId.
+         *
+         * @return true if the id read from the storage is of the row id.
+         */
+        private static boolean isIdOf(String storageId, String id) {
+            return storageId.equals(id) || storageId.endsWith(Const.ID_CONNECTOR + id);
+        }
+
+        /**
+         * @param loaded the values of the {@link #tail} read from the storage.
+         * @return the values of the whole duration.
+         */
+        private List<MetricsValues> merge(List<MetricsValues> loaded) {
+            if (labels == null) {
+                return loaded;
+            }
+            final Map<String, MetricsValues> loadedByLabel = new HashMap<>();
+            if (loaded != null) {
+                for (final MetricsValues values : loaded) {
+                    loadedByLabel.put(values.getLabel(), values);
+                    final List<KVInt> kvs = values.getValues().getValues();
+                    for (int i = 0; i < sealedTailSize && i < kvs.size(); i++) {
+                        final String id = ids.get(cached.size() + i);
+                        if (isIdOf(kvs.get(i).getId(), id)) {
+                            cache.putValue(metricsName, values.getLabel(), id, kvs.get(i).getValue());
+                        }
+                    }
+                }
+            }
+            if (cached.isEmpty()) {
+                return loaded;
+            }
+            final List<MetricsValues> result = new ArrayList<>(labels.size());
+            for (int l = 0; l < labels.size(); l++) {
+                final String label = labels.get(l);
+                final MetricsValues values = new MetricsValues();
+                values.setLabel(label);
+                for (int i = 0; i < cached.size(); i++) {
+                    final KVInt kv = new KVInt();
+                    kv.setId(ids.get(i));
+                    kv.setValue(cached.get(i)[l]);
+                    values.getValues().addKVInt(kv);
+                }
+                final MetricsValues tailValues = loadedByLabel.get(label);
+                if (tailValues != null) {
+                    tailValues.getValues().getValues().forEach(values.getValues()::addKVInt);
+                }
+                result.add(values);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * LiveRead splits the duration of a condition in minutes into the head read from the storage, and the live time
+     * buckets read from the memory of the OAP nodes.
+     */
+    private static class LiveRead {
+        private final MetricsValuesCondition condition;
+        private final String metricsName;
+        /**
+         * The condition of the time buckets read from the storage, null if all of them are live.
+         */
+        private MetricsValuesCondition head;
+        private List<String> headIds = Collections.emptyList();
+        private List<String> liveIds = Collections.emptyList();
+
+        private LiveRead(MetricsValuesCondition condition, long liveStartTimeBucket) {
+            this.condition = condition;
+            this.metricsName = condition.getCondition().getName();
+            this.head = condition;
+            final Entity entity = condition.getCondition().getEntity();
+            final Duration duration = condition.getDuration();
+            if (entity == null || !entity.isValid() || duration.getStep() != Step.MINUTE) {
+                return;
+            }
+            final List<PointOfTime> points = duration.assembleDurationPoints();
+            int liveStart = 0;
+            while (liveStart < points.size() && points.get(liveStart).getPoint() < liveStartTimeBucket) {
+                liveStart++;
+            }
+            if (liveStart == points.size()) {
+                return;
+            }
+            final String entityId = entity.buildId();
+            final List<String> ids = new ArrayList<>(points.size());
+            points.forEach(point -> ids.add(point.id(entityId)));
+            headIds = ids.subList(0, liveStart);
+            liveIds = ids.subList(liveStart, ids.size());
+            if (liveStart == 0) {
+                head = null;
+            } else {
+                final Duration headDuration = new Duration();
+                headDuration.setStep(duration.getStep());
+                headDuration.setStart(duration.getStart());
+                headDuration.setEnd(DurationUtils.INSTANCE.convertToDateString(
+                    duration.getStep(), points.get(liveStart - 1).getPoint()));
+                head = new MetricsValuesCondition(condition.getCondition(), condition.getLabels(), headDuration);
+            }
+        }
+
+        /**
+         * @param loaded the values of the {@link #head} read from the storage.
+         * @param live   the calculated live metrics by the row ids.
+         * @return the values of the whole duration.
+         */
+        private List<MetricsValues> merge(List<MetricsValues> loaded,
+                                          Map<String, Metrics> live,
+                                          LiveMetricsReader reader) {
+            if (liveIds.isEmpty()) {
+                return loaded;
+            }
+            final int defaultValue = ValueColumnMetadata.INSTANCE.getDefaultValue(metricsName);
+            if (condition.getLabels() == null) {
+                final MetricsValues values = loaded == null || loaded.isEmpty() ? new MetricsValues() : loaded.get(0);
+                for (final String id : liveIds) {
+                    final Metrics metrics = live.get(id);
+                    final Object value = metrics == null ? null : reader.valueOf(metricsName, metrics);
+                    final KVInt kv = new KVInt();
+                    kv.setId(id);
+                    kv.setValue(value instanceof Number ? ((Number) value).longValue() : defaultValue);
+                    values.getValues().addKVInt(kv);
+                }
+                return Collections.singletonList(values);
+            }
+
+            final Map<String, DataTable> liveTables = new HashMap<>();
+            for (final String id : liveIds) {
+                final Metrics metrics = live.get(id);
+                final Object value = metrics == null ? null : reader.valueOf(metricsName, metrics);
+                if (value instanceof DataTable) {
+                    liveTables.put(id, (DataTable) value);
+                } else if (value instanceof String) {
+                    liveTables.put(id, new DataTable((String) value));
+                }
+            }
+            final Map<String, MetricsValues> loadedByLabel = new HashMap<>();
+            if (loaded != null) {
+                loaded.forEach(values -> loadedByLabel.put(values.getLabel(), values));
+            }
+            // The labels of the values are decided by the data when they are not given.
+            final Set<String> labels = new TreeSet<>(condition.getLabels());
+            labels.remove("");
+            if (labels.isEmpty()) {
+                labels.addAll(loadedByLabel.keySet());
+                liveTables.values().forEach(table -> labels.addAll(table.keys()));
+            }
+            final List<MetricsValues> result = new ArrayList<>(labels.size());
+            for (final String label : labels) {
+                MetricsValues values = loadedByLabel.get(label);
+                if (values == null) {
+                    values = new MetricsValues();
+                    values.setLabel(label);
+                    for (final String id : headIds) {
+                        final KVInt kv = new KVInt();
+                        kv.setId(id);
+                        kv.setValue(defaultValue);
+                        values.getValues().addKVInt(kv);
+                    }
+                }
+                for (final String id : liveIds) {
+                    final Long value = liveTables.getOrDefault(id, new DataTable()).get(label);
+                    final KVInt kv = new KVInt();
+                    kv.setId(id);
+                    kv.setValue(value == null ? defaultValue : value);
+                    values.getValues().addKVInt(kv);
+                }
+                result.add(values);
+            }
+            return result;
+        }
+    }
 }
@@ -29,7 +29,7 @@ public enum PaginationUtils {
         int limit = paging.getPageSize();
         int from = paging.getPageSize() * ((paging.getPageNum() == 0 ? 1 : paging.getPageNum()) - 1);
 
-        return new Page(from, limit);
+        return new Page(from, limit, paging.getCursor());
     }
 
     @Data
@@ -37,5 +37,13 @@ public enum PaginationUtils {
     public static class Page {
         private final int from;
         private final int limit;
+        /**
+         * @since 9.2.0 The cursor of the previous page, see {@link Pagination#getCursor()}.
+         */
+        private final String cursor;
+
+        public Page(int from, int limit) {
+            this(from, limit, null);
+        }
     }
 }
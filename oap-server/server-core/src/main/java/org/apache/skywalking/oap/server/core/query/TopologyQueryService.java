@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.query;
 import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -28,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
 import org.apache.skywalking.oap.server.core.query.type.Call;
 import org.apache.skywalking.oap.server.core.query.type.EndpointNode;
@@ -47,6 +49,7 @@ public class TopologyQueryService implements Service {
     private final ModuleManager moduleManager;
     private ITopologyQueryDAO topologyQueryDAO;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
+    private QueryCache queryCache;
 
     public TopologyQueryService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
@@ -68,8 +71,24 @@ public class TopologyQueryService implements Service {
         return componentLibraryCatalogService;
     }
 
+    private QueryCache getQueryCache() {
+        if (queryCache == null) {
+            queryCache = moduleManager.find(CoreModule.NAME).provider().getService(QueryCache.class);
+        }
+        return queryCache;
+    }
+
+    /**
+     * The topology of the sealed duration is read from the {@link QueryCache}.
+     */
     public Topology getGlobalTopology(final long startTB,
                                       final long endTB) throws IOException {
+        return getQueryCache().getResult(
+            Arrays.asList("global_topology", startTB, endTB), endTB, () -> loadGlobalTopology(startTB, endTB));
+    }
+
+    private Topology loadGlobalTopology(final long startTB,
+                                        final long endTB) throws IOException {
         List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
             startTB, endTB);
         List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
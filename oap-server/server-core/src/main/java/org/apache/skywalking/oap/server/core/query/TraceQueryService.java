@@ -89,7 +89,7 @@ public class TraceQueryService implements Service {
 
         return getTraceQueryDAO().queryBasicTraces(
             startTB, endTB, minTraceDuration, maxTraceDuration, serviceId, serviceInstanceId, endpointId,
-            traceId, page.getLimit(), page.getFrom(), traceState, queryOrder, tags
+            traceId, page.getLimit(), page.getFrom(), page.getCursor(), traceState, queryOrder, tags
         );
     }
 
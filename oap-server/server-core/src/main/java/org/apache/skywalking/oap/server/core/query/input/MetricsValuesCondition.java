@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query.input;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
+
+/**
+ * One of the time-series values reads in a batch, see {@link IMetricsQueryDAO#readMetricsValues(List)}.
+ *
+ * @since 9.2.0
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class MetricsValuesCondition {
+    private final MetricsCondition condition;
+    /**
+     * The labels to read of the labeled metrics, or null for the regular metrics.
+     */
+    private final List<String> labels;
+    private final Duration duration;
+}
@@ -25,6 +25,10 @@ import java.util.List;
 public class IntValues {
     private List<KVInt> values = new ArrayList<>();
 
+    public List<KVInt> getValues() {
+        return values;
+    }
+
     public void addKVInt(KVInt e) {
         values.add(e);
     }
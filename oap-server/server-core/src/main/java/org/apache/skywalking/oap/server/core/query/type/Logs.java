@@ -30,6 +30,11 @@ import lombok.experimental.Accessors;
 public class Logs {
     private final List<Log> logs;
     private String errorReason;
+    /**
+     * @since 9.2.0 The cursor to read the next page, null if there is no more log or the storage doesn't support the
+     * cursor paging.
+     */
+    private String nextCursor;
 
     public Logs() {
         this.logs = new ArrayList<>();
@@ -30,4 +30,15 @@ import lombok.Setter;
 public class Pagination {
     private int pageNum;
     private int pageSize;
+    /**
+     * The opaque cursor returned by the previous page, such as {@link TraceBrief#getNextCursor()}. The page after the
+     * cursor is read rather than the {@link #pageNum}, when the storage supports it. Null means the offset paging.
+     *
+     * @since 9.2.0
+     */
+    private String cursor;
+
+    public Pagination(int pageNum, int pageSize) {
+        this(pageNum, pageSize, null);
+    }
 }
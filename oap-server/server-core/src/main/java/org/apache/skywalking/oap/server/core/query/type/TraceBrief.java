@@ -21,10 +21,17 @@ package org.apache.skywalking.oap.server.core.query.type;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
 public class TraceBrief {
     private final List<BasicTrace> traces;
+    /**
+     * @since 9.2.0 The cursor to read the next page, null if there is no more trace or the storage doesn't support
+     * the cursor paging.
+     */
+    @Setter
+    private String nextCursor;
 
     public TraceBrief() {
         this.traces = new ArrayList<>();
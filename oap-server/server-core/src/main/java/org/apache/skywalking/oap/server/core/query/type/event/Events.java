@@ -25,4 +25,9 @@ import lombok.Data;
 @Data
 public class Events {
     private List<Event> events = new ArrayList<>();
+    /**
+     * @since 9.2.0 The cursor to read the next page, null if there is no more event or the storage doesn't support
+     * the cursor paging.
+     */
+    private String nextCursor;
 }
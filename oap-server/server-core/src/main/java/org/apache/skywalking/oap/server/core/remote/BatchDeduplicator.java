@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The batches of the long-lived stream are resent through a new stream when their acknowledgements are lost, this
+ * remembers the batches processed recently for every sender, so the resent ones are dropped rather than aggregated
+ * twice.
+ * <p>
+ * Every sender keeps a window of the latest {@link #WINDOW_SIZE} batch ids. The sender resends the unacknowledged
+ * batches in order before the new ones, so the resent batches fall in the window. The ones lagging further behind are
+ * considered processed, delivered at most once, which never happens unless the sender reorders the batches.
+ */
+class BatchDeduplicator {
+    static final int WINDOW_SIZE = Long.SIZE;
+    /**
+     * The senders not seen in this time are forgotten, they have restarted with new ids or left the cluster.
+     */
+    private static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    private final Map<Long, Window> senders = new ConcurrentHashMap<>();
+
+    /**
+     * @param senderId the id of the sender, 0 means the sender doesn't identify itself, never deduplicated.
+     * @param batchId  the id of the batch, increased by the sender for every batch and kept when the batch is resent.
+     * @return true if the batch is not processed before, and should be processed now.
+     */
+    boolean accept(long senderId, long batchId) {
+        if (senderId == 0) {
+            return true;
+        }
+        Window window = senders.get(senderId);
+        if (window == null) {
+            evictIdleSenders();
+            window = senders.computeIfAbsent(senderId, id -> new Window());
+        }
+        return window.accept(batchId);
+    }
+
+    /**
+     * Forget the batch accepted but not processed, then it is accepted again when it is resent.
+     */
+    void forget(long senderId, long batchId) {
+        final Window window = senders.get(senderId);
+        if (window != null) {
+            window.forget(batchId);
+        }
+    }
+
+    int senderCount() {
+        return senders.size();
+    }
+
+    private void evictIdleSenders() {
+        final long idleSince = System.currentTimeMillis() - IDLE_TIMEOUT;
+        senders.values().removeIf(window -> window.lastSeen < idleSince);
+    }
+
+    private static class Window {
+        private long highest;
+        /**
+         * Bit n is set when the batch {@code highest - n} has been processed.
+         */
+        private long processed;
+        private volatile long lastSeen = System.currentTimeMillis();
+
+        private synchronized boolean accept(long batchId) {
+            lastSeen = System.currentTimeMillis();
+            if (batchId > highest) {
+                final long shift = batchId - highest;
+                processed = shift >= WINDOW_SIZE ? 1 : processed << shift | 1;
+                highest = batchId;
+                return true;
+            }
+            final long offset = highest - batchId;
+            if (offset >= WINDOW_SIZE) {
+                return false;
+            }
+            final long bit = 1L << offset;
+            if ((processed & bit) != 0) {
+                return false;
+            }
+            processed |= bit;
+            return true;
+        }
+
+        private synchronized void forget(long batchId) {
+            final long offset = highest - batchId;
+            if (offset >= 0 && offset < WINDOW_SIZE) {
+                processed &= ~(1L << offset);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+/**
+ * The versions of the encoding of the remote messages between OAP nodes. The sender negotiates the version with every
+ * receiver through the handshake, so the OAP nodes of different versions could work in the same cluster.
+ */
+public final class RemoteEncoding {
+    /**
+     * The complex objects are in the string form, and the next worker is addressed by name. The receivers not
+     * supporting the handshake only accept this encoding.
+     */
+    public static final int LEGACY = 0;
+    /**
+     * The complex objects are in the binary form, and the next worker is addressed by the id from the worker table of
+     * the receiver.
+     */
+    public static final int BINARY = 1;
+    /**
+     * Same as {@link #BINARY}, and the receiver accepts the messages packed in batches through the long-lived stream.
+     */
+    public static final int BATCHED = 2;
+    /**
+     * The latest version supported by the current OAP node.
+     */
+    public static final int LATEST = BATCHED;
+
+    private RemoteEncoding() {
+    }
+}
@@ -23,8 +23,10 @@ import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.ForeverFirstSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.RemoteClientSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.RollingSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.Selector;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -40,13 +42,21 @@ public class RemoteSenderService implements Service {
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSenderService.class);
 
     private final ModuleManager moduleManager;
-    private final HashCodeSelector hashCodeSelector;
+    private final RemoteClientSelector hashCodeSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
 
     public RemoteSenderService(ModuleManager moduleManager) {
+        this(moduleManager, new HashCodeSelector());
+    }
+
+    /**
+     * @param hashCodeSelector routes the data sent through {@link Selector#HashCode}, such as {@link
+     *                         ConsistentHashSelector}.
+     */
+    public RemoteSenderService(ModuleManager moduleManager, RemoteClientSelector hashCodeSelector) {
         this.moduleManager = moduleManager;
-        this.hashCodeSelector = new HashCodeSelector();
+        this.hashCodeSelector = hashCodeSelector;
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
     }
@@ -18,13 +18,22 @@
 
 package org.apache.skywalking.oap.server.core.remote;
 
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.worker.LiveMetrics;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteAck;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessageBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
@@ -49,11 +58,18 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteServiceHandler.class);
 
     private final ModuleDefineHolder moduleDefineHolder;
-    private IWorkerInstanceGetter workerInstanceGetter;
+    private volatile IWorkerInstanceGetter workerInstanceGetter;
     private CounterMetrics remoteInCounter;
     private CounterMetrics remoteInErrorCounter;
     private CounterMetrics remoteInTargetNotFoundCounter;
+    private CounterMetrics remoteInDuplicateCounter;
     private HistogramMetrics remoteInHistogram;
+    /**
+     * The epoch of the worker ids of the current OAP node, the senders handshaked before the OAP node restarting need
+     * to handshake again.
+     */
+    private final long workerTableEpoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final BatchDeduplicator deduplicator = new BatchDeduplicator();
 
     public RemoteServiceHandler(ModuleDefineHolder moduleDefineHolder) {
         this.moduleDefineHolder = moduleDefineHolder;
@@ -82,6 +98,14 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                                                               "The error number(server side) of inside remote handler target worker not found. May be caused by unmatched OAL scrips.",
                                                               MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
                                                           );
+        remoteInDuplicateCounter = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                     .provider()
+                                                     .getService(MetricsCreator.class)
+                                                     .createCounter(
+                                                         "remote_in_duplicate_count",
+                                                         "The number(server side) of inside remote messages dropped as they are resent after processed.",
+                                                         MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+                                                     );
         remoteInHistogram = moduleDefineHolder.find(TelemetryModule.NAME)
                                               .provider()
                                               .getService(MetricsCreator.class)
@@ -97,45 +121,64 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
      */
     @Override
     public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(workerInstanceGetter)) {
-            synchronized (RemoteServiceHandler.class) {
-                if (Objects.isNull(workerInstanceGetter)) {
-                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
-                                                             .provider()
-                                                             .getService(IWorkerInstanceGetter.class);
-                }
-            }
-        }
+        final IWorkerInstanceGetter instanceGetter = getWorkerInstanceGetter();
 
         return new StreamObserver<RemoteMessage>() {
+            private final StreamContext context = new StreamContext(responseObserver);
+
             @Override
             public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
-                HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
-                try {
-                    String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
-
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        if (handleWorker != null) {
-                            AbstractWorker nextWorker = handleWorker.getWorker();
-                            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                            streamData.deserialize(remoteData);
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            LOGGER.warn(
-                                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
-                                nextWorkerName
-                            );
+                handle(message, instanceGetter, context);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOGGER.error(throwable.getMessage(), throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (context.rejected) {
+                    return;
+                }
+                responseObserver.onNext(Empty.newBuilder().build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * gRPC handler of {@link RemoteServiceGrpc}. Same as {@link #call(StreamObserver)}, but the messages are packed in
+     * batches, and every batch is acknowledged after all of its messages are handed to the next workers. The batches
+     * resent by the sender after their acknowledgements are lost are acknowledged again, but not processed twice.
+     */
+    @Override
+    public StreamObserver<RemoteMessageBatch> batchCall(StreamObserver<RemoteAck> responseObserver) {
+        final IWorkerInstanceGetter instanceGetter = getWorkerInstanceGetter();
+
+        return new StreamObserver<RemoteMessageBatch>() {
+            private final StreamContext context = new StreamContext(responseObserver);
+
+            @Override
+            public void onNext(RemoteMessageBatch batch) {
+                if (deduplicator.accept(batch.getSenderId(), batch.getBatchId())) {
+                    for (final RemoteMessage message : batch.getMessagesList()) {
+                        handle(message, instanceGetter, context);
+                    }
+                    if (context.rejected) {
+                        // The batch is resent after the handshake, it should be processed then.
+                        deduplicator.forget(batch.getSenderId(), batch.getBatchId());
+                    }
+                } else {
+                    remoteInDuplicateCounter.inc(batch.getMessagesCount());
+                    for (final RemoteMessage message : batch.getMessagesList()) {
+                        if (message.getWorkerTableEpoch() != 0) {
+                            context.workerTableEpoch = message.getWorkerTableEpoch();
                         }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        LOGGER.error(t.getMessage(), t);
                     }
-                } finally {
-                    timer.finish();
+                }
+                if (!context.rejected) {
+                    responseObserver.onNext(RemoteAck.newBuilder().setSequence(batch.getSequence()).build());
                 }
             }
 
@@ -146,9 +189,111 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
             @Override
             public void onCompleted() {
-                responseObserver.onNext(Empty.newBuilder().build());
+                if (context.rejected) {
+                    return;
+                }
                 responseObserver.onCompleted();
             }
         };
     }
+
+    private void handle(RemoteMessage message, IWorkerInstanceGetter instanceGetter, StreamContext context) {
+        remoteInCounter.inc();
+        HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+        try {
+            if (message.getWorkerTableEpoch() != 0) {
+                context.workerTableEpoch = message.getWorkerTableEpoch();
+            }
+            final int nextWorkerId = message.getNextWorkerId();
+            if (nextWorkerId != 0 && context.workerTableEpoch != workerTableEpoch) {
+                // The ids are from the worker table before restarting, the sender needs to handshake again.
+                remoteInTargetNotFoundCounter.inc();
+                if (!context.rejected) {
+                    context.rejected = true;
+                    context.responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(
+                        "Worker table epoch mismatches, handshake again.").asRuntimeException());
+                }
+                return;
+            }
+            String nextWorkerName = message.getNextWorkerName();
+            RemoteData remoteData = message.getRemoteData();
+
+            try {
+                RemoteHandleWorker handleWorker = nextWorkerId != 0
+                    ? instanceGetter.get(nextWorkerId)
+                    : instanceGetter.get(nextWorkerName);
+                if (handleWorker != null) {
+                    AbstractWorker nextWorker = handleWorker.getWorker();
+                    StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                    streamData.deserialize(remoteData);
+                    nextWorker.in(streamData);
+                } else {
+                    remoteInTargetNotFoundCounter.inc();
+                    LOGGER.warn(
+                        "Work name [{}] (id {}) not found. Check OAL script, make sure they are same in the whole cluster.",
+                        nextWorkerName, nextWorkerId
+                    );
+                }
+            } catch (Throwable t) {
+                remoteInErrorCounter.inc();
+                LOGGER.error(t.getMessage(), t);
+            }
+        } finally {
+            timer.finish();
+        }
+    }
+
+    /**
+     * gRPC handler of {@link RemoteServiceGrpc}. Negotiate the encoding with the sender, and share the worker ids of the
+     * current OAP node, then the sender could address the next worker by id rather than name.
+     */
+    @Override
+    public void handshake(HandshakeRequest request, StreamObserver<HandshakeResponse> responseObserver) {
+        responseObserver.onNext(HandshakeResponse.newBuilder()
+                                                 .setEncodingVersion(
+                                                     Math.min(request.getEncodingVersion(), RemoteEncoding.LATEST))
+                                                 .setWorkerTableEpoch(workerTableEpoch)
+                                                 .putAllWorkerIds(getWorkerInstanceGetter().getWorkerIds())
+                                                 .build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * gRPC handler of {@link RemoteServiceGrpc}. Read the live minute metrics held by the L2 aggregation of the current
+     * OAP node.
+     */
+    @Override
+    public void readLiveMetrics(LiveMetricsRequest request, StreamObserver<LiveMetricsResponse> responseObserver) {
+        responseObserver.onNext(LiveMetrics.read(getWorkerInstanceGetter(), request));
+        responseObserver.onCompleted();
+    }
+
+    private IWorkerInstanceGetter getWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            synchronized (RemoteServiceHandler.class) {
+                if (Objects.isNull(workerInstanceGetter)) {
+                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                             .provider()
+                                                             .getService(IWorkerInstanceGetter.class);
+                }
+            }
+        }
+        return workerInstanceGetter;
+    }
+
+    /**
+     * The state of a stream from the sender.
+     */
+    private static class StreamContext {
+        private final StreamObserver<?> responseObserver;
+        /**
+         * The epoch of the worker ids used by the sender, carried by the first message of the stream.
+         */
+        private long workerTableEpoch;
+        private boolean rejected;
+
+        private StreamContext(StreamObserver<?> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+    }
 }
@@ -19,10 +19,22 @@
 package org.apache.skywalking.oap.server.core.remote;
 
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 
 /**
  * Covert the interface implementation to {@link RemoteData.Builder}, in order to send the data through network.
  */
 public interface Serializable {
     RemoteData.Builder serialize();
+
+    /**
+     * Serialize in the encoding of {@link RemoteEncoding#BINARY}, the complex objects are put in the
+     * dataObjectBytes through {@link StorageDataComplexObject#toBytes()}, rather than the dataObjectStrings. It is
+     * only used when the receiver has negotiated the binary encoding.
+     *
+     * @since 9.2.0
+     */
+    default RemoteData.Builder serializeBinary() {
+        return serialize();
+    }
 }
@@ -19,30 +19,60 @@
 package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.remote.RemoteEncoding;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteAck;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessageBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
  * buffering the message and sending the message by batch.
+ * <p>
+ * When the stream batch size is set and the receiver supports {@link RemoteEncoding#BATCHED}, the messages are packed
+ * into batches and sent through a long-lived stream, which waits for the flow control of gRPC rather than limiting the
+ * number of streams. The batches not acknowledged by the receiver are sent again through a new stream, with the ids of
+ * the sender and the batch, which the receiver uses to drop the batches processed already, so the messages are not
+ * aggregated twice when the acknowledgements are lost. The messages of the unacknowledged batches are still sent again
+ * one by one, when the receiver turns back to the one not supporting the batches.
+ * <p>
+ * The stream data is kept in the queue as it is, and encoded by the consumer in the encoding negotiated right before
+ * sending, so the messages queued or resent when the receiver turns back to the legacy encoding are still readable.
  */
 @Slf4j
 public class GRPCRemoteClient implements RemoteClient {
@@ -52,11 +82,30 @@ public class GRPCRemoteClient implements RemoteClient {
     private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private SslContext sslContext;
     private GRPCClient client;
-    private DataCarrier<RemoteMessage> carrier;
+    private DataCarrier<PendingMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
     private int remoteTimeout;
+    /**
+     * The max number of the messages in a batch of the long-lived stream. 0 means opening a new stream for every
+     * drained batch and sending the messages one by one.
+     */
+    private final int streamBatchSize;
+    /**
+     * The name of the gRPC compressor of the long-lived stream, no compression if it is empty.
+     */
+    private final String streamCompression;
+    private HistogramMetrics remoteOutHistogram;
+    private GaugeMetrics remoteOutQueueGauge;
+    /**
+     * The encoding negotiated with the receiver, the legacy encoding is used before the handshake.
+     */
+    private volatile Negotiation negotiation = Negotiation.UNKNOWN;
+    /**
+     * The id of this sender in the receiver, to deduplicate the resent batches.
+     */
+    private final long senderId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
                             final Address address,
@@ -64,12 +113,25 @@ public class GRPCRemoteClient implements RemoteClient {
                             final int bufferSize,
                             final int remoteTimeout,
                             final SslContext sslContext) {
+        this(moduleDefineHolder, address, channelSize, bufferSize, remoteTimeout, sslContext, 0, null);
+    }
+
+    public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
+                            final Address address,
+                            final int channelSize,
+                            final int bufferSize,
+                            final int remoteTimeout,
+                            final SslContext sslContext,
+                            final int streamBatchSize,
+                            final String streamCompression) {
 
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.streamBatchSize = streamBatchSize;
+        this.streamCompression = streamCompression;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
                                              .provider()
@@ -91,6 +153,26 @@ public class GRPCRemoteClient implements RemoteClient {
                                                           address
                                                               .toString(), "N")
                                                   );
+        remoteOutHistogram = moduleDefineHolder.find(TelemetryModule.NAME)
+                                               .provider()
+                                               .getService(MetricsCreator.class)
+                                               .createHistogramMetric(
+                                                   "remote_out_latency",
+                                                   "The latency(client side) from sending a batch of the long-lived stream to acknowledged.",
+                                                   new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(
+                                                       address
+                                                           .toString(), "N")
+                                               );
+        remoteOutQueueGauge = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                .provider()
+                                                .getService(MetricsCreator.class)
+                                                .createGauge(
+                                                    "remote_out_queue_size",
+                                                    "The number(client side) of the messages waiting to be sent.",
+                                                    new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(
+                                                        address
+                                                            .toString(), "N")
+                                                );
     }
 
     @Override
@@ -126,7 +208,39 @@ public class GRPCRemoteClient implements RemoteClient {
         return RemoteServiceGrpc.newStub(getChannel());
     }
 
-    DataCarrier<RemoteMessage> getDataCarrier() {
+    /**
+     * Handshake with the receiver when the negotiation expires. The receivers not supporting the handshake are
+     * considered as the legacy ones, and they are asked again later, in case they have been upgraded.
+     */
+    Negotiation negotiate() {
+        Negotiation current = this.negotiation;
+        if (!current.isExpired()) {
+            return current;
+        }
+        try {
+            final HandshakeResponse response =
+                RemoteServiceGrpc.newBlockingStub(getChannel())
+                                 .withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
+                                 .handshake(HandshakeRequest.newBuilder()
+                                                            .setEncodingVersion(RemoteEncoding.LATEST)
+                                                            .build());
+            current = new Negotiation(
+                response.getEncodingVersion(), response.getWorkerTableEpoch(), response.getWorkerIdsMap(),
+                Negotiation.TTL
+            );
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                current = new Negotiation(RemoteEncoding.LEGACY, 0, Collections.emptyMap(), Negotiation.TTL);
+            } else {
+                log.warn("Failed to handshake with remote server [{}], {}", address, e.getMessage());
+                current = new Negotiation(RemoteEncoding.LEGACY, 0, Collections.emptyMap(), Negotiation.RETRY_DELAY);
+            }
+        }
+        this.negotiation = current;
+        return current;
+    }
+
+    DataCarrier<PendingMessage> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
                 if (Objects.isNull(this.carrier)) {
@@ -145,25 +259,72 @@ public class GRPCRemoteClient implements RemoteClient {
      */
     @Override
     public void push(String nextWorkerName, StreamData streamData) {
-        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
-        builder.setNextWorkerName(nextWorkerName);
-        builder.setRemoteData(streamData.serialize());
+        if (this.getDataCarrier().produce(new PendingMessage(nextWorkerName, streamData))) {
+            remoteOutQueueGauge.inc();
+        }
+    }
 
-        this.getDataCarrier().produce(builder.build());
+    /**
+     * Read the live metrics from the receiver in the deadline of the remote timeout. The receivers not supporting it
+     * fail the future with the UNIMPLEMENTED status, and the ones with the live metrics query disabled reply the data
+     * not supported.
+     */
+    @Override
+    public ListenableFuture<LiveMetricsResponse> readLiveMetrics(LiveMetricsRequest request) {
+        return RemoteServiceGrpc.newFutureStub(getChannel())
+                                .withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
+                                .readLiveMetrics(request);
     }
 
-    class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
+    class RemoteMessageConsumer implements IConsumer<PendingMessage> {
+        /**
+         * The batches failed to be sent through the long-lived stream, sent again before the ones from the queue.
+         */
+        private final List<PendingBatch> retryBatches = new ArrayList<>();
+        private int retryMessageCount;
+        private long batchId;
+        private RemoteStream stream;
+        /**
+         * Don't open a new stream before this time, after the previous one failed.
+         */
+        private long reopenAt;
+
         @Override
         public void init(final Properties properties) {
         }
 
         @Override
-        public void consume(List<RemoteMessage> remoteMessages) {
+        public void consume(List<PendingMessage> remoteMessages) {
+            remoteOutQueueGauge.dec(remoteMessages.size());
             try {
+                final Negotiation current = negotiate();
+                if (streamBatchSize > 0 && current.isBatched()) {
+                    sendInBatches(current, remoteMessages);
+                    return;
+                }
+                if (stream != null) {
+                    // The receiver turns back to the one not supporting the batches.
+                    stream.cancel();
+                    retry(stream.drainUnacknowledged());
+                    stream = null;
+                }
+                if (!retryBatches.isEmpty()) {
+                    final List<PendingMessage> messages = new ArrayList<>();
+                    for (final PendingBatch batch : drainRetries()) {
+                        messages.addAll(batch.messages);
+                    }
+                    messages.addAll(remoteMessages);
+                    remoteMessages = messages;
+                }
+                if (remoteMessages.isEmpty()) {
+                    return;
+                }
                 StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
+                boolean first = true;
+                for (PendingMessage remoteMessage : remoteMessages) {
                     remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                    streamObserver.onNext(current.address(current.encode(remoteMessage), first));
+                    first = false;
                 }
                 streamObserver.onCompleted();
             } catch (Throwable t) {
@@ -173,12 +334,256 @@ public class GRPCRemoteClient implements RemoteClient {
         }
 
         @Override
-        public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
+        public void onError(List<PendingMessage> remoteMessages, Throwable t) {
             log.error(t.getMessage(), t);
         }
 
+        @Override
+        public void nothingToConsume() {
+            if (stream != null || !retryBatches.isEmpty()) {
+                consume(Collections.emptyList());
+            }
+        }
+
         @Override
         public void onExit() {
+            if (stream != null) {
+                stream.complete();
+            }
+        }
+
+        private void sendInBatches(Negotiation current, List<PendingMessage> remoteMessages) {
+            if (stream != null && (stream.isClosed() || stream.workerTableEpoch() != current.workerTableEpoch)) {
+                // The ids of the workers have changed, the unacknowledged batches are sent again in the new stream.
+                stream.cancel();
+                retry(stream.drainUnacknowledged());
+                stream = null;
+                reopenAt = System.currentTimeMillis() + Negotiation.RETRY_DELAY;
+            }
+            // The resent batches keep their ids, and go before the new ones.
+            final List<PendingBatch> batches = drainRetries();
+            for (int from = 0; from < remoteMessages.size(); from += streamBatchSize) {
+                batches.add(new PendingBatch(++batchId, new ArrayList<>(remoteMessages.subList(
+                    from, Math.min(from + streamBatchSize, remoteMessages.size())))));
+            }
+            if (batches.isEmpty()) {
+                return;
+            }
+            if (stream == null) {
+                if (System.currentTimeMillis() < reopenAt) {
+                    retry(batches);
+                    return;
+                }
+                stream = new RemoteStream(current);
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                if (!stream.send(batches.get(i))) {
+                    retry(stream.drainUnacknowledged());
+                    retry(batches.subList(i, batches.size()));
+                    stream = null;
+                    reopenAt = System.currentTimeMillis() + Negotiation.RETRY_DELAY;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Put the batches back to the front of the queue, the ones exceeding the buffer size are dropped.
+         */
+        private void retry(List<PendingBatch> batches) {
+            for (final PendingBatch batch : batches) {
+                if (retryMessageCount + batch.messages.size() > bufferSize) {
+                    remoteOutErrorCounter.inc(batch.messages.size());
+                    continue;
+                }
+                retryBatches.add(batch);
+                retryMessageCount += batch.messages.size();
+                remoteOutQueueGauge.inc(batch.messages.size());
+            }
+        }
+
+        private List<PendingBatch> drainRetries() {
+            final List<PendingBatch> batches = new ArrayList<>(retryBatches);
+            remoteOutQueueGauge.dec(retryMessageCount);
+            retryBatches.clear();
+            retryMessageCount = 0;
+            return batches;
+        }
+    }
+
+    /**
+     * The long-lived stream to the receiver. The batches are written by the consumer thread only when the stream is
+     * ready, and are kept until the receiver acknowledges them.
+     */
+    private class RemoteStream implements ClientResponseObserver<RemoteMessageBatch, RemoteAck> {
+        private final Negotiation streamNegotiation;
+        private final ConcurrentSkipListMap<Long, PendingBatch> unacknowledged = new ConcurrentSkipListMap<>();
+        private final Object readyLock = new Object();
+        private ClientCallStreamObserver<RemoteMessageBatch> requestStream;
+        private volatile boolean closed;
+        private long sequence;
+
+        private RemoteStream(Negotiation streamNegotiation) {
+            this.streamNegotiation = streamNegotiation;
+            RemoteServiceGrpc.RemoteServiceStub stub = getStub();
+            if (!Strings.isNullOrEmpty(streamCompression)) {
+                stub = stub.withCompression(streamCompression);
+            }
+            stub.batchCall(this);
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<RemoteMessageBatch> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::wakeUp);
+        }
+
+        /**
+         * @return false if the stream is closed before the batch is written.
+         */
+        private boolean send(PendingBatch batch) {
+            if (!awaitReady()) {
+                return false;
+            }
+            sequence++;
+            final RemoteMessageBatch.Builder builder = RemoteMessageBatch.newBuilder()
+                                                                         .setSequence(sequence)
+                                                                         .setSenderId(senderId)
+                                                                         .setBatchId(batch.id);
+            for (final PendingMessage message : batch.messages) {
+                builder.addMessages(streamNegotiation.address(
+                    streamNegotiation.encode(message), sequence == 1 && builder.getMessagesCount() == 0));
+            }
+            batch.sendNanos = System.nanoTime();
+            unacknowledged.put(sequence, batch);
+            remoteOutCounter.inc(batch.messages.size());
+            try {
+                requestStream.onNext(builder.build());
+            } catch (Throwable t) {
+                // The batch is kept as unacknowledged, and sent again through the next stream.
+                closed = true;
+                remoteOutErrorCounter.inc();
+                log.error(t.getMessage(), t);
+            }
+            return true;
+        }
+
+        private boolean awaitReady() {
+            long waitMillis = 0;
+            synchronized (readyLock) {
+                while (!closed && !requestStream.isReady()) {
+                    try {
+                        readyLock.wait(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    waitMillis += 1000;
+                    if (waitMillis % 60000 == 0) {
+                        log.warn("Remote client [{}] waits over {} seconds for the stream being ready.",
+                                 address, waitMillis / 1000
+                        );
+                    }
+                }
+            }
+            return !closed;
+        }
+
+        private void wakeUp() {
+            synchronized (readyLock) {
+                readyLock.notifyAll();
+            }
+        }
+
+        @Override
+        public void onNext(RemoteAck ack) {
+            final PendingBatch batch = unacknowledged.remove(ack.getSequence());
+            if (batch != null) {
+                remoteOutHistogram.observe((System.nanoTime() - batch.sendNanos) / 1_000_000_000d);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closed = true;
+            wakeUp();
+            final Status.Code code = Status.fromThrowable(throwable).getCode();
+            if (code == Status.Code.CANCELLED) {
+                return;
+            }
+            if (code == Status.Code.FAILED_PRECONDITION) {
+                // The receiver restarted after the handshake, its worker ids have changed.
+                negotiation = Negotiation.UNKNOWN;
+            }
+            remoteOutErrorCounter.inc();
+            log.error(throwable.getMessage(), throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            closed = true;
+            wakeUp();
+        }
+
+        private boolean isClosed() {
+            return closed;
+        }
+
+        private long workerTableEpoch() {
+            return streamNegotiation.workerTableEpoch;
+        }
+
+        private void cancel() {
+            if (!closed) {
+                closed = true;
+                requestStream.cancel("The worker table of the receiver has changed.", null);
+            }
+        }
+
+        private void complete() {
+            if (!closed) {
+                closed = true;
+                requestStream.onCompleted();
+            }
+        }
+
+        /**
+         * @return the unacknowledged batches, in the sending order.
+         */
+        private List<PendingBatch> drainUnacknowledged() {
+            final List<PendingBatch> batches = new ArrayList<>();
+            Map.Entry<Long, PendingBatch> entry;
+            while ((entry = unacknowledged.pollFirstEntry()) != null) {
+                batches.add(entry.getValue());
+            }
+            return batches;
+        }
+    }
+
+    /**
+     * The batch of the long-lived stream, which keeps its id when it is resent.
+     */
+    private static class PendingBatch {
+        private final long id;
+        private final List<PendingMessage> messages;
+        private long sendNanos;
+
+        private PendingBatch(long id, List<PendingMessage> messages) {
+            this.id = id;
+            this.messages = messages;
+        }
+    }
+
+    /**
+     * The stream data waiting to be encoded and sent.
+     */
+    static class PendingMessage {
+        private final String nextWorkerName;
+        private final StreamData streamData;
+
+        PendingMessage(String nextWorkerName, StreamData streamData) {
+            this.nextWorkerName = nextWorkerName;
+            this.streamData = streamData;
         }
     }
 
@@ -222,6 +627,10 @@ public class GRPCRemoteClient implements RemoteClient {
                            @Override
                            public void onError(Throwable throwable) {
                                concurrentStreamObserverNumber.addAndGet(-1);
+                               if (Status.fromThrowable(throwable).getCode() == Status.Code.FAILED_PRECONDITION) {
+                                   // The receiver restarted after the handshake, its worker ids have changed.
+                                   negotiation = Negotiation.UNKNOWN;
+                               }
                                log.error(throwable.getMessage(), throwable);
                            }
 
@@ -253,4 +662,74 @@ public class GRPCRemoteClient implements RemoteClient {
     public int compareTo(RemoteClient o) {
         return address.compareTo(o.getAddress());
     }
+
+    /**
+     * The result of the handshake with the receiver.
+     */
+    static class Negotiation {
+        /**
+         * Handshake again in a minute, to pick up the workers registered in the receiver later, or the receiver
+         * upgraded.
+         */
+        private static final long TTL = TimeUnit.MINUTES.toMillis(1);
+        private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(5);
+        private static final Negotiation UNKNOWN = new Negotiation(RemoteEncoding.LEGACY, 0, Collections.emptyMap(), 0);
+
+        private final int encodingVersion;
+        private final long workerTableEpoch;
+        private final Map<String, Integer> workerIds;
+        private final long expireAt;
+
+        Negotiation(int encodingVersion, long workerTableEpoch, Map<String, Integer> workerIds, long ttl) {
+            this.encodingVersion = encodingVersion;
+            this.workerTableEpoch = workerTableEpoch;
+            this.workerIds = workerIds;
+            this.expireAt = ttl == 0 ? 0 : System.currentTimeMillis() + ttl;
+        }
+
+        boolean isBinary() {
+            return encodingVersion >= RemoteEncoding.BINARY;
+        }
+
+        boolean isBatched() {
+            return encodingVersion >= RemoteEncoding.BATCHED;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expireAt;
+        }
+
+        /**
+         * Encode the stream data in the negotiated encoding.
+         */
+        RemoteMessage encode(PendingMessage message) {
+            return RemoteMessage.newBuilder()
+                                .setNextWorkerName(message.nextWorkerName)
+                                .setRemoteData(
+                                    isBinary() ? message.streamData.serializeBinary() : message.streamData.serialize())
+                                .build();
+        }
+
+        /**
+         * Address the next worker by id if the receiver has shared it in the handshake, the epoch of the ids is carried
+         * by the first message of the stream.
+         */
+        RemoteMessage address(RemoteMessage message, boolean first) {
+            if (!isBinary()) {
+                return message;
+            }
+            final Integer workerId = workerIds.get(message.getNextWorkerName());
+            if (workerId == null && !first) {
+                return message;
+            }
+            final RemoteMessage.Builder builder = message.toBuilder();
+            if (workerId != null) {
+                builder.clearNextWorkerName().setNextWorkerId(workerId);
+            }
+            if (first) {
+                builder.setWorkerTableEpoch(workerTableEpoch);
+            }
+            return builder.build();
+        }
+    }
 }
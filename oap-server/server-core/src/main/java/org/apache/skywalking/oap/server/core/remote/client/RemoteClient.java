@@ -18,7 +18,11 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
 
 public interface RemoteClient extends Comparable<RemoteClient> {
 
@@ -29,4 +33,16 @@ public interface RemoteClient extends Comparable<RemoteClient> {
     void close();
 
     void push(String nextWorkerName, StreamData streamData);
+
+    /**
+     * Read the live minute metrics held by the L2 aggregation of the OAP node, see {@link
+     * org.apache.skywalking.oap.server.core.analysis.worker.LiveMetrics}.
+     *
+     * @return the response in the future, which fails if the OAP node can't be reached. The default response holds
+     * none of the requested metrics, so it is not supported.
+     * @since 9.2.0
+     */
+    default ListenableFuture<LiveMetricsResponse> readLiveMetrics(LiveMetricsRequest request) {
+        return Futures.immediateFuture(LiveMetricsResponse.getDefaultInstance());
+    }
 }
@@ -62,6 +62,8 @@ public class RemoteClientManager implements Service {
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    private int remoteStreamBatchSize;
+    private String remoteStreamCompression;
 
     /**
      * Initial the manager for all remote communication clients.
@@ -77,6 +79,29 @@ public class RemoteClientManager implements Service {
         sslContext = DynamicSslContext.forClient(trustedCAFile);
     }
 
+    /**
+     * Initial the manager for all remote communication clients.
+     *
+     * @param moduleDefineHolder      for looking up other modules
+     * @param remoteTimeout           for cluster internal communication, in second unit.
+     * @param trustedCAFile           SslContext to verify server certificates, no TLS if it is null.
+     * @param remoteStreamBatchSize   the max number of the messages in a batch of the long-lived stream, 0 means not
+     *                                using the long-lived stream.
+     * @param remoteStreamCompression the gRPC compressor of the long-lived stream.
+     */
+    public RemoteClientManager(ModuleDefineHolder moduleDefineHolder,
+                               int remoteTimeout,
+                               String trustedCAFile,
+                               int remoteStreamBatchSize,
+                               String remoteStreamCompression) {
+        this(moduleDefineHolder, remoteTimeout);
+        if (trustedCAFile != null) {
+            sslContext = DynamicSslContext.forClient(trustedCAFile);
+        }
+        this.remoteStreamBatchSize = remoteStreamBatchSize;
+        this.remoteStreamCompression = remoteStreamCompression;
+    }
+
     /**
      * Initial the manager for all remote communication clients.
      *
@@ -232,7 +257,10 @@ public class RemoteClientManager implements Service {
                         newRemoteClients.add(client);
                     } else {
                         RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
+                        client = new GRPCRemoteClient(
+                            moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext,
+                            remoteStreamBatchSize, remoteStreamCompression
+                        );
                         client.connect();
                         newRemoteClients.add(client);
                     }
@@ -18,10 +18,15 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.worker.LiveMetrics;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -84,6 +89,11 @@ public class SelfRemoteClient implements RemoteClient {
         }
     }
 
+    @Override
+    public ListenableFuture<LiveMetricsResponse> readLiveMetrics(LiveMetricsRequest request) {
+        return Futures.immediateFuture(LiveMetrics.read(workerInstanceGetter, request));
+    }
+
     @Override
     public int compareTo(RemoteClient o) {
         return address.compareTo(o.getAddress());
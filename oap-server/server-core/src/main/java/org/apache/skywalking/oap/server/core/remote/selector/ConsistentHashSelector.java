@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * Route the stream data through a consistent hash ring, in which every OAP node owns several virtual nodes. When a node
+ * joins or leaves the cluster, only about 1/N of the data is routed to a different node, rather than almost all of them
+ * as {@link HashCodeSelector} does.
+ * <p>
+ * After the cluster changes, the data keeps being routed to its previous node during the handoff window, as long as
+ * the previous node is still alive, so the cached metrics of the L2 aggregation are not dropped all at once by a node
+ * restarting or flapping in the cluster.
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+    private final int virtualNodes;
+    private final long handoffWindow;
+    private volatile Ring ring;
+
+    /**
+     * @param virtualNodes  the number of virtual nodes of every OAP node in the ring.
+     * @param handoffWindow the time in milliseconds routing to the previous node after the cluster changes.
+     */
+    public ConsistentHashSelector(int virtualNodes, long handoffWindow) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive, but it is " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+        this.handoffWindow = handoffWindow;
+    }
+
+    @Override
+    public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        final Ring current = ringOf(clients);
+        final int hash = mix(streamData.remoteHashCode());
+        final Ring previous = current.previous;
+        if (previous != null) {
+            if (System.currentTimeMillis() < current.handoffDeadline) {
+                final RemoteClient alive = current.members.get(previous.locate(hash).getAddress());
+                if (alive != null) {
+                    return alive;
+                }
+            } else {
+                current.previous = null;
+            }
+        }
+        return current.locate(hash);
+    }
+
+    /**
+     * The clients are replaced by a new list whenever the cluster changes, so the ring is rebuilt only when the given
+     * list is not the one it was built from.
+     */
+    private Ring ringOf(List<RemoteClient> clients) {
+        Ring current = ring;
+        if (current != null && current.clients == clients) {
+            return current;
+        }
+        synchronized (this) {
+            current = ring;
+            if (current == null || current.clients != clients) {
+                final Ring rebuilt = new Ring(clients, virtualNodes);
+                if (current != null && handoffWindow > 0) {
+                    // Only the last ring is kept, the previous one of it is over once the cluster changes again.
+                    current.previous = null;
+                    rebuilt.previous = current;
+                    rebuilt.handoffDeadline = System.currentTimeMillis() + handoffWindow;
+                }
+                ring = current = rebuilt;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * The finalization step of murmur3, spreading the bits of the hash code, which is usually a String hash code and
+     * not distributed evenly enough for the ring.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static class Ring {
+        private final List<RemoteClient> clients;
+        private final Map<Address, RemoteClient> members;
+        private final int[] points;
+        private final RemoteClient[] owners;
+        private volatile Ring previous;
+        private volatile long handoffDeadline;
+
+        private Ring(List<RemoteClient> clients, int virtualNodes) {
+            this.clients = clients;
+            this.members = new HashMap<>(clients.size() * 2);
+            final long[] sorted = new long[clients.size() * virtualNodes];
+            int n = 0;
+            for (int i = 0; i < clients.size(); i++) {
+                final RemoteClient client = clients.get(i);
+                members.put(client.getAddress(), client);
+                for (int v = 0; v < virtualNodes; v++) {
+                    final int point = HASH_FUNCTION.hashString(
+                        client.getAddress().toString() + "#" + v, StandardCharsets.UTF_8).asInt();
+                    // The point in the high bits and the client index in the low bits, sorted by the point.
+                    sorted[n++] = ((long) point << 32) | i;
+                }
+            }
+            Arrays.sort(sorted);
+            this.points = new int[n];
+            this.owners = new RemoteClient[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = (int) (sorted[i] >> 32);
+                owners[i] = clients.get((int) sorted[i]);
+            }
+        }
+
+        /**
+         * @return the owner of the first point clockwise from the hash.
+         */
+        private RemoteClient locate(int hash) {
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == points.length) {
+                    index = 0;
+                }
+            }
+            return owners[index];
+        }
+    }
+}
@@ -45,4 +45,22 @@ public interface IBatchDAO extends DAO {
      * @param prepareRequests data to insert or update. No delete happens in streaming mode.
      */
     CompletableFuture<Void> flush(List<PrepareRequest> prepareRequests);
+
+    /**
+     * @param failure the cause of the failed {@link #flush(List)}.
+     * @return true if the storage is unavailable or overloaded, and the requests are worth flushing again later. False
+     * if the requests are rejected by the storage, such as the mapping or constraint errors, which would fail again.
+     */
+    default boolean isRetryable(Throwable failure) {
+        return true;
+    }
+
+    /**
+     * @return the max time in milliseconds from the {@link #flush(List)} until the data is queryable, such as the
+     * buffering of the bulk requests and the index refresh of ElasticSearch. 0 if the data is queryable once flushed.
+     * @since 9.2.0
+     */
+    default long getQueryableDelay() {
+        return 0;
+    }
 }
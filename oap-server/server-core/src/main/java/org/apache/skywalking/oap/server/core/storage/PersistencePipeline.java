@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The in-flight rounds of one persistence worker in the pipelined persistence. A round is in flight from the start of
+ * its preparation to the end of its execution, at most {@code window} rounds are in flight at the same time.
+ * <p>
+ * The executions are chained, one starts after the previous one finished no matter it succeeded or not, so the
+ * requests of the same metrics are executed in the order of rounds. They run in the given executor rather than the
+ * thread preparing the round, so the preparation of the next round overlaps with them even if the storage executes the
+ * requests synchronously, such as the JDBC storages.
+ */
+class PersistencePipeline {
+    private final int window;
+    private final Executor executor;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    PersistencePipeline(int window, Executor executor) {
+        this.window = window;
+        this.executor = executor;
+    }
+
+    /**
+     * @return true if the worker could start a new round.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= window) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finish the round without execution, such as nothing prepared.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Execute the round after the previous executions, the round is released once the execution is done.
+     */
+    synchronized CompletableFuture<Void> execute(Supplier<CompletableFuture<Void>> execution) {
+        final CompletableFuture<Void> future = tail.handle((ignored1, ignored2) -> null)
+                                                   .thenComposeAsync(ignored -> execution.get(), executor);
+        future.whenComplete((ignored1, ignored2) -> release());
+        tail = future;
+        return future;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -21,7 +21,10 @@ package org.apache.skywalking.oap.server.core.storage;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -50,6 +53,15 @@ public enum PersistenceTimer {
     private HistogramMetrics executeLatency;
     private HistogramMetrics allLatency;
     private ExecutorService prepareExecutorService;
+    /**
+     * The executions of the pipelined persistence, its size bounds the rounds executed at the same time.
+     */
+    private ExecutorService executeExecutorService;
+    /**
+     * The window of the pipelined persistence, 0 means disabled.
+     */
+    private int pipelineWindow;
+    private final Map<PersistenceWorker<?>, PersistencePipeline> pipelines = new ConcurrentHashMap<>();
 
     PersistenceTimer() {
     }
@@ -83,6 +95,10 @@ public enum PersistenceTimer {
         );
 
         prepareExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
+        pipelineWindow = moduleConfig.getPersistentPipelineWindow();
+        if (pipelineWindow > 0) {
+            executeExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
+        }
         if (!isStarted) {
             Executors.newSingleThreadScheduledExecutor()
                      .scheduleWithFixedDelay(
@@ -96,6 +112,10 @@ public enum PersistenceTimer {
         }
     }
 
+    /**
+     * @return the future of the prepare stage of all workers. The execution stage is included too, unless the storage
+     * executes the requests asynchronously, or the pipelined persistence is activated.
+     */
     private CompletableFuture<Void> extractDataAndSave(IBatchDAO batchDAO) {
         if (log.isDebugEnabled()) {
             log.debug("Extract data and save");
@@ -108,10 +128,22 @@ public enum PersistenceTimer {
         workers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
         workers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
 
-        final CompletableFuture<Void> future =
+        final boolean pipelined = pipelineWindow > 0;
+        final List<CompletableFuture<Void>> executions = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> prepared =
             CompletableFuture.allOf(workers.stream().map(worker -> {
                 return CompletableFuture.runAsync(() -> {
-                    List<PrepareRequest> innerPrepareRequests;
+                    final PersistencePipeline pipeline = pipelined ? pipelineOf(worker) : null;
+                    if (pipeline != null && !pipeline.tryAcquire()) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(
+                                "{} rounds of worker {} are still in flight, skip this round",
+                                pipeline.inFlight(), worker.getClass().getName()
+                            );
+                        }
+                        return;
+                    }
+                    List<PrepareRequest> innerPrepareRequests = null;
                     // Prepare stage
                     try (HistogramMetrics.Timer ignored = prepareLatency.createTimer()) {
                         if (log.isDebugEnabled()) {
@@ -124,6 +156,10 @@ public enum PersistenceTimer {
                         innerPrepareRequests = worker.buildBatchRequests();
 
                         worker.endOfRound();
+                    } finally {
+                        if (pipeline != null && CollectionUtils.isEmpty(innerPrepareRequests)) {
+                            pipeline.release();
+                        }
                     }
 
                     if (CollectionUtils.isEmpty(innerPrepareRequests)) {
@@ -131,11 +167,20 @@ public enum PersistenceTimer {
                     }
 
                     // Execution stage
-                    HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-                    batchDAO.flush(innerPrepareRequests)
-                            .whenComplete(($1, $2) -> executeLatencyTimer.close());
+                    final List<PrepareRequest> requests = innerPrepareRequests;
+                    if (pipeline != null) {
+                        executions.add(pipeline.execute(() -> execute(batchDAO, requests)));
+                    } else {
+                        execute(batchDAO, requests);
+                    }
                 }, prepareExecutorService);
             }).toArray(CompletableFuture[]::new));
+        // In the pipelined persistence, a round ends when its executions are done, while the next round could start
+        // once prepared.
+        final CompletableFuture<Void> future = pipelined
+            ? prepared.thenCompose(
+                ignored -> CompletableFuture.allOf(executions.toArray(new CompletableFuture[0])))
+            : prepared;
         future.whenComplete((unused, throwable) -> {
             allTimer.close();
             if (log.isDebugEnabled()) {
@@ -149,6 +194,17 @@ public enum PersistenceTimer {
                 log.error(throwable.getMessage(), throwable);
             }
         });
+        return prepared;
+    }
+
+    private CompletableFuture<Void> execute(IBatchDAO batchDAO, List<PrepareRequest> requests) {
+        HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+        final CompletableFuture<Void> future = batchDAO.flush(requests);
+        future.whenComplete(($1, $2) -> executeLatencyTimer.close());
         return future;
     }
+
+    private PersistencePipeline pipelineOf(PersistenceWorker<?> worker) {
+        return pipelines.computeIfAbsent(worker, ignored -> new PersistencePipeline(pipelineWindow, executeExecutorService));
+    }
 }
@@ -49,6 +49,32 @@ public interface ILogQueryDAO extends Service {
                    final List<String> keywordsOfContent,
                    final List<String> excludingKeywordsOfContent) throws IOException;
 
+    /**
+     * Query the page of the logs after the cursor, rather than skipping the {@code from} ones. The storage supporting it
+     * sets {@link Logs#getNextCursor()}, others fall back to the offset paging.
+     *
+     * @param cursor the {@link Logs#getNextCursor()} of the previous page, or null to use the offset paging.
+     * @since 9.2.0
+     */
+    default Logs queryLogs(String serviceId,
+                           String serviceInstanceId,
+                           String endpointId,
+                           TraceScopeCondition relatedTrace,
+                           Order queryOrder,
+                           int from,
+                           int limit,
+                           String cursor,
+                           final long startTB,
+                           final long endTB,
+                           final List<Tag> tags,
+                           final List<String> keywordsOfContent,
+                           final List<String> excludingKeywordsOfContent) throws IOException {
+        return queryLogs(
+            serviceId, serviceInstanceId, endpointId, relatedTrace, queryOrder, from, limit, startTB, endTB, tags,
+            keywordsOfContent, excludingKeywordsOfContent
+        );
+    }
+
     /**
      * Parser the raw tags.
      */
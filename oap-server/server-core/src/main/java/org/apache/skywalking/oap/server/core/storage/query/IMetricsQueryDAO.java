@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.storage.query;
 import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,6 +31,7 @@ import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
 import org.apache.skywalking.oap.server.core.query.type.IntValues;
 import org.apache.skywalking.oap.server.core.query.type.KVInt;
@@ -58,6 +60,31 @@ public interface IMetricsQueryDAO extends DAO {
 
     HeatMap readHeatMap(MetricsCondition condition, String valueColumnName, Duration duration) throws IOException;
 
+    /**
+     * Read the time-series values of multiple metrics in a batch. The implementations read the rows of the same table
+     * together, rather than one round trip per metrics. By default, the metrics are read one by one.
+     *
+     * @return the values in the same order as the conditions. For every condition, it is the singleton list of the
+     * {@link #readMetricsValues(MetricsCondition, String, Duration)} result if the labels are null, or the {@link
+     * #readLabeledMetricsValues(MetricsCondition, String, List, Duration)} result otherwise.
+     * @since 9.2.0
+     */
+    default List<List<MetricsValues>> readMetricsValues(List<MetricsValuesCondition> conditions) throws IOException {
+        final List<List<MetricsValues>> result = new ArrayList<>(conditions.size());
+        for (final MetricsValuesCondition condition : conditions) {
+            final String valueColumnName =
+                ValueColumnMetadata.INSTANCE.getValueCName(condition.getCondition().getName());
+            if (condition.getLabels() == null) {
+                result.add(Collections.singletonList(
+                    readMetricsValues(condition.getCondition(), valueColumnName, condition.getDuration())));
+            } else {
+                result.add(readLabeledMetricsValues(
+                    condition.getCondition(), valueColumnName, condition.getLabels(), condition.getDuration()));
+            }
+        }
+        return result;
+    }
+
     class Util {
         /**
          * Make sure the order is same as the expected order, add defaultValue if absent.
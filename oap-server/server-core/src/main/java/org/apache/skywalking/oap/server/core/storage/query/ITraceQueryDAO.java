@@ -44,6 +44,33 @@ public interface ITraceQueryDAO extends Service {
                                 QueryOrder queryOrder,
                                 final List<Tag> tags) throws IOException;
 
+    /**
+     * Query the page of the traces after the cursor, rather than skipping the {@code from} ones. The storage supporting
+     * it sets {@link TraceBrief#getNextCursor()}, others fall back to the offset paging.
+     *
+     * @param cursor the {@link TraceBrief#getNextCursor()} of the previous page, or null to use the offset paging.
+     * @since 9.2.0
+     */
+    default TraceBrief queryBasicTraces(long startSecondTB,
+                                        long endSecondTB,
+                                        long minDuration,
+                                        long maxDuration,
+                                        String serviceId,
+                                        String serviceInstanceId,
+                                        String endpointId,
+                                        String traceId,
+                                        int limit,
+                                        int from,
+                                        String cursor,
+                                        TraceState traceState,
+                                        QueryOrder queryOrder,
+                                        final List<Tag> tags) throws IOException {
+        return queryBasicTraces(
+            startSecondTB, endSecondTB, minDuration, maxDuration, serviceId, serviceInstanceId, endpointId, traceId,
+            limit, from, traceState, queryOrder, tags
+        );
+    }
+
     List<SegmentRecord> queryByTraceId(String traceId) throws IOException;
 
     /**
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.spill;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * RecordSpillQueue writes the records into the {@link SpillLog} on the local disk, rather than the storage, so the
+ * receivers are not blocked when the storage is slow or down. A drainer thread reads the records back and flushes them
+ * into the storage in batches. The position in the log is committed only after the storage has accepted the batch,
+ * the batches failed are read and flushed again after a backoff, including the ones left by the last run of the OAP.
+ * <p>
+ * Only the failures the storage classifies as retryable, see {@link IBatchDAO#isRetryable(Throwable)}, are flushed
+ * again. When a batch is rejected, its records are flushed again one by one, and the ones rejected again are moved to
+ * the dead letter log in the {@value #DEAD_LETTER} sub directory, rather than blocking the records after them.
+ */
+@Slf4j
+public class RecordSpillQueue {
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_IN_FLIGHT = 8;
+    private static final long IDLE_INTERVAL = 100;
+    private static final long MIN_BACKOFF = 1000;
+    private static final long MAX_BACKOFF = 30_000;
+    static final String DEAD_LETTER = "dead-letter";
+
+    private final SpillLog spillLog;
+    private final SpillLog deadLetterLog;
+    /**
+     * The model name to the target, which prepares the spilled records in the way of the model.
+     */
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final Deque<InFlight> inFlights = new ArrayDeque<>();
+    private IBatchDAO batchDAO;
+    private GaugeMetrics backlogBytes;
+    private CounterMetrics drainedCount;
+    private CounterMetrics droppedBytes;
+    private CounterMetrics deadLetterCount;
+    private long reportedDroppedBytes;
+    private long backoff;
+    /**
+     * The number of the records to flush one by one, as the batch of them has been rejected by the storage.
+     */
+    private int isolating;
+
+    /**
+     * @param maxSize     of the spill log in bytes.
+     * @param segmentSize of every segment file of the spill log in bytes.
+     */
+    public RecordSpillQueue(File directory, long maxSize, int segmentSize) throws IOException {
+        this.spillLog = new SpillLog(directory, maxSize, segmentSize);
+        this.deadLetterLog = new SpillLog(new File(directory, DEAD_LETTER), 2L * segmentSize, segmentSize);
+    }
+
+    /**
+     * @param recordDAO built by {@link SpilledRecord.Builder}.
+     */
+    public void register(Model model, IRecordDAO recordDAO) {
+        targets.put(model.getName(), new Target(model, recordDAO));
+    }
+
+    /**
+     * @return false if the record can't be spilled, it should be inserted into the storage directly.
+     */
+    public boolean offer(Model model, Record record, StorageBuilder<? extends Record> storageBuilder) {
+        try {
+            return spillLog.append(SpilledRecord.encode(model.getName(), record, storageBuilder));
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to spill the record of {}", model.getName(), e);
+            return false;
+        }
+    }
+
+    public void start(ModuleManager moduleManager) {
+        batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
+        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                                     .provider()
+                                                     .getService(MetricsCreator.class);
+        backlogBytes = metricsCreator.createGauge(
+            "record_spill_backlog_bytes", "The bytes of the spilled records not flushed into the storage yet",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        drainedCount = metricsCreator.createCounter(
+            "record_spill_drained_count", "The number of the spilled records flushed into the storage",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        droppedBytes = metricsCreator.createCounter(
+            "record_spill_dropped_bytes", "The bytes of the spilled records dropped as the spill log is full",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        deadLetterCount = metricsCreator.createCounter(
+            "record_spill_dead_letter_count", "The number of the spilled records rejected by the storage",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+
+        final Thread drainer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    final long interval = drain();
+                    if (interval > 0) {
+                        Thread.sleep(interval);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Throwable t) {
+                    log.error("Failed to drain the spilled records.", t);
+                }
+            }
+        }, "RecordSpillDrainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Commit the completed batches, and flush one more batch if there are not too many in flight.
+     *
+     * @return the interval in milliseconds before the next round, 0 means no wait.
+     */
+    long drain() throws IOException {
+        while (!inFlights.isEmpty() && inFlights.peekFirst().future.isDone()) {
+            final InFlight completed = inFlights.pollFirst();
+            final Throwable failure = failureOf(completed.future);
+            if (failure != null) {
+                final boolean retryable = batchDAO.isRetryable(failure);
+                if (!retryable && completed.isolatedEntry != null) {
+                    deadLetter(completed.isolatedEntry, failure);
+                    backoff = 0;
+                    spillLog.commit(completed.position);
+                    continue;
+                }
+                // The batches after the failed one are flushed again too, the storage may receive them twice.
+                inFlights.clear();
+                spillLog.rewind();
+                report();
+                if (!retryable) {
+                    log.warn("The spilled records are rejected by the storage, flush the {} records one by one",
+                             completed.count, failure
+                    );
+                    isolating = completed.count;
+                    return 0;
+                }
+                if (completed.isolatedEntry != null) {
+                    isolating++;
+                }
+                backoff = Math.min(MAX_BACKOFF, Math.max(MIN_BACKOFF, backoff * 2));
+                log.warn("Failed to flush the spilled records into the storage, retry in {}ms", backoff, failure);
+                return backoff;
+            }
+            backoff = 0;
+            spillLog.commit(completed.position);
+            drainedCount.inc(completed.count);
+        }
+        report();
+        if (inFlights.size() >= (isolating > 0 ? 1 : MAX_IN_FLIGHT)) {
+            return 1;
+        }
+
+        final List<byte[]> entries = spillLog.poll(isolating > 0 ? 1 : BATCH_SIZE);
+        if (entries.isEmpty()) {
+            return inFlights.isEmpty() ? IDLE_INTERVAL : 1;
+        }
+        byte[] isolatedEntry = null;
+        if (isolating > 0) {
+            isolating--;
+            isolatedEntry = entries.get(0);
+        }
+        final List<PrepareRequest> requests = new ArrayList<>(entries.size());
+        for (final byte[] entry : entries) {
+            final SpilledRecord record = SpilledRecord.decode(entry);
+            final Target target = targets.get(record.getModelName());
+            if (target == null) {
+                log.warn("Discard the spilled record of the unknown model {}", record.getModelName());
+                continue;
+            }
+            requests.add(target.recordDAO.prepareBatchInsert(target.model, record));
+        }
+        CompletableFuture<Void> future;
+        try {
+            future = batchDAO.flush(requests);
+        } catch (Throwable t) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(t);
+        }
+        inFlights.addLast(new InFlight(future, spillLog.position(), entries.size(), isolatedEntry));
+        return 0;
+    }
+
+    private static Throwable failureOf(CompletableFuture<Void> future) {
+        if (!future.isCompletedExceptionally()) {
+            return null;
+        }
+        Throwable failure = future.handle((ignored, t) -> t).join();
+        while (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    /**
+     * Keep the record rejected by the storage in the dead letter log for the investigation, the log keeps the latest
+     * two segments of them.
+     */
+    private void deadLetter(byte[] entry, Throwable failure) throws IOException {
+        deadLetterCount.inc();
+        log.error("Move the spilled record of {} to the dead letter log, as it is rejected by the storage",
+                  SpilledRecord.decode(entry).getModelName(), failure
+        );
+        deadLetterLog.append(entry);
+    }
+
+    private void report() {
+        backlogBytes.setValue(spillLog.backlogBytes());
+        final long dropped = spillLog.getDroppedBytes();
+        if (dropped > reportedDroppedBytes) {
+            droppedBytes.inc(dropped - reportedDroppedBytes);
+            reportedDroppedBytes = dropped;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Target {
+        private final Model model;
+        private final IRecordDAO recordDAO;
+    }
+
+    @RequiredArgsConstructor
+    private static class InFlight {
+        private final CompletableFuture<Void> future;
+        private final SpillLog.Position position;
+        private final int count;
+        /**
+         * The record flushed alone, null if it is a batch.
+         */
+        private final byte[] isolatedEntry;
+    }
+}
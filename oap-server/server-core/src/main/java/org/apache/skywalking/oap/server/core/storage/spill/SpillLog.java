@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.spill;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SpillLog is a segmented, memory-mapped and append-only log on the local disk.
+ * <p>
+ * Every segment is a file of a fixed size, holding the entries as {@code [length][crc32][payload]} one by one, the
+ * unused tail of a segment is zero filled. The reader reads from the committed position, and the position is persisted
+ * in the checkpoint file once {@link #commit(Position)} is called, so the entries not committed are read again after a
+ * {@link #rewind()} or a restart. The oldest segment is dropped when the total size exceeds the max size.
+ * <p>
+ * The methods are synchronized, the appending threads and the reading thread share the same lock.
+ */
+@Slf4j
+public class SpillLog implements Closeable {
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{20})\\" + SEGMENT_SUFFIX);
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int ENTRY_HEADER = 8;
+    private static final int CHECKPOINT_SIZE = 16;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    /**
+     * The ids of the segments on the disk, in ascending order.
+     */
+    private final TreeSet<Long> segments = new TreeSet<>();
+    private final FileChannel checkpointChannel;
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(CHECKPOINT_SIZE);
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+
+    private Position committed;
+    private long readSegment;
+    private ByteBuffer readBuffer;
+    private int readOffset;
+
+    @Getter
+    private long droppedBytes;
+
+    /**
+     * @param maxSize     of all the segments in bytes, at least 2 segments are kept.
+     * @param segmentSize of every segment file in bytes, which is the max size of an entry too.
+     */
+    public SpillLog(File directory, long maxSize, int segmentSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create the spill directory " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.max(2, maxSize / segmentSize);
+
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            createSegment(0);
+        }
+
+        writeSegment = segments.last();
+        writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+        writeOffset = 0;
+        int length;
+        while ((length = entryLength(writeBuffer, writeOffset)) > 0) {
+            writeOffset += ENTRY_HEADER + length;
+        }
+
+        checkpointChannel = new RandomAccessFile(new File(directory, CHECKPOINT), "rw").getChannel();
+        committed = readCheckpoint();
+        if (!segments.contains(committed.getSegment())) {
+            committed = new Position(segments.first(), 0);
+        }
+        rewind();
+        if (writeOffset > 0) {
+            // Never append after the entries of the last run, the tail of the segment may be partially written.
+            rollSegment();
+        }
+    }
+
+    /**
+     * @return false if the entry is larger than a segment.
+     */
+    public synchronized boolean append(byte[] entry) throws IOException {
+        if (entry.length + ENTRY_HEADER > segmentSize) {
+            return false;
+        }
+        if (writeOffset + ENTRY_HEADER + entry.length > writeBuffer.capacity()) {
+            rollSegment();
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(entry, 0, entry.length);
+        writeBuffer.position(writeOffset + 4);
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.put(entry);
+        // Write the length at the last, the entry is visible only when it is complete.
+        writeBuffer.putInt(writeOffset, entry.length);
+        writeOffset += ENTRY_HEADER + entry.length;
+        return true;
+    }
+
+    /**
+     * Read the entries after the last read position, up to the given number.
+     */
+    public synchronized List<byte[]> poll(int max) throws IOException {
+        final List<byte[]> entries = new ArrayList<>(Math.min(max, 64));
+        while (entries.size() < max) {
+            if (readSegment == writeSegment && readOffset >= writeOffset) {
+                break;
+            }
+            final int length = entryLength(readBuffer, readOffset);
+            if (length > 0) {
+                final byte[] entry = new byte[length];
+                readBuffer.position(readOffset + ENTRY_HEADER);
+                readBuffer.get(entry);
+                entries.add(entry);
+                readOffset += ENTRY_HEADER + length;
+            } else if (readSegment == writeSegment) {
+                break;
+            } else {
+                openReadSegment(segments.higher(readSegment), 0);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return the position after the last read entry.
+     */
+    public synchronized Position position() {
+        return new Position(readSegment, readOffset);
+    }
+
+    /**
+     * Mark the entries before the given position as consumed, and delete the segments consumed completely.
+     */
+    public synchronized void commit(Position position) throws IOException {
+        if (position.getSegment() < segments.first()) {
+            // The segment has been dropped as the log is full.
+            return;
+        }
+        committed = position;
+        while (segments.first() < committed.getSegment()) {
+            deleteSegment(segments.first());
+        }
+        checkpointBuffer.clear();
+        checkpointBuffer.putLong(committed.getSegment());
+        checkpointBuffer.putInt(committed.getOffset());
+        final CRC32 crc = new CRC32();
+        crc.update(checkpointBuffer.array(), 0, 12);
+        checkpointBuffer.putInt((int) crc.getValue());
+        checkpointBuffer.flip();
+        checkpointChannel.write(checkpointBuffer, 0);
+    }
+
+    /**
+     * Read the entries from the last committed position again.
+     */
+    public synchronized void rewind() throws IOException {
+        openReadSegment(committed.getSegment(), committed.getOffset());
+    }
+
+    /**
+     * @return the size of the entries not committed, including the unused tails of the segments.
+     */
+    public synchronized long backlogBytes() {
+        if (committed.getSegment() == writeSegment) {
+            return writeOffset - committed.getOffset();
+        }
+        return (long) (writeSegment - committed.getSegment()) * segmentSize - committed.getOffset() + writeOffset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writeBuffer.force();
+        checkpointChannel.force(true);
+        checkpointChannel.close();
+    }
+
+    private void rollSegment() throws IOException {
+        writeBuffer.force();
+        createSegment(writeSegment + 1);
+        writeSegment = segments.last();
+        writeBuffer = map(writeSegment, FileChannel.MapMode.READ_WRITE);
+        writeOffset = 0;
+        while (segments.size() > maxSegments) {
+            final long oldest = segments.first();
+            log.warn("The spill log exceeds the max size, drop the oldest segment {}", oldest);
+            if (committed.getSegment() == oldest) {
+                droppedBytes += segmentSize - committed.getOffset();
+                committed = new Position(segments.higher(oldest), 0);
+            }
+            deleteSegment(oldest);
+            if (readSegment == oldest) {
+                openReadSegment(committed.getSegment(), committed.getOffset());
+            }
+        }
+    }
+
+    private void openReadSegment(long segment, int offset) throws IOException {
+        readSegment = segment;
+        readOffset = offset;
+        readBuffer = segment == writeSegment ? writeBuffer.duplicate() : map(segment, FileChannel.MapMode.READ_ONLY);
+    }
+
+    /**
+     * @return the length of the entry at the offset, 0 if there is no complete entry.
+     */
+    private int entryLength(ByteBuffer buffer, int offset) {
+        if (offset + ENTRY_HEADER > buffer.capacity()) {
+            return 0;
+        }
+        final int length = buffer.getInt(offset);
+        if (length <= 0 || offset + ENTRY_HEADER + length > buffer.capacity()) {
+            return 0;
+        }
+        final CRC32 crc = new CRC32();
+        final ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + ENTRY_HEADER + length).position(offset + ENTRY_HEADER);
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            log.warn("Corrupted entry at offset {} of the spill log, skip the rest of the segment", offset);
+            return 0;
+        }
+        return length;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        checkpointBuffer.clear();
+        if (checkpointChannel.read(checkpointBuffer, 0) == CHECKPOINT_SIZE) {
+            final CRC32 crc = new CRC32();
+            crc.update(checkpointBuffer.array(), 0, 12);
+            if ((int) crc.getValue() == checkpointBuffer.getInt(12)) {
+                return new Position(checkpointBuffer.getLong(0), checkpointBuffer.getInt(8));
+            }
+        }
+        return new Position(segments.first(), 0);
+    }
+
+    private void createSegment(long segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(segment), "rw")) {
+            file.setLength(segmentSize);
+        }
+        segments.add(segment);
+    }
+
+    private void deleteSegment(long segment) {
+        segments.remove(segment);
+        if (!segmentFile(segment).delete()) {
+            log.warn("Failed to delete the spill log segment {}", segmentFile(segment).getAbsolutePath());
+        }
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(segment), "rw")) {
+            return file.getChannel().map(mode, 0, file.length());
+        }
+    }
+
+    private File segmentFile(long segment) {
+        return new File(directory, String.format("%020d", segment) + SEGMENT_SUFFIX);
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class Position {
+        private final long segment;
+        private final int offset;
+    }
+}
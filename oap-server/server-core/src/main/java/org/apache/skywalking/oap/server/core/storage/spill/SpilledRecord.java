@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.spill;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * SpilledRecord holds the storage columns of a record read from the {@link SpillLog}. The columns are captured
+ * through the {@link StorageBuilder} of the original record, and replayed by {@link Builder} into the converter of any
+ * storage, so the storage receives the same values as the original record.
+ */
+public class SpilledRecord extends Record {
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int BYTES = 5;
+    private static final int STRING_LIST = 6;
+
+    @Getter
+    private final String modelName;
+    private final String id;
+    @Getter
+    private final Map<String, Object> columns;
+
+    private SpilledRecord(String modelName, String id, long timeBucket, Map<String, Object> columns) {
+        this.modelName = modelName;
+        this.id = id;
+        this.columns = columns;
+        setTimeBucket(timeBucket);
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the record has a column of the type not supported.
+     */
+    @SuppressWarnings("unchecked")
+    public static byte[] encode(String modelName, Record record, StorageBuilder builder) throws IOException {
+        final Capture capture = new Capture();
+        builder.entity2Storage(record, capture);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        output.writeStringNoTag(modelName);
+        output.writeStringNoTag(record.id());
+        output.writeInt64NoTag(record.getTimeBucket());
+        output.writeUInt32NoTag(capture.columns.size());
+        for (final Map.Entry<String, Object> column : capture.columns.entrySet()) {
+            output.writeStringNoTag(column.getKey());
+            final Object value = column.getValue();
+            if (value == null) {
+                output.writeUInt32NoTag(NULL);
+            } else if (value instanceof String) {
+                output.writeUInt32NoTag(STRING);
+                output.writeStringNoTag((String) value);
+            } else if (value instanceof StorageDataComplexObject) {
+                output.writeUInt32NoTag(STRING);
+                output.writeStringNoTag(((StorageDataComplexObject) value).toStorageData());
+            } else if (value instanceof Integer) {
+                output.writeUInt32NoTag(INT);
+                output.writeInt32NoTag((Integer) value);
+            } else if (value instanceof Long) {
+                output.writeUInt32NoTag(LONG);
+                output.writeInt64NoTag((Long) value);
+            } else if (value instanceof Double) {
+                output.writeUInt32NoTag(DOUBLE);
+                output.writeDoubleNoTag((Double) value);
+            } else if (value instanceof byte[]) {
+                output.writeUInt32NoTag(BYTES);
+                output.writeByteArrayNoTag((byte[]) value);
+            } else if (value instanceof List) {
+                final List<String> list = (List<String>) value;
+                output.writeUInt32NoTag(STRING_LIST);
+                output.writeUInt32NoTag(list.size());
+                for (final String element : list) {
+                    output.writeStringNoTag(element);
+                }
+            } else {
+                throw new IllegalArgumentException(
+                    "Unsupported type " + value.getClass().getName() + " of the column " + column.getKey());
+            }
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    public static SpilledRecord decode(byte[] data) throws IOException {
+        final CodedInputStream input = CodedInputStream.newInstance(data);
+        final String modelName = input.readString();
+        final String id = input.readString();
+        final long timeBucket = input.readInt64();
+        final int size = input.readUInt32();
+        final Map<String, Object> columns = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String name = input.readString();
+            final int type = input.readUInt32();
+            switch (type) {
+                case NULL:
+                    columns.put(name, null);
+                    break;
+                case STRING:
+                    columns.put(name, input.readString());
+                    break;
+                case INT:
+                    columns.put(name, input.readInt32());
+                    break;
+                case LONG:
+                    columns.put(name, input.readInt64());
+                    break;
+                case DOUBLE:
+                    columns.put(name, input.readDouble());
+                    break;
+                case BYTES:
+                    columns.put(name, input.readByteArray());
+                    break;
+                case STRING_LIST:
+                    final int length = input.readUInt32();
+                    final List<String> list = new ArrayList<>(length);
+                    for (int j = 0; j < length; j++) {
+                        list.add(input.readString());
+                    }
+                    columns.put(name, list);
+                    break;
+                default:
+                    throw new IOException("Unknown type " + type + " of the column " + name);
+            }
+        }
+        return new SpilledRecord(modelName, id, timeBucket, columns);
+    }
+
+    public static class Builder implements StorageBuilder<SpilledRecord> {
+        @Override
+        public SpilledRecord storage2Entity(final Convert2Entity converter) {
+            throw new UnexpectedException("The spilled record is never read from the storage.");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void entity2Storage(final SpilledRecord entity, final Convert2Storage converter) {
+            for (final Map.Entry<String, Object> column : entity.getColumns().entrySet()) {
+                final Object value = column.getValue();
+                if (value instanceof byte[]) {
+                    converter.accept(column.getKey(), (byte[]) value);
+                } else if (value instanceof List) {
+                    converter.accept(column.getKey(), (List<String>) value);
+                } else {
+                    converter.accept(column.getKey(), value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Capture the columns as they are, without the conversion of any storage.
+     */
+    private static class Capture implements Convert2Storage<Map<String, Object>> {
+        private final Map<String, Object> columns = new LinkedHashMap<>();
+
+        @Override
+        public void accept(final String fieldName, final Object fieldValue) {
+            columns.put(fieldName, fieldValue);
+        }
+
+        @Override
+        public void accept(final String fieldName, final byte[] fieldValue) {
+            columns.put(fieldName, fieldValue);
+        }
+
+        @Override
+        public void accept(final String fieldName, final List<String> fieldValue) {
+            columns.put(fieldName, fieldValue);
+        }
+
+        @Override
+        public Object get(final String fieldName) {
+            return columns.get(fieldName);
+        }
+
+        @Override
+        public Map<String, Object> obtain() {
+            return columns;
+        }
+    }
+}
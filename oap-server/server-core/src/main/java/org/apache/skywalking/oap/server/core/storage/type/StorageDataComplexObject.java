@@ -22,6 +22,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.protobuf.ByteString;
 import java.io.IOException;
 
 /**
@@ -39,6 +40,23 @@ public interface StorageDataComplexObject<T> {
      */
     void toObject(String data);
 
+    /**
+     * @return the compact binary form of this object, used in the communication between OAP nodes.
+     * @since 9.2.0
+     */
+    default ByteString toBytes() {
+        return ByteString.copyFromUtf8(toStorageData());
+    }
+
+    /**
+     * Initialize this object based on the given binary data built by {@link #toBytes()}.
+     *
+     * @since 9.2.0
+     */
+    default void toObject(ByteString data) {
+        toObject(data.toStringUtf8());
+    }
+
     /**
      * Initialize the object based on the given source.
      */
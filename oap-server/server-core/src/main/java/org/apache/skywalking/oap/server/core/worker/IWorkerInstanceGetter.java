@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import java.util.Map;
 import org.apache.skywalking.oap.server.library.module.Service;
 
 /**
@@ -26,4 +27,17 @@ import org.apache.skywalking.oap.server.library.module.Service;
 public interface IWorkerInstanceGetter extends Service {
     RemoteHandleWorker get(String nextWorkerName);
 
+    /**
+     * @return the worker of the given id in {@link #getWorkerIds()}, or null if there is no such worker.
+     * @since 9.2.0
+     */
+    RemoteHandleWorker get(int workerId);
+
+    /**
+     * @return the ids of all the workers indexed by the worker names. The id of a worker is positive and never changes
+     * until the OAP node restarts.
+     * @since 9.2.0
+     */
+    Map<String, Integer> getWorkerIds();
+
 }
@@ -18,8 +18,12 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.slf4j.Logger;
@@ -32,9 +36,16 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkerInstancesService.class);
 
     private final Map<String, RemoteHandleWorker> instances;
+    private final Map<String, Integer> workerIds;
+    /**
+     * The worker of id N is at the index N - 1.
+     */
+    private final List<RemoteHandleWorker> instancesById;
 
     public WorkerInstancesService() {
         this.instances = new HashMap<>();
+        this.workerIds = new ConcurrentHashMap<>();
+        this.instancesById = new CopyOnWriteArrayList<>();
     }
 
     @Override
@@ -43,12 +54,28 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     }
 
     @Override
-    public void put(String remoteReceiverWorkName, AbstractWorker instance,
+    public RemoteHandleWorker get(int workerId) {
+        if (workerId <= 0 || workerId > instancesById.size()) {
+            return null;
+        }
+        return instancesById.get(workerId - 1);
+    }
+
+    @Override
+    public Map<String, Integer> getWorkerIds() {
+        return Collections.unmodifiableMap(workerIds);
+    }
+
+    @Override
+    public synchronized void put(String remoteReceiverWorkName, AbstractWorker instance,
         Class<? extends StreamData> streamDataClass) {
         if (instances.containsKey(remoteReceiverWorkName)) {
             throw new UnexpectedException("Duplicate worker name:" + remoteReceiverWorkName);
         }
-        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
+        final RemoteHandleWorker worker = new RemoteHandleWorker(instance, streamDataClass);
+        instances.put(remoteReceiverWorkName, worker);
+        instancesById.add(worker);
+        workerIds.put(remoteReceiverWorkName, instancesById.size());
         LOGGER.debug("Worker {} has been registered as {}", instance.toString(), remoteReceiverWorkName);
     }
 }
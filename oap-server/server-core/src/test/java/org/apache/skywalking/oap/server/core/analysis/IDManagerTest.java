@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.analysis;
 
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -49,4 +50,58 @@ public class IDManagerTest {
         Assert.assertEquals(define, serviceRelationDefine);
     }
 
+    @Test
+    public void testInternedID() {
+        final String serviceId = IDManager.ServiceID.buildId(new String("Service"), true);
+        Assert.assertSame(serviceId, IDManager.ServiceID.buildId(new String("Service"), true));
+        Assert.assertNotEquals(serviceId, IDManager.ServiceID.buildId("Service", false));
+
+        final String instanceId = IDManager.ServiceInstanceID.buildId(serviceId, new String("Instance"));
+        Assert.assertSame(instanceId, IDManager.ServiceInstanceID.buildId(new String(serviceId), "Instance"));
+        Assert.assertNotEquals(
+            instanceId, IDManager.ServiceInstanceID.buildId(IDManager.ServiceID.buildId("Service", false), "Instance"));
+        Assert.assertEquals("Instance", IDManager.ServiceInstanceID.analysisId(instanceId).getName());
+        Assert.assertSame(
+            IDManager.ServiceInstanceID.analysisId(instanceId),
+            IDManager.ServiceInstanceID.analysisId(new String(instanceId))
+        );
+
+        final String endpointId = IDManager.EndpointID.buildId(serviceId, "/endpoint");
+        Assert.assertSame(endpointId, IDManager.EndpointID.buildId(serviceId, new String("/endpoint")));
+        final IDManager.EndpointID.EndpointIDDefinition endpoint = IDManager.EndpointID.analysisId(endpointId);
+        Assert.assertEquals(serviceId, endpoint.getServiceId());
+        Assert.assertEquals("/endpoint", endpoint.getEndpointName());
+        Assert.assertSame(endpoint, IDManager.EndpointID.analysisId(endpointId));
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        IDManager.resizeCaches(0);
+        try {
+            final String serviceId = IDManager.ServiceID.buildId("Service", true);
+            Assert.assertNotSame(serviceId, IDManager.ServiceID.buildId("Service", true));
+            Assert.assertEquals(serviceId, IDManager.ServiceID.buildId("Service", true));
+            Assert.assertEquals(
+                new IDManager.ServiceID.ServiceIDDefinition("Service", true),
+                IDManager.ServiceID.analysisId(serviceId)
+            );
+            Assert.assertEquals(
+                "Instance",
+                IDManager.ServiceInstanceID.analysisId(IDManager.ServiceInstanceID.buildId(serviceId, "Instance"))
+                                           .getName()
+            );
+        } finally {
+            IDManager.resizeCaches(100_000);
+        }
+    }
+
+    @Test(expected = UnexpectedException.class)
+    public void testIllegalIDNotCached() {
+        try {
+            IDManager.EndpointID.analysisId("illegal");
+        } catch (UnexpectedException e) {
+            // The failure is not cached, the same ID fails again.
+        }
+        IDManager.EndpointID.analysisId("illegal");
+    }
 }
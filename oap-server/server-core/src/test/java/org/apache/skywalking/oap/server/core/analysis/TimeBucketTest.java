@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.TimeZone;
 
@@ -72,4 +73,78 @@ public class TimeBucketTest {
         }
         Assert.assertEquals(instance.getTimeInMillis(), timestamp);
     }
+
+    @Test
+    public void testEquivalentToCalendar() {
+        final long step = 7 * 3600_000L + 13 * 60_000L + 17_123L;
+        for (long time = NOW - 400 * 86400_000L; time < NOW + 400 * 86400_000L; time += step) {
+            final long timeBucket = TimeBucket.getTimeBucket(time, downSampling);
+            Assert.assertEquals(timeBucketByCalendar(time), timeBucket);
+            Assert.assertEquals(timestampByCalendar(time), TimeBucket.getTimestamp(timeBucket, downSampling));
+        }
+    }
+
+    @Test
+    public void testBulkConversion() {
+        final long[] timestamps = new long[1000];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = NOW + i * 997_003L;
+        }
+        final long[] timeBuckets = new long[timestamps.length];
+        final long[] converted = new long[timestamps.length];
+        TimeBucket.getTimeBuckets(timestamps, downSampling, timeBuckets);
+        TimeBucket.getTimestamps(timeBuckets, downSampling, converted);
+        for (int i = 0; i < timestamps.length; i++) {
+            Assert.assertEquals(TimeBucket.getTimeBucket(timestamps[i], downSampling), timeBuckets[i]);
+            Assert.assertEquals(timestampByCalendar(timestamps[i]), converted[i]);
+        }
+    }
+
+    @Test
+    public void testEpochDay() {
+        for (LocalDate date = LocalDate.of(1999, 1, 1); date.getYear() < 2102; date = date.plusDays(1)) {
+            final long dayTimeBucket = date.getYear() * 10000L + date.getMonthValue() * 100 + date.getDayOfMonth();
+            Assert.assertEquals(date.toEpochDay(), TimeBucket.epochDayOf(dayTimeBucket));
+            Assert.assertEquals(dayTimeBucket, TimeBucket.civilOf(date.toEpochDay()));
+        }
+        Assert.assertEquals(20220301, TimeBucket.plusDays(20220228, 1));
+        Assert.assertEquals(20201231, TimeBucket.plusDays(20210107, -7));
+    }
+
+    private long timeBucketByCalendar(long time) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getDefault());
+        calendar.setTimeInMillis(time);
+        long timeBucket = calendar.get(Calendar.YEAR) * 10000L
+            + (calendar.get(Calendar.MONTH) + 1) * 100 + calendar.get(Calendar.DAY_OF_MONTH);
+        switch (downSampling) {
+            case Second:
+                return ((timeBucket * 100 + calendar.get(Calendar.HOUR_OF_DAY)) * 100
+                    + calendar.get(Calendar.MINUTE)) * 100 + calendar.get(Calendar.SECOND);
+            case Minute:
+                return (timeBucket * 100 + calendar.get(Calendar.HOUR_OF_DAY)) * 100 + calendar.get(Calendar.MINUTE);
+            case Hour:
+                return timeBucket * 100 + calendar.get(Calendar.HOUR_OF_DAY);
+            default:
+                return timeBucket;
+        }
+    }
+
+    private long timestampByCalendar(long time) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getDefault());
+        calendar.setTimeInMillis(time);
+        switch (downSampling) {
+            case Day:
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                // Fall through
+            case Hour:
+                calendar.set(Calendar.MINUTE, 0);
+                // Fall through
+            case Minute:
+                calendar.set(Calendar.SECOND, 0);
+                // Fall through
+            default:
+                calendar.set(Calendar.MILLISECOND, 0);
+        }
+        return calendar.getTimeInMillis();
+    }
 }
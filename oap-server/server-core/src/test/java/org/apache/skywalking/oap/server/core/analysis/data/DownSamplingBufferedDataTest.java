@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DownSamplingBufferedDataTest {
+    @Test
+    public void testSameAsCloneAndMerge() {
+        for (final DownSampling downSampling : new DownSampling[] {
+            DownSampling.Hour,
+            DownSampling.Day
+        }) {
+            for (final boolean prefixedId : new boolean[] {
+                true,
+                false
+            }) {
+                DownSamplingBufferedData buffer = new DownSamplingBufferedData(downSampling);
+                MergableBufferedData<Metrics> expectedBuffer = new MergableBufferedData<>();
+                Random random = new Random(0);
+                for (int i = 0; i < 20000; i++) {
+                    String entityId = "entity" + random.nextInt(300);
+                    // Across the hours and days.
+                    long timeBucket = 202208012258L + random.nextInt(4);
+                    // Abandon the merge of some metrics, these should be removed from the buffer.
+                    long value = random.nextInt(100) == 0 ? -1 : 1;
+                    MockMetrics metrics = new MockMetrics(entityId, timeBucket, value, prefixedId);
+                    buffer.accept(metrics);
+                    Assert.assertEquals(value, metrics.value);
+                    expectedBuffer.accept(
+                        downSampling == DownSampling.Hour ? metrics.toHour() : metrics.toDay());
+                }
+
+                Map<String, Long> expected = new HashMap<>();
+                expectedBuffer.read().forEach(metrics -> expected.put(metrics.id(), ((MockMetrics) metrics).value));
+                List<Metrics> result = buffer.read();
+                Assert.assertEquals(expected.size(), result.size());
+                for (Metrics metrics : result) {
+                    Assert.assertEquals(expected.get(metrics.id()), (Long) ((MockMetrics) metrics).value);
+                }
+                Assert.assertTrue(buffer.read().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testCloneOncePerEntity() {
+        DownSamplingBufferedData buffer = new DownSamplingBufferedData(DownSampling.Hour);
+        MockMetrics.CLONES = 0;
+        for (int minute = 0; minute < 60; minute++) {
+            for (int i = 0; i < 10; i++) {
+                buffer.accept(new MockMetrics("entity" + i, 202208011200L + minute, 1, true));
+            }
+        }
+        Assert.assertEquals(10, MockMetrics.CLONES);
+        List<Metrics> result = buffer.read();
+        Assert.assertEquals(10, result.size());
+        for (Metrics metrics : result) {
+            Assert.assertEquals(2022080112L, metrics.getTimeBucket());
+            Assert.assertEquals(60, ((MockMetrics) metrics).value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalDownSampling() {
+        new DownSamplingBufferedData(DownSampling.Minute);
+    }
+
+    private static class MockMetrics extends Metrics {
+        private static int CLONES = 0;
+
+        private final String entityId;
+        private final boolean prefixedId;
+        private long value;
+
+        private MockMetrics(String entityId, long timeBucket, long value, boolean prefixedId) {
+            this.entityId = entityId;
+            this.value = value;
+            this.prefixedId = prefixedId;
+            setTimeBucket(timeBucket);
+        }
+
+        @Override
+        public boolean combine(final Metrics metrics) {
+            final long value = ((MockMetrics) metrics).value;
+            if (value < 0) {
+                return false;
+            }
+            this.value += value;
+            return true;
+        }
+
+        @Override
+        public void calculate() {
+
+        }
+
+        @Override
+        protected String id0() {
+            return prefixedId ? getTimeBucket() + "_" + entityId : entityId + "_" + getTimeBucket();
+        }
+
+        @Override
+        public Metrics toHour() {
+            CLONES++;
+            return new MockMetrics(entityId, toTimeBucketInHour(), value, prefixedId);
+        }
+
+        @Override
+        public Metrics toDay() {
+            CLONES++;
+            return new MockMetrics(entityId, toTimeBucketInDay(), value, prefixedId);
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OpenAddressingMergableBufferedDataTest {
+    @Test
+    public void testMergeAndRead() {
+        OpenAddressingMergableBufferedData<MockMetrics> buffer = new OpenAddressingMergableBufferedData<>();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) {
+                buffer.accept(new MockMetrics("entity" + (i % 100), 202208011200L, 1));
+            }
+            List<MockMetrics> result = buffer.read();
+            Assert.assertEquals(100, result.size());
+            for (MockMetrics metrics : result) {
+                Assert.assertEquals(10, metrics.getValue());
+            }
+        }
+        Assert.assertTrue(buffer.read().isEmpty());
+    }
+
+    @Test
+    public void testSameAsMergableBufferedData() {
+        OpenAddressingMergableBufferedData<MockMetrics> buffer = new OpenAddressingMergableBufferedData<>(4);
+        MergableBufferedData<MockMetrics> expectedBuffer = new MergableBufferedData<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 50000; i++) {
+            String entityId = "entity" + random.nextInt(3000);
+            long timeBucket = 202208011200L + random.nextInt(3);
+            // Abandon the merge of some metrics, these should be removed from the buffer.
+            long value = random.nextInt(100) == 0 ? -1 : 1;
+            buffer.accept(new MockMetrics(entityId, timeBucket, value));
+            expectedBuffer.accept(new MockMetrics(entityId, timeBucket, value));
+        }
+
+        Map<String, Long> expected = new HashMap<>();
+        expectedBuffer.read().forEach(metrics -> expected.put(metrics.id(), metrics.getValue()));
+        List<MockMetrics> result = buffer.read();
+        Assert.assertEquals(expected.size(), result.size());
+        for (MockMetrics metrics : result) {
+            Assert.assertEquals(expected.get(metrics.id()), (Long) metrics.getValue());
+        }
+    }
+
+    private static class MockMetrics extends Metrics {
+        private final String entityId;
+        private long value;
+
+        private MockMetrics(String entityId, long timeBucket, long value) {
+            this.entityId = entityId;
+            this.value = value;
+            setTimeBucket(timeBucket);
+        }
+
+        private long getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean combine(final Metrics metrics) {
+            final long value = ((MockMetrics) metrics).value;
+            if (value < 0) {
+                return false;
+            }
+            this.value += value;
+            return true;
+        }
+
+        @Override
+        public void calculate() {
+
+        }
+
+        @Override
+        protected String id0() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 17;
+            result = 31 * result + entityId.hashCode();
+            result = 31 * result + (int) getTimeBucket();
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof MockMetrics)) {
+                return false;
+            }
+            MockMetrics metrics = (MockMetrics) obj;
+            return entityId.equals(metrics.entityId) && getTimeBucket() == metrics.getTimeBucket();
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardedReadWriteSafeCacheTest {
+    @Test
+    public void testReadMergesShards() throws InterruptedException {
+        ShardedReadWriteSafeCache<Counter> cache = new ShardedReadWriteSafeCache<>(4, MergingBufferedData::new);
+        Thread writer = new Thread(() -> {
+            cache.write(new Counter("a", 1));
+            cache.write(new Counter("b", 1));
+        });
+        writer.start();
+        writer.join();
+        cache.write(new Counter("a", 2));
+
+        List<Counter> result = cache.read();
+        Assert.assertEquals(2, result.size());
+        for (Counter counter : result) {
+            Assert.assertEquals("a".equals(counter.id) ? 3 : 1, counter.value);
+        }
+        Assert.assertTrue(cache.read().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentWriteAndRead() throws InterruptedException {
+        ShardedReadWriteSafeCache<Counter> cache = new ShardedReadWriteSafeCache<>(4, MergingBufferedData::new);
+        final int writers = 4;
+        final int countPerWriter = 100000;
+        CountDownLatch latch = new CountDownLatch(writers);
+        for (int i = 0; i < writers; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < countPerWriter; j++) {
+                    cache.write(new Counter("id" + (j % 10), 1));
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        long total = 0;
+        while (latch.getCount() > 0) {
+            for (Counter counter : cache.read()) {
+                total += counter.value;
+            }
+        }
+        for (Counter counter : cache.read()) {
+            total += counter.value;
+        }
+        Assert.assertEquals(writers * countPerWriter, total);
+    }
+
+    @Test
+    public void testMoreWriterThreadsThanShards() throws InterruptedException {
+        ShardedReadWriteSafeCache<Counter> cache = new ShardedReadWriteSafeCache<>(2, MergingBufferedData::new);
+        for (int i = 0; i < 10; i++) {
+            Thread writer = new Thread(() -> cache.write(new Counter("a", 1)));
+            writer.start();
+            writer.join();
+        }
+
+        List<Counter> result = cache.read();
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(10, result.get(0).value);
+        Assert.assertTrue(cache.read().isEmpty());
+    }
+
+    @Test
+    public void testWriterThreadsTakeOwnShards() throws InterruptedException {
+        ShardedReadWriteSafeCache<Counter> cache = new ShardedReadWriteSafeCache<>(4, MergingBufferedData::new);
+        final Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+        final List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            writers.add(new Thread(() -> {
+                cache.write(new Counter("a", 1));
+                indexes.add(cache.currentShardIndex());
+                cache.write(new Counter("a", 1));
+                indexes.add(cache.currentShardIndex());
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Assert.assertEquals(4, indexes.size());
+        Assert.assertEquals(8, cache.read().get(0).value);
+    }
+
+    private static class Counter {
+        private final String id;
+        private long value;
+
+        private Counter(String id, long value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    private static class MergingBufferedData implements BufferedData<Counter> {
+        private final Map<String, Counter> buffer = new HashMap<>();
+
+        @Override
+        public void accept(final Counter data) {
+            final Counter existed = buffer.get(data.id);
+            if (existed == null) {
+                buffer.put(data.id, data);
+            } else {
+                existed.value += data.value;
+            }
+        }
+
+        @Override
+        public List<Counter> read() {
+            try {
+                return new ArrayList<>(buffer.values());
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+}
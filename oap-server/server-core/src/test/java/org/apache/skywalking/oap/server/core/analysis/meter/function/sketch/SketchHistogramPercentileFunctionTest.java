@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.meter.function.sketch;
+
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.Layer;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.BucketedValues;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileArgument;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledQuantileSketch;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.core.storage.type.HashMapConverter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SketchHistogramPercentileFunctionTest {
+
+    private static final long[] BUCKETS = new long[] {
+        Long.MIN_VALUE,
+        50,
+        100,
+        250
+    };
+
+    private static final int[] RANKS = new int[] {
+        50,
+        90
+    };
+
+    @BeforeClass
+    public static void setup() {
+        MeterEntity.setNamingControl(
+            new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        MeterEntity.setNamingControl(null);
+    }
+
+    @Test
+    public void testFunction() {
+        SketchPercentileFunctionInst inst = new SketchPercentileFunctionInst();
+        inst.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(10, 20, 30, 40));
+        inst.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(10, 20, 30, 40));
+
+        inst.calculate();
+        /**
+         * Expected percentile dataset
+         * <pre>
+         *     -inf, 20
+         *     50  , 40
+         *     100 , 60 <- P50
+         *     250 , 80 <- P90
+         * </pre>
+         */
+        final int[] values = inst.getValues();
+        Assert.assertEquals(100, values[0], 1);
+        Assert.assertEquals(250, values[1], 2.5);
+    }
+
+    @Test
+    public void testDownsampling() {
+        SketchPercentileFunctionInst inst = new SketchPercentileFunctionInst();
+        inst.setTimeBucket(202010101010L);
+        inst.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(100, 0, 0, 0));
+        SketchPercentileFunctionInst another = new SketchPercentileFunctionInst();
+        another.setTimeBucket(202010101011L);
+        another.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(0, 0, 0, 300));
+
+        SketchHistogramPercentileFunction hour = (SketchHistogramPercentileFunction) inst.toHour();
+        hour.combine(another.toHour());
+        hour.calculate();
+
+        Assert.assertEquals(400, hour.getSketch().get("").getCount());
+        // The sketch of the minute is not changed by the hour one.
+        Assert.assertEquals(100, inst.getSketch().get("").getCount());
+        Assert.assertEquals(250, hour.getValues()[0], 2.5);
+    }
+
+    @Test
+    public void testSerialization() {
+        SketchPercentileFunctionInst inst = new SketchPercentileFunctionInst();
+        inst.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(10, 20, 30, 40));
+
+        SketchPercentileFunctionInst fromString = new SketchPercentileFunctionInst();
+        fromString.deserialize(inst.serialize().build());
+        SketchPercentileFunctionInst fromBytes = new SketchPercentileFunctionInst();
+        fromBytes.deserialize(inst.serializeBinary().build());
+
+        Assert.assertEquals(inst, fromString);
+        Assert.assertEquals(inst, fromBytes);
+        Assert.assertEquals(100, fromString.getSketch().get("").getCount());
+        Assert.assertEquals(100, fromBytes.getSketch().get("").getCount());
+    }
+
+    @Test
+    public void testBuilder() throws IllegalAccessException, InstantiationException {
+        SketchPercentileFunctionInst inst = new SketchPercentileFunctionInst();
+        inst.accept(MeterEntity.newService("service-test", Layer.GENERAL), argument(10, 20, 30, 40));
+        inst.calculate();
+
+        final StorageBuilder storageBuilder = inst.builder().newInstance();
+
+        // Simulate the storage layer do, convert the datatable to string.
+        final HashMapConverter.ToStorage toStorage = new HashMapConverter.ToStorage();
+        storageBuilder.entity2Storage(inst, toStorage);
+        final Map<String, Object> map = toStorage.obtain();
+        map.put(
+            SketchHistogramPercentileFunction.SKETCH,
+            ((LabeledQuantileSketch) map.get(SketchHistogramPercentileFunction.SKETCH)).toStorageData()
+        );
+        map.put(
+            SketchHistogramPercentileFunction.VALUE,
+            ((DataTable) map.get(SketchHistogramPercentileFunction.VALUE)).toStorageData()
+        );
+        map.put(
+            SketchHistogramPercentileFunction.RANKS,
+            ((IntList) map.get(SketchHistogramPercentileFunction.RANKS)).toStorageData()
+        );
+
+        final SketchHistogramPercentileFunction inst2 = (SketchHistogramPercentileFunction) storageBuilder.storage2Entity(
+            new HashMapConverter.ToEntity(map));
+        Assert.assertEquals(inst, inst2);
+        Assert.assertEquals(100, inst2.getSketch().get("").getCount());
+        Assert.assertEquals(inst.getPercentileValues(), inst2.getPercentileValues());
+    }
+
+    private static PercentileArgument argument(long... values) {
+        return new PercentileArgument(new BucketedValues(BUCKETS, values), RANKS);
+    }
+
+    private static class SketchPercentileFunctionInst extends SketchHistogramPercentileFunction {
+        @Override
+        public AcceptableValue<PercentileArgument> createNew() {
+            return new SketchPercentileFunctionInst();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BucketTableTest {
+    @Test
+    public void testAccumulate() {
+        BucketTable table = new BucketTable(2);
+        table.accumulate(5, 1);
+        table.accumulate(1, 2);
+        table.accumulate(9, 3);
+        table.accumulate(5, 4);
+        table.accumulate(3, 5);
+
+        Assert.assertEquals(4, table.size());
+        Assert.assertArrayEquals(new int[] {1, 3, 5, 9}, buckets(table));
+        Assert.assertArrayEquals(new long[] {2, 5, 5, 3}, counts(table));
+        Assert.assertEquals(15, table.sumOfCounts());
+    }
+
+    @Test
+    public void testMerge() {
+        BucketTable table = new BucketTable(4);
+        table.accumulate(1, 1);
+        table.accumulate(4, 1);
+        table.accumulate(6, 1);
+        BucketTable that = new BucketTable(4);
+        that.accumulate(0, 2);
+        that.accumulate(4, 2);
+        that.accumulate(8, 2);
+
+        table.merge(that);
+        Assert.assertArrayEquals(new int[] {0, 1, 4, 6, 8}, buckets(table));
+        Assert.assertArrayEquals(new long[] {2, 1, 3, 1, 2}, counts(table));
+
+        BucketTable same = new BucketTable(8);
+        same.merge(table);
+        same.merge(table);
+        Assert.assertArrayEquals(new int[] {0, 1, 4, 6, 8}, buckets(same));
+        Assert.assertArrayEquals(new long[] {4, 2, 6, 2, 4}, counts(same));
+    }
+
+    @Test
+    public void testDataTableConversion() {
+        DataTable dataTable = new DataTable();
+        dataTable.put("100", 3L);
+        dataTable.put("20", 1L);
+        dataTable.put("0", 0L);
+
+        BucketTable table = new BucketTable(1);
+        table.accumulate(7, 7);
+        table.copyFrom(dataTable);
+        Assert.assertArrayEquals(new int[] {0, 20, 100}, buckets(table));
+        Assert.assertArrayEquals(new long[] {0, 1, 3}, counts(table));
+        Assert.assertEquals(dataTable, table.toDataTable());
+    }
+
+    private static int[] buckets(BucketTable table) {
+        int[] buckets = new int[table.size()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = table.bucketAt(i);
+        }
+        return buckets;
+    }
+
+    private static long[] counts(BucketTable table) {
+        long[] counts = new long[table.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = table.countAt(i);
+        }
+        return counts;
+    }
+}
@@ -59,4 +59,16 @@ public class DataTableTestCase {
 
         Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", dataTable.toStorageData());
     }
+
+    @Test
+    public void toBytes() {
+        DataTable dataTable = new DataTable(this.dataTable.toBytes());
+        Assert.assertEquals(this.dataTable, dataTable);
+
+        dataTable = new DataTable();
+        dataTable.put("{a=b}100", -1L);
+        dataTable.put("0", Long.MAX_VALUE);
+        Assert.assertEquals(dataTable, new DataTable(dataTable.toBytes()));
+        Assert.assertEquals(new DataTable(), new DataTable(new DataTable().toBytes()));
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+    @Test
+    public void testRelativeError() {
+        Random random = new Random(7);
+        int[] values = new int[10000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Long tail latencies from 1ms to about 60s.
+            values[i] = (int) Math.exp(random.nextDouble() * 11);
+            sketch.accept(values[i]);
+        }
+        Arrays.sort(values);
+
+        final double[] quantiles = {0, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+        final double[] estimated = sketch.quantiles(quantiles);
+        for (int i = 0; i < quantiles.length; i++) {
+            double expected = values[(int) (quantiles[i] * (values.length - 1))];
+            double actual = sketch.quantile(quantiles[i]);
+            Assert.assertEquals(expected, actual, expected * QuantileSketch.RELATIVE_ACCURACY);
+            Assert.assertEquals(actual, estimated[i], 0);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 0; i < 1000; i++) {
+            all.accept(i);
+            (i < 500 ? low : high).accept(i);
+        }
+        low.merge(high);
+
+        Assert.assertEquals(all.getCount(), low.getCount());
+        for (double quantile : new double[] {0, 0.5, 0.99, 1}) {
+            Assert.assertEquals(all.quantile(quantile), low.quantile(quantile), 0);
+        }
+    }
+
+    @Test
+    public void testBoundedSize() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value = 1e-20; value < 1e20; value *= 1.001) {
+            sketch.accept(value, 1);
+        }
+        Assert.assertEquals(QuantileSketch.MAX_BINS, sketch.size());
+        // The highest quantiles are kept after collapsing the lowest buckets.
+        Assert.assertEquals(1e20, sketch.quantile(1), 1e20 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    public void testSerialization() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.accept(0);
+        for (int i = 1; i < 100; i++) {
+            sketch.accept(i * 37);
+        }
+
+        QuantileSketch fromString = new QuantileSketch(sketch.toStorageData());
+        QuantileSketch fromBytes = new QuantileSketch(sketch.toBytes());
+        for (double quantile : new double[] {0, 0.5, 0.9, 1}) {
+            Assert.assertEquals(sketch.quantile(quantile), fromString.quantile(quantile), 0);
+            Assert.assertEquals(sketch.quantile(quantile), fromBytes.quantile(quantile), 0);
+        }
+        Assert.assertEquals(100, fromBytes.getCount());
+        Assert.assertEquals(0, new QuantileSketch("").getCount());
+    }
+
+    @Test
+    public void testDeserializeIntoNonEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.accept(0);
+        sketch.accept(0);
+        sketch.accept(10);
+
+        QuantileSketch merged = new QuantileSketch();
+        merged.accept(0);
+        merged.accept(20);
+        merged.toObject(sketch.toBytes());
+        Assert.assertEquals(5, merged.getCount());
+        Assert.assertEquals(0, merged.quantile(0.5), 0);
+        Assert.assertEquals(20, merged.quantile(1), 20 * 0.02);
+    }
+}
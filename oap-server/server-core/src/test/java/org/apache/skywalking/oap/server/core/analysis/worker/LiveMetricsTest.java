@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LiveMetricsTest {
+    private final LiveMetrics liveMetrics = new LiveMetrics(CountMetricsImpl.class, new CountMetricsBuilder());
+
+    @Test
+    public void testAcceptCopy() {
+        final CountMetricsImpl received = metrics("service-a", 202207011200L, 5);
+        liveMetrics.accept(received);
+        // The received metrics is merged in the cache of the persistent worker, which must not change the live one.
+        received.combine(metrics("service-a", 202207011200L, 100));
+        liveMetrics.accept(metrics("service-a", 202207011200L, 6));
+
+        final Metrics live = read("202207011200_service-a");
+        Assert.assertEquals(11, ((CountMetricsImpl) live).getValue());
+        Assert.assertEquals(11L, liveMetrics.valueOf(live, "value"));
+    }
+
+    @Test
+    public void testRemoveBefore() {
+        liveMetrics.accept(metrics("service-a", 202207011158L, 1));
+        liveMetrics.accept(metrics("service-a", 202207011159L, 2));
+        liveMetrics.accept(metrics("service-a", 202207011200L, 3));
+        liveMetrics.removeBefore(202207011159L);
+
+        final LiveMetricsData.Builder builder = LiveMetricsData.newBuilder();
+        liveMetrics.read(Arrays.asList(
+            "202207011158_service-a", "202207011159_service-a", "202207011200_service-a", "202207011200_service-b"
+        ), builder);
+        Assert.assertEquals(2, builder.getDataCount());
+        Assert.assertEquals(202207011159L, liveMetrics.copy(builder.getData(0)).getTimeBucket());
+        Assert.assertEquals(202207011200L, liveMetrics.copy(builder.getData(1)).getTimeBucket());
+    }
+
+    private Metrics read(String id) {
+        final LiveMetricsData.Builder builder = LiveMetricsData.newBuilder();
+        liveMetrics.read(Collections.singletonList(id), builder);
+        Assert.assertEquals(1, builder.getDataCount());
+        return liveMetrics.copy(builder.getData(0));
+    }
+
+    private static CountMetricsImpl metrics(String entityId, long timeBucket, long value) {
+        final CountMetricsImpl metrics = new CountMetricsImpl();
+        metrics.entityId = entityId;
+        metrics.setTimeBucket(timeBucket);
+        metrics.combine(value);
+        return metrics;
+    }
+
+    public static class CountMetricsImpl extends CountMetrics {
+        private String entityId;
+
+        @Override
+        protected String id0() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+            entityId = remoteData.getDataStrings(0);
+            setTimeBucket(remoteData.getDataLongs(0));
+            setValue(remoteData.getDataLongs(1));
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder()
+                             .addDataStrings(entityId)
+                             .addDataLongs(getTimeBucket())
+                             .addDataLongs(getValue());
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+    }
+
+    private static class CountMetricsBuilder implements StorageBuilder<Metrics> {
+        @Override
+        public Metrics storage2Entity(Convert2Entity converter) {
+            return null;
+        }
+
+        @Override
+        public void entity2Storage(Metrics entity, Convert2Storage converter) {
+            converter.accept("value", ((CountMetricsImpl) entity).getValue());
+        }
+    }
+}
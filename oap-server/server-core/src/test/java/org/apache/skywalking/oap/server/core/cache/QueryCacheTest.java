@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private QueryCache cache;
+
+    @Before
+    public void setup() {
+        cache = new QueryCache(100, 500, TimeUnit.SECONDS.toMillis(25), now::get);
+    }
+
+    @Test
+    public void testMinuteStep() {
+        now.set(TimeBucket.getTimestamp(202210171201L));
+        Assert.assertTrue(cache.isSealed(202210171159L));
+        Assert.assertFalse(cache.isSealed(202210171200L));
+
+        // The bulk requests of the storage are not queryable yet.
+        cache.setQueryableDelay(TimeUnit.SECONDS.toMillis(25));
+        Assert.assertFalse(cache.isSealed(202210171159L));
+        Assert.assertTrue(cache.isSealed(202210171158L));
+    }
+
+    @Test
+    public void testHourStep() {
+        // The minute buckets of the last hour have been persisted, but not the hour one.
+        now.set(TimeBucket.getTimestamp(202210171201L));
+        Assert.assertTrue(cache.isSealed(202210171159L));
+        Assert.assertFalse(cache.isSealed(2022101711L));
+        Assert.assertTrue(cache.isSealed(2022101710L));
+
+        // The hour metrics are persisted once in every 4 periods, after the fold of the last minute.
+        now.set(TimeBucket.getTimestamp(202210171202L) + TimeUnit.SECONDS.toMillis(55));
+        Assert.assertFalse(cache.isSealed(2022101711L));
+        now.set(TimeBucket.getTimestamp(202210171202L) + TimeUnit.SECONDS.toMillis(56));
+        Assert.assertTrue(cache.isSealed(2022101711L));
+
+        cache.setQueryableDelay(TimeUnit.SECONDS.toMillis(25));
+        Assert.assertFalse(cache.isSealed(2022101711L));
+        Assert.assertFalse(cache.isSealed(20221017L));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.util.concurrent.Futures;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.LiveMetrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.LiveMetricsTest.CountMetricsImpl;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsPersistentWorker;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.LiveMetricsResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LiveMetricsReaderTest {
+    private static final String METRICS_NAME = "service_cpm";
+    private static final String ID = "202207011200_service-a";
+
+    private final RemoteClientManager remoteClientManager = mock(RemoteClientManager.class);
+    private final IWorkerInstanceGetter workerInstanceGetter = mock(IWorkerInstanceGetter.class);
+    private LiveMetricsReader reader;
+
+    @Before
+    public void setup() {
+        final ModuleManager moduleManager = mock(ModuleManager.class);
+        final ModuleProviderHolder core = mock(ModuleProviderHolder.class);
+        final ModuleServiceHolder services = mock(ModuleServiceHolder.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(core);
+        when(core.provider()).thenReturn(services);
+        when(services.getService(RemoteClientManager.class)).thenReturn(remoteClientManager);
+        when(services.getService(IWorkerInstanceGetter.class)).thenReturn(workerInstanceGetter);
+        holdLiveMetrics(workerInstanceGetter, true);
+        reader = new LiveMetricsReader(moduleManager, 1000);
+    }
+
+    @Test
+    public void testCombineAllNodes() {
+        // The node holding none of the rows replies the supported empty data.
+        final IWorkerInstanceGetter emptyNode = mock(IWorkerInstanceGetter.class);
+        holdLiveMetrics(emptyNode, true);
+        clients(
+            client(supported(5)), client(supported(6)), client(request -> LiveMetrics.read(emptyNode, request))
+        );
+
+        final Map<String, Map<String, Metrics>> live = read();
+        Assert.assertNotNull(live);
+        Assert.assertEquals(11, ((CountMetricsImpl) live.get(METRICS_NAME).get(ID)).getValue());
+    }
+
+    @Test
+    public void testFallbackWhenLiveMetricsDisabled() {
+        // The node with the live metrics query disabled replies no data, which must not be read as no metrics.
+        final IWorkerInstanceGetter disabledNode = mock(IWorkerInstanceGetter.class);
+        holdLiveMetrics(disabledNode, false);
+        clients(client(supported(5)), client(request -> LiveMetrics.read(disabledNode, request)));
+
+        Assert.assertNull(read());
+    }
+
+    @Test
+    public void testFallbackWhenNodeIsOlder() {
+        // The older node doesn't know the supported flag.
+        final LiveMetricsResponse legacy = LiveMetricsResponse.newBuilder().addMetrics(
+            LiveMetricsData.newBuilder()
+                           .setWorkerName(MetricsStreamProcessor.remoteReceiverWorkerName(METRICS_NAME))
+                           .addData(metrics(5).serialize())
+        ).build();
+        clients(client(supported(5)), client(request -> legacy));
+
+        Assert.assertNull(read());
+    }
+
+    @Test
+    public void testFallbackWhenNodeFails() {
+        final RemoteClient failed = mock(RemoteClient.class);
+        when(failed.readLiveMetrics(any())).thenReturn(Futures.immediateFailedFuture(new IOException("unreachable")));
+        clients(client(supported(5)), failed);
+
+        Assert.assertNull(read());
+    }
+
+    private Map<String, Map<String, Metrics>> read() {
+        return reader.read(Collections.singletonMap(METRICS_NAME, Collections.singletonList(ID)));
+    }
+
+    private void clients(RemoteClient... clients) {
+        final List<RemoteClient> list = Arrays.asList(clients);
+        when(remoteClientManager.getRemoteClient()).thenReturn(list);
+    }
+
+    private static void holdLiveMetrics(IWorkerInstanceGetter getter, boolean enabled) {
+        final MetricsPersistentWorker worker = mock(MetricsPersistentWorker.class);
+        when(worker.getLiveMetrics()).thenReturn(enabled ? new LiveMetrics(CountMetricsImpl.class, null) : null);
+        when(getter.get(MetricsStreamProcessor.remoteReceiverWorkerName(METRICS_NAME)))
+            .thenReturn(new RemoteHandleWorker(worker, CountMetricsImpl.class));
+    }
+
+    private static Responder supported(long value) {
+        return request -> LiveMetricsResponse.newBuilder().addMetrics(
+            LiveMetricsData.newBuilder()
+                           .setWorkerName(request.getMetrics(0).getWorkerName())
+                           .setSupported(true)
+                           .addData(metrics(value).serialize())
+        ).build();
+    }
+
+    private static RemoteClient client(Responder responder) {
+        final RemoteClient client = mock(RemoteClient.class);
+        when(client.readLiveMetrics(any())).thenAnswer(
+            invocation -> Futures.immediateFuture(responder.respond(invocation.getArgument(0))));
+        return client;
+    }
+
+    private static CountMetricsImpl metrics(long value) {
+        final CountMetricsImpl metrics = new CountMetricsImpl();
+        // The fields of the entity, time bucket and value, see CountMetricsImpl#serialize.
+        metrics.deserialize(RemoteData.newBuilder()
+                                      .addDataStrings("service-a")
+                                      .addDataLongs(202207011200L)
+                                      .addDataLongs(value)
+                                      .build());
+        return metrics;
+    }
+
+    private interface Responder {
+        LiveMetricsResponse respond(LiveMetricsRequest request);
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.cache.QueryCache;
+import org.apache.skywalking.oap.server.core.query.enumeration.Scope;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.input.Entity;
+import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
+import org.apache.skywalking.oap.server.core.query.type.KVInt;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
+import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsQueryServiceTest {
+    private final List<MetricsValuesCondition> reads = new ArrayList<>();
+    private final LiveMetricsReader liveMetricsReader = mock(LiveMetricsReader.class);
+    private ModuleManager moduleManager;
+    private MetricsQueryService service;
+    private MetricsCondition condition;
+    /**
+     * The prefix of the ids returned by the storage.
+     */
+    private String idPrefix = "";
+
+    @Before
+    public void setup() throws IOException {
+        moduleManager = mock(ModuleManager.class);
+        final ModuleServiceHolder services = mock(ModuleServiceHolder.class);
+        final ModuleProviderHolder core = mock(ModuleProviderHolder.class);
+        final ModuleProviderHolder storage = mock(ModuleProviderHolder.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(core);
+        when(moduleManager.find(StorageModule.NAME)).thenReturn(storage);
+        when(core.provider()).thenReturn(services);
+        when(storage.provider()).thenReturn(services);
+
+        // The minute buckets before 2022-10-17 12:00 are sealed.
+        final long now = TimeBucket.getTimestamp(202210171200L);
+        when(services.getService(QueryCache.class)).thenReturn(new QueryCache(100, 0, 0, () -> now));
+        final IMetricsQueryDAO dao = mock(IMetricsQueryDAO.class);
+        when(services.getService(IMetricsQueryDAO.class)).thenReturn(dao);
+        when(dao.readMetricsValues(anyList())).thenAnswer(invocation -> {
+            final List<MetricsValuesCondition> conditions = invocation.getArgument(0);
+            reads.addAll(conditions);
+            final List<List<MetricsValues>> result = new ArrayList<>();
+            for (final MetricsValuesCondition c : conditions) {
+                final List<String> labels = c.getLabels() == null ? Collections.singletonList(null) : c.getLabels();
+                final List<MetricsValues> labeled = new ArrayList<>();
+                for (final String label : labels) {
+                    final MetricsValues values = new MetricsValues();
+                    values.setLabel(label);
+                    for (final PointOfTime point : c.getDuration().assembleDurationPoints()) {
+                        final KVInt kv = new KVInt();
+                        kv.setId(idPrefix + point.id(c.getCondition().getEntity().buildId()));
+                        kv.setValue(point.getPoint() % 100 + (label == null ? 0 : Long.parseLong(label)));
+                        values.getValues().addKVInt(kv);
+                    }
+                    labeled.add(values);
+                }
+                result.add(labeled);
+            }
+            return result;
+        });
+        service = new MetricsQueryService(moduleManager);
+
+        final Entity entity = new Entity();
+        entity.setScope(Scope.Service);
+        entity.setServiceName("service");
+        entity.setNormal(true);
+        condition = new MetricsCondition();
+        condition.setName("service_cpm");
+        condition.setEntity(entity);
+    }
+
+    @Test
+    public void testReadSealedBucketsFromCache() throws IOException {
+        final MetricsValues first = service.readMetricsValues(condition, duration());
+        Assert.assertEquals(1, reads.size());
+        Assert.assertEquals("2022-10-17 1155", reads.get(0).getDuration().getStart());
+
+        final MetricsValues second = service.readMetricsValues(condition, duration());
+        Assert.assertEquals(2, reads.size());
+        Assert.assertEquals("2022-10-17 1200", reads.get(1).getDuration().getStart());
+        Assert.assertEquals("2022-10-17 1205", reads.get(1).getDuration().getEnd());
+        assertSameValues(first, second);
+        Assert.assertEquals(11, second.getValues().getValues().size());
+    }
+
+    @Test
+    public void testReadLabeledSealedBucketsFromCache() throws IOException {
+        final List<String> labels = Arrays.asList("99", "50");
+        final List<MetricsValues> first = service.readLabeledMetricsValues(condition, labels, duration());
+        final List<MetricsValues> second = service.readLabeledMetricsValues(condition, labels, duration());
+        Assert.assertEquals("2022-10-17 1200", reads.get(1).getDuration().getStart());
+        Assert.assertEquals(2, second.size());
+        // The cached values are composed in the order of the labels, as the storage does.
+        Assert.assertEquals("50", second.get(0).getLabel());
+        Assert.assertEquals("99", second.get(1).getLabel());
+        for (final MetricsValues values : second) {
+            for (final MetricsValues expected : first) {
+                if (expected.getLabel().equals(values.getLabel())) {
+                    assertSameValues(expected, values);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReadSealedBucketsOfPrefixedIds() throws IOException {
+        // The ids of the metrics in the function indices of ElasticSearch are prefixed by the metrics name.
+        idPrefix = "service_cpm_";
+        final List<String> labels = Arrays.asList("99", "50");
+        service.readMetricsValues(condition, duration());
+        service.readLabeledMetricsValues(condition, labels, duration());
+
+        final MetricsValues values = service.readMetricsValues(condition, duration());
+        final List<MetricsValues> labeled = service.readLabeledMetricsValues(condition, labels, duration());
+        Assert.assertEquals(4, reads.size());
+        Assert.assertEquals("2022-10-17 1200", reads.get(2).getDuration().getStart());
+        Assert.assertEquals("2022-10-17 1200", reads.get(3).getDuration().getStart());
+        Assert.assertEquals(11, values.getValues().getValues().size());
+        Assert.assertEquals(59, values.getValues().getValues().get(4).getValue());
+        Assert.assertEquals("99", labeled.get(1).getLabel());
+        Assert.assertEquals(158, labeled.get(1).getValues().getValues().get(4).getValue());
+    }
+
+    @Test
+    public void testReadOnlyOpenTailInBatch() throws IOException {
+        service.readMetricsValues(condition, duration());
+        final Duration sealed = new Duration();
+        sealed.setStart("2022-10-17 1155");
+        sealed.setEnd("2022-10-17 1159");
+        sealed.setStep(Step.MINUTE);
+
+        final List<List<MetricsValues>> values = service.readMetricsValues(Arrays.asList(
+            new MetricsValuesCondition(condition, null, sealed),
+            new MetricsValuesCondition(condition, null, duration())
+        ));
+        Assert.assertEquals(2, reads.size());
+        Assert.assertEquals("2022-10-17 1200", reads.get(1).getDuration().getStart());
+        Assert.assertEquals(5, values.get(0).get(0).getValues().getValues().size());
+        Assert.assertEquals(11, values.get(1).get(0).getValues().getValues().size());
+    }
+
+    @Test
+    public void testMergeLiveMinutes() throws IOException {
+        final Metrics live = mockLiveMetrics(202210171204L);
+        when(liveMetricsReader.valueOf("service_cpm", live)).thenReturn(42L);
+
+        final List<KVInt> values = liveService().readMetricsValues(condition, duration()).getValues().getValues();
+        Assert.assertEquals(1, reads.size());
+        Assert.assertEquals("2022-10-17 1203", reads.get(0).getDuration().getEnd());
+        Assert.assertEquals(11, values.size());
+        Assert.assertEquals(3, values.get(8).getValue());
+        Assert.assertEquals(id(202210171204L), values.get(9).getId());
+        Assert.assertEquals(42, values.get(9).getValue());
+        // Absent in all OAP nodes, as no data is received in the minute.
+        Assert.assertEquals(id(202210171205L), values.get(10).getId());
+        Assert.assertEquals(0, values.get(10).getValue());
+    }
+
+    @Test
+    public void testMergeLabeledLiveMinutes() throws IOException {
+        final Metrics live = mockLiveMetrics(202210171204L);
+        when(liveMetricsReader.valueOf("service_cpm", live)).thenReturn(percentiles());
+
+        final List<MetricsValues> values = liveService().readLabeledMetricsValues(
+            condition, Arrays.asList("99", "50"), duration());
+        Assert.assertEquals("2022-10-17 1203", reads.get(0).getDuration().getEnd());
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals("50", values.get(0).getLabel());
+        Assert.assertEquals("99", values.get(1).getLabel());
+        final List<KVInt> p50 = values.get(0).getValues().getValues();
+        Assert.assertEquals(11, p50.size());
+        Assert.assertEquals(53, p50.get(8).getValue());
+        Assert.assertEquals(7, p50.get(9).getValue());
+        Assert.assertEquals(0, p50.get(10).getValue());
+        Assert.assertEquals(9, values.get(1).getValues().getValues().get(9).getValue());
+    }
+
+    @Test
+    public void testMergeLiveLabelsDecidedByData() throws IOException {
+        final Metrics live = mockLiveMetrics(202210171204L);
+        when(liveMetricsReader.valueOf("service_cpm", live)).thenReturn(percentiles());
+
+        // The storage has no data of the duration, the labels are decided by the live metrics.
+        final List<MetricsValues> values = liveService().readLabeledMetricsValues(
+            condition, Collections.emptyList(), duration());
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals("50", values.get(0).getLabel());
+        final List<KVInt> p50 = values.get(0).getValues().getValues();
+        Assert.assertEquals(11, p50.size());
+        Assert.assertEquals(id(202210171155L), p50.get(0).getId());
+        Assert.assertEquals(0, p50.get(0).getValue());
+        Assert.assertEquals(7, p50.get(9).getValue());
+    }
+
+    @Test
+    public void testReadStorageWhenLiveMetricsUnavailable() throws IOException {
+        when(liveMetricsReader.getStartTimeBucket(anyLong())).thenReturn(202210171204L);
+        when(liveMetricsReader.read(anyMap())).thenReturn(null);
+
+        final List<KVInt> values = liveService().readMetricsValues(condition, duration()).getValues().getValues();
+        Assert.assertEquals("2022-10-17 1205", reads.get(0).getDuration().getEnd());
+        Assert.assertEquals(11, values.size());
+        Assert.assertEquals(4, values.get(9).getValue());
+    }
+
+    private MetricsQueryService liveService() {
+        ValueColumnMetadata.INSTANCE.putIfAbsent(
+            "service_cpm", "value", Column.ValueDataType.COMMON_VALUE, Function.None, 0, DefaultScopeDefine.SERVICE);
+        return new MetricsQueryService(moduleManager, liveMetricsReader);
+    }
+
+    /**
+     * @return the metrics of the time bucket held by the OAP nodes, the live minutes start from it.
+     */
+    private Metrics mockLiveMetrics(long timeBucket) {
+        final Metrics live = mock(Metrics.class);
+        when(liveMetricsReader.getStartTimeBucket(anyLong())).thenReturn(timeBucket);
+        when(liveMetricsReader.read(anyMap())).thenReturn(
+            Collections.singletonMap("service_cpm", Collections.singletonMap(id(timeBucket), live)));
+        return live;
+    }
+
+    private static DataTable percentiles() {
+        final DataTable table = new DataTable();
+        table.put("50", 7L);
+        table.put("99", 9L);
+        return table;
+    }
+
+    private String id(long timeBucket) {
+        return new PointOfTime(timeBucket).id(condition.getEntity().buildId());
+    }
+
+    private static Duration duration() {
+        final Duration duration = new Duration();
+        duration.setStart("2022-10-17 1155");
+        duration.setEnd("2022-10-17 1205");
+        duration.setStep(Step.MINUTE);
+        return duration;
+    }
+
+    private static void assertSameValues(MetricsValues expected, MetricsValues actual) {
+        final List<KVInt> expectedValues = expected.getValues().getValues();
+        final List<KVInt> actualValues = actual.getValues().getValues();
+        Assert.assertEquals(expectedValues.size(), actualValues.size());
+        for (int i = 0; i < expectedValues.size(); i++) {
+            Assert.assertEquals(expectedValues.get(i).getId(), actualValues.get(i).getId());
+            Assert.assertEquals(expectedValues.get(i).getValue(), actualValues.get(i).getValue());
+        }
+    }
+}
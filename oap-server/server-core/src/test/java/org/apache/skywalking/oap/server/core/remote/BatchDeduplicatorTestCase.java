@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchDeduplicatorTestCase {
+    @Test
+    public void testResentBatchesDropped() {
+        BatchDeduplicator deduplicator = new BatchDeduplicator();
+        for (long batchId = 1; batchId <= 5; batchId++) {
+            Assert.assertTrue(deduplicator.accept(7, batchId));
+        }
+        // The acknowledgements of 4 and 5 are lost, they are resent before the new batches.
+        Assert.assertFalse(deduplicator.accept(7, 4));
+        Assert.assertFalse(deduplicator.accept(7, 5));
+        Assert.assertTrue(deduplicator.accept(7, 6));
+
+        // Another sender has its own window.
+        Assert.assertTrue(deduplicator.accept(8, 4));
+        Assert.assertEquals(2, deduplicator.senderCount());
+    }
+
+    @Test
+    public void testWindow() {
+        BatchDeduplicator deduplicator = new BatchDeduplicator();
+        Assert.assertTrue(deduplicator.accept(7, 1));
+        Assert.assertTrue(deduplicator.accept(7, 3));
+        // Reordered in the window.
+        Assert.assertTrue(deduplicator.accept(7, 2));
+        Assert.assertFalse(deduplicator.accept(7, 2));
+
+        Assert.assertTrue(deduplicator.accept(7, 3 + BatchDeduplicator.WINDOW_SIZE));
+        // Lagging behind the window, considered processed.
+        Assert.assertFalse(deduplicator.accept(7, 3));
+        // The oldest one in the window.
+        Assert.assertTrue(deduplicator.accept(7, 4));
+        Assert.assertFalse(deduplicator.accept(7, 4));
+    }
+
+    @Test
+    public void testForget() {
+        BatchDeduplicator deduplicator = new BatchDeduplicator();
+        Assert.assertTrue(deduplicator.accept(7, 1));
+        Assert.assertTrue(deduplicator.accept(7, 2));
+        // The batch is rejected, it is processed when it is resent.
+        deduplicator.forget(7, 2);
+        Assert.assertTrue(deduplicator.accept(7, 2));
+        Assert.assertFalse(deduplicator.accept(7, 2));
+        Assert.assertFalse(deduplicator.accept(7, 1));
+    }
+
+    @Test
+    public void testAnonymousSender() {
+        BatchDeduplicator deduplicator = new BatchDeduplicator();
+        Assert.assertTrue(deduplicator.accept(0, 1));
+        Assert.assertTrue(deduplicator.accept(0, 1));
+        Assert.assertEquals(0, deduplicator.senderCount());
+    }
+}
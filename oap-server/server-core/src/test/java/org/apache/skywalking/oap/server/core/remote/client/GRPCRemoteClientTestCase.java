@@ -18,12 +18,28 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.remote.RemoteEncoding;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteAck;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessageBatch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -31,6 +47,7 @@ import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
@@ -50,6 +67,7 @@ public class GRPCRemoteClientTestCase {
 
     private final String nextWorkerName = "mock-worker";
     private ModuleManagerTesting moduleManager;
+    private final AtomicInteger received = new AtomicInteger();
     @Rule
     public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
 
@@ -69,6 +87,114 @@ public class GRPCRemoteClientTestCase {
 
     @Test
     public void testPush() throws InterruptedException {
+        GRPCRemoteClient remoteClient = startRemoteClient();
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        TimeUnit.SECONDS.sleep(2);
+    }
+
+    @Test
+    public void testHandshake() throws InterruptedException {
+        GRPCRemoteClient remoteClient = startRemoteClient();
+
+        GRPCRemoteClient.Negotiation negotiation = remoteClient.negotiate();
+        Assert.assertTrue(negotiation.isBinary());
+        RemoteMessage first = negotiation.address(
+            RemoteMessage.newBuilder().setNextWorkerName(nextWorkerName).build(), true);
+        Assert.assertEquals(1, first.getNextWorkerId());
+        Assert.assertEquals("", first.getNextWorkerName());
+        Assert.assertNotEquals(0, first.getWorkerTableEpoch());
+        RemoteMessage unknown = negotiation.address(
+            RemoteMessage.newBuilder().setNextWorkerName("unknown-worker").build(), false);
+        Assert.assertEquals("unknown-worker", unknown.getNextWorkerName());
+        Assert.assertEquals(0, unknown.getWorkerTableEpoch());
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        TimeUnit.SECONDS.sleep(2);
+        Assert.assertEquals(12, received.get());
+    }
+
+    @Test
+    public void testBatchedStream() throws InterruptedException {
+        GRPCRemoteClient remoteClient = startRemoteClient(5);
+
+        Assert.assertTrue(remoteClient.negotiate().isBatched());
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        await(() -> received.get() == 12);
+        remoteClient.close();
+    }
+
+    @Test
+    public void testLostAcknowledgementsResentOnce() throws InterruptedException {
+        FlakyRemoteService service = new FlakyRemoteService(true);
+        GRPCRemoteClient remoteClient = startRemoteClient(5, service);
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        // The first batch is processed but its acknowledgement is lost, then the stream fails. All batches are resent
+        // through the next stream, and the first one is not processed again.
+        await(() -> service.streams.get() > 1 && service.resentMessages.get() == 12);
+        Assert.assertEquals(12, received.get());
+        remoteClient.close();
+    }
+
+    @Test
+    public void testReceiverRestarted() throws InterruptedException {
+        FlakyRemoteService service = new FlakyRemoteService(false);
+        GRPCRemoteClient remoteClient = startRemoteClient(5, service);
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        await(() -> received.get() == 12 && service.acknowledged.get() == service.batches.get());
+
+        // The batches with the worker ids before restarting are rejected, and resent after the handshake.
+        service.restart(new RemoteServiceHandler(moduleManager));
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+        await(() -> received.get() == 24 && service.acknowledged.get() == service.batches.get());
+        Assert.assertTrue(service.rejected.get());
+        remoteClient.close();
+    }
+
+    @Test
+    public void testEncodedInNegotiatedEncoding() {
+        GRPCRemoteClient.PendingMessage message = new GRPCRemoteClient.PendingMessage(
+            nextWorkerName, new TestStreamData());
+
+        // The message queued before the receiver turns back to a legacy one is encoded in the legacy form.
+        RemoteMessage legacy = new GRPCRemoteClient.Negotiation(
+            RemoteEncoding.LEGACY, 0, Collections.emptyMap(), 0).encode(message);
+        Assert.assertEquals(nextWorkerName, legacy.getNextWorkerName());
+        Assert.assertEquals(0, legacy.getRemoteData().getDataObjectBytesCount());
+        Assert.assertEquals(987, legacy.getRemoteData().getDataLongs(0));
+
+        RemoteMessage binary = new GRPCRemoteClient.Negotiation(
+            RemoteEncoding.BINARY, 0, Collections.emptyMap(), 0).encode(message);
+        Assert.assertEquals(1, binary.getRemoteData().getDataObjectBytesCount());
+    }
+
+    private GRPCRemoteClient startRemoteClient() {
+        return startRemoteClient(0);
+    }
+
+    private GRPCRemoteClient startRemoteClient(int streamBatchSize) {
+        return startRemoteClient(streamBatchSize, null);
+    }
+
+    private GRPCRemoteClient startRemoteClient(int streamBatchSize, FlakyRemoteService service) {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override
@@ -94,23 +220,145 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(mock(GaugeMetrics.class));
+
         ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
 
-        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+        if (service == null) {
+            grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+        } else {
+            service.delegate = new RemoteServiceHandler(moduleManager);
+            grpcServerRule.getServiceRegistry().addService(service);
+        }
 
         Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(
+            moduleManager, address, 1, 20, 10, null, streamBatchSize, "gzip"));
         remoteClient.connect();
 
         doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        return remoteClient;
+    }
 
-        for (int i = 0; i < 12; i++) {
-            remoteClient.push(nextWorkerName, new TestStreamData());
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timeout", System.currentTimeMillis() < deadline);
+            TimeUnit.MILLISECONDS.sleep(50);
         }
+    }
 
-        TimeUnit.SECONDS.sleep(2);
+    /**
+     * Delegate to the {@link RemoteServiceHandler}, and lose the acknowledgements of the first stream, or fail the
+     * streams when the receiver restarts.
+     */
+    private static class FlakyRemoteService extends RemoteServiceGrpc.RemoteServiceImplBase {
+        private final boolean loseFirstAcknowledgement;
+        private final AtomicInteger streams = new AtomicInteger();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger acknowledged = new AtomicInteger();
+        private final AtomicInteger resentMessages = new AtomicInteger();
+        private final AtomicBoolean rejected = new AtomicBoolean();
+        private final List<StreamObserver<RemoteAck>> openStreams = new CopyOnWriteArrayList<>();
+        private volatile RemoteServiceHandler delegate;
+
+        private FlakyRemoteService(boolean loseFirstAcknowledgement) {
+            this.loseFirstAcknowledgement = loseFirstAcknowledgement;
+        }
+
+        private void restart(RemoteServiceHandler handler) {
+            delegate = handler;
+            for (final StreamObserver<RemoteAck> stream : openStreams) {
+                stream.onError(Status.UNAVAILABLE.asRuntimeException());
+            }
+            openStreams.clear();
+        }
+
+        @Override
+        public void handshake(HandshakeRequest request, StreamObserver<HandshakeResponse> responseObserver) {
+            delegate.handshake(request, responseObserver);
+        }
+
+        @Override
+        public StreamObserver<RemoteMessageBatch> batchCall(StreamObserver<RemoteAck> responseObserver) {
+            final boolean first = streams.incrementAndGet() == 1;
+            if (first && loseFirstAcknowledgement) {
+                final StreamObserver<RemoteMessageBatch> requestStream = delegate.batchCall(new NoopObserver<>());
+                return new NoopObserver<RemoteMessageBatch>() {
+                    private boolean failed;
+
+                    @Override
+                    public void onNext(RemoteMessageBatch batch) {
+                        if (!failed) {
+                            failed = true;
+                            requestStream.onNext(batch);
+                            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                        }
+                    }
+                };
+            }
+            openStreams.add(responseObserver);
+            final StreamObserver<RemoteMessageBatch> requestStream = delegate.batchCall(
+                new StreamObserver<RemoteAck>() {
+                    @Override
+                    public void onNext(RemoteAck ack) {
+                        responseObserver.onNext(ack);
+                        acknowledged.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        if (Status.fromThrowable(throwable).getCode() == Status.Code.FAILED_PRECONDITION) {
+                            rejected.set(true);
+                        }
+                        openStreams.remove(responseObserver);
+                        responseObserver.onError(throwable);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        openStreams.remove(responseObserver);
+                        responseObserver.onCompleted();
+                    }
+                });
+            return new NoopObserver<RemoteMessageBatch>() {
+                @Override
+                public void onNext(RemoteMessageBatch batch) {
+                    if (!openStreams.contains(responseObserver)) {
+                        return;
+                    }
+                    requestStream.onNext(batch);
+                    if (openStreams.contains(responseObserver)) {
+                        // Not rejected by the receiver, to be acknowledged.
+                        batches.incrementAndGet();
+                    }
+                    if (!first) {
+                        resentMessages.addAndGet(batch.getMessagesCount());
+                    }
+                }
+
+                @Override
+                public void onCompleted() {
+                    requestStream.onCompleted();
+                }
+            };
+        }
+    }
+
+    private static class NoopObserver<T> implements StreamObserver<T> {
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
     }
 
     public static class TestStreamData extends StreamData {
@@ -133,6 +381,11 @@ public class GRPCRemoteClientTestCase {
             builder.addDataLongs(987);
             return builder;
         }
+
+        @Override
+        public RemoteData.Builder serializeBinary() {
+            return serialize().addDataObjectBytes(ByteString.copyFrom(new byte[] {1}));
+        }
     }
 
     class TestWorker extends AbstractWorker {
@@ -145,6 +398,7 @@ public class GRPCRemoteClientTestCase {
         public void in(Object o) {
             TestStreamData streamData = (TestStreamData) o;
             Assert.assertEquals(987, streamData.value);
+            received.incrementAndGet();
         }
     }
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsistentHashSelectorTest {
+    private static final int KEYS = 10000;
+
+    @Test
+    public void testEvenDistribution() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(100, 0);
+        List<RemoteClient> clients = clients(0, 1, 2, 3);
+        Map<RemoteClient, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(selector.select(clients, new HashData("entity_" + i)), 1, Integer::sum);
+        }
+        Assert.assertEquals(4, counts.size());
+        counts.values().forEach(count -> Assert.assertTrue(count > KEYS / 4 * 0.7 && count < KEYS / 4 * 1.3));
+    }
+
+    @Test
+    public void testMinimalReshuffle() {
+        ConsistentHashSelector beforeSelector = new ConsistentHashSelector(100, 0);
+        ConsistentHashSelector afterSelector = new ConsistentHashSelector(100, 0);
+        List<RemoteClient> before = clients(0, 1, 2, 3);
+        List<RemoteClient> after = clients(0, 1, 2, 3, 4);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            HashData data = new HashData("entity_" + i);
+            RemoteClient previous = beforeSelector.select(before, data);
+            RemoteClient current = afterSelector.select(after, data);
+            if (!previous.getAddress().equals(current.getAddress())) {
+                // Only the keys taken by the new node move.
+                Assert.assertEquals("10.0.0.4", current.getAddress().getHost());
+                moved++;
+            }
+        }
+        // About 1/5 of the keys move to the new node.
+        Assert.assertTrue(moved > KEYS / 5 * 0.7 && moved < KEYS / 5 * 1.3);
+    }
+
+    @Test
+    public void testHandoffWindow() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(100, 60_000);
+        List<RemoteClient> before = clients(0, 1, 2);
+        Map<Integer, RemoteClient> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owners.put(i, selector.select(before, new HashData("entity_" + i)));
+        }
+
+        // The new node doesn't take any key in the window.
+        List<RemoteClient> joined = clients(0, 1, 2, 3);
+        for (int i = 0; i < KEYS; i++) {
+            Assert.assertEquals(
+                owners.get(i).getAddress(), selector.select(joined, new HashData("entity_" + i)).getAddress());
+        }
+
+        // The keys of the left node move to the alive nodes at once.
+        List<RemoteClient> left = clients(1, 2, 3);
+        for (int i = 0; i < KEYS; i++) {
+            RemoteClient client = selector.select(left, new HashData("entity_" + i));
+            Assert.assertNotEquals("10.0.0.0", client.getAddress().getHost());
+            Assert.assertTrue(left.contains(client));
+        }
+    }
+
+    private static List<RemoteClient> clients(int... ids) {
+        List<RemoteClient> clients = new ArrayList<>();
+        Arrays.stream(ids).forEach(id -> clients.add(new MockRemoteClient(new Address("10.0.0." + id, 11800, false))));
+        return clients;
+    }
+
+    private static class HashData extends StreamData {
+        private final String id;
+
+        private HashData(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return id.hashCode();
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+
+    private static class MockRemoteClient implements RemoteClient {
+        private final Address address;
+
+        private MockRemoteClient(Address address) {
+            this.address = address;
+        }
+
+        @Override
+        public Address getAddress() {
+            return address;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void push(String nextWorkerName, StreamData streamData) {
+        }
+
+        @Override
+        public int compareTo(RemoteClient o) {
+            return address.compareTo(o.getAddress());
+        }
+    }
+}
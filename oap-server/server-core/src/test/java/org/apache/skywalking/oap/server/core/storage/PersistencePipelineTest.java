@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistencePipelineTest {
+    @Test
+    public void testWindow() {
+        PersistencePipeline pipeline = new PersistencePipeline(2, Runnable::run);
+        Assert.assertTrue(pipeline.tryAcquire());
+        Assert.assertTrue(pipeline.tryAcquire());
+        Assert.assertFalse(pipeline.tryAcquire());
+
+        pipeline.release();
+        Assert.assertTrue(pipeline.tryAcquire());
+        Assert.assertEquals(2, pipeline.inFlight());
+    }
+
+    @Test
+    public void testExecutionsInOrder() {
+        PersistencePipeline pipeline = new PersistencePipeline(2, Runnable::run);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        AtomicBoolean secondStarted = new AtomicBoolean(false);
+
+        Assert.assertTrue(pipeline.tryAcquire());
+        CompletableFuture<Void> firstExecution = pipeline.execute(() -> first);
+        Assert.assertTrue(pipeline.tryAcquire());
+        CompletableFuture<Void> secondExecution = pipeline.execute(() -> {
+            secondStarted.set(true);
+            return CompletableFuture.completedFuture(null);
+        });
+        Assert.assertFalse(pipeline.tryAcquire());
+        Assert.assertFalse(secondStarted.get());
+
+        // The failure of the previous round doesn't block the next one.
+        first.completeExceptionally(new RuntimeException("mock failure"));
+        Assert.assertTrue(firstExecution.isCompletedExceptionally());
+        Assert.assertTrue(secondStarted.get());
+        Assert.assertTrue(secondExecution.isDone());
+        Assert.assertFalse(secondExecution.isCompletedExceptionally());
+        Assert.assertEquals(0, pipeline.inFlight());
+    }
+
+    @Test
+    public void testSynchronousExecutionOverlapsPreparation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PersistencePipeline pipeline = new PersistencePipeline(2, executor);
+            CountDownLatch executing = new CountDownLatch(1);
+            CountDownLatch blocker = new CountDownLatch(1);
+
+            Assert.assertTrue(pipeline.tryAcquire());
+            // Blocks like the JDBC storages, the caller preparing the rounds isn't held.
+            CompletableFuture<Void> execution = pipeline.execute(() -> {
+                executing.countDown();
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return CompletableFuture.completedFuture(null);
+            });
+            Assert.assertTrue(executing.await(10, TimeUnit.SECONDS));
+            Assert.assertFalse(execution.isDone());
+            Assert.assertTrue(pipeline.tryAcquire());
+            Assert.assertFalse(pipeline.tryAcquire());
+
+            blocker.countDown();
+            execution.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.spill;
+
+import java.io.File;
+import java.sql.SQLTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.HashMapConverter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class RecordSpillQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDrainAfterStorageRecovers() throws Exception {
+        final int count = 2500;
+        final Map<String, Map<String, Object>> flushed = new ConcurrentHashMap<>();
+        final AtomicInteger failures = new AtomicInteger(1);
+        final IBatchDAO batchDAO = new IBatchDAO() {
+            @Override
+            public void insert(final InsertRequest insertRequest) {
+            }
+
+            @Override
+            public CompletableFuture<Void> flush(final List<PrepareRequest> prepareRequests) {
+                final CompletableFuture<Void> future = new CompletableFuture<>();
+                if (failures.getAndDecrement() > 0) {
+                    future.completeExceptionally(new IllegalStateException("The storage is down"));
+                    return future;
+                }
+                prepareRequests.forEach(request -> {
+                    final CapturedRequest captured = (CapturedRequest) request;
+                    flushed.put(captured.getId(), captured.getColumns());
+                });
+                future.complete(null);
+                return future;
+            }
+        };
+        final Model model = mock(Model.class);
+        doReturn("spill_test").when(model).getName();
+
+        // Records spilled before the drainer starts, like the ones left by the last run.
+        RecordSpillQueue queue = new RecordSpillQueue(folder.getRoot(), 64 * 1024 * 1024, 1024 * 1024);
+        queue.register(model, new CapturingRecordDAO());
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(queue.offer(model, new TestRecord(i), new TestRecord.Builder()));
+        }
+        queue.start(moduleManager(batchDAO));
+
+        final long deadline = System.currentTimeMillis() + 20_000;
+        while (flushed.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(count, flushed.size());
+        for (int i = 0; i < count; i++) {
+            final HashMapConverter.ToStorage expected = new HashMapConverter.ToStorage();
+            new TestRecord.Builder().entity2Storage(new TestRecord(i), expected);
+            Assert.assertEquals(expected.obtain(), flushed.get("id-" + i));
+        }
+    }
+
+    @Test
+    public void testJdbcFailureRetried() throws Exception {
+        final int count = 2500;
+        final Map<String, Map<String, Object>> flushed = new ConcurrentHashMap<>();
+        final AtomicInteger failures = new AtomicInteger(2);
+        final IBatchDAO batchDAO = new IBatchDAO() {
+            @Override
+            public void insert(final InsertRequest insertRequest) {
+            }
+
+            @Override
+            public CompletableFuture<Void> flush(final List<PrepareRequest> prepareRequests) {
+                final CompletableFuture<Void> future = new CompletableFuture<>();
+                if (failures.getAndDecrement() > 0) {
+                    // The JDBC flush fails the future rather than discarding the records.
+                    future.completeExceptionally(new SQLTransientConnectionException("Connection is not available"));
+                    return future;
+                }
+                prepareRequests.forEach(request -> {
+                    final CapturedRequest captured = (CapturedRequest) request;
+                    flushed.put(captured.getId(), captured.getColumns());
+                });
+                future.complete(null);
+                return future;
+            }
+
+            @Override
+            public boolean isRetryable(final Throwable failure) {
+                return failure instanceof SQLTransientException;
+            }
+        };
+        final Model model = mock(Model.class);
+        doReturn("spill_test").when(model).getName();
+
+        RecordSpillQueue queue = new RecordSpillQueue(folder.getRoot(), 64 * 1024 * 1024, 1024 * 1024);
+        queue.register(model, new CapturingRecordDAO());
+        queue.start(moduleManager(batchDAO));
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(queue.offer(model, new TestRecord(i), new TestRecord.Builder()));
+        }
+
+        final long deadline = System.currentTimeMillis() + 20_000;
+        while (flushed.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(count, flushed.size());
+        try (SpillLog deadLetter = new SpillLog(
+            new File(folder.getRoot(), RecordSpillQueue.DEAD_LETTER), 2 * 1024 * 1024, 1024 * 1024)) {
+            Assert.assertTrue(deadLetter.poll(10).isEmpty());
+        }
+    }
+
+    @Test
+    public void testRejectedRecordsMovedToDeadLetter() throws Exception {
+        final int count = 2500;
+        final String rejected = "id-1234";
+        final Map<String, Map<String, Object>> flushed = new ConcurrentHashMap<>();
+        final AtomicInteger unavailable = new AtomicInteger(1);
+        final IBatchDAO batchDAO = new IBatchDAO() {
+            @Override
+            public void insert(final InsertRequest insertRequest) {
+            }
+
+            @Override
+            public CompletableFuture<Void> flush(final List<PrepareRequest> prepareRequests) {
+                final CompletableFuture<Void> future = new CompletableFuture<>();
+                if (prepareRequests.stream().anyMatch(request -> ((CapturedRequest) request).getId().equals(rejected))) {
+                    // Rejected once the storage is available, and every time it is flushed again.
+                    future.completeExceptionally(unavailable.getAndDecrement() > 0
+                                                     ? new IllegalStateException("The storage is down")
+                                                     : new IllegalArgumentException("Mapping error"));
+                    return future;
+                }
+                prepareRequests.forEach(request -> {
+                    final CapturedRequest captured = (CapturedRequest) request;
+                    flushed.put(captured.getId(), captured.getColumns());
+                });
+                future.complete(null);
+                return future;
+            }
+
+            @Override
+            public boolean isRetryable(final Throwable failure) {
+                return !(failure instanceof IllegalArgumentException);
+            }
+        };
+        final Model model = mock(Model.class);
+        doReturn("spill_test").when(model).getName();
+
+        RecordSpillQueue queue = new RecordSpillQueue(folder.getRoot(), 64 * 1024 * 1024, 1024 * 1024);
+        queue.register(model, new CapturingRecordDAO());
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(queue.offer(model, new TestRecord(i), new TestRecord.Builder()));
+        }
+        queue.start(moduleManager(batchDAO));
+
+        final long deadline = System.currentTimeMillis() + 20_000;
+        while (flushed.size() < count - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(count - 1, flushed.size());
+        Assert.assertFalse(flushed.containsKey(rejected));
+
+        try (SpillLog deadLetter = new SpillLog(
+            new File(folder.getRoot(), RecordSpillQueue.DEAD_LETTER), 2 * 1024 * 1024, 1024 * 1024)) {
+            final List<byte[]> entries = deadLetter.poll(10);
+            Assert.assertEquals(1, entries.size());
+            Assert.assertEquals(rejected, SpilledRecord.decode(entries.get(0)).id());
+        }
+    }
+
+    private static ModuleManager moduleManager(IBatchDAO batchDAO) {
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+        doReturn((ModuleProviderHolder) () -> moduleServiceHolder).when(moduleManager).find(anyString());
+        doReturn(new MetricsCreatorNoop()).when(moduleServiceHolder).getService(MetricsCreator.class);
+        doReturn(batchDAO).when(moduleServiceHolder).getService(IBatchDAO.class);
+        return moduleManager;
+    }
+
+    private static class CapturingRecordDAO implements IRecordDAO {
+        private final SpilledRecord.Builder builder = new SpilledRecord.Builder();
+
+        @Override
+        public InsertRequest prepareBatchInsert(final Model model, final Record record) {
+            final HashMapConverter.ToStorage converter = new HashMapConverter.ToStorage();
+            builder.entity2Storage((SpilledRecord) record, converter);
+            return new CapturedRequest(record.id(), converter.obtain());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class CapturedRequest implements InsertRequest {
+        private final String id;
+        private final Map<String, Object> columns;
+    }
+
+    @RequiredArgsConstructor
+    private static class TestRecord extends Record {
+        private final int index;
+
+        @Override
+        public String id() {
+            return "id-" + index;
+        }
+
+        private static class Builder implements StorageBuilder<TestRecord> {
+            @Override
+            public TestRecord storage2Entity(final Convert2Entity converter) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void entity2Storage(final TestRecord entity, final Convert2Storage converter) {
+                converter.accept("index", entity.index);
+                converter.accept("latency", (long) entity.index * 10);
+                converter.accept("name", "record-" + entity.index);
+                converter.accept("data_binary", new byte[] {1, 2, (byte) entity.index});
+                converter.accept("tags", Arrays.asList("a=" + entity.index, "b"));
+                converter.accept("empty", (Object) null);
+                converter.accept(TIME_BUCKET, 20221017000000L + entity.index);
+            }
+        }
+    }
+}
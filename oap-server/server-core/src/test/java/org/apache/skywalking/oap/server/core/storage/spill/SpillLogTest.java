@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.spill;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpillLogTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testAppendAndPollAcrossSegments() throws IOException {
+        SpillLog spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(spillLog.append(entry(i)));
+        }
+        Assert.assertTrue(folder.getRoot().list((dir, name) -> name.endsWith(".log")).length > 1);
+
+        Assert.assertEquals(range(0, 60), asStrings(spillLog.poll(60)));
+        Assert.assertEquals(range(60, 100), asStrings(spillLog.poll(60)));
+        Assert.assertTrue(spillLog.poll(60).isEmpty());
+
+        spillLog.commit(spillLog.position());
+        Assert.assertEquals(0, spillLog.backlogBytes());
+        Assert.assertEquals(1, folder.getRoot().list((dir, name) -> name.endsWith(".log")).length);
+        spillLog.close();
+    }
+
+    @Test
+    public void testRewindAndRestart() throws IOException {
+        SpillLog spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        for (int i = 0; i < 30; i++) {
+            spillLog.append(entry(i));
+        }
+        spillLog.poll(10);
+        spillLog.commit(spillLog.position());
+        Assert.assertEquals(range(10, 15), asStrings(spillLog.poll(5)));
+        spillLog.rewind();
+        Assert.assertEquals(range(10, 15), asStrings(spillLog.poll(5)));
+        spillLog.close();
+
+        // The entries not committed are read again after the restart, and the new entries follow them.
+        spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        spillLog.append(entry(30));
+        Assert.assertEquals(range(10, 31), asStrings(spillLog.poll(100)));
+        spillLog.close();
+    }
+
+    @Test
+    public void testDropOldestSegments() throws IOException {
+        SpillLog spillLog = new SpillLog(folder.getRoot(), 2 * SEGMENT_SIZE, SEGMENT_SIZE);
+        for (int i = 0; i < 200; i++) {
+            Assert.assertTrue(spillLog.append(entry(i)));
+        }
+        Assert.assertTrue(spillLog.getDroppedBytes() > 0);
+        Assert.assertTrue(spillLog.backlogBytes() <= 2 * SEGMENT_SIZE);
+
+        List<String> entries = asStrings(spillLog.poll(200));
+        Assert.assertEquals("entry-199", entries.get(entries.size() - 1));
+        Assert.assertEquals(range(200 - entries.size(), 200), entries);
+        spillLog.close();
+    }
+
+    @Test
+    public void testSkipCorruptedEntries() throws IOException {
+        SpillLog spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        for (int i = 0; i < 3; i++) {
+            spillLog.append(entry(i));
+        }
+        spillLog.close();
+
+        // Break the payload of the second entry.
+        File segment = folder.getRoot().listFiles((dir, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            long offset = 8 + entry(0).length + 8;
+            file.seek(offset);
+            file.write('X');
+        }
+
+        spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        spillLog.append(entry(3));
+        // The rest of the segment after the corrupted entry is skipped.
+        List<String> entries = asStrings(spillLog.poll(100));
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("entry-0", entries.get(0));
+        Assert.assertEquals("entry-3", entries.get(1));
+        spillLog.close();
+    }
+
+    @Test
+    public void testRejectLargeEntry() throws IOException {
+        SpillLog spillLog = new SpillLog(folder.getRoot(), 100 * SEGMENT_SIZE, SEGMENT_SIZE);
+        Assert.assertFalse(spillLog.append(new byte[SEGMENT_SIZE]));
+        Assert.assertTrue(spillLog.append(new byte[SEGMENT_SIZE - 8]));
+        Assert.assertEquals(SEGMENT_SIZE - 8, spillLog.poll(1).get(0).length);
+        spillLog.close();
+    }
+
+    private static byte[] entry(int i) {
+        return ("entry-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> entries = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            entries.add("entry-" + i);
+        }
+        return entries;
+    }
+
+    private static List<String> asStrings(List<byte[]> entries) {
+        List<String> strings = new ArrayList<>();
+        for (byte[] entry : entries) {
+            strings.add(new String(entry, StandardCharsets.UTF_8));
+        }
+        return strings;
+    }
+}
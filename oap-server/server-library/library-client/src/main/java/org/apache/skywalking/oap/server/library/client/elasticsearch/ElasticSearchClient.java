@@ -37,7 +37,9 @@ import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
 import org.apache.skywalking.library.elasticsearch.ElasticSearchBuilder;
 import org.apache.skywalking.library.elasticsearch.ElasticSearchVersion;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkFailureListener;
 import org.apache.skywalking.library.elasticsearch.bulk.BulkProcessor;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
 import org.apache.skywalking.library.elasticsearch.requests.search.Query;
 import org.apache.skywalking.library.elasticsearch.requests.search.Search;
 import org.apache.skywalking.library.elasticsearch.requests.search.SearchParams;
@@ -78,6 +80,8 @@ public class ElasticSearchClient implements Client, HealthCheckable {
 
     private final DelegatedHealthChecker healthChecker = new DelegatedHealthChecker();
 
+    private volatile BulkFailureListener bulkFailureListener = BulkFailureListener.NOOP;
+
     private final int connectTimeout;
 
     private final int socketTimeout;
@@ -173,6 +177,10 @@ public class ElasticSearchClient implements Client, HealthCheckable {
         this.healthChecker.register(healthChecker);
     }
 
+    public void registerBulkFailureListener(BulkFailureListener bulkFailureListener) {
+        this.bulkFailureListener = bulkFailureListener;
+    }
+
     public boolean createIndex(String indexName) {
         return createIndex(indexName, null, null);
     }
@@ -333,6 +341,24 @@ public class ElasticSearchClient implements Client, HealthCheckable {
         return new UpdateRequestWrapper(indexName, TYPE, id, source);
     }
 
+    /**
+     * Prepare an insert request with the fields written into the bulk body directly.
+     */
+    public IndexRequestWrapper prepareInsert(String indexName, String id,
+                                             DocumentSource document) {
+        indexName = indexNameConverter.apply(indexName);
+        return new IndexRequestWrapper(indexName, TYPE, id, document);
+    }
+
+    /**
+     * Prepare an update request with the fields written into the bulk body directly.
+     */
+    public UpdateRequestWrapper prepareUpdate(String indexName, String id,
+                                              DocumentSource document) {
+        indexName = indexNameConverter.apply(indexName);
+        return new UpdateRequestWrapper(indexName, TYPE, id, document);
+    }
+
     public BulkProcessor createBulkProcessor(int bulkActions,
                                              int flushInterval,
                                              int concurrentRequests) {
@@ -340,6 +366,8 @@ public class ElasticSearchClient implements Client, HealthCheckable {
                             .bulkActions(bulkActions)
                             .flushInterval(Duration.ofSeconds(flushInterval))
                             .concurrentRequests(concurrentRequests)
+                            .failureListener((index, errorType, retrying) -> bulkFailureListener.onFailure(
+                                index, errorType, retrying))
                             .build(es);
     }
 
@@ -19,6 +19,7 @@ package org.apache.skywalking.oap.server.library.client.elasticsearch;
 
 import java.util.Map;
 import lombok.Getter;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 
@@ -35,4 +36,14 @@ public class IndexRequestWrapper implements InsertRequest {
                               .doc(source)
                               .build();
     }
+
+    public IndexRequestWrapper(String index, String type, String id,
+                               DocumentSource document) {
+        request = IndexRequest.builder()
+                              .index(index)
+                              .type(type)
+                              .id(id)
+                              .document(document)
+                              .build();
+    }
 }
@@ -19,6 +19,7 @@ package org.apache.skywalking.oap.server.library.client.elasticsearch;
 
 import java.util.Map;
 import lombok.Getter;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 
 @Getter
@@ -34,4 +35,14 @@ public class UpdateRequestWrapper implements UpdateRequest {
                                                                                     .doc(source)
                                                                                     .build();
     }
+
+    public UpdateRequestWrapper(String index, String type, String id,
+                                DocumentSource document) {
+        request = org.apache.skywalking.library.elasticsearch.requests.UpdateRequest.builder()
+                                                                                    .index(index)
+                                                                                    .type(type)
+                                                                                    .id(id)
+                                                                                    .document(document)
+                                                                                    .build();
+    }
 }
@@ -25,6 +25,7 @@ import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumeDriv
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumerPool;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IDriver;
+import org.apache.skywalking.oap.server.library.datacarrier.consumer.WaitStrategy;
 import org.apache.skywalking.oap.server.library.datacarrier.partition.IDataPartitioner;
 import org.apache.skywalking.oap.server.library.datacarrier.partition.SimpleRollingPartitioner;
 
@@ -35,6 +36,7 @@ public class DataCarrier<T> {
     private Channels<T> channels;
     private IDriver driver;
     private String name;
+    private WaitStrategy waitStrategy = WaitStrategy.SLEEP;
 
     public DataCarrier(int channelSize, int bufferSize) {
         this("DEFAULT", channelSize, bufferSize);
@@ -71,6 +73,17 @@ public class DataCarrier<T> {
         return this;
     }
 
+    /**
+     * set the {@link WaitStrategy} of the consumer threads created by {@link DataCarrier#consume}. It doesn't affect the
+     * consumer pool, which uses the strategy given to the pool itself.
+     *
+     * @return DataCarrier instance for chain
+     */
+    public DataCarrier setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
     /**
      * produce data to buffer, using the given {@link BufferStrategy}.
      *
@@ -100,7 +113,8 @@ public class DataCarrier<T> {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumerClass, num, consumeCycle, properties);
+        driver = new ConsumeDriver<T>(
+            this.name, this.channels, consumerClass, num, consumeCycle, properties, waitStrategy);
         driver.begin(channels);
         return this;
     }
@@ -126,7 +140,7 @@ public class DataCarrier<T> {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle, waitStrategy);
         driver.begin(channels);
         return this;
     }
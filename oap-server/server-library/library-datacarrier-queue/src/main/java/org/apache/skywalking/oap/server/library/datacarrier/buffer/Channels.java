@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.library.datacarrier.buffer;
 
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 import org.apache.skywalking.oap.server.library.datacarrier.partition.IDataPartitioner;
 
 /**
@@ -29,6 +30,10 @@ public class Channels<T> {
     private IDataPartitioner<T> dataPartitioner;
     private final BufferStrategy strategy;
     private final long size;
+    /**
+     * The signals of the consumers waiting on each buffer, null if no consumer is parking.
+     */
+    private volatile WakeupSignal[] wakeupSignals;
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
         this.dataPartitioner = partitioner;
@@ -38,7 +43,7 @@ public class Channels<T> {
             if (BufferStrategy.BLOCKING.equals(strategy)) {
                 bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
             } else {
-                bufferChannels[i] = new Buffer<>(bufferSize, strategy);
+                bufferChannels[i] = new RingBuffer<>(bufferSize, strategy);
             }
         }
         // noinspection PointlessArithmeticExpression
@@ -56,6 +61,10 @@ public class Channels<T> {
         }
         for (; retryCountDown > 0; retryCountDown--) {
             if (bufferChannels[index].save(data)) {
+                WakeupSignal[] signals = wakeupSignals;
+                if (signals != null && signals[index] != null) {
+                    signals[index].onProduced();
+                }
                 return true;
             }
         }
@@ -76,6 +85,19 @@ public class Channels<T> {
         }
     }
 
+    /**
+     * Bind the signal of the consumer thread which consumes the buffer at the given index.
+     */
+    public synchronized void bindWakeupSignal(int index, WakeupSignal signal) {
+        // Recreate the new array to avoid changing the array while the producers are reading it.
+        WakeupSignal[] newSignals = new WakeupSignal[bufferChannels.length];
+        if (wakeupSignals != null) {
+            System.arraycopy(wakeupSignals, 0, newSignals, 0, newSignals.length);
+        }
+        newSignals[index] = signal;
+        wakeupSignals = newSignals;
+    }
+
     /**
      * get channelSize
      */
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring queue driven by a producer cursor and a consumer cursor.
+ * <p>
+ * Every slot carries a sequence number, which tells whether the slot is free for the producer holding the same cursor
+ * value, or published for the consumer. Producers claim slots through CAS on the producer cursor, so saving is lock
+ * free for multiple producers. {@link #obtain(List)} walks from the consumer cursor to the last published slot only,
+ * so a drain costs O(items) rather than scanning the whole array for non-null slots.
+ */
+public class RingBuffer<T> implements QueueBuffer<T> {
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerCursor;
+    private final AtomicLong consumerCursor;
+    private final int bufferSize;
+    private BufferStrategy strategy;
+
+    RingBuffer(int bufferSize, BufferStrategy strategy) {
+        this.buffer = new Object[bufferSize];
+        this.sequences = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.set(i, i);
+        }
+        this.producerCursor = new AtomicLong(0);
+        this.consumerCursor = new AtomicLong(0);
+        this.bufferSize = bufferSize;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public boolean save(T data) {
+        while (true) {
+            long cursor = producerCursor.get();
+            int slot = (int) (cursor % bufferSize);
+            long diff = sequences.get(slot) - cursor;
+            if (diff == 0) {
+                if (producerCursor.compareAndSet(cursor, cursor + 1)) {
+                    buffer[slot] = data;
+                    // Publish the slot, the volatile write makes the data visible to the consumer.
+                    sequences.set(slot, cursor + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // The slot of the previous round has not been consumed yet, the queue is full.
+                if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+                    return false;
+                }
+                LockSupport.parkNanos(1);
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+            }
+            // diff > 0, another producer has taken this cursor, retry with the latest one.
+        }
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void obtain(List<T> consumeList) {
+        long cursor = consumerCursor.get();
+        while (true) {
+            int slot = (int) (cursor % bufferSize);
+            long diff = sequences.get(slot) - (cursor + 1);
+            if (diff == 0) {
+                // Usually there is only one consumer per buffer. CAS keeps the cursor consistent when the consumer
+                // threads are being replaced and the old one is draining for the last time.
+                if (consumerCursor.compareAndSet(cursor, cursor + 1)) {
+                    consumeList.add((T) buffer[slot]);
+                    buffer[slot] = null;
+                    sequences.set(slot, cursor + bufferSize);
+                    cursor++;
+                } else {
+                    cursor = consumerCursor.get();
+                }
+            } else if (diff < 0) {
+                // Nothing published at the cursor, the queue is drained.
+                return;
+            } else {
+                cursor = consumerCursor.get();
+            }
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WakeupSignal links the producers of the channels to the consumer thread waiting for them. The consumer parks when
+ * there is nothing to consume, and producers unpark it once the number of items saved since the last drain reaches
+ * the watermark. A watermark of 1 wakes the consumer as soon as the first item lands.
+ * <p>
+ * The consumer never parks longer than the given max wait time, so {@code IConsumer#nothingToConsume} keeps working as
+ * a timer.
+ */
+public class WakeupSignal {
+    private final Thread consumerThread;
+    private final int watermark;
+    private final int spinTimes;
+    private final AtomicInteger pending;
+
+    public WakeupSignal(Thread consumerThread, int watermark, int spinTimes) {
+        this.consumerThread = consumerThread;
+        this.watermark = Math.max(watermark, 1);
+        this.spinTimes = Math.max(spinTimes, 0);
+        this.pending = new AtomicInteger(0);
+    }
+
+    /**
+     * Called by the producer after data is saved. Read first, to avoid contended writes once the watermark has been
+     * reached.
+     */
+    public void onProduced() {
+        if (pending.get() < watermark && pending.incrementAndGet() == watermark) {
+            LockSupport.unpark(consumerThread);
+        }
+    }
+
+    /**
+     * Called by the consumer before draining the buffers, the data saved after this point will signal again.
+     */
+    public void reset() {
+        pending.set(0);
+    }
+
+    /**
+     * Wait for the signal. Spin and yield for the given times first, then park until producers reach the watermark or
+     * the max wait time passes.
+     */
+    public void await(long maxWaitMillis) {
+        for (int i = 0; i < spinTimes; i++) {
+            if (pending.get() >= watermark) {
+                return;
+            }
+            Thread.yield();
+        }
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+    }
+
+    /**
+     * Wake up the consumer immediately, such as when it is shutting down.
+     */
+    public void wakeup() {
+        LockSupport.unpark(consumerThread);
+    }
+}
@@ -20,21 +20,27 @@ package org.apache.skywalking.oap.server.library.datacarrier.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
-import org.apache.skywalking.oap.server.library.datacarrier.buffer.Buffer;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 
 public class ConsumerThread<T> extends Thread {
     private volatile boolean running;
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final WakeupSignal wakeupSignal;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
+        this(threadName, consumer, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumer = consumer;
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.wakeupSignal = waitStrategy.newSignal(this);
     }
 
     /**
@@ -51,6 +57,10 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
+                if (wakeupSignal != null) {
+                    wakeupSignal.await(consumeCycle);
+                    continue;
+                }
                 try {
                     Thread.sleep(consumeCycle);
                 } catch (InterruptedException e) {
@@ -66,6 +76,9 @@ public class ConsumerThread<T> extends Thread {
     }
 
     private boolean consume(List<T> consumeList) {
+        if (wakeupSignal != null) {
+            wakeupSignal.reset();
+        }
         for (DataSource dataSource : dataSources) {
             dataSource.obtain(consumeList);
         }
@@ -86,10 +99,20 @@ public class ConsumerThread<T> extends Thread {
 
     void shutdown() {
         running = false;
+        if (wakeupSignal != null) {
+            wakeupSignal.wakeup();
+        }
+    }
+
+    /**
+     * @return the signal to wake up this thread, or null if it sleeps in the consume cycle.
+     */
+    WakeupSignal getWakeupSignal() {
+        return wakeupSignal;
     }
 
     /**
-     * DataSource is a refer to {@link Buffer}.
+     * DataSource is a refer to {@link QueueBuffer}.
      */
     class DataSource {
         private QueueBuffer<T> sourceBuffer;
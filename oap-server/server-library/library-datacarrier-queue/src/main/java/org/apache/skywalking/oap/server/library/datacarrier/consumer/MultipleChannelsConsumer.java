@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
@@ -33,11 +34,17 @@ public class MultipleChannelsConsumer extends Thread {
     @SuppressWarnings("NonAtomicVolatileUpdate")
     private volatile long size;
     private final long consumeCycle;
+    private final WakeupSignal wakeupSignal;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
+        this(threadName, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    public MultipleChannelsConsumer(String threadName, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumeTargets = new ArrayList<>();
         this.consumeCycle = consumeCycle;
+        this.wakeupSignal = waitStrategy.newSignal(this);
     }
 
     @Override
@@ -46,6 +53,9 @@ public class MultipleChannelsConsumer extends Thread {
 
         final List consumeList = new ArrayList(2000);
         while (running) {
+            if (wakeupSignal != null) {
+                wakeupSignal.reset();
+            }
             boolean hasData = false;
             for (Group target : consumeTargets) {
                 boolean consumed = consume(target, consumeList);
@@ -53,6 +63,10 @@ public class MultipleChannelsConsumer extends Thread {
             }
 
             if (!hasData) {
+                if (wakeupSignal != null) {
+                    wakeupSignal.await(consumeCycle);
+                    continue;
+                }
                 try {
                     Thread.sleep(consumeCycle);
                 } catch (InterruptedException e) {
@@ -102,6 +116,11 @@ public class MultipleChannelsConsumer extends Thread {
         newList.add(group);
         consumeTargets = newList;
         size += channels.size();
+        if (wakeupSignal != null) {
+            for (int i = 0; i < channels.getChannelSize(); i++) {
+                channels.bindWakeupSignal(i, wakeupSignal);
+            }
+        }
     }
 
     public long size() {
@@ -110,6 +129,9 @@ public class MultipleChannelsConsumer extends Thread {
 
     void shutdown() {
         running = false;
+        if (wakeupSignal != null) {
+            wakeupSignal.wakeup();
+        }
     }
 
     private static class Group {
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.consumer;
+
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
+
+/**
+ * WaitStrategy decides how an idle consumer thread waits for new data.
+ * <p>
+ * {@link #SLEEP} sleeps a fixed consume cycle, which is the default. {@link #parking(int, int)} parks the consumer
+ * and lets the producers wake it up through a {@link WakeupSignal}, the consume cycle is only the max park time.
+ */
+public class WaitStrategy {
+    public static final WaitStrategy SLEEP = new WaitStrategy(false, 0, 0);
+
+    private final boolean parking;
+    private final int watermark;
+    private final int spinTimes;
+
+    private WaitStrategy(boolean parking, int watermark, int spinTimes) {
+        this.parking = parking;
+        this.watermark = watermark;
+        this.spinTimes = spinTimes;
+    }
+
+    /**
+     * @param watermark the number of saved items to wake up the consumer. 1 means waking up at the first item.
+     * @param spinTimes how many times to spin and yield before parking, 0 means park directly.
+     */
+    public static WaitStrategy parking(int watermark, int spinTimes) {
+        return new WaitStrategy(true, watermark, spinTimes);
+    }
+
+    /**
+     * @return a new signal for the given consumer thread, or null if the strategy is {@link #SLEEP}.
+     */
+    WakeupSignal newSignal(Thread consumerThread) {
+        if (!parking) {
+            return null;
+        }
+        return new WakeupSignal(consumerThread, watermark, spinTimes);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.oap.server.library.datacarrier.SampleData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RingBufferTest {
+    @Test
+    public void testSaveAndObtainInOrder() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(10, BufferStrategy.IF_POSSIBLE);
+        List<SampleData> result = new ArrayList<>();
+        buffer.obtain(result);
+        Assert.assertTrue(result.isEmpty());
+
+        // Go around the ring several times to make sure the cursors wrap correctly.
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 7; i++) {
+                Assert.assertTrue(buffer.save(new SampleData().setIntValue(round * 7 + i)));
+            }
+            buffer.obtain(result);
+            Assert.assertEquals(7, result.size());
+            for (int i = 0; i < 7; i++) {
+                Assert.assertEquals(round * 7 + i, result.get(i).getIntValue());
+            }
+            result.clear();
+        }
+    }
+
+    @Test
+    public void testIfPossibleWhenFull() {
+        RingBuffer<SampleData> buffer = new RingBuffer<>(10, BufferStrategy.IF_POSSIBLE);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(buffer.save(new SampleData().setIntValue(i)));
+        }
+        Assert.assertFalse(buffer.save(new SampleData().setIntValue(10)));
+
+        List<SampleData> result = new ArrayList<>();
+        buffer.obtain(result);
+        Assert.assertEquals(10, result.size());
+        Assert.assertTrue(buffer.save(new SampleData().setIntValue(10)));
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final RingBuffer<SampleData> buffer = new RingBuffer<>(100, BufferStrategy.BLOCKING);
+        final int producers = 4;
+        final int countPerProducer = 10000;
+        final CountDownLatch latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int base = p * countPerProducer;
+            new Thread(() -> {
+                for (int i = 0; i < countPerProducer; i++) {
+                    buffer.save(new SampleData().setIntValue(base + i));
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        Set<Integer> received = new HashSet<>();
+        List<SampleData> result = new ArrayList<>();
+        while (latch.getCount() > 0 || received.size() < producers * countPerProducer) {
+            buffer.obtain(result);
+            for (SampleData data : result) {
+                Assert.assertTrue(received.add(data.getIntValue()));
+            }
+            result.clear();
+        }
+        Assert.assertEquals(producers * countPerProducer, received.size());
+    }
+}
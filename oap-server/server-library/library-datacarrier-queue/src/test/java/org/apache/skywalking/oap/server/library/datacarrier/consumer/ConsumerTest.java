@@ -99,6 +99,52 @@ public class ConsumerTest {
         Assert.assertTrue(IS_OCCUR_ERROR);
     }
 
+    @Test
+    public void testParkingConsumerWakeup() throws InterruptedException {
+        BUFFER.drainTo(new ArrayList<SampleData>());
+        final DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(2, 100);
+        carrier.setWaitStrategy(WaitStrategy.parking(1, 10));
+        // The consume cycle is far longer than the test, data could only be consumed through the wakeup signal.
+        carrier.consume(SampleConsumer.class, 1, 60 * 1000L, new Properties());
+        Thread.sleep(200);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(carrier.produce(new SampleData().setName("data" + i)));
+        }
+        List<SampleData> result = new ArrayList<SampleData>();
+        for (int i = 0; i < 100 && result.size() < 10; i++) {
+            Thread.sleep(20);
+            BUFFER.drainTo(result);
+        }
+        Assert.assertEquals(10, result.size());
+
+        carrier.shutdownConsumers();
+    }
+
+    @Test
+    public void testParkingBulkConsumePool() throws InterruptedException {
+        BUFFER.drainTo(new ArrayList<SampleData>());
+        final DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(2, 100);
+        BulkConsumePool pool = (BulkConsumePool) new BulkConsumePool.Creator(
+            "testParkingBulkConsumePool", 1, 60 * 1000L, WaitStrategy.parking(1, 0)).call();
+        SampleConsumer consumer = new SampleConsumer();
+        consumer.init(new Properties());
+        carrier.consume(pool, consumer);
+        Thread.sleep(200);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(carrier.produce(new SampleData().setName("data" + i)));
+        }
+        List<SampleData> result = new ArrayList<SampleData>();
+        for (int i = 0; i < 100 && result.size() < 10; i++) {
+            Thread.sleep(20);
+            BUFFER.drainTo(result);
+        }
+        Assert.assertEquals(10, result.size());
+
+        pool.close(null);
+    }
+
     class SampleConsumer2 implements IConsumer<SampleData> {
         public int i = 1;
 
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+/**
+ * Listener of the items rejected by ElasticSearch in a successful {@code _bulk} request.
+ */
+@FunctionalInterface
+public interface BulkFailureListener {
+    BulkFailureListener NOOP = (index, errorType, retrying) -> {
+    };
+
+    /**
+     * @param index     the index of the failed item.
+     * @param errorType the error type reported by ElasticSearch, e.g. {@code es_rejected_execution_exception}.
+     * @param retrying  true if the item has been put into the retry queue, false if it is dropped.
+     */
+    void onFailure(String index, String errorType, boolean retrying);
+}
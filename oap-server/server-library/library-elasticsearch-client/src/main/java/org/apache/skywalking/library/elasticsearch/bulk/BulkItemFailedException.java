@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import lombok.Getter;
+
+/**
+ * The request failed in the bulk, after the retries if it is retryable.
+ */
+@Getter
+public class BulkItemFailedException extends RuntimeException {
+    private final String index;
+    private final int status;
+
+    public BulkItemFailedException(final String index, final int status, final String message) {
+        super(message);
+        this.index = index;
+        this.status = status;
+    }
+
+    /**
+     * @return true if the request is rejected by the load of the ElasticSearch cluster, and worth another try later.
+     * Other failures, such as mapping errors, would fail again.
+     */
+    public boolean isRetryable() {
+        return BulkProcessor.isRetryable(status);
+    }
+}
@@ -20,12 +20,17 @@ package org.apache.skywalking.library.elasticsearch.bulk;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.util.Exceptions;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -34,8 +39,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkResponseParser.FailedItem;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.library.elasticsearch.requests.UpdateRequest;
+import org.apache.skywalking.library.elasticsearch.requests.factory.Codec;
 import org.apache.skywalking.library.elasticsearch.requests.factory.RequestFactory;
 import org.apache.skywalking.oap.server.library.util.RunnableWithExceptionProtection;
 
@@ -43,11 +50,30 @@ import static java.util.Objects.requireNonNull;
 
 @Slf4j
 public final class BulkProcessor {
+    private static final int NEW_LINE = '\n';
+
     private final ArrayBlockingQueue<Holder> requests;
+    /**
+     * The items rejected by ElasticSearch and waiting for their next attempt, bounded so that a long-lasting
+     * back-pressure can't exhaust the memory.
+     */
+    private final ArrayBlockingQueue<Holder> retries;
+    /**
+     * The items in {@link #retries} by their index and id, to drop them once a newer request of the same document is
+     * added, rather than overwriting the newer document by the retry.
+     */
+    private final ConcurrentHashMap<String, Holder> retriesByDocument = new ConcurrentHashMap<>();
 
     private final AtomicReference<ElasticSearch> es;
     private final int bulkActions;
     private final Semaphore semaphore;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final BulkFailureListener failureListener;
+    /**
+     * The size of the latest bulk body, as the initial capacity of the next one to avoid expanding the buffer.
+     */
+    private volatile int lastContentSize = 256;
 
     public static BulkProcessorBuilder builder() {
         return new BulkProcessorBuilder();
@@ -55,13 +81,20 @@ public final class BulkProcessor {
 
     BulkProcessor(
         final AtomicReference<ElasticSearch> es, final int bulkActions,
-        final Duration flushInterval, final int concurrentRequests) {
+        final Duration flushInterval, final int concurrentRequests,
+        final int maxRetries, final Duration retryBackoff, final int retryQueueSize,
+        final BulkFailureListener failureListener) {
         requireNonNull(flushInterval, "flushInterval");
+        requireNonNull(retryBackoff, "retryBackoff");
 
         this.es = requireNonNull(es, "es");
         this.bulkActions = bulkActions;
         this.semaphore = new Semaphore(concurrentRequests > 0 ? concurrentRequests : 1);
         this.requests = new ArrayBlockingQueue<>(bulkActions + 1);
+        this.retries = new ArrayBlockingQueue<>(retryQueueSize > 0 ? retryQueueSize : bulkActions + 1);
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.failureListener = requireNonNull(failureListener, "failureListener");
 
         final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
             1, r -> {
@@ -74,7 +107,8 @@ public final class BulkProcessor {
         scheduler.setRemoveOnCancelPolicy(true);
         scheduler.scheduleWithFixedDelay(
                 new RunnableWithExceptionProtection(this::flush,
-                        t -> log.error("flush data to ES failure:", t)), 0, flushInterval.getSeconds(), TimeUnit.SECONDS);
+                        t -> log.error("flush data to ES failure:", t)),
+                flushInterval.getSeconds(), flushInterval.getSeconds(), TimeUnit.SECONDS);
     }
 
     public CompletableFuture<Void> add(IndexRequest request) {
@@ -89,7 +123,14 @@ public final class BulkProcessor {
     private CompletableFuture<Void> internalAdd(Object request) {
         requireNonNull(request, "request");
         final CompletableFuture<Void> f = new CompletableFuture<>();
-        requests.put(new Holder(f, request));
+        final Holder holder = new Holder(f, request, documentKey(request));
+        if (holder.documentKey != null) {
+            final Holder superseded = retriesByDocument.remove(holder.documentKey);
+            if (superseded != null) {
+                superseded.superseded = true;
+            }
+        }
+        requests.put(holder);
         flushIfNeeded();
         return f;
     }
@@ -102,7 +143,7 @@ public final class BulkProcessor {
     }
 
     void flush() {
-        if (requests.isEmpty()) {
+        if (requests.isEmpty() && retries.isEmpty()) {
             return;
         }
 
@@ -113,14 +154,51 @@ public final class BulkProcessor {
             return;
         }
 
-        final List<Holder> batch = new ArrayList<>(requests.size());
-        requests.drainTo(batch);
+        final List<Holder> batch = drain(System.currentTimeMillis());
 
         final CompletableFuture<Void> flush = doFlush(batch);
         flush.whenComplete((ignored1, ignored2) -> semaphore.release());
         flush.join();
     }
 
+    /**
+     * Take the next batch of at most {@link #bulkActions} items. The retries due are given at most half of the batch
+     * when there are new requests waiting, so neither of them starves, and the rest of them wait for the next flush.
+     */
+    List<Holder> drain(final long now) {
+        final List<Holder> batch = new ArrayList<>(bulkActions);
+        drainRetries(batch, now, Math.max(bulkActions / 2, 1));
+        requests.drainTo(batch, bulkActions - batch.size());
+        drainRetries(batch, now, bulkActions - batch.size());
+        return batch;
+    }
+
+    private void drainRetries(final List<Holder> batch, final long now, final int max) {
+        if (max <= 0 || retries.isEmpty()) {
+            return;
+        }
+        int drained = 0;
+        // Synchronized as the concurrent flushes could take the same item otherwise.
+        synchronized (retries) {
+            final Iterator<Holder> iterator = retries.iterator();
+            while (drained < max && iterator.hasNext()) {
+                final Holder holder = iterator.next();
+                if (holder.superseded) {
+                    iterator.remove();
+                    log.debug("Drop the retry of {}, superseded by a newer request", holder.documentKey);
+                    holder.future.complete(null);
+                } else if (holder.retryAt <= now) {
+                    iterator.remove();
+                    if (holder.documentKey != null) {
+                        retriesByDocument.remove(holder.documentKey, holder);
+                    }
+                    batch.add(holder);
+                    drained++;
+                }
+            }
+        }
+    }
+
     private CompletableFuture<Void> doFlush(final List<Holder> batch) {
         log.debug("Executing bulk with {} requests", batch.size());
 
@@ -128,42 +206,145 @@ public final class BulkProcessor {
             return CompletableFuture.completedFuture(null);
         }
 
-        final CompletableFuture<Void> future = es.get().version().thenCompose(v -> {
+        final CompletableFuture<List<FailedItem>> future = es.get().version().thenCompose(v -> {
             try {
                 final RequestFactory rf = v.requestFactory();
-                final List<byte[]> bs = new ArrayList<>();
-                for (final Holder holder : batch) {
-                    bs.add(v.codec().encode(holder.request));
-                    bs.add("\n".getBytes());
-                }
-                final ByteBuf content = Unpooled.wrappedBuffer(bs.toArray(new byte[0][]));
+                final ByteBuf content = encode(v.codec(), batch);
                 return es.get().client().execute(rf.bulk().bulk(content))
-                         .aggregate().thenAccept(response -> {
+                         .aggregate().thenApply(response -> {
                         final HttpStatus status = response.status();
                         if (status != HttpStatus.OK) {
                             throw new RuntimeException(response.contentUtf8());
                         }
+                        try (InputStream body = response.content().toInputStream()) {
+                            return BulkResponseParser.parseFailures(body);
+                        } catch (IOException e) {
+                            return Exceptions.throwUnsafely(e);
+                        }
                     });
             } catch (Exception e) {
                 return Exceptions.throwUnsafely(e);
             }
         });
-        future.whenComplete((ignored, exception) -> {
+        future.whenComplete((failures, exception) -> {
             if (exception != null) {
                 batch.stream().map(it -> it.future)
                      .forEach(it -> it.completeExceptionally(exception));
                 log.error("Failed to execute requests in bulk", exception);
-            } else {
+            } else if (failures.isEmpty()) {
                 log.debug("Succeeded to execute {} requests in bulk", batch.size());
                 batch.stream().map(it -> it.future).forEach(it -> it.complete(null));
+            } else {
+                handlePartialFailures(batch, failures);
             }
         });
-        return future;
+        return future.thenApply(ignored -> null);
+    }
+
+    /**
+     * Encode the requests one by one into a pooled buffer, which is released once the bulk request is sent.
+     */
+    private ByteBuf encode(final Codec codec, final List<Holder> batch) throws Exception {
+        final ByteBuf content = PooledByteBufAllocator.DEFAULT.buffer(lastContentSize);
+        try (ByteBufOutputStream out = new ByteBufOutputStream(content)) {
+            for (final Holder holder : batch) {
+                codec.encode(holder.request, out);
+                out.write(NEW_LINE);
+            }
+        } catch (Exception e) {
+            content.release();
+            throw e;
+        }
+        lastContentSize = content.readableBytes();
+        return content;
+    }
+
+    /**
+     * Complete the succeeded items, and put the failed ones into the retry queue if they are worth another try.
+     */
+    void handlePartialFailures(final List<Holder> batch, final List<FailedItem> failures) {
+        int retrying = 0;
+        int next = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            final Holder holder = batch.get(i);
+            if (next >= failures.size() || failures.get(next).getPosition() != i) {
+                holder.future.complete(null);
+                continue;
+            }
+            final FailedItem failure = failures.get(next++);
+            if (retry(holder, failure)) {
+                retrying++;
+                failureListener.onFailure(failure.getIndex(), failure.getErrorType(), true);
+            } else {
+                failureListener.onFailure(failure.getIndex(), failure.getErrorType(), false);
+                holder.future.completeExceptionally(new BulkItemFailedException(
+                    failure.getIndex(), failure.getStatus(),
+                    "Failed to execute request in bulk, index: " + failure.getIndex()
+                        + ", status: " + failure.getStatus() + ", error: " + failure.getErrorType()
+                        + ", reason: " + failure.getReason()));
+            }
+        }
+        final FailedItem first = failures.get(0);
+        log.warn(
+            "{} of {} requests failed in bulk, {} of them will be retried, first failure: index {}, status {}, {}: {}",
+            failures.size(), batch.size(), retrying,
+            first.getIndex(), first.getStatus(), first.getErrorType(), first.getReason()
+        );
+    }
+
+    private boolean retry(final Holder holder, final FailedItem failure) {
+        if (!isRetryable(failure.getStatus()) || holder.attempts >= maxRetries) {
+            return false;
+        }
+        holder.attempts++;
+        // Exponential backoff, the actual delay is rounded up to the flush interval.
+        holder.retryAt = System.currentTimeMillis() + (retryBackoffMillis << (holder.attempts - 1));
+        if (holder.documentKey != null) {
+            retriesByDocument.put(holder.documentKey, holder);
+        }
+        if (!retries.offer(holder)) {
+            if (holder.documentKey != null) {
+                retriesByDocument.remove(holder.documentKey, holder);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the index and id of the document the request writes, or null if the id is generated by ElasticSearch.
+     */
+    private static String documentKey(final Object request) {
+        String index = null;
+        String id = null;
+        if (request instanceof IndexRequest) {
+            index = ((IndexRequest) request).getIndex();
+            id = ((IndexRequest) request).getId();
+        } else if (request instanceof UpdateRequest) {
+            index = ((UpdateRequest) request).getIndex();
+            id = ((UpdateRequest) request).getId();
+        }
+        return id == null ? null : index + '/' + id;
+    }
+
+    /**
+     * Only the rejections caused by the load of the ElasticSearch cluster are retried, other failures, such as
+     * mapping errors, would fail again.
+     */
+    static boolean isRetryable(final int status) {
+        return status == 429 || status >= 500;
     }
 
     @RequiredArgsConstructor
     static class Holder {
         private final CompletableFuture<Void> future;
         private final Object request;
+        private final String documentKey;
+        private int attempts;
+        private long retryAt;
+        /**
+         * Set when a newer request of the same document is added while this one is waiting for its retry.
+         */
+        private volatile boolean superseded;
     }
 }
@@ -32,6 +32,10 @@ public final class BulkProcessorBuilder {
     private int bulkActions = -1;
     private Duration flushInterval;
     private int concurrentRequests = 2;
+    private int maxRetries = 3;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private int retryQueueSize = -1;
+    private BulkFailureListener failureListener = BulkFailureListener.NOOP;
 
     public BulkProcessorBuilder bulkActions(int bulkActions) {
         checkArgument(bulkActions > 0, "bulkActions must be positive");
@@ -50,8 +54,34 @@ public final class BulkProcessorBuilder {
         return this;
     }
 
+    public BulkProcessorBuilder maxRetries(int maxRetries) {
+        checkArgument(maxRetries >= 0, "maxRetries must be >= 0");
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public BulkProcessorBuilder retryBackoff(Duration retryBackoff) {
+        this.retryBackoff = requireNonNull(retryBackoff, "retryBackoff");
+        return this;
+    }
+
+    /**
+     * The max number of failed items waiting to be retried, defaults to {@code bulkActions}.
+     */
+    public BulkProcessorBuilder retryQueueSize(int retryQueueSize) {
+        checkArgument(retryQueueSize > 0, "retryQueueSize must be positive");
+        this.retryQueueSize = retryQueueSize;
+        return this;
+    }
+
+    public BulkProcessorBuilder failureListener(BulkFailureListener failureListener) {
+        this.failureListener = requireNonNull(failureListener, "failureListener");
+        return this;
+    }
+
     public BulkProcessor build(AtomicReference<ElasticSearch> es) {
         return new BulkProcessor(
-            es, bulkActions, flushInterval, concurrentRequests);
+            es, bulkActions, flushInterval, concurrentRequests,
+            maxRetries, retryBackoff, retryQueueSize, failureListener);
     }
 }
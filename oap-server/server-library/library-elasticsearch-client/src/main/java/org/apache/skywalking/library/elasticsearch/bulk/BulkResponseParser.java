@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streaming parser of the {@code _bulk} response, only the failed items are picked up.
+ * <p>
+ * The top-level {@code errors} flag comes before {@code items} in the response, so a fully successful bulk response is
+ * recognized without walking through the items at all.
+ */
+final class BulkResponseParser {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private BulkResponseParser() {
+    }
+
+    /**
+     * @return the failed items in the order of their positions in the bulk request, empty if all succeeded.
+     */
+    static List<FailedItem> parseFailures(InputStream inputStream) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected bulk response, an object is expected");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("errors".equals(field)) {
+                    if (!parser.getValueAsBoolean()) {
+                        return Collections.emptyList();
+                    }
+                } else if ("items".equals(field)) {
+                    return parseItems(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<FailedItem> parseItems(JsonParser parser) throws IOException {
+        final List<FailedItem> failures = new ArrayList<>();
+        int position = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // Every item is an object with the action name as its only field, i.e. {"index": {...}}.
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                parser.nextToken();
+                final FailedItem failure = parseItem(parser, position);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+            position++;
+        }
+        return failures;
+    }
+
+    private static FailedItem parseItem(JsonParser parser, int position) throws IOException {
+        String index = null;
+        int status = 0;
+        String errorType = null;
+        String reason = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            if ("_index".equals(field)) {
+                index = parser.getValueAsString();
+            } else if ("status".equals(field)) {
+                status = parser.getValueAsInt();
+            } else if ("error".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String errorField = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("type".equals(errorField)) {
+                        errorType = parser.getValueAsString();
+                    } else if ("reason".equals(errorField)) {
+                        reason = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (status >= 200 && status < 300) {
+            return null;
+        }
+        return new FailedItem(position, index, status, errorType == null ? "unknown" : errorType, reason);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static final class FailedItem {
+        /**
+         * The position of the item in the bulk request.
+         */
+        private final int position;
+        private final String index;
+        private final int status;
+        private final String errorType;
+        private final String reason;
+    }
+}
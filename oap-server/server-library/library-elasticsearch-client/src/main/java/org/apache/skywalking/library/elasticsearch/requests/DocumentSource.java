@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.requests;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * DocumentSource holds the fields of a document to index or update, and writes them into the generator of the bulk body
+ * directly, rather than through a map or a rendered JSON string. The values must not be changed after they are put, as
+ * the document is written when the bulk is flushed.
+ * <p>
+ * The strings, numbers and lists are written as they are, the byte arrays are written as BASE64 strings, the same as
+ * serializing the map of the fields.
+ */
+public final class DocumentSource {
+    private String[] names;
+    private Object[] values;
+    private int size;
+
+    public DocumentSource(int expectedSize) {
+        names = new String[Math.max(expectedSize, 1)];
+        values = new Object[names.length];
+    }
+
+    /**
+     * Put the value of the field, the previous value of the same field is replaced, and the field keeps its position.
+     */
+    public void put(String name, Object value) {
+        final int index = indexOf(name);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * @return the value of the field, or null if absent.
+     */
+    public Object get(String name) {
+        final int index = indexOf(name);
+        return index >= 0 ? values[index] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0; i < size; i++) {
+            gen.writeFieldName(names[i]);
+            final Object value = values[i];
+            if (value instanceof String) {
+                gen.writeString((String) value);
+            } else if (value instanceof Long) {
+                gen.writeNumber((Long) value);
+            } else if (value instanceof Integer) {
+                gen.writeNumber((Integer) value);
+            } else if (value instanceof Double) {
+                gen.writeNumber((Double) value);
+            } else if (value instanceof byte[]) {
+                final byte[] bytes = (byte[]) value;
+                if (bytes.length == 0) {
+                    gen.writeString("");
+                } else {
+                    gen.writeBinary(bytes);
+                }
+            } else {
+                gen.writeObject(value);
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private int indexOf(String name) {
+        // The field names are mostly the same constants, compared by the references at first.
+        for (int i = 0; i < size; i++) {
+            if (names[i] == name) {
+                return i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
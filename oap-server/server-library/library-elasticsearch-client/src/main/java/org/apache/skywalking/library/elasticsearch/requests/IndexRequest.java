@@ -30,4 +30,9 @@ public final class IndexRequest {
     private final String type;
     private final String id;
     private final Map<String, ?> doc;
+    /**
+     * The fields written into the bulk body directly, used instead of {@link #doc} when present, only supported in bulk
+     * requests.
+     */
+    private final DocumentSource document;
 }
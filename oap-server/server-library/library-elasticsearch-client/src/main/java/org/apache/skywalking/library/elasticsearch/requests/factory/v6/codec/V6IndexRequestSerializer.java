@@ -43,6 +43,10 @@ final class V6IndexRequestSerializer extends JsonSerializer<IndexRequest> {
         }
         gen.writeEndObject();
 
-        gen.writeObject(value.getDoc());
+        if (value.getDocument() != null) {
+            value.getDocument().writeTo(gen);
+        } else {
+            gen.writeObject(value.getDoc());
+        }
     }
 }
@@ -47,7 +47,11 @@ final class V6UpdateRequestSerializer extends JsonSerializer<UpdateRequest> {
         gen.writeStartObject();
         {
             gen.writeFieldName("doc");
-            gen.writeObject(value.getDoc());
+            if (value.getDocument() != null) {
+                value.getDocument().writeTo(gen);
+            } else {
+                gen.writeObject(value.getDoc());
+            }
         }
         gen.writeEndObject();
     }
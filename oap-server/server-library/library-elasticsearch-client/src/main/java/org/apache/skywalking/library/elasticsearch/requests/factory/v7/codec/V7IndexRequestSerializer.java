@@ -42,6 +42,10 @@ final class V7IndexRequestSerializer extends JsonSerializer<IndexRequest> {
         }
         gen.writeEndObject();
 
-        gen.writeObject(value.getDoc());
+        if (value.getDocument() != null) {
+            value.getDocument().writeTo(gen);
+        } else {
+            gen.writeObject(value.getDoc());
+        }
     }
 }
@@ -46,7 +46,11 @@ final class V7UpdateRequestSerializer extends JsonSerializer<UpdateRequest> {
         gen.writeStartObject();
         {
             gen.writeFieldName("doc");
-            gen.writeObject(value.getDoc());
+            if (value.getDocument() != null) {
+                value.getDocument().writeTo(gen);
+            } else {
+                gen.writeObject(value.getDoc());
+            }
         }
         gen.writeEndObject();
     }
@@ -17,6 +17,8 @@
 
 package org.apache.skywalking.library.elasticsearch.requests.search;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -36,6 +38,8 @@ public final class Search {
     private final Query query;
     private final Sorts sort;
     private final ImmutableMap<String, Aggregation> aggregations;
+    @JsonProperty("search_after")
+    private final ImmutableList<Object> searchAfter;
 
     public static SearchBuilder builder() {
         return new SearchBuilder();
@@ -20,6 +20,7 @@ package org.apache.skywalking.library.elasticsearch.requests.search;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.List;
 import org.apache.skywalking.library.elasticsearch.requests.search.aggregation.Aggregation;
 import org.apache.skywalking.library.elasticsearch.requests.search.aggregation.AggregationBuilder;
 
@@ -33,6 +34,7 @@ public final class SearchBuilder {
     private QueryBuilder queryBuilder;
     private ImmutableList.Builder<Sort> sort;
     private ImmutableMap.Builder<String, Aggregation> aggregations;
+    private ImmutableList<Object> searchAfter;
 
     SearchBuilder() {
     }
@@ -58,6 +60,17 @@ public final class SearchBuilder {
         return this;
     }
 
+    /**
+     * Search the hits after the given sort values, which are the sort values of the last hit in the previous page.
+     * The sort must end with a unique field to break the ties.
+     */
+    public SearchBuilder searchAfter(List<Object> values) {
+        requireNonNull(values, "values");
+        checkArgument(!values.isEmpty(), "values cannot be empty");
+        this.searchAfter = ImmutableList.copyOf(values);
+        return this;
+    }
+
     public SearchBuilder query(QueryBuilder queryBuilder) {
         checkState(this.queryBuilder == null, "queryBuilder is already set");
         this.queryBuilder = requireNonNull(queryBuilder, "queryBuilder");
@@ -76,6 +89,10 @@ public final class SearchBuilder {
     }
 
     public Search build() {
+        checkState(
+            searchAfter == null || from == null || from == 0, "from must be 0 when searchAfter is set, but was %s", from);
+        checkState(searchAfter == null || sort != null, "sort is required when searchAfter is set");
+
         final Sorts sorts;
         if (sort == null) {
             sorts = null;
@@ -97,7 +114,7 @@ public final class SearchBuilder {
         }
 
         return new Search(
-            from, size, query, sorts, aggregations
+            from, size, query, sorts, aggregations, searchAfter
         );
     }
 
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkProcessor.Holder;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkResponseParser.FailedItem;
+import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkProcessorTest {
+    private BulkProcessor processor;
+
+    @Before
+    public void setUp() {
+        processor = BulkProcessor.builder()
+                                 .bulkActions(4)
+                                 .flushInterval(Duration.ofHours(1))
+                                 .retryBackoff(Duration.ZERO)
+                                 .build(new AtomicReference<>());
+    }
+
+    @Test
+    public void drainRespectsBulkActions() {
+        add("1");
+        add("2");
+        add("3");
+        final List<Holder> first = processor.drain(System.currentTimeMillis());
+        assertThat(first).hasSize(3);
+        processor.handlePartialFailures(first, failures(first.size(), 429));
+
+        add("4");
+        add("5");
+        add("6");
+        final long now = System.currentTimeMillis() + 1;
+        // Half of the batch for the retries, the rest for the new requests.
+        assertThat(processor.drain(now)).hasSize(4);
+        assertThat(processor.drain(now)).hasSize(2);
+        assertThat(processor.drain(now)).isEmpty();
+    }
+
+    @Test
+    public void onlyRetryableFailuresAreRetried() {
+        final CompletableFuture<Void> rejected = add("1");
+        final CompletableFuture<Void> invalid = add("2");
+        final List<Holder> batch = processor.drain(System.currentTimeMillis());
+        processor.handlePartialFailures(batch, Collections.singletonList(new FailedItem(1, "i", 400, "x", "y")));
+
+        assertThat(rejected).isCompleted();
+        assertThat(invalid).isCompletedExceptionally();
+        assertThat(invalid.handle((ignored, t) -> t).join())
+            .isInstanceOfSatisfying(BulkItemFailedException.class, e -> assertThat(e.isRetryable()).isFalse());
+        assertThat(processor.drain(System.currentTimeMillis() + 1)).isEmpty();
+    }
+
+    @Test
+    public void supersededRetryIsDropped() {
+        final CompletableFuture<Void> stale = add("1");
+        final List<Holder> batch = processor.drain(System.currentTimeMillis());
+        processor.handlePartialFailures(batch, failures(batch.size(), 429));
+        assertThat(stale).isNotDone();
+
+        final CompletableFuture<Void> fresh = add("1");
+        final List<Holder> next = processor.drain(System.currentTimeMillis() + 1);
+        assertThat(next).hasSize(1);
+        assertThat(stale).isCompleted();
+        assertThat(fresh).isNotDone();
+    }
+
+    private CompletableFuture<Void> add(final String id) {
+        return processor.add(IndexRequest.builder().index("i").type("_doc").id(id)
+                                         .doc(Collections.emptyMap()).build());
+    }
+
+    private static List<FailedItem> failures(final int size, final int status) {
+        return IntStream.range(0, size)
+                        .mapToObj(i -> new FailedItem(i, "i", status, "x", "y"))
+                        .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkResponseParser.FailedItem;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkResponseParserTest {
+    @Test
+    public void noFailureWhenErrorsIsFalse() throws IOException {
+        final List<FailedItem> failures = BulkResponseParser.parseFailures(stream(
+            "{\"took\":3,\"errors\":false,\"items\":[{\"index\":{\"_index\":\"a\",\"status\":201}}]}"));
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    public void onlyFailedItemsArePicked() throws IOException {
+        final List<FailedItem> failures = BulkResponseParser.parseFailures(stream(
+            "{\"took\":3,\"errors\":true,\"items\":["
+                + "{\"index\":{\"_index\":\"sw_metrics-all-20220801\",\"_id\":\"1\",\"status\":201,"
+                + "\"_shards\":{\"total\":2,\"successful\":1,\"failed\":0}}},"
+                + "{\"index\":{\"_index\":\"sw_metrics-all-20220801\",\"_id\":\"2\",\"status\":429,"
+                + "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\","
+                + "\"caused_by\":{\"type\":\"x\"}}}},"
+                + "{\"update\":{\"_index\":\"sw_records-all\",\"_id\":\"3\",\"status\":200}},"
+                + "{\"update\":{\"_index\":\"sw_records-all\",\"_id\":\"4\",\"status\":409,"
+                + "\"error\":{\"type\":\"version_conflict_engine_exception\",\"reason\":\"conflict\"}}}"
+                + "]}"));
+
+        assertThat(failures).hasSize(2);
+        assertThat(failures.get(0).getPosition()).isEqualTo(1);
+        assertThat(failures.get(0).getIndex()).isEqualTo("sw_metrics-all-20220801");
+        assertThat(failures.get(0).getStatus()).isEqualTo(429);
+        assertThat(failures.get(0).getErrorType()).isEqualTo("es_rejected_execution_exception");
+        assertThat(failures.get(0).getReason()).isEqualTo("rejected");
+        assertThat(failures.get(1).getPosition()).isEqualTo(3);
+        assertThat(failures.get(1).getIndex()).isEqualTo("sw_records-all");
+        assertThat(failures.get(1).getStatus()).isEqualTo(409);
+        assertThat(failures.get(1).getErrorType()).isEqualTo("version_conflict_engine_exception");
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.skywalking.library.elasticsearch.requests.search;
 
+import java.util.Arrays;
+import org.apache.skywalking.library.elasticsearch.requests.factory.v7.codec.V7Codec;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,4 +59,26 @@ public class SearchBuilderTest {
         final SearchBuilder searchBuilder = Search.builder().query(Query.bool().build());
         searchBuilder.query(Query.bool());
     }
+
+    @Test
+    public void searchAfterShouldBeEncoded() throws Exception {
+        final Search search = Search.builder()
+                                    .sort("start_time", Sort.Order.DESC)
+                                    .sort("segment_id", Sort.Order.DESC)
+                                    .searchAfter(Arrays.asList(1656000000000L, "segment-1"))
+                                    .size(20)
+                                    .build();
+        assertThat(new String(V7Codec.INSTANCE.encode(search)))
+            .contains("\"search_after\":[1656000000000,\"segment-1\"]")
+            .doesNotContain("\"from\"");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void searchAfterShouldNotBeSetWithFrom() {
+        Search.builder()
+              .sort("start_time", Sort.Order.DESC)
+              .searchAfter(Arrays.asList(1656000000000L, "segment-1"))
+              .from(20)
+              .build();
+    }
 }
@@ -27,6 +27,7 @@ import com.linecorp.armeria.server.graphql.GraphqlService;
 import graphql.analysis.MaxQueryComplexityInstrumentation;
 import graphql.schema.GraphQLSchema;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.query.graphql.resolver.MetricsValuesBatchLoader;
 
 @Slf4j
 public class GraphQLQueryHandler {
@@ -34,7 +35,8 @@ public class GraphQLQueryHandler {
 
     public GraphQLQueryHandler(
         final GraphQLQueryConfig config,
-        final GraphQLSchema schema) {
+        final GraphQLSchema schema,
+        final MetricsValuesBatchLoader metricsValuesBatchLoader) {
         final int allowedComplexity = config.getMaxQueryComplexity();
         graphqlService =
             GraphqlService
@@ -47,6 +49,10 @@ public class GraphQLQueryHandler {
                         info.getComplexity());
                     return true;
                 }))
+                // The registry is shared by all requests, the loaders registered here must not cache values.
+                .configureDataLoaderRegistry(
+                    registry -> registry.register(
+                        MetricsValuesBatchLoader.NAME, metricsValuesBatchLoader.newDataLoader()))
                 .build();
     }
 
@@ -89,7 +89,7 @@ public class MetricQuery implements GraphQLQueryResolver {
         condition.setName(metrics.getName());
         condition.setEntity(new MockEntity(metrics.getId()));
 
-        final MetricsValues metricsValues = query.readMetricsValues(condition, duration);
+        final MetricsValues metricsValues = query.readMetricsValues(condition, duration, null).join();
         return metricsValues.getValues();
     }
 
@@ -104,7 +104,7 @@ public class MetricQuery implements GraphQLQueryResolver {
             labels.add(String.valueOf(i));
         }
 
-        final List<MetricsValues> metricsValues = query.readLabeledMetricsValues(condition, labels, duration);
+        final List<MetricsValues> metricsValues = query.readLabeledMetricsValues(condition, labels, duration, null).join();
         List<IntValues> response = new ArrayList<>(metricsValues.size());
         labels.forEach(l -> metricsValues.stream()
                                          .filter(m -> m.getLabel().equals(l))
@@ -123,7 +123,7 @@ public class MetricQuery implements GraphQLQueryResolver {
         List<String> labels = new ArrayList<>(linearIndex.size());
         linearIndex.forEach(i -> labels.add(String.valueOf(i)));
 
-        final List<MetricsValues> metricsValues = query.readLabeledMetricsValues(condition, labels, duration);
+        final List<MetricsValues> metricsValues = query.readLabeledMetricsValues(condition, labels, duration, null).join();
         List<IntValues> response = new ArrayList<>(metricsValues.size());
         labels.forEach(l -> metricsValues.stream()
                                          .filter(m -> m.getLabel().equals(l))
@@ -19,10 +19,12 @@
 package org.apache.skywalking.oap.query.graphql.resolver;
 
 import graphql.kickstart.tools.GraphQLQueryResolver;
+import graphql.schema.DataFetchingEnvironment;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.query.AggregationQueryService;
@@ -34,12 +36,14 @@ import org.apache.skywalking.oap.server.core.query.TopNRecordsQueryService;
 import org.apache.skywalking.oap.server.core.query.enumeration.MetricsType;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
 import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
 import org.apache.skywalking.oap.server.core.query.type.KVInt;
 import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
 import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.dataloader.DataLoader;
 
 /**
  * Metrics v2 query protocol implementation.
@@ -122,8 +126,12 @@ public class MetricsQuery implements GraphQLQueryResolver {
 
     /**
      * Read time-series values in the duration of required metrics
+     *
+     * @param env provides the {@link MetricsValuesBatchLoader} of the request, read directly when it is null.
      */
-    public MetricsValues readMetricsValues(MetricsCondition condition, Duration duration) throws IOException {
+    public CompletableFuture<MetricsValues> readMetricsValues(MetricsCondition condition,
+                                                              Duration duration,
+                                                              DataFetchingEnvironment env) throws IOException {
         if (MetricsType.UNKNOWN.equals(typeOfMetrics(condition.getName())) || !condition.getEntity().isValid()) {
             final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
             MetricsValues values = new MetricsValues();
@@ -136,9 +144,13 @@ public class MetricsQuery implements GraphQLQueryResolver {
                 kvInt.setValue(0);
                 values.getValues().addKVInt(kvInt);
             });
-            return values;
+            return CompletableFuture.completedFuture(values);
+        }
+        final DataLoader<MetricsValuesCondition, List<MetricsValues>> loader = getBatchLoader(env);
+        if (loader == null) {
+            return CompletableFuture.completedFuture(getMetricsQueryService().readMetricsValues(condition, duration));
         }
-        return getMetricsQueryService().readMetricsValues(condition, duration);
+        return loader.load(new MetricsValuesCondition(condition, null, duration)).thenApply(values -> values.get(0));
     }
 
     /**
@@ -155,10 +167,12 @@ public class MetricsQuery implements GraphQLQueryResolver {
      * Read value in the given time duration, usually as a linear.
      *
      * @param labels the labels you need to query.
+     * @param env    provides the {@link MetricsValuesBatchLoader} of the request, read directly when it is null.
      */
-    public List<MetricsValues> readLabeledMetricsValues(MetricsCondition condition,
-                                                        List<String> labels,
-                                                        Duration duration) throws IOException {
+    public CompletableFuture<List<MetricsValues>> readLabeledMetricsValues(MetricsCondition condition,
+                                                                           List<String> labels,
+                                                                           Duration duration,
+                                                                           DataFetchingEnvironment env) throws IOException {
         if (MetricsType.UNKNOWN.equals(typeOfMetrics(condition.getName())) || !condition.getEntity().isValid()) {
             final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
 
@@ -177,9 +191,18 @@ public class MetricsQuery implements GraphQLQueryResolver {
                 values.setLabel(label);
                 labeledValues.add(values);
             });
-            return labeledValues;
+            return CompletableFuture.completedFuture(labeledValues);
+        }
+        final DataLoader<MetricsValuesCondition, List<MetricsValues>> loader = getBatchLoader(env);
+        if (loader == null) {
+            return CompletableFuture.completedFuture(
+                getMetricsQueryService().readLabeledMetricsValues(condition, labels, duration));
         }
-        return getMetricsQueryService().readLabeledMetricsValues(condition, labels, duration);
+        return loader.load(new MetricsValuesCondition(condition, labels, duration));
+    }
+
+    private DataLoader<MetricsValuesCondition, List<MetricsValues>> getBatchLoader(DataFetchingEnvironment env) {
+        return env == null ? null : env.getDataLoader(MetricsValuesBatchLoader.NAME);
     }
 
     /**
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.query.graphql.resolver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.query.MetricsQueryService;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
+import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.dataloader.BatchLoader;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.Try;
+
+/**
+ * MetricsValuesBatchLoader collects the time-series values reads of one GraphQL execution, such as the widgets of a
+ * dashboard, and reads them from the storage in one batch rather than one round trip per field.
+ * <p>
+ * The values of every condition are completed separately. If the batch fails, the conditions are read again grouped
+ * by the metrics, so a failed read fails the fields of its metrics only, rather than the whole dashboard.
+ *
+ * @since 9.2.0
+ */
+@Slf4j
+public class MetricsValuesBatchLoader implements BatchLoader<MetricsValuesCondition, Try<List<MetricsValues>>> {
+    public static final String NAME = "metricsValues";
+
+    private final ModuleManager moduleManager;
+    private MetricsQueryService metricsQueryService;
+
+    public MetricsValuesBatchLoader(ModuleManager moduleManager) {
+        this.moduleManager = moduleManager;
+    }
+
+    private MetricsQueryService getMetricsQueryService() {
+        if (metricsQueryService == null) {
+            this.metricsQueryService = moduleManager.find(CoreModule.NAME)
+                                                    .provider()
+                                                    .getService(MetricsQueryService.class);
+        }
+        return metricsQueryService;
+    }
+
+    @Override
+    public CompletionStage<List<Try<List<MetricsValues>>>> load(final List<MetricsValuesCondition> conditions) {
+        final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            groups.computeIfAbsent(conditions.get(i).getCondition().getName(), name -> new ArrayList<>()).add(i);
+        }
+        final List<Try<List<MetricsValues>>> result = new ArrayList<>(Collections.nCopies(conditions.size(), null));
+        try {
+            final List<List<MetricsValues>> values = getMetricsQueryService().readMetricsValues(conditions);
+            for (int i = 0; i < values.size(); i++) {
+                result.set(i, Try.succeeded(values.get(i)));
+            }
+            return CompletableFuture.completedFuture(result);
+        } catch (IOException | RuntimeException e) {
+            if (groups.size() == 1) {
+                Collections.fill(result, Try.failed(e));
+                return CompletableFuture.completedFuture(result);
+            }
+            log.warn("Failed to read the values of {} metrics in one batch, read them one by one", groups.size(), e);
+        }
+
+        groups.values().forEach(indexes -> {
+            final List<MetricsValuesCondition> group = new ArrayList<>(indexes.size());
+            indexes.forEach(i -> group.add(conditions.get(i)));
+            try {
+                final List<List<MetricsValues>> values = getMetricsQueryService().readMetricsValues(group);
+                for (int i = 0; i < indexes.size(); i++) {
+                    result.set(indexes.get(i), Try.succeeded(values.get(i)));
+                }
+            } catch (IOException | RuntimeException e) {
+                indexes.forEach(i -> result.set(i, Try.failed(e)));
+            }
+        });
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * The loader is shared by all requests of the GraphQL service, so the values must not be cached, otherwise, a
+     * request could read the stale values loaded by another one.
+     */
+    public DataLoader<MetricsValuesCondition, List<MetricsValues>> newDataLoader() {
+        return DataLoaderFactory.newDataLoaderWithTry(this, DataLoaderOptions.newOptions().setCachingEnabled(false));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.query.graphql.resolver;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.query.MetricsQueryService;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
+import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.dataloader.DataLoader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MetricsValuesBatchLoaderTest {
+    @Mock
+    private ModuleManager moduleManager;
+
+    @Mock
+    private MetricsQueryService metricsQueryService;
+
+    @Before
+    public void setup() {
+        final ModuleProviderHolder m = mock(ModuleProviderHolder.class);
+        when(moduleManager.find(CoreModule.NAME)).thenReturn(m);
+        final ModuleServiceHolder s = mock(ModuleServiceHolder.class);
+        when(m.provider()).thenReturn(s);
+        when(s.getService(MetricsQueryService.class)).thenReturn(metricsQueryService);
+    }
+
+    @Test
+    public void testLoadInOneBatch() throws IOException {
+        final MetricsValues regular = new MetricsValues();
+        final MetricsValues labeled = new MetricsValues();
+        labeled.setLabel("50");
+        when(metricsQueryService.readMetricsValues(anyList())).thenReturn(Arrays.asList(
+            Collections.singletonList(regular), Collections.singletonList(labeled)));
+
+        final DataLoader<MetricsValuesCondition, List<MetricsValues>> loader =
+            new MetricsValuesBatchLoader(moduleManager).newDataLoader();
+        final CompletableFuture<List<MetricsValues>> first = loader.load(
+            new MetricsValuesCondition(new MetricsCondition(), null, new Duration()));
+        final CompletableFuture<List<MetricsValues>> second = loader.load(
+            new MetricsValuesCondition(new MetricsCondition(), Collections.singletonList("50"), new Duration()));
+        loader.dispatchAndJoin();
+
+        verify(metricsQueryService, times(1)).readMetricsValues(anyList());
+        Assert.assertSame(regular, first.join().get(0));
+        Assert.assertSame(labeled, second.join().get(0));
+    }
+
+    @Test
+    public void testLoadFailure() throws IOException {
+        when(metricsQueryService.readMetricsValues(anyList())).thenThrow(new IOException("storage unavailable"));
+
+        final DataLoader<MetricsValuesCondition, List<MetricsValues>> loader =
+            new MetricsValuesBatchLoader(moduleManager).newDataLoader();
+        final CompletableFuture<List<MetricsValues>> values = loader.load(
+            new MetricsValuesCondition(new MetricsCondition(), null, new Duration()));
+        loader.dispatchAndJoin();
+
+        try {
+            values.join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testFailureIsolatedByMetrics() throws IOException {
+        final MetricsValues healthy = new MetricsValues();
+        when(metricsQueryService.readMetricsValues(anyList())).thenAnswer(invocation -> {
+            final List<MetricsValuesCondition> conditions = invocation.getArgument(0);
+            if (conditions.stream().anyMatch(c -> "broken".equals(c.getCondition().getName()))) {
+                throw new IOException("index unavailable");
+            }
+            return Collections.nCopies(conditions.size(), Collections.singletonList(healthy));
+        });
+
+        final DataLoader<MetricsValuesCondition, List<MetricsValues>> loader =
+            new MetricsValuesBatchLoader(moduleManager).newDataLoader();
+        final CompletableFuture<List<MetricsValues>> first = loader.load(condition("healthy"));
+        final CompletableFuture<List<MetricsValues>> broken = loader.load(condition("broken"));
+        final CompletableFuture<List<MetricsValues>> second = loader.load(condition("healthy"));
+        loader.dispatchAndJoin();
+
+        // The batch, then the conditions of every metrics.
+        verify(metricsQueryService, times(3)).readMetricsValues(anyList());
+        Assert.assertSame(healthy, first.join().get(0));
+        Assert.assertSame(healthy, second.join().get(0));
+        try {
+            broken.join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static MetricsValuesCondition condition(String name) {
+        final MetricsCondition condition = new MetricsCondition();
+        condition.setName(name);
+        return new MetricsValuesCondition(condition, null, new Duration());
+    }
+}
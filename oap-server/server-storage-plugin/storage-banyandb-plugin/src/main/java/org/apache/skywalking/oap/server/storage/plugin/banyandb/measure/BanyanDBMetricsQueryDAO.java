@@ -164,7 +164,7 @@ public class BanyanDBMetricsQueryDAO extends AbstractBanyanDBDAO implements IMet
         for (final Map.Entry<String, DataPoint> entry : idMap.entrySet()) {
             dataTableMap.put(
                     entry.getKey(),
-                    new DataTable(entry.getValue().getFieldValue(valueColumnName))
+                    new DataTable((String) entry.getValue().getFieldValue(valueColumnName))
             );
         }
 
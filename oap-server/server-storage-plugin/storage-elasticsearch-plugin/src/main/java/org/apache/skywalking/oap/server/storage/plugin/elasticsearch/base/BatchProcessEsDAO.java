@@ -20,7 +20,9 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkItemFailedException;
 import org.apache.skywalking.library.elasticsearch.bulk.BulkProcessor;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
@@ -81,4 +83,21 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
         }
         return CompletableFuture.completedFuture(null);
     }
+
+    @Override
+    public boolean isRetryable(Throwable failure) {
+        if (failure instanceof BulkItemFailedException) {
+            return ((BulkItemFailedException) failure).isRetryable();
+        }
+        return true;
+    }
+
+    /**
+     * The requests are buffered by the bulk processor up to the flush interval, and the documents are searchable after
+     * the index refresh.
+     */
+    @Override
+    public long getQueryableDelay() {
+        return TimeUnit.SECONDS.toMillis(flushInterval + StorageEsInstaller.getIndexRefreshInterval(flushInterval));
+    }
 }
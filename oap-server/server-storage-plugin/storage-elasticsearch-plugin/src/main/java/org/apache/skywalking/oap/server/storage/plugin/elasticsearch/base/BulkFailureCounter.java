@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkFailureListener;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * Count the items rejected in the bulk requests, per index, error type and whether they are retried or dropped.
+ */
+@RequiredArgsConstructor
+public class BulkFailureCounter implements BulkFailureListener {
+    /**
+     * The time bucket suffix of the physical index name, removed to keep the cardinality of the index tag stable.
+     */
+    private static final Pattern TIME_BUCKET_SUFFIX = Pattern.compile("-\\d{8}$");
+
+    private final MetricsCreator metricsCreator;
+    private final Map<String, CounterMetrics> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onFailure(final String index, final String errorType, final boolean retrying) {
+        final String logicIndex = index == null ? "unknown" : TIME_BUCKET_SUFFIX.matcher(index).replaceFirst("");
+        final String action = retrying ? "retry" : "drop";
+        counters.computeIfAbsent(
+            logicIndex + ":" + errorType + ":" + action,
+            key -> metricsCreator.createCounter(
+                "elasticsearch_bulk_failed_items", "The number of items failed in the ElasticSearch bulk requests",
+                new MetricsTag.Keys("index", "error_type", "action"),
+                new MetricsTag.Values(logicIndex, errorType, action)
+            )
+        ).inc();
+    }
+}
@@ -25,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 
 /**
  * The metrics data, that generated by OAL or MAL, would be partitioned to storage by the functions of the OAL or MAL.
@@ -76,6 +77,15 @@ public enum IndexController {
         return columns;
     }
 
+    /**
+     * Same as {@link #appendMetricTableColumn(Model, Map)}, for the converters writing the fields directly.
+     */
+    public void appendMetricTableColumn(Model model, Convert2Storage<?> converter) {
+        if (isMetricModel(model)) {
+            converter.accept(LogicIndicesRegister.METRIC_TABLE_NAME, model.getName());
+        }
+    }
+
     public static class LogicIndicesRegister {
 
         /**
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.HashMapConverter;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * Streaming converter, collects the fields into a {@link DocumentSource}, which is written into the bulk body directly.
+ * The output is the same as serializing the map of {@link HashMapConverter.ToStorage}, byte array is written as BASE64
+ * string too, and the value accepted at last wins for the same field, but no intermediate map or JSON string is
+ * created.
+ * <p>
+ * The mutable values are copied when they are accepted, so the document holds the values at the time the request is
+ * prepared.
+ */
+public class JsonDocumentConverter implements Convert2Storage<DocumentSource> {
+    private final DocumentSource document = new DocumentSource(32);
+
+    @Override
+    public void accept(final String fieldName, final Object fieldValue) {
+        if (fieldValue instanceof StorageDataComplexObject) {
+            document.put(fieldName, ((StorageDataComplexObject<?>) fieldValue).toStorageData());
+        } else if (fieldValue instanceof List) {
+            document.put(fieldName, new ArrayList<>((List<?>) fieldValue));
+        } else {
+            document.put(fieldName, fieldValue);
+        }
+    }
+
+    @Override
+    public void accept(final String fieldName, final byte[] fieldValue) {
+        document.put(fieldName, fieldValue == null ? new byte[0] : fieldValue);
+    }
+
+    @Override
+    public void accept(final String fieldName, final List<String> fieldValue) {
+        this.accept(fieldName, (Object) fieldValue);
+    }
+
+    @Override
+    public Object get(final String fieldName) {
+        return document.get(fieldName);
+    }
+
+    @Override
+    public DocumentSource obtain() {
+        return document;
+    }
+}
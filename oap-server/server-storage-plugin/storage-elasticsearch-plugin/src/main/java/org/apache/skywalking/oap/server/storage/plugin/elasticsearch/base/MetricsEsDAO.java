@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
 import org.apache.skywalking.library.elasticsearch.response.search.SearchResponse;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
@@ -36,7 +37,6 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSear
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.IndicesMetadataCache;
-import org.joda.time.DateTime;
 
 import static java.util.stream.Collectors.groupingBy;
 
@@ -101,23 +101,27 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
     @Override
     public InsertRequest prepareBatchInsert(Model model, Metrics metrics) {
-        final HashMapConverter.ToStorage toStorage = new HashMapConverter.ToStorage();
-        storageBuilder.entity2Storage(metrics, toStorage);
-        Map<String, Object> builder = IndexController.INSTANCE.appendMetricTableColumn(model, toStorage.obtain());
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
         String id = IndexController.INSTANCE.generateDocId(model, metrics.id());
-        return getClient().prepareInsert(modelName, id, builder);
+        return getClient().prepareInsert(modelName, id, buildDocument(model, metrics));
     }
 
     @Override
     public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) {
-        final HashMapConverter.ToStorage toStorage = new HashMapConverter.ToStorage();
-        storageBuilder.entity2Storage(metrics, toStorage);
-        Map<String, Object> builder =
-            IndexController.INSTANCE.appendMetricTableColumn(model, toStorage.obtain());
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
         String id = IndexController.INSTANCE.generateDocId(model, metrics.id());
-        return getClient().prepareUpdate(modelName, id, builder);
+        return getClient().prepareUpdate(modelName, id, buildDocument(model, metrics));
+    }
+
+    /**
+     * Collect the fields in the persistence thread, the cached metrics keep being combined after the request is
+     * prepared, and the fields are written into the bulk body when it is flushed.
+     */
+    private DocumentSource buildDocument(Model model, Metrics metrics) {
+        final JsonDocumentConverter converter = new JsonDocumentConverter();
+        storageBuilder.entity2Storage(metrics, converter);
+        IndexController.INSTANCE.appendMetricTableColumn(model, converter);
+        return converter.obtain();
     }
 
     @Override
@@ -132,7 +136,7 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
         if (currentTimeMillis - metricTimestamp < TimeUnit.DAYS.toMillis(ttl - 1)) {
             return false;
         }
-        final long deadline = Long.parseLong(new DateTime(currentTimeMillis).plusDays(-ttl).toString("yyyyMMdd"));
+        final long deadline = TimeBucket.plusDays(TimeBucket.getTimeBucket(currentTimeMillis, DownSampling.Day), -ttl);
         final long timeBucket = TimeBucket.getTimeBucket(metricTimestamp, DownSampling.Day);
         // If time bucket is earlier or equals(mostly) the deadline, then the cached metric is expired.
         if (timeBucket <= deadline) {
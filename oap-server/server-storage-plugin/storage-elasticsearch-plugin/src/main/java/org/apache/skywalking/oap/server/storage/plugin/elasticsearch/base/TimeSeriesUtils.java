@@ -18,12 +18,16 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.query.PointOfTime;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.joda.time.DateTime;
 import org.joda.time.Days;
@@ -40,6 +44,7 @@ public class TimeSeriesUtils {
      * #DAY_STEP} is consistently no matter whenever the OAP starts up.
      */
     private static final DateTime DAY_ONE = TIME_BUCKET_FORMATTER.parseDateTime("20000101");
+    private static final long DAY_ONE_EPOCH_DAY = TimeBucket.epochDayOf(20000101);
     @Setter
     private static int DAY_STEP = 1;
     @Setter
@@ -105,6 +110,37 @@ public class TimeSeriesUtils {
         }
     }
 
+    /**
+     * @return the names of the indices hosting the metrics of the given duration, which are the same as {@link
+     * #writeIndexName(Model, long)} of every point of the duration. All down samplings of one metrics are in the same
+     * daily index, so the step of the duration decides how to get the day of the points.
+     */
+    public static String[] metricsIndexNames(String tableName, Duration duration) {
+        Set<String> indexNames = new LinkedHashSet<>();
+        for (PointOfTime pointOfTime : duration.assembleDurationPoints()) {
+            long timeBucket = pointOfTime.getPoint();
+            long dayTimeBucket;
+            switch (duration.getStep()) {
+                case DAY:
+                    dayTimeBucket = timeBucket;
+                    break;
+                case HOUR:
+                    dayTimeBucket = timeBucket / 100;
+                    break;
+                case MINUTE:
+                    dayTimeBucket = timeBucket / 10000;
+                    break;
+                case SECOND:
+                    dayTimeBucket = timeBucket / 1000000;
+                    break;
+                default:
+                    throw new UnexpectedException("Unexpected step value, " + duration.getStep());
+            }
+            indexNames.add(tableName + Const.LINE + compressTimeBucket(dayTimeBucket, DAY_STEP));
+        }
+        return indexNames.toArray(new String[0]);
+    }
+
     /**
      * @return the index represented time, which is included in the index name.
      */
@@ -122,10 +158,9 @@ public class TimeSeriesUtils {
      */
     static long compressTimeBucket(long timeBucket, int dayStep) {
         if (dayStep > 1) {
-            DateTime time = TIME_BUCKET_FORMATTER.parseDateTime("" + timeBucket);
-            int days = Days.daysBetween(DAY_ONE, time).getDays();
-            int groupBucketOffset = days % dayStep;
-            return Long.parseLong(time.minusDays(groupBucketOffset).toString(TIME_BUCKET_FORMATTER));
+            long epochDay = TimeBucket.epochDayOf(timeBucket);
+            long groupBucketOffset = (epochDay - DAY_ONE_EPOCH_DAY) % dayStep;
+            return TimeBucket.civilOf(epochDay - groupBucketOffset);
         } else {
             /*
              * No calculation required. dayStep is for lower traffic. For normally configuration, there is pointless to calculate.
@@ -33,6 +33,7 @@ import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.query.PaginationUtils;
 import org.apache.skywalking.oap.server.core.query.enumeration.Order;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.type.Pagination;
 import org.apache.skywalking.oap.server.core.query.type.event.EventQueryCondition;
 import org.apache.skywalking.oap.server.core.query.type.event.EventType;
 import org.apache.skywalking.oap.server.core.query.type.event.Events;
@@ -55,16 +56,16 @@ public class ESEventQueryDAO extends EsDAO implements IEventQueryDAO {
     @Override
     public Events queryEvents(final EventQueryCondition condition) throws Exception {
         final SearchBuilder sourceBuilder = buildQuery(condition);
-        return getEventsResultByCurrentBuilder(sourceBuilder);
+        return getEventsResultByCurrentBuilder(sourceBuilder, condition.getPaging());
     }
 
     @Override
     public Events queryEvents(List<EventQueryCondition> conditionList) throws Exception {
         final SearchBuilder sourceBuilder = buildQuery(conditionList);
-        return getEventsResultByCurrentBuilder(sourceBuilder);
+        return getEventsResultByCurrentBuilder(sourceBuilder, conditionList.get(0).getPaging());
     }
 
-    private Events getEventsResultByCurrentBuilder(final SearchBuilder searchBuilder)
+    private Events getEventsResultByCurrentBuilder(final SearchBuilder searchBuilder, final Pagination paging)
         throws IOException {
         final String index =
             IndexController.LogicIndicesRegister.getPhysicalTableName(Event.INDEX_NAME);
@@ -73,6 +74,7 @@ public class ESEventQueryDAO extends EsDAO implements IEventQueryDAO {
         events.setEvents(response.getHits().getHits().stream()
                                  .map(this::parseSearchHit)
                                  .collect(Collectors.toList()));
+        events.setNextCursor(SearchAfterCursor.next(response, PaginationUtils.INSTANCE.exchange(paging).getLimit()));
         return events;
     }
 
@@ -133,13 +135,7 @@ public class ESEventQueryDAO extends EsDAO implements IEventQueryDAO {
         final Order queryOrder = isNull(condition.getOrder()) ? Order.DES : condition.getOrder();
         final PaginationUtils.Page page = PaginationUtils.INSTANCE.exchange(condition.getPaging());
 
-        return Search.builder().query(query)
-                     .sort(
-                         Event.START_TIME,
-                         Order.DES.equals(queryOrder) ? Sort.Order.DESC : Sort.Order.ASC
-                     )
-                     .from(page.getFrom())
-                     .size(page.getLimit());
+        return page(Search.builder().query(query), queryOrder, page);
     }
 
     protected SearchBuilder buildQuery(final EventQueryCondition condition) {
@@ -150,14 +146,15 @@ public class ESEventQueryDAO extends EsDAO implements IEventQueryDAO {
         final Order queryOrder = isNull(condition.getOrder()) ? Order.DES : condition.getOrder();
         final PaginationUtils.Page page = PaginationUtils.INSTANCE.exchange(condition.getPaging());
 
-        return Search.builder()
-                     .query(query)
-                     .sort(
-                         Event.START_TIME,
-                         Order.DES.equals(queryOrder) ? Sort.Order.DESC : Sort.Order.ASC
-                     )
-                     .from(page.getFrom())
-                     .size(page.getLimit());
+        return page(Search.builder().query(query), queryOrder, page);
+    }
+
+    private SearchBuilder page(final SearchBuilder search, final Order queryOrder, final PaginationUtils.Page page) {
+        final Sort.Order order = Order.DES.equals(queryOrder) ? Sort.Order.DESC : Sort.Order.ASC;
+        search.sort(Event.START_TIME, order)
+              // Break the ties for the search_after paging.
+              .sort(Event.UUID, order);
+        return SearchAfterCursor.page(search, page.getCursor(), page.getFrom(), page.getLimit());
     }
 
     protected org.apache.skywalking.oap.server.core.query.type.event.Event parseSearchHit(
@@ -71,6 +71,26 @@ public class LogQueryEsDAO extends EsDAO implements ILogQueryDAO {
                           final List<Tag> tags,
                           final List<String> keywordsOfContent,
                           final List<String> excludingKeywordsOfContent) throws IOException {
+        return queryLogs(
+            serviceId, serviceInstanceId, endpointId, relatedTrace, queryOrder, from, limit, null, startSecondTB,
+            endSecondTB, tags, keywordsOfContent, excludingKeywordsOfContent
+        );
+    }
+
+    @Override
+    public Logs queryLogs(final String serviceId,
+                          final String serviceInstanceId,
+                          final String endpointId,
+                          final TraceScopeCondition relatedTrace,
+                          final Order queryOrder,
+                          final int from,
+                          final int limit,
+                          final String cursor,
+                          final long startSecondTB,
+                          final long endSecondTB,
+                          final List<Tag> tags,
+                          final List<String> keywordsOfContent,
+                          final List<String> excludingKeywordsOfContent) throws IOException {
         final String index =
             IndexController.LogicIndicesRegister.getPhysicalTableName(LogRecord.INDEX_NAME);
 
@@ -128,15 +148,13 @@ public class LogQueryEsDAO extends EsDAO implements ILogQueryDAO {
             );
         }
 
+        final Sort.Order order = Order.DES.equals(queryOrder) ? Sort.Order.DESC : Sort.Order.ASC;
         final SearchBuilder search =
             Search.builder().query(query)
-                  .sort(
-                      LogRecord.TIMESTAMP,
-                      Order.DES.equals(queryOrder) ?
-                          Sort.Order.DESC : Sort.Order.ASC
-                  )
-                  .size(limit)
-                  .from(from);
+                  .sort(LogRecord.TIMESTAMP, order)
+                  // Break the ties for the search_after paging.
+                  .sort(LogRecord.UNIQUE_ID, order);
+        SearchAfterCursor.page(search, cursor, from, limit);
 
         SearchResponse response = getClient().search(index, search.build());
 
@@ -167,6 +185,7 @@ public class LogQueryEsDAO extends EsDAO implements ILogQueryDAO {
             }
             logs.getLogs().add(log);
         }
+        logs.setNextCursor(SearchAfterCursor.next(response, limit));
         return logs;
     }
 }
@@ -18,11 +18,16 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 
+import com.google.common.collect.Iterables;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 import org.apache.skywalking.library.elasticsearch.requests.search.Query;
 import org.apache.skywalking.library.elasticsearch.requests.search.RangeQueryBuilder;
 import org.apache.skywalking.library.elasticsearch.requests.search.Search;
@@ -38,6 +43,7 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.query.PointOfTime;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
 import org.apache.skywalking.oap.server.core.query.type.IntValues;
@@ -46,10 +52,17 @@ import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
 import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
 import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.IndicesMetadataCache;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexController;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils;
 
 public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
+    /**
+     * The max number of IDs in one query of {@link #readMetricsValues(List)}, which is limited by the max result
+     * window of the index.
+     */
+    private static final int MAX_IDS_PER_QUERY = 10_000;
 
     public MetricsQueryEsDAO(ElasticSearchClient client) {
         super(client);
@@ -98,23 +111,112 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
     public MetricsValues readMetricsValues(final MetricsCondition condition,
                                            final String valueColumnName,
                                            final Duration duration) {
-        String tableName =
-            IndexController.LogicIndicesRegister.getPhysicalTableName(condition.getName());
+        final String[] indexNames = readIndexNames(condition, duration);
+        final List<String> ids = buildIds(condition, duration);
+
+        SearchResponse response = ids(indexNames, ids);
+        return buildMetricsValues(condition, valueColumnName, ids, toMap(response.getHits()));
+    }
+
+    @Override
+    public List<MetricsValues> readLabeledMetricsValues(final MetricsCondition condition,
+                                                        final String valueColumnName,
+                                                        final List<String> labels,
+                                                        final Duration duration) {
+        final String[] indexNames = readIndexNames(condition, duration);
+        final List<String> ids = buildIds(condition, duration);
+
+        SearchResponse response = ids(indexNames, ids);
+        return buildLabeledMetricsValues(condition, valueColumnName, labels, ids, toMap(response.getHits()));
+    }
+
+    /**
+     * Read the documents of the same indices by one IDs query, rather than one query per metrics.
+     */
+    @Override
+    public List<List<MetricsValues>> readMetricsValues(final List<MetricsValuesCondition> conditions) {
+        final List<List<String>> idsOfConditions = new ArrayList<>(conditions.size());
+        final List<List<String>> indicesOfConditions = new ArrayList<>(conditions.size());
+        final Map<List<String>, Set<String>> idsOfIndices = new HashMap<>();
+        for (final MetricsValuesCondition condition : conditions) {
+            final List<String> ids = buildIds(condition.getCondition(), condition.getDuration());
+            final List<String> indexNames =
+                Arrays.asList(readIndexNames(condition.getCondition(), condition.getDuration()));
+            idsOfConditions.add(ids);
+            indicesOfConditions.add(indexNames);
+            idsOfIndices.computeIfAbsent(indexNames, names -> new LinkedHashSet<>()).addAll(ids);
+        }
+
+        final Map<List<String>, Map<String, Map<String, Object>>> idMaps = new HashMap<>();
+        idsOfIndices.forEach((indexNames, ids) -> {
+            final Map<String, Map<String, Object>> idMap = new HashMap<>();
+            for (final List<String> partition : Iterables.partition(ids, MAX_IDS_PER_QUERY)) {
+                idMap.putAll(toMap(ids(indexNames.toArray(new String[0]), partition).getHits()));
+            }
+            idMaps.put(indexNames, idMap);
+        });
+
+        final List<List<MetricsValues>> result = new ArrayList<>(conditions.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            final MetricsCondition condition = conditions.get(i).getCondition();
+            final List<String> labels = conditions.get(i).getLabels();
+            final String valueColumnName = ValueColumnMetadata.INSTANCE.getValueCName(condition.getName());
+            final Map<String, Map<String, Object>> idMap = idMaps.get(indicesOfConditions.get(i));
+            if (labels == null) {
+                result.add(Collections.singletonList(
+                    buildMetricsValues(condition, valueColumnName, idsOfConditions.get(i), idMap)));
+            } else {
+                result.add(
+                    buildLabeledMetricsValues(condition, valueColumnName, labels, idsOfConditions.get(i), idMap));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the daily indices of the metrics in the duration, so the query doesn't fan out to all the indices behind
+     * the alias. Fall back to the alias when any of them is missing in the {@link IndicesMetadataCache}, such as the
+     * index created after the latest refresh of the cache.
+     */
+    private String[] readIndexNames(final MetricsCondition condition, final Duration duration) {
+        final String tableName = IndexController.LogicIndicesRegister.getPhysicalTableName(condition.getName());
+        final String[] indexNames = TimeSeriesUtils.metricsIndexNames(tableName, duration);
+        for (final String indexName : indexNames) {
+            if (!IndicesMetadataCache.INSTANCE.isExisting(getClient().formatIndexName(indexName))) {
+                return new String[] {tableName};
+            }
+        }
+        return indexNames;
+    }
+
+    private SearchResponse ids(final String[] indexNames, final Collection<String> ids) {
+        return getClient().search(
+            () -> indexNames,
+            Search.builder().size(ids.size()).query(Query.ids(ids)).build()
+        );
+    }
+
+    private List<String> buildIds(final MetricsCondition condition, final Duration duration) {
         final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
-        final List<String> ids = pointOfTimes.stream().map(pointOfTime -> {
+        final boolean aggregationMode = IndexController.LogicIndicesRegister.isMetricTable(condition.getName());
+        final List<String> ids = new ArrayList<>(pointOfTimes.size());
+        pointOfTimes.forEach(pointOfTime -> {
             String id = pointOfTime.id(condition.getEntity().buildId());
-            if (IndexController.LogicIndicesRegister.isMetricTable(condition.getName())) {
+            if (aggregationMode) {
                 id = IndexController.INSTANCE.generateDocId(condition.getName(), id);
             }
-            return id;
-        }).collect(Collectors.toList());
+            ids.add(id);
+        });
+        return ids;
+    }
 
+    private MetricsValues buildMetricsValues(final MetricsCondition condition,
+                                             final String valueColumnName,
+                                             final List<String> ids,
+                                             final Map<String, Map<String, Object>> idMap) {
         MetricsValues metricsValues = new MetricsValues();
 
-        SearchResponse response = getClient().ids(tableName, ids);
-        if (!response.getHits().getHits().isEmpty()) {
-            Map<String, Map<String, Object>> idMap = toMap(response.getHits());
-
+        if (!idMap.isEmpty()) {
             // Label is null, because in readMetricsValues, no label parameter.
             IntValues intValues = metricsValues.getValues();
             for (String id : ids) {
@@ -138,58 +240,31 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         return metricsValues;
     }
 
-    @Override
-    public List<MetricsValues> readLabeledMetricsValues(final MetricsCondition condition,
-                                                        final String valueColumnName,
-                                                        final List<String> labels,
-                                                        final Duration duration) {
-        final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
-        String tableName =
-            IndexController.LogicIndicesRegister.getPhysicalTableName(condition.getName());
-        boolean aggregationMode = !tableName.equals(condition.getName());
-        List<String> ids = new ArrayList<>(pointOfTimes.size());
-        pointOfTimes.forEach(pointOfTime -> {
-            String id = pointOfTime.id(condition.getEntity().buildId());
-            if (aggregationMode) {
-                id = IndexController.INSTANCE.generateDocId(condition.getName(), id);
-            }
-            ids.add(id);
-        });
-
-        SearchResponse response = getClient().ids(tableName, ids);
-        Map<String, DataTable> idMap = new HashMap<>();
-
-        if (!response.getHits().getHits().isEmpty()) {
-            for (final SearchHit hit : response.getHits()) {
-                idMap.put(
-                    hit.getId(),
-                    new DataTable((String) hit.getSource().getOrDefault(valueColumnName, ""))
-                );
+    private List<MetricsValues> buildLabeledMetricsValues(final MetricsCondition condition,
+                                                          final String valueColumnName,
+                                                          final List<String> labels,
+                                                          final List<String> ids,
+                                                          final Map<String, Map<String, Object>> idMap) {
+        Map<String, DataTable> dataTables = new HashMap<>();
+        for (final String id : ids) {
+            final Map<String, Object> source = idMap.get(id);
+            if (source != null) {
+                dataTables.put(id, new DataTable((String) source.getOrDefault(valueColumnName, "")));
             }
         }
-        return Util.composeLabelValue(condition, labels, ids, idMap);
+        return Util.composeLabelValue(condition, labels, ids, dataTables);
     }
 
     @Override
     public HeatMap readHeatMap(final MetricsCondition condition,
                                final String valueColumnName,
                                final Duration duration) {
-        final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
-        String tableName =
-            IndexController.LogicIndicesRegister.getPhysicalTableName(condition.getName());
-        boolean aggregationMode = !tableName.equals(condition.getName());
-        List<String> ids = new ArrayList<>(pointOfTimes.size());
-        pointOfTimes.forEach(pointOfTime -> {
-            String id = pointOfTime.id(condition.getEntity().buildId());
-            if (aggregationMode) {
-                id = IndexController.INSTANCE.generateDocId(condition.getName(), id);
-            }
-            ids.add(id);
-        });
+        final String[] indexNames = readIndexNames(condition, duration);
+        final List<String> ids = buildIds(condition, duration);
 
         HeatMap heatMap = new HeatMap();
 
-        SearchResponse response = getClient().ids(tableName, ids);
+        SearchResponse response = ids(indexNames, ids);
         if (response.getHits().getHits().isEmpty()) {
             return heatMap;
         }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import org.apache.skywalking.library.elasticsearch.requests.search.SearchBuilder;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchHit;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchResponse;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
+
+/**
+ * SearchAfterCursor pages the hits through the {@code search_after} of the sort values of the last hit in the previous
+ * page, rather than {@code from}, which makes every shard collect and sort all the skipped hits. The sort values are
+ * encoded into the opaque cursor returned to the client. The sort must end with a unique field to break the ties.
+ */
+public final class SearchAfterCursor {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Object>> SORT_VALUES = new TypeReference<List<Object>>() {
+    };
+
+    private SearchAfterCursor() {
+    }
+
+    /**
+     * Page the search by the cursor if it is given, otherwise by the offset.
+     */
+    public static SearchBuilder page(SearchBuilder search, String cursor, int from, int limit) {
+        search.size(limit);
+        if (StringUtil.isEmpty(cursor)) {
+            return search.from(from);
+        }
+        try {
+            return search.searchAfter(
+                MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), SORT_VALUES));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * @return the cursor of the page after the response, or null if there is no more hit.
+     */
+    public static String next(SearchResponse response, int limit) {
+        final List<SearchHit> hits = response.getHits().getHits();
+        if (limit <= 0 || hits.size() < limit) {
+            return null;
+        }
+        final List<Object> sort = hits.get(hits.size() - 1).getSort();
+        if (CollectionUtils.isEmpty(sort)) {
+            return null;
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sort));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode the sort values " + sort, e);
+        }
+    }
+}
@@ -72,6 +72,27 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                                        TraceState traceState,
                                        QueryOrder queryOrder,
                                        final List<Tag> tags) throws IOException {
+        return queryBasicTraces(
+            startSecondTB, endSecondTB, minDuration, maxDuration, serviceId, serviceInstanceId, endpointId, traceId,
+            limit, from, null, traceState, queryOrder, tags
+        );
+    }
+
+    @Override
+    public TraceBrief queryBasicTraces(long startSecondTB,
+                                       long endSecondTB,
+                                       long minDuration,
+                                       long maxDuration,
+                                       String serviceId,
+                                       String serviceInstanceId,
+                                       String endpointId,
+                                       String traceId,
+                                       int limit,
+                                       int from,
+                                       String cursor,
+                                       TraceState traceState,
+                                       QueryOrder queryOrder,
+                                       final List<Tag> tags) throws IOException {
         final BoolQueryBuilder query = Query.bool();
 
         if (startSecondTB != 0 && endSecondTB != 0) {
@@ -119,12 +140,14 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                 search.sort(SegmentRecord.LATENCY, Sort.Order.DESC);
                 break;
         }
+        // Break the ties for the search_after paging.
+        search.sort(SegmentRecord.SEGMENT_ID, Sort.Order.DESC);
         if (CollectionUtils.isNotEmpty(tags)) {
             BoolQueryBuilder tagMatchQuery = Query.bool();
             tags.forEach(tag -> tagMatchQuery.must(Query.term(SegmentRecord.TAGS, tag.toString())));
             query.must(tagMatchQuery);
         }
-        search.size(limit).from(from);
+        SearchAfterCursor.page(search, cursor, from, limit);
 
         final SearchResponse response = getClient().search(
             new TimeRangeIndexNameGenerator(
@@ -152,6 +175,7 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
             basicTrace.getTraceIds().add((String) searchHit.getSource().get(SegmentRecord.TRACE_ID));
             traceBrief.getTraces().add(basicTrace);
         }
+        traceBrief.setNextCursor(SearchAfterCursor.next(response, limit));
 
         return traceBrief;
     }
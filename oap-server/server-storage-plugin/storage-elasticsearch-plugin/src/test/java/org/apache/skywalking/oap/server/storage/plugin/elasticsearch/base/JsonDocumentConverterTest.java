@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.skywalking.library.elasticsearch.requests.DocumentSource;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.HashMapConverter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonDocumentConverterTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void sameAsHashMapConverter() throws Exception {
+        final Consumer<Convert2Storage> fields = converter -> {
+            converter.accept("string", "value");
+            converter.accept("long", 1234567890123L);
+            converter.accept("int", 12);
+            converter.accept("double", 1.5D);
+            converter.accept("bytes", new byte[] {1, 2, 3, 4, 5});
+            converter.accept("empty_bytes", new byte[0]);
+            converter.accept("list", Arrays.asList("a", "b"));
+            converter.accept("table", new DataTable("k,1"));
+        };
+
+        final HashMapConverter.ToStorage toStorage = new HashMapConverter.ToStorage();
+        fields.accept(toStorage);
+        final Map<String, Object> expected = toStorage.obtain();
+
+        final JsonDocumentConverter converter = new JsonDocumentConverter();
+        fields.accept(converter);
+
+        Assert.assertEquals(MAPPER.readValue(MAPPER.writeValueAsString(expected), Map.class),
+                            MAPPER.readValue(write(converter.obtain()), Map.class));
+        Assert.assertEquals("value", converter.get("string"));
+        Assert.assertEquals(12, converter.get("int"));
+        Assert.assertNull(converter.get("absent"));
+    }
+
+    @Test
+    public void lastValueWins() throws Exception {
+        final JsonDocumentConverter converter = new JsonDocumentConverter();
+        converter.accept("a", 1);
+        converter.accept("b", 2);
+        converter.accept("a", 3);
+
+        Assert.assertEquals("{\"a\":3,\"b\":2}", write(converter.obtain()));
+        Assert.assertEquals(3, converter.get("a"));
+    }
+
+    @Test
+    public void valuesCopiedWhenAccepted() throws Exception {
+        final List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+        final DataTable table = new DataTable("k,1");
+        final JsonDocumentConverter converter = new JsonDocumentConverter();
+        converter.accept("list", list);
+        converter.accept("table", table);
+        // Changes after the request is prepared don't affect the document.
+        list.add("c");
+        table.valueAccumulation("k", 1L);
+
+        final Map<?, ?> document = MAPPER.readValue(write(converter.obtain()), Map.class);
+        Assert.assertEquals(Arrays.asList("a", "b"), document.get("list"));
+        Assert.assertEquals("k,1", document.get("table"));
+    }
+
+    private static String write(DocumentSource document) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (JsonGenerator gen = MAPPER.getFactory().createGenerator(writer)) {
+            document.writeTo(gen);
+        }
+        return writer.toString();
+    }
+}
@@ -20,6 +20,8 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import com.google.common.collect.Lists;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.SQLDatabaseModelExtension;
 import org.junit.Assert;
@@ -27,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.compressTimeBucket;
+import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.metricsIndexNames;
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.writeIndexName;
 
 public class TimeSeriesUtilsTest {
@@ -93,4 +96,32 @@ public class TimeSeriesUtilsTest {
         );
     }
 
+    @Test
+    public void testMetricsIndexNames() {
+        Duration duration = new Duration();
+        duration.setStep(Step.MINUTE);
+        duration.setStart("2020-08-09 2350");
+        duration.setEnd("2020-08-10 0010");
+        Assert.assertArrayEquals(
+            new String[] {"normalMetricsModel-20200807", "normalMetricsModel-20200810"},
+            metricsIndexNames("normalMetricsModel", duration)
+        );
+
+        duration.setStep(Step.HOUR);
+        duration.setStart("2020-08-08 10");
+        duration.setEnd("2020-08-09 10");
+        Assert.assertArrayEquals(
+            new String[] {"normalMetricsModel-20200807"},
+            metricsIndexNames("normalMetricsModel", duration)
+        );
+
+        duration.setStep(Step.DAY);
+        duration.setStart("2020-08-06");
+        duration.setEnd("2020-08-10");
+        Assert.assertArrayEquals(
+            new String[] {"normalMetricsModel-20200804", "normalMetricsModel-20200807", "normalMetricsModel-20200810"},
+            metricsIndexNames("normalMetricsModel", duration)
+        );
+    }
+
 }
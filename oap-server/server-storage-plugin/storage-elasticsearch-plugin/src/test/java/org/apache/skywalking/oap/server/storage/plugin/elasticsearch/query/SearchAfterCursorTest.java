@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import org.apache.skywalking.library.elasticsearch.requests.search.Search;
+import org.apache.skywalking.library.elasticsearch.requests.search.SearchBuilder;
+import org.apache.skywalking.library.elasticsearch.requests.search.Sort;
+import org.apache.skywalking.library.elasticsearch.response.search.SearchResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchAfterCursorTest {
+    private static final ObjectMapper MAPPER =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    public void testNextPage() throws Exception {
+        final SearchResponse response = MAPPER.readValue(
+            "{\"hits\":{\"total\":{\"value\":3},\"hits\":["
+                + "{\"_id\":\"1\",\"_source\":{},\"sort\":[1656000000001,\"segment-1\"]},"
+                + "{\"_id\":\"2\",\"_source\":{},\"sort\":[1656000000000,\"segment-2\"]}]}}",
+            SearchResponse.class
+        );
+        final String cursor = SearchAfterCursor.next(response, 2);
+        Assert.assertNotNull(cursor);
+        Assert.assertNull(SearchAfterCursor.next(response, 3));
+
+        final Search search = SearchAfterCursor.page(builder(), cursor, 20, 2).build();
+        Assert.assertEquals(Arrays.asList(1656000000000L, "segment-2"), search.getSearchAfter());
+        Assert.assertNull(search.getFrom());
+        Assert.assertEquals(Integer.valueOf(2), search.getSize());
+    }
+
+    @Test
+    public void testOffsetPage() {
+        final Search search = SearchAfterCursor.page(builder(), null, 20, 10).build();
+        Assert.assertNull(search.getSearchAfter());
+        Assert.assertEquals(Integer.valueOf(20), search.getFrom());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        SearchAfterCursor.page(builder(), "not a cursor", 0, 10);
+    }
+
+    private static SearchBuilder builder() {
+        return Search.builder()
+                     .sort("start_time", Sort.Order.DESC)
+                     .sort("segment_id", Sort.Order.DESC);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.util.RunnableWithExceptionProtection;
+import org.joda.time.LocalDate;
+
+/**
+ * Manage the day partitions of the record tables, which are partitioned by range of {@link Record#TIME_BUCKET}. Every
+ * partition holds the records of one day, the partitions of the upcoming days are created ahead of time, and the
+ * expired partitions are dropped as a whole, rather than deleting the rows one by one.
+ * <p>
+ * The upcoming partitions of the registered tables are created when the tables are installed and every hour after
+ * that, no matter the TTL timer dropping the expired partitions is enabled or not.
+ * <p>
+ * The query DAOs don't need to know about the partitions, the database prunes to the partitions covering the
+ * time_bucket range of the query.
+ */
+@Slf4j
+public abstract class DayPartitionManager {
+    /**
+     * The number of the days after today, whose partitions are created ahead of time.
+     */
+    public static final int DAYS_IN_ADVANCE = 2;
+
+    private static final String DAY_FORMAT = "yyyyMMdd";
+    private static final Pattern DAY_PARTITION = Pattern.compile("p(\\d{8})$");
+
+    /**
+     * The partitioned tables whose upcoming partitions are created by the schedule.
+     */
+    private final Set<String> tables = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @return the clause following the column definitions in the CREATE TABLE statement, declaring the table is
+     * partitioned by range of time bucket.
+     */
+    public abstract String partitionByClause();
+
+    /**
+     * @return the names of the partitions of the table, or empty if the table is not partitioned.
+     */
+    protected abstract List<String> listPartitions(JDBCHikariCPClient client,
+                                                   Connection connection,
+                                                   String tableName) throws JDBCClientException;
+
+    /**
+     * Add the partition of the records in [lowerBound, upperBound).
+     */
+    protected abstract void addPartition(JDBCHikariCPClient client,
+                                         Connection connection,
+                                         String tableName,
+                                         String partitionName,
+                                         long lowerBound,
+                                         long upperBound) throws JDBCClientException;
+
+    protected abstract void dropPartition(JDBCHikariCPClient client,
+                                          Connection connection,
+                                          String tableName,
+                                          String partitionName) throws JDBCClientException;
+
+    /**
+     * Create the partitions of the table created just now.
+     */
+    public void initializePartitions(JDBCHikariCPClient client,
+                                     Connection connection,
+                                     String tableName,
+                                     LocalDate today) throws JDBCClientException {
+        createDefaultPartition(client, connection, tableName);
+        createUpcomingPartitions(client, connection, tableName, today);
+    }
+
+    /**
+     * Create the upcoming partitions of the installed table now, and keep creating them every hour.
+     */
+    public void register(JDBCHikariCPClient client, String tableName) throws JDBCClientException {
+        try (Connection connection = connection(client)) {
+            createUpcomingPartitions(client, connection, tableName, LocalDate.now());
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+        tables.add(tableName);
+        startSchedule(client);
+    }
+
+    private synchronized void startSchedule(JDBCHikariCPClient client) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "DayPartitionManager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(
+                () -> createUpcomingPartitions(client, LocalDate.now()),
+                t -> log.error("Failed to create the upcoming partitions", t)
+            ), 1, 1, TimeUnit.HOURS
+        );
+    }
+
+    /**
+     * Create the upcoming partitions of all registered tables, the failure of a table doesn't stop the others.
+     */
+    void createUpcomingPartitions(JDBCHikariCPClient client, LocalDate today) {
+        for (final String tableName : tables) {
+            try (Connection connection = connection(client)) {
+                createUpcomingPartitions(client, connection, tableName, today);
+            } catch (JDBCClientException | SQLException e) {
+                log.error("Failed to create the upcoming partitions of table {}", tableName, e);
+            }
+        }
+    }
+
+    protected Connection connection(JDBCHikariCPClient client) throws JDBCClientException {
+        return client.getConnection();
+    }
+
+    /**
+     * Create the partition taking the records out of the ranges of the day partitions, if it is not declared in
+     * {@link #partitionByClause()}.
+     */
+    protected void createDefaultPartition(JDBCHikariCPClient client,
+                                          Connection connection,
+                                          String tableName) throws JDBCClientException {
+    }
+
+    /**
+     * Create the partitions from today to {@link #DAYS_IN_ADVANCE} days later, if not exist.
+     *
+     * @return false if the table is not partitioned, such as the table created before partitioning was activated.
+     */
+    public boolean createUpcomingPartitions(JDBCHikariCPClient client,
+                                            Connection connection,
+                                            String tableName,
+                                            LocalDate today) throws JDBCClientException {
+        final List<String> partitions = listPartitions(client, connection, tableName);
+        if (partitions.isEmpty()) {
+            return false;
+        }
+        final TreeMap<Long, String> days = dayPartitions(partitions);
+        for (int i = 0; i <= DAYS_IN_ADVANCE; i++) {
+            final LocalDate day = today.plusDays(i);
+            final long dayBucket = dayBucket(day);
+            if (!days.containsKey(dayBucket)) {
+                addPartition(
+                    client, connection, tableName, partitionName(tableName, dayBucket), lowerBound(day),
+                    lowerBound(day.plusDays(1))
+                );
+                log.info("Partition of day {} is created in table {}", dayBucket, tableName);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop the partitions of the days before the deadline day, all the records in them are expired.
+     *
+     * @return false if the table is not partitioned.
+     */
+    public boolean dropExpiredPartitions(JDBCHikariCPClient client,
+                                         Connection connection,
+                                         String tableName,
+                                         LocalDate deadline) throws JDBCClientException {
+        final List<String> partitions = listPartitions(client, connection, tableName);
+        if (partitions.isEmpty()) {
+            return false;
+        }
+        for (final String partition : dayPartitions(partitions).headMap(dayBucket(deadline)).values()) {
+            dropPartition(client, connection, tableName, partition);
+            log.info("Expired partition {} is dropped from table {}", partition, tableName);
+        }
+        return true;
+    }
+
+    /**
+     * @return the name of the partition holding the records of the given day, such as p20220808.
+     */
+    protected String partitionName(String tableName, long dayBucket) {
+        return "p" + dayBucket;
+    }
+
+    /**
+     * @return the day partitions indexed and sorted by day, the partitions not belonging to any day are excluded.
+     */
+    static TreeMap<Long, String> dayPartitions(List<String> partitions) {
+        final TreeMap<Long, String> days = new TreeMap<>();
+        for (final String partition : partitions) {
+            final Matcher matcher = DAY_PARTITION.matcher(partition);
+            if (matcher.find()) {
+                days.put(Long.parseLong(matcher.group(1)), partition);
+            }
+        }
+        return days;
+    }
+
+    static long dayBucket(LocalDate day) {
+        return Long.parseLong(day.toString(DAY_FORMAT));
+    }
+
+    /**
+     * @return the smallest time bucket of the records of the day, in the format of yyyyMMddHHmmss.
+     */
+    static long lowerBound(LocalDate day) {
+        return dayBucket(day) * 1_000_000L;
+    }
+}
@@ -97,6 +97,7 @@ public class H2StorageProvider extends ModuleProvider {
 
     private H2StorageConfig config;
     private JDBCHikariCPClient h2Client;
+    private H2BatchDAO batchDAO;
 
     public H2StorageProvider() {
         config = new H2StorageConfig();
@@ -128,7 +129,8 @@ public class H2StorageProvider extends ModuleProvider {
         settings.setProperty("dataSource.password", config.getPassword());
         h2Client = new JDBCHikariCPClient(settings);
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client, config.getMaxSizeOfBatchSql(), config.getAsyncBatchPersistentPoolSize()));
+        batchDAO = new H2BatchDAO(h2Client, config.getMaxSizeOfBatchSql(), config.getAsyncBatchPersistentPoolSize());
+        this.registerServiceImplementation(IBatchDAO.class, batchDAO);
         this.registerServiceImplementation(
             StorageDAO.class,
             new H2StorageDAO(h2Client)
@@ -181,6 +183,7 @@ public class H2StorageProvider extends ModuleProvider {
         HealthCheckMetrics healthChecker = metricCreator.createHealthCheckerGauge(
             "storage_h2", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         h2Client.registerChecker(healthChecker);
+        batchDAO.registerMetricsCreator(metricCreator);
         try {
             h2Client.connect();
 
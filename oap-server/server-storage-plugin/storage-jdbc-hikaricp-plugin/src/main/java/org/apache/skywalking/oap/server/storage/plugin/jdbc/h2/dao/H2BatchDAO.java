@@ -18,14 +18,26 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import com.google.common.base.Strings;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLNonTransientException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
@@ -38,14 +50,37 @@ import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.BatchSQLExecutor;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 @Slf4j
 public class H2BatchDAO implements IBatchDAO {
+    private static final Pattern TABLE_NAME = Pattern.compile(
+        "^\\s*(?:INSERT\\s+INTO|UPDATE)\\s+([^\\s(]+)", Pattern.CASE_INSENSITIVE);
+
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
     private final int maxBatchSqlSize;
+    /**
+     * Execute the chunks of statements in parallel transactions, null if the flush is sequential.
+     */
+    private final ExecutorService flushExecutor;
+    private final Map<String, TableFlushMetrics> tableMetrics = new ConcurrentHashMap<>();
+    private volatile MetricsCreator metricsCreator;
 
     public H2BatchDAO(JDBCHikariCPClient h2Client, int maxBatchSqlSize, int asyncBatchPersistentPoolSize) {
+        this(h2Client, maxBatchSqlSize, asyncBatchPersistentPoolSize, 0);
+    }
+
+    /**
+     * @param parallelBatchFlushPoolSize the number of connections to execute the statements in parallel, each chunk
+     *                                   of statements is executed in an explicit transaction. 0 means executing them
+     *                                   one group after another in a single connection in autocommit mode.
+     */
+    public H2BatchDAO(JDBCHikariCPClient h2Client, int maxBatchSqlSize, int asyncBatchPersistentPoolSize,
+                      int parallelBatchFlushPoolSize) {
         this.h2Client = h2Client;
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         if (log.isDebugEnabled()) {
@@ -54,6 +89,23 @@ public class H2BatchDAO implements IBatchDAO {
         this.maxBatchSqlSize = maxBatchSqlSize;
         this.dataCarrier = new DataCarrier<>(name, asyncBatchPersistentPoolSize, 10000);
         this.dataCarrier.consume(new H2BatchDAO.H2BatchConsumer(this), asyncBatchPersistentPoolSize, 20);
+        if (parallelBatchFlushPoolSize > 0) {
+            final AtomicInteger threadSeq = new AtomicInteger(0);
+            this.flushExecutor = Executors.newFixedThreadPool(parallelBatchFlushPoolSize, r -> {
+                final Thread thread = new Thread(r, "JDBC-BATCH-FLUSH-" + threadSeq.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.flushExecutor = null;
+        }
+    }
+
+    /**
+     * Report the rows and latency of the flushed statements per table.
+     */
+    public void registerMetricsCreator(MetricsCreator metricsCreator) {
+        this.metricsCreator = metricsCreator;
     }
 
     @Override
@@ -77,31 +129,145 @@ public class H2BatchDAO implements IBatchDAO {
 
         final Map<PrepareRequest, List<PrepareRequest>> batchRequestMap =
             sqls.stream().collect(Collectors.groupingBy(Function.identity()));
-        try (Connection connection = h2Client.getConnection()) {
-            batchRequestMap.forEach((key, requests) -> {
-                try {
-                    BatchSQLExecutor batchSQLExecutor =
-                            new BatchSQLExecutor(requests);
-                    batchSQLExecutor.invoke(connection, maxBatchSqlSize);
-                } catch (SQLException e) {
-                    // Just avoid one execution failure makes the rest of batch failure.
-                    log.error(e.getMessage(), e);
+        Exception failure = null;
+        if (flushExecutor != null) {
+            failure = flushInParallel(batchRequestMap);
+        } else {
+            try (Connection connection = h2Client.getConnection()) {
+                for (final Map.Entry<PrepareRequest, List<PrepareRequest>> entry : batchRequestMap.entrySet()) {
+                    try {
+                        BatchSQLExecutor batchSQLExecutor =
+                                new BatchSQLExecutor(entry.getValue());
+                        final long start = System.currentTimeMillis();
+                        batchSQLExecutor.invoke(connection, maxBatchSqlSize);
+                        report(entry.getKey(), entry.getValue().size(), start);
+                    } catch (SQLException e) {
+                        // Just avoid one execution failure makes the rest of batch failure.
+                        log.error(e.getMessage(), e);
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
                 }
-            });
-        } catch (SQLException | JDBCClientException e) {
-            log.warn("execute sql failed, discard data size: {}", prepareRequests.size(), e);
+            } catch (SQLException | JDBCClientException e) {
+                log.warn("execute sql failed, discard data size: {}", prepareRequests.size(), e);
+                failure = e;
+            }
         }
         if (log.isDebugEnabled()) {
             log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
         }
+        if (failure != null) {
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(failure);
+            return future;
+        }
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * The failures of the connection, the transient ones, and the transaction rollbacks such as deadlocks are worth
+     * another try, while the rejected statements, such as the constraint violations, would fail again.
+     */
+    @Override
+    public boolean isRetryable(Throwable failure) {
+        if (!(failure instanceof SQLException)) {
+            return true;
+        }
+        if (failure instanceof SQLTransientException || failure instanceof SQLRecoverableException
+            || failure instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        // The SQL states of the connection exceptions, transaction rollbacks, data exceptions, integrity constraint
+        // violations and syntax errors are shared by the JDBC drivers.
+        final String sqlState = Strings.nullToEmpty(((SQLException) failure).getSQLState());
+        if (sqlState.startsWith("08") || sqlState.startsWith("40")) {
+            return true;
+        }
+        if (sqlState.startsWith("22") || sqlState.startsWith("23") || sqlState.startsWith("42")) {
+            return false;
+        }
+        return !(failure instanceof SQLNonTransientException);
+    }
+
+    /**
+     * Split the groups into chunks of {@link #maxBatchSqlSize} statements, and execute every chunk in a transaction of
+     * its own connection. The flush returns after all chunks are done, to keep the back pressure of the callers.
+     *
+     * @return the failure of the first failed chunk, null if all chunks are committed.
+     */
+    private Exception flushInParallel(Map<PrepareRequest, List<PrepareRequest>> batchRequestMap) {
+        final List<CompletableFuture<Exception>> chunks = new ArrayList<>();
+        batchRequestMap.forEach((key, requests) -> {
+            for (int from = 0; from < requests.size(); from += maxBatchSqlSize) {
+                final List<PrepareRequest> chunk =
+                    requests.subList(from, Math.min(from + maxBatchSqlSize, requests.size()));
+                chunks.add(CompletableFuture.supplyAsync(() -> executeInTransaction(key, chunk), flushExecutor));
+            }
+        });
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        return chunks.stream().map(CompletableFuture::join).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    private Exception executeInTransaction(PrepareRequest key, List<PrepareRequest> chunk) {
+        try (Connection connection = h2Client.getConnection(false)) {
+            try {
+                final long start = System.currentTimeMillis();
+                new BatchSQLExecutor(chunk).invoke(connection, maxBatchSqlSize);
+                connection.commit();
+                report(key, chunk.size(), start);
+                return null;
+            } catch (SQLException e) {
+                connection.rollback();
+                log.error("execute sql failed, discard data size: {}", chunk.size(), e);
+                return e;
+            }
+        } catch (SQLException | JDBCClientException e) {
+            log.warn("execute sql failed, discard data size: {}", chunk.size(), e);
+            return e;
+        }
+    }
+
+    private void report(PrepareRequest key, int rows, long start) {
+        final MetricsCreator creator = metricsCreator;
+        if (creator == null) {
+            return;
+        }
+        final TableFlushMetrics metrics = tableMetrics.computeIfAbsent(
+            tableName(key.toString()), table -> new TableFlushMetrics(creator, table));
+        metrics.rows.inc(rows);
+        metrics.latency.observe((System.currentTimeMillis() - start) / 1000d);
+    }
+
+    /**
+     * @return the table of the INSERT/UPDATE statement built by {@link H2SQLExecutor}.
+     */
+    static String tableName(String sql) {
+        final Matcher matcher = TABLE_NAME.matcher(sql);
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+
     @Override
     public void insert(InsertRequest insertRequest) {
         this.dataCarrier.produce(insertRequest);
     }
 
+    private static class TableFlushMetrics {
+        private final CounterMetrics rows;
+        private final HistogramMetrics latency;
+
+        private TableFlushMetrics(MetricsCreator metricsCreator, String table) {
+            rows = metricsCreator.createCounter(
+                "jdbc_batch_flush_rows", "The number of rows flushed to the table",
+                new MetricsTag.Keys("table"), new MetricsTag.Values(table)
+            );
+            latency = metricsCreator.createHistogramMetric(
+                "jdbc_batch_flush_latency", "The latency of flushing a batch of rows to the table",
+                new MetricsTag.Keys("table"), new MetricsTag.Values(table)
+            );
+        }
+    }
+
     private class H2BatchConsumer implements IConsumer<PrepareRequest> {
 
         private final H2BatchDAO h2BatchDAO;
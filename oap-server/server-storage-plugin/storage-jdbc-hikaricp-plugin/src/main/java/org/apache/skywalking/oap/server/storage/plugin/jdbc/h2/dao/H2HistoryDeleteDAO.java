@@ -25,15 +25,26 @@ import org.apache.skywalking.oap.server.core.storage.IHistoryDeleteDAO;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 
 public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
     private final JDBCHikariCPClient client;
+    /**
+     * Drop the expired day partitions of the record tables, instead of deleting the rows, when it isn't null.
+     */
+    private final DayPartitionManager partitionManager;
 
     public H2HistoryDeleteDAO(JDBCHikariCPClient client) {
+        this(client, null);
+    }
+
+    public H2HistoryDeleteDAO(JDBCHikariCPClient client, DayPartitionManager partitionManager) {
         this.client = client;
+        this.partitionManager = partitionManager;
     }
 
     @Override
@@ -44,6 +55,9 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
             .append(timeBucketColumnName).append(">= ? ");
 
         try (Connection connection = client.getConnection()) {
+            if (partitionManager != null && model.isRecord() && dropExpiredPartitions(connection, model, ttl)) {
+                return;
+            }
             long deadline;
             long minTime;
             if (model.isRecord()) {
@@ -72,4 +86,16 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
             throw new IOException(e.getMessage(), e);
         }
     }
+
+    /**
+     * @return false if the table is not partitioned, the expired rows should be deleted then.
+     */
+    private boolean dropExpiredPartitions(Connection connection, Model model, int ttl) throws JDBCClientException {
+        final LocalDate today = LocalDate.now();
+        // The upcoming partitions are created by the partition manager too, this checks whether the table is partitioned.
+        if (!partitionManager.createUpcomingPartitions(client, connection, model.getName(), today)) {
+            return false;
+        }
+        return partitionManager.dropExpiredPartitions(client, connection, model.getName(), today.minusDays(ttl));
+    }
 }
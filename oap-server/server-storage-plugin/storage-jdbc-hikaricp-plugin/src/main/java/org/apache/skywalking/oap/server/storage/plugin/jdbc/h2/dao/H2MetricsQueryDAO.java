@@ -18,19 +18,24 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import com.google.common.collect.Iterables;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.query.PointOfTime;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.MetricsValuesCondition;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
 import org.apache.skywalking.oap.server.core.query.type.IntValues;
@@ -41,6 +46,10 @@ import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 
 public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO {
+    /**
+     * The max number of IDs in the IN list of one query of {@link #readMetricsValues(List)}.
+     */
+    private static final int MAX_IDS_PER_QUERY = 1000;
 
     private JDBCHikariCPClient h2Client;
 
@@ -189,6 +198,86 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
         return Util.composeLabelValue(condition, labels, ids, idMap);
     }
 
+    /**
+     * Read the rows of the same table by one IN list query, rather than one query per metrics, and all the queries
+     * share one connection.
+     */
+    @Override
+    public List<List<MetricsValues>> readMetricsValues(final List<MetricsValuesCondition> conditions) throws IOException {
+        final List<List<String>> idsOfConditions = new ArrayList<>(conditions.size());
+        final Map<String, Set<String>> idsOfTables = new HashMap<>();
+        for (final MetricsValuesCondition condition : conditions) {
+            final List<PointOfTime> pointOfTimes = condition.getDuration().assembleDurationPoints();
+            final List<String> ids = new ArrayList<>(pointOfTimes.size());
+            pointOfTimes.forEach(pointOfTime -> {
+                ids.add(pointOfTime.id(condition.getCondition().getEntity().buildId()));
+            });
+            idsOfConditions.add(ids);
+            idsOfTables.computeIfAbsent(condition.getCondition().getName(), tableName -> new LinkedHashSet<>())
+                       .addAll(ids);
+        }
+
+        final Map<String, Map<String, Object>> valuesOfTables = new HashMap<>();
+        try (Connection connection = h2Client.getConnection()) {
+            for (final Map.Entry<String, Set<String>> entry : idsOfTables.entrySet()) {
+                final String valueColumnName = ValueColumnMetadata.INSTANCE.getValueCName(entry.getKey());
+                final Map<String, Object> values = new HashMap<>();
+                for (final List<String> partition : Iterables.partition(entry.getValue(), MAX_IDS_PER_QUERY)) {
+                    StringBuilder sql = new StringBuilder(
+                        "select id, " + valueColumnName + " from " + entry.getKey() + " where id in (");
+                    for (int i = 0; i < partition.size(); i++) {
+                        sql.append(i == 0 ? "?" : ",?");
+                    }
+                    sql.append(")");
+                    try (ResultSet resultSet = h2Client.executeQuery(
+                        connection, sql.toString(), partition.toArray(new Object[0]))) {
+                        while (resultSet.next()) {
+                            values.put(resultSet.getString("id"), resultSet.getObject(valueColumnName));
+                        }
+                    }
+                }
+                valuesOfTables.put(entry.getKey(), values);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+
+        final List<List<MetricsValues>> result = new ArrayList<>(conditions.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            final MetricsCondition condition = conditions.get(i).getCondition();
+            final List<String> ids = idsOfConditions.get(i);
+            final Map<String, Object> values = valuesOfTables.get(condition.getName());
+            if (conditions.get(i).getLabels() == null) {
+                MetricsValues metricsValues = new MetricsValues();
+                final IntValues intValues = metricsValues.getValues();
+                for (final String id : ids) {
+                    if (values.containsKey(id)) {
+                        final Object value = values.get(id);
+                        KVInt kv = new KVInt();
+                        kv.setId(id);
+                        kv.setValue(value == null ? 0 : ((Number) value).longValue());
+                        intValues.addKVInt(kv);
+                    }
+                }
+                metricsValues.setValues(
+                    Util.sortValues(intValues, ids, ValueColumnMetadata.INSTANCE.getDefaultValue(condition.getName()))
+                );
+                result.add(Collections.singletonList(metricsValues));
+            } else {
+                Map<String, DataTable> idMap = new HashMap<>();
+                for (final String id : ids) {
+                    if (values.containsKey(id)) {
+                        DataTable multipleValues = new DataTable(5);
+                        multipleValues.toObject((String) values.get(id));
+                        idMap.put(id, multipleValues);
+                    }
+                }
+                result.add(Util.composeLabelValue(condition, conditions.get(i).getLabels(), ids, idMap));
+            }
+        }
+        return result;
+    }
+
     @Override
     public HeatMap readHeatMap(final MetricsCondition condition,
                                final String valueColumnName,
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.Layer;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
@@ -37,8 +38,10 @@ import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
+import org.joda.time.LocalDate;
 
 /**
  * H2 table initialization. Create tables without Indexes. H2 is for the demonstration only, so, keep the logic as
@@ -48,11 +51,33 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
 public class H2TableInstaller extends ModelInstaller {
     public static final String ID_COLUMN = "id";
 
+    /**
+     * Partition the record tables by day when it isn't null.
+     */
+    private final DayPartitionManager partitionManager;
+
     public H2TableInstaller(Client client, ModuleManager moduleManager) {
+        this(client, moduleManager, null);
+    }
+
+    public H2TableInstaller(Client client, ModuleManager moduleManager, DayPartitionManager partitionManager) {
         super(client, moduleManager);
+        this.partitionManager = partitionManager;
         overrideColumnName("value", "value_");
     }
 
+    @Override
+    public void whenCreating(Model model) throws StorageException {
+        super.whenCreating(model);
+        if (partitionManager != null && model.isRecord()) {
+            try {
+                partitionManager.register((JDBCHikariCPClient) client, model.getName());
+            } catch (JDBCClientException e) {
+                throw new StorageException(e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     protected boolean isExists(Model model) throws StorageException {
         TableMetaInfo.addModel(model);
@@ -65,8 +90,13 @@ public class H2TableInstaller extends ModelInstaller {
         try (Connection connection = jdbcHikariCPClient.getConnection()) {
             //Consider there additional table columns need to remove from model columns.
             model = TableMetaInfo.get(model.getName());
-            createTable(jdbcHikariCPClient, connection, model.getName(), model.getColumns(), false);
+            final boolean partitioned = partitionManager != null && model.isRecord();
+            createTable(jdbcHikariCPClient, connection, model.getName(), model.getColumns(), false, partitioned);
             createTableIndexes(jdbcHikariCPClient, connection, model.getName(), model.getColumns(), false);
+            if (partitioned) {
+                partitionManager.initializePartitions(
+                    jdbcHikariCPClient, connection, model.getName(), LocalDate.now());
+            }
             createAdditionalTable(jdbcHikariCPClient, connection, model);
         } catch (JDBCClientException | SQLException e) {
             throw new StorageException(e.getMessage(), e);
@@ -123,17 +153,21 @@ public class H2TableInstaller extends ModelInstaller {
         Map<String, SQLDatabaseModelExtension.AdditionalTable> additionalTables = model.getSqlDBModelExtension()
                                                                                        .getAdditionalTables();
         for (SQLDatabaseModelExtension.AdditionalTable table : additionalTables.values()) {
-            createTable(client, connection, table.getName(), table.getColumns(), true);
+            createTable(client, connection, table.getName(), table.getColumns(), true, false);
             createTableIndexes(client, connection, table.getName(), table.getColumns(), true);
         }
     }
 
     private void createTable(JDBCHikariCPClient client,
                              Connection connection,
-                             String tableName, List<ModelColumn> columns, boolean additionalTable) throws JDBCClientException {
+                             String tableName, List<ModelColumn> columns, boolean additionalTable,
+                             boolean partitioned) throws JDBCClientException {
         SQLBuilder tableCreateSQL = new SQLBuilder("CREATE TABLE IF NOT EXISTS " + tableName + " (");
         tableCreateSQL.appendLine(ID_COLUMN).appendLine(" VARCHAR(512) ");
-        if (!additionalTable) {
+        if (partitioned) {
+            // The partition key must be a part of the primary key.
+            tableCreateSQL.appendLine(", ");
+        } else if (!additionalTable) {
             /**
              * 512 is also the ElasticSearch ID size.
              */
@@ -145,9 +179,14 @@ public class H2TableInstaller extends ModelInstaller {
         for (int i = 0; i < columns.size(); i++) {
             ModelColumn column = columns.get(i);
             tableCreateSQL.appendLine(
-                getColumn(column) + (i != columns.size() - 1 ? "," : ""));
+                getColumn(column) + (i != columns.size() - 1 || partitioned ? "," : ""));
+        }
+        if (partitioned) {
+            tableCreateSQL.appendLine("PRIMARY KEY (" + ID_COLUMN + ", " + Record.TIME_BUCKET + ")");
+            tableCreateSQL.appendLine(") " + partitionManager.partitionByClause());
+        } else {
+            tableCreateSQL.appendLine(")");
         }
-        tableCreateSQL.appendLine(")");
 
         if (log.isDebugEnabled()) {
             log.debug("creating table: " + tableCreateSQL.toStringInNewLine());
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
+
+/**
+ * MySQL range partitions. The table is created with a catch-all partition only, and the partition of a new day is split
+ * from the catch-all one, which is empty unless there are records of the future days.
+ */
+public class MySQLDayPartitionManager extends DayPartitionManager {
+    private static final String CATCH_ALL_PARTITION = "p_max";
+
+    @Override
+    public String partitionByClause() {
+        return "PARTITION BY RANGE (" + Record.TIME_BUCKET + ") (PARTITION " + CATCH_ALL_PARTITION
+            + " VALUES LESS THAN MAXVALUE)";
+    }
+
+    @Override
+    protected List<String> listPartitions(final JDBCHikariCPClient client,
+                                          final Connection connection,
+                                          final String tableName) throws JDBCClientException {
+        final List<String> partitions = new ArrayList<>();
+        try (ResultSet resultSet = client.executeQuery(
+            connection,
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+            tableName
+        )) {
+            while (resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+        return partitions;
+    }
+
+    @Override
+    protected void addPartition(final JDBCHikariCPClient client,
+                                final Connection connection,
+                                final String tableName,
+                                final String partitionName,
+                                final long lowerBound,
+                                final long upperBound) throws JDBCClientException {
+        client.execute(
+            connection,
+            "ALTER TABLE " + tableName + " REORGANIZE PARTITION " + CATCH_ALL_PARTITION + " INTO ("
+                + "PARTITION " + partitionName + " VALUES LESS THAN (" + upperBound + "), "
+                + "PARTITION " + CATCH_ALL_PARTITION + " VALUES LESS THAN MAXVALUE)"
+        );
+    }
+
+    @Override
+    protected void dropPartition(final JDBCHikariCPClient client,
+                                 final Connection connection,
+                                 final String tableName,
+                                 final String partitionName) throws JDBCClientException {
+        client.execute(connection, "ALTER TABLE " + tableName + " DROP PARTITION " + partitionName);
+    }
+}
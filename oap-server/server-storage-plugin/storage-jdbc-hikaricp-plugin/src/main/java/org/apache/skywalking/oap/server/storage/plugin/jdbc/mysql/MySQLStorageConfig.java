@@ -39,5 +39,20 @@ public class MySQLStorageConfig extends ModuleConfig {
      * @since 8.8.0
      */
     private int asyncBatchPersistentPoolSize  = 4;
+    /**
+     * The number of connections to flush the batch statements in parallel, every chunk of statements is executed in a
+     * transaction. 0 means the statements are executed one group after another in a single connection.
+     *
+     * @since 9.2.0
+     */
+    private int parallelBatchFlushPoolSize = 0;
+    /**
+     * Partition the record tables by day, the expired records are removed by dropping the partitions of the expired
+     * days. It takes effect on the tables created after it is activated, the existing tables keep deleting the expired
+     * rows.
+     *
+     * @since 9.2.0
+     */
+    private boolean enableRecordDayPartition = false;
     private Properties properties;
 }
@@ -35,6 +35,7 @@ import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2TableInstaller;
@@ -45,7 +46,11 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2TableInstal
 @Slf4j
 public class MySQLTableInstaller extends H2TableInstaller {
     public MySQLTableInstaller(Client client, ModuleManager moduleManager) {
-        super(client, moduleManager);
+        this(client, moduleManager, null);
+    }
+
+    public MySQLTableInstaller(Client client, ModuleManager moduleManager, DayPartitionManager partitionManager) {
+        super(client, moduleManager, partitionManager);
         /*
          * Override column because the default column names in core have syntax conflict with MySQL.
          */
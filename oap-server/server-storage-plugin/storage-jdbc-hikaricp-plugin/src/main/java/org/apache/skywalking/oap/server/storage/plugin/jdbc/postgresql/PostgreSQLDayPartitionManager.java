@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
+
+/**
+ * PostgreSQL declarative partitions, every partition is a table named {@code <table>_p<yyyyMMdd>}. The default
+ * partition takes the records out of the ranges of the day partitions, such as the records written before the
+ * partition of the day is created, those records are moved into the partition when it is created. PostgreSQL 11 or
+ * later is required.
+ */
+public class PostgreSQLDayPartitionManager extends DayPartitionManager {
+    @Override
+    public String partitionByClause() {
+        return "PARTITION BY RANGE (" + Record.TIME_BUCKET + ")";
+    }
+
+    @Override
+    protected List<String> listPartitions(final JDBCHikariCPClient client,
+                                          final Connection connection,
+                                          final String tableName) throws JDBCClientException {
+        final List<String> partitions = new ArrayList<>();
+        try (ResultSet resultSet = client.executeQuery(
+            connection,
+            "SELECT c.relname FROM pg_inherits i"
+                + " JOIN pg_class c ON c.oid = i.inhrelid"
+                + " JOIN pg_class p ON p.oid = i.inhparent"
+                + " WHERE p.relname = ?",
+            tableName
+        )) {
+            while (resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+        return partitions;
+    }
+
+    @Override
+    protected void createDefaultPartition(final JDBCHikariCPClient client,
+                                          final Connection connection,
+                                          final String tableName) throws JDBCClientException {
+        client.execute(
+            connection,
+            "CREATE TABLE IF NOT EXISTS " + tableName + "_default PARTITION OF " + tableName + " DEFAULT"
+        );
+    }
+
+    @Override
+    protected void addPartition(final JDBCHikariCPClient client,
+                                final Connection connection,
+                                final String tableName,
+                                final String partitionName,
+                                final long lowerBound,
+                                final long upperBound) throws JDBCClientException {
+        final String range = Record.TIME_BUCKET + " >= " + lowerBound + " AND " + Record.TIME_BUCKET + " < " + upperBound;
+        final String defaultPartition = tableName + "_default";
+        if (!hasRecords(client, connection, defaultPartition, range)) {
+            client.execute(
+                connection,
+                "CREATE TABLE IF NOT EXISTS " + partitionName + " PARTITION OF " + tableName
+                    + " FOR VALUES FROM (" + lowerBound + ") TO (" + upperBound + ")"
+            );
+            return;
+        }
+        // The default partition holds records in the range, which fails creating the partition, move them out
+        // into the new table before attaching it as the partition.
+        try {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                client.execute(
+                    connection,
+                    "CREATE TABLE " + partitionName + " (LIKE " + tableName
+                        + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)"
+                );
+                client.execute(
+                    connection,
+                    "INSERT INTO " + partitionName + " SELECT * FROM " + defaultPartition + " WHERE " + range
+                );
+                client.execute(connection, "DELETE FROM " + defaultPartition + " WHERE " + range);
+                client.execute(
+                    connection,
+                    "ALTER TABLE " + tableName + " ATTACH PARTITION " + partitionName
+                        + " FOR VALUES FROM (" + lowerBound + ") TO (" + upperBound + ")"
+                );
+                connection.commit();
+            } catch (JDBCClientException | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+    }
+
+    private boolean hasRecords(final JDBCHikariCPClient client,
+                               final Connection connection,
+                               final String tableName,
+                               final String condition) throws JDBCClientException {
+        try (ResultSet resultSet = client.executeQuery(
+            connection, "SELECT 1 FROM " + tableName + " WHERE " + condition + " LIMIT 1")) {
+            return resultSet.next();
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void dropPartition(final JDBCHikariCPClient client,
+                                 final Connection connection,
+                                 final String tableName,
+                                 final String partitionName) throws JDBCClientException {
+        client.execute(connection, "DROP TABLE IF EXISTS " + partitionName);
+    }
+
+    @Override
+    protected String partitionName(final String tableName, final long dayBucket) {
+        return tableName + "_p" + dayBucket;
+    }
+}
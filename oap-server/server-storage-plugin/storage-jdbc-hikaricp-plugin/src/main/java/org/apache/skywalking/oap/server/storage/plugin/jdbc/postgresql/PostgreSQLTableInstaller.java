@@ -24,6 +24,7 @@ import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.DayPartitionManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLTableInstaller;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -32,7 +33,12 @@ import java.util.List;
 public class PostgreSQLTableInstaller extends MySQLTableInstaller {
 
     public PostgreSQLTableInstaller(Client client, ModuleManager moduleManager) {
-        super(client, moduleManager);
+        this(client, moduleManager, null);
+    }
+
+    public PostgreSQLTableInstaller(Client client, ModuleManager moduleManager,
+                                    DayPartitionManager partitionManager) {
+        super(client, moduleManager, partitionManager);
     }
 
     @Override
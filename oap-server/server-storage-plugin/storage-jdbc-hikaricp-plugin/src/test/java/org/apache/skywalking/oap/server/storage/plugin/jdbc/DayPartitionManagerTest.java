@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.joda.time.LocalDate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DayPartitionManagerTest {
+    @Test
+    public void testDayPartitions() {
+        TreeMap<Long, String> days = DayPartitionManager.dayPartitions(
+            Arrays.asList("p_max", "p20220810", "segment_p20220809", "segment_default"));
+        Assert.assertEquals(2, days.size());
+        Assert.assertEquals("segment_p20220809", days.get(20220809L));
+        Assert.assertEquals("p20220810", days.get(20220810L));
+        Assert.assertEquals(20220809000000L, DayPartitionManager.lowerBound(new LocalDate(2022, 8, 9)));
+    }
+
+    @Test
+    public void testCreateAndDropPartitions() throws Exception {
+        InMemoryPartitionManager manager = new InMemoryPartitionManager();
+        Assert.assertFalse(manager.createUpcomingPartitions(null, null, "segment", new LocalDate(2022, 8, 9)));
+
+        manager.initializePartitions(null, null, "segment", new LocalDate(2022, 8, 9));
+        Assert.assertEquals(
+            Arrays.asList("p_max", "p20220809", "p20220810", "p20220811"), manager.partitions);
+        Assert.assertEquals(Arrays.asList(20220810000000L, 20220811000000L, 20220812000000L), manager.upperBounds);
+
+        manager.createUpcomingPartitions(null, null, "segment", new LocalDate(2022, 8, 11));
+        Assert.assertEquals(
+            Arrays.asList("p_max", "p20220809", "p20220810", "p20220811", "p20220812", "p20220813"),
+            manager.partitions
+        );
+
+        // The records of 2022-08-10 are not all expired, keep its partition.
+        Assert.assertTrue(manager.dropExpiredPartitions(null, null, "segment", new LocalDate(2022, 8, 10)));
+        Assert.assertEquals(
+            Arrays.asList("p_max", "p20220810", "p20220811", "p20220812", "p20220813"), manager.partitions);
+    }
+
+    @Test
+    public void testRegisteredTablesKeepPartitionsUpcoming() throws Exception {
+        InMemoryPartitionManager manager = new InMemoryPartitionManager();
+        LocalDate today = LocalDate.now();
+        manager.initializePartitions(null, null, "segment", today.minusDays(10));
+
+        // The partitions are created on installation, no matter the TTL timer runs or not.
+        manager.register(null, "segment");
+        Assert.assertTrue(manager.partitions.contains(partition(today.plusDays(DayPartitionManager.DAYS_IN_ADVANCE))));
+
+        manager.createUpcomingPartitions(null, today.plusDays(5));
+        Assert.assertTrue(manager.partitions.contains(partition(today.plusDays(5 + DayPartitionManager.DAYS_IN_ADVANCE))));
+    }
+
+    private static String partition(LocalDate day) {
+        return "p" + day.toString("yyyyMMdd");
+    }
+
+    private static class InMemoryPartitionManager extends DayPartitionManager {
+        private final List<String> partitions = new ArrayList<>();
+        private final List<Long> upperBounds = new ArrayList<>();
+
+        @Override
+        public String partitionByClause() {
+            return "";
+        }
+
+        @Override
+        protected Connection connection(final JDBCHikariCPClient client) {
+            return null;
+        }
+
+        @Override
+        protected List<String> listPartitions(final JDBCHikariCPClient client,
+                                              final Connection connection,
+                                              final String tableName) {
+            return new ArrayList<>(partitions);
+        }
+
+        @Override
+        protected void createDefaultPartition(final JDBCHikariCPClient client,
+                                              final Connection connection,
+                                              final String tableName) {
+            partitions.add("p_max");
+        }
+
+        @Override
+        protected void addPartition(final JDBCHikariCPClient client,
+                                    final Connection connection,
+                                    final String tableName,
+                                    final String partitionName,
+                                    final long lowerBound,
+                                    final long upperBound) {
+            partitions.add(partitionName);
+            upperBounds.add(upperBound);
+        }
+
+        @Override
+        protected void dropPartition(final JDBCHikariCPClient client,
+                                     final Connection connection,
+                                     final String tableName,
+                                     final String partitionName) {
+            partitions.remove(partitionName);
+        }
+    }
+}
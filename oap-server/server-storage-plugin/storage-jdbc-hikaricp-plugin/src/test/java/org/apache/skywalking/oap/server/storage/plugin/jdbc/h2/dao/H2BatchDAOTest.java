@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class H2BatchDAOTest {
+    @Test
+    public void testTableName() {
+        Assert.assertEquals("service_traffic", H2BatchDAO.tableName("INSERT INTO service_traffic VALUES(?,?)"));
+        Assert.assertEquals("segment_tag", H2BatchDAO.tableName("insert into segment_tag(id, tag) values(?,?)"));
+        Assert.assertEquals("service_cpm", H2BatchDAO.tableName("UPDATE service_cpm SET total=? WHERE id = ?"));
+        Assert.assertEquals("unknown", H2BatchDAO.tableName("DELETE FROM service_cpm"));
+    }
+
+    @Test
+    public void testParallelFlush() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:h2-batch-dao-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "");
+        settings.setProperty("dataSource.password", "");
+        JDBCHikariCPClient client = new JDBCHikariCPClient(settings);
+        client.connect();
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "CREATE TABLE test_a (id VARCHAR(64) PRIMARY KEY, v INT)");
+            client.execute(connection, "CREATE TABLE test_b (id VARCHAR(64) PRIMARY KEY, v INT)");
+        }
+
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 1, 3);
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            requests.add(new SQLExecutor("INSERT INTO test_a VALUES(?,?)", Arrays.asList("a" + i, i)));
+            requests.add(new SQLExecutor("INSERT INTO test_b VALUES(?,?)", Arrays.asList("b" + i, i)));
+        }
+        batchDAO.flush(requests).join();
+
+        try (Connection connection = client.getConnection()) {
+            for (String table : Arrays.asList("test_a", "test_b")) {
+                try (ResultSet resultSet = client.executeQuery(connection, "SELECT COUNT(*) FROM " + table)) {
+                    Assert.assertTrue(resultSet.next());
+                    Assert.assertEquals(250, resultSet.getInt(1));
+                }
+            }
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void testFailedFlush() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:h2-batch-dao-failure-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "");
+        settings.setProperty("dataSource.password", "");
+        JDBCHikariCPClient client = new JDBCHikariCPClient(settings);
+        client.connect();
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "CREATE TABLE test_c (id VARCHAR(64) PRIMARY KEY, v INT)");
+        }
+
+        for (int parallel : new int[] {0, 2}) {
+            H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 1, parallel);
+            List<PrepareRequest> requests = new ArrayList<>();
+            requests.add(new SQLExecutor("INSERT INTO test_c VALUES(?,?)", Arrays.asList("c" + parallel, 1)));
+            requests.add(new SQLExecutor("INSERT INTO test_c VALUES(?,?)", Arrays.asList("c" + parallel, 2)));
+            requests.add(new SQLExecutor("INSERT INTO test_missing VALUES(?,?)", Arrays.asList("d", 1)));
+            CompletableFuture<Void> future = batchDAO.flush(requests);
+
+            Assert.assertTrue(future.isCompletedExceptionally());
+            Throwable failure = future.handle((ignored, t) -> t).join();
+            Assert.assertTrue(failure instanceof SQLException);
+            // Rejected by the database, flushing them again won't help.
+            Assert.assertFalse(batchDAO.isRetryable(failure));
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void testRetryable() {
+        H2BatchDAO batchDAO = new H2BatchDAO(null, 100, 1);
+        Assert.assertTrue(batchDAO.isRetryable(new SQLTransientConnectionException("timeout")));
+        Assert.assertTrue(batchDAO.isRetryable(new SQLException("connection reset", "08006")));
+        Assert.assertTrue(batchDAO.isRetryable(new SQLException("deadlock", "40P01")));
+        Assert.assertTrue(batchDAO.isRetryable(new JDBCClientException("no connection")));
+        Assert.assertFalse(batchDAO.isRetryable(new SQLIntegrityConstraintViolationException("duplicated")));
+        Assert.assertFalse(batchDAO.isRetryable(new SQLException("value too long", "22001")));
+    }
+}
@@ -80,6 +80,8 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLLogQueryD
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLTableInstaller;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLTraceQueryDAO;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MysqlBrowserLogQueryDAO;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * TiDB storage enhanced and came from MySQLStorageProvider to support TiDB.
@@ -91,6 +93,7 @@ public class TiDBStorageProvider extends ModuleProvider {
 
     private TiDBStorageConfig config;
     private JDBCHikariCPClient mysqlClient;
+    private H2BatchDAO batchDAO;
 
     public TiDBStorageProvider() {
         config = new TiDBStorageConfig();
@@ -117,7 +120,11 @@ public class TiDBStorageProvider extends ModuleProvider {
         
         mysqlClient = new JDBCHikariCPClient(config.getProperties());
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(mysqlClient, config.getMaxSizeOfBatchSql(), config.getAsyncBatchPersistentPoolSize()));
+        batchDAO = new H2BatchDAO(
+            mysqlClient, config.getMaxSizeOfBatchSql(), config.getAsyncBatchPersistentPoolSize(),
+            config.getParallelBatchFlushPoolSize()
+        );
+        this.registerServiceImplementation(IBatchDAO.class, batchDAO);
         this.registerServiceImplementation(
             StorageDAO.class,
             new H2StorageDAO(mysqlClient));
@@ -166,6 +173,10 @@ public class TiDBStorageProvider extends ModuleProvider {
                                                         .provider()
                                                         .getService(ConfigService.class);
 
+        MetricsCreator metricCreator = getManager().find(TelemetryModule.NAME)
+                                                   .provider()
+                                                   .getService(MetricsCreator.class);
+        batchDAO.registerMetricsCreator(metricCreator);
         try {
             mysqlClient.connect();
 